@@ -0,0 +1,102 @@
+package com.example.demo.bench;
+
+import com.example.demo.util.HtmlAnchorScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 锚点提取：原正则实现 vs {@link HtmlAnchorScanner}。
+ * <p>
+ * 页面取自 classpath 的 pages/ 目录（src/jmh/resources/pages）：自带的三个页面是按搜索结果页、
+ * 脚本密集的门户搜索页与公司招聘页结构生成的样本；把抓取保存的真实页面放入该目录，
+ * 用 -Djmh.args="HtmlAnchorScanner -p page=xxx.html" 即可对其测量。
+ * 两种实现都提取全部锚点（不设 limit），scannerStream 另含 UTF-8 解码，与线上读取响应流的路径一致。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HtmlAnchorScannerBenchmark {
+
+    /** user-006 之前 GenericTemplateCrawler 使用的正则 */
+    private static final Pattern ANCHOR = Pattern.compile("<a\\s+[^>]*href=\\\"([^\\\"]+)\\\"[^>]*>(.*?)</a>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final URI BASE = URI.create("https://www.example.com/search?q=x");
+
+    @Param({"search-results.html", "portal-search.html", "career-site.html"})
+    public String page;
+
+    private byte[] bytes;
+    private String html;
+
+    @Setup
+    public void load() {
+        try (InputStream in = HtmlAnchorScannerBenchmark.class.getResourceAsStream("/pages/" + page)) {
+            if (in == null) throw new IllegalArgumentException("page not found: " + page);
+            bytes = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        html = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int regex(Blackhole bh) {
+        Matcher m = ANCHOR.matcher(html);
+        int n = 0;
+        while (m.find()) {
+            String href = m.group(1);
+            String text = m.group(2).replaceAll("<.*?>", "").trim();
+            bh.consume(href);
+            bh.consume(text);
+            n++;
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int scanner(Blackhole bh) {
+        int[] n = {0};
+        HtmlAnchorScanner.scan(html, BASE, (href, text) -> {
+            bh.consume(href);
+            bh.consume(text);
+            n[0]++;
+            return true;
+        });
+        return n[0];
+    }
+
+    @Benchmark
+    public int scannerStream(Blackhole bh) throws IOException {
+        int[] n = {0};
+        HtmlAnchorScanner.scan(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8), BASE, (href, text) -> {
+            bh.consume(href);
+            bh.consume(text);
+            n[0]++;
+            return true;
+        });
+        return n[0];
+    }
+}
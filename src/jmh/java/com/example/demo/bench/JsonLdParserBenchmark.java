@@ -0,0 +1,105 @@
+package com.example.demo.bench;
+
+import com.example.demo.service.JsonLdParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JSON-LD 投递链接抽取：原 DOTALL 正则 + readTree 实现 vs 流式 {@link JsonLdParser}。
+ * <p>
+ * career-jsonld.html 为生成的招聘列表页样本（大段内联脚本/样式 + 含 60 个 JobPosting 的 @graph）；
+ * 其余页面不含 JSON-LD，衡量的是纯扫描开销。
+ * 原正则的 (.*?) 在约 67K 字符的 @graph 块上逐字符回溯，默认线程栈下抛出 StackOverflowError，
+ * 因此 regexReadTree 在 career-jsonld.html 上没有结果——这正是改为流式扫描的原因之一。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonLdParserBenchmark {
+
+    /** user-011 之前 JsonLdParser 使用的正则 */
+    private static final Pattern JSON_LD_PATTERN = Pattern.compile("<script[^>]*type=\\\"application/ld\\+json\\\"[^>]*>(.*?)</script>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    @Param({"career-jsonld.html", "search-results.html"})
+    public String page;
+
+    private String html;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonLdParser parser = new JsonLdParser();
+
+    @Setup
+    public void load() {
+        try (InputStream in = JsonLdParserBenchmark.class.getResourceAsStream("/pages/" + page)) {
+            if (in == null) throw new IllegalArgumentException("page not found: " + page);
+            html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ReflectionTestUtils.setField(parser, "maxBlockChars", 262144);
+    }
+
+    @Benchmark
+    public List<String> regexReadTree() {
+        List<String> urls = new ArrayList<>();
+        Matcher m = JSON_LD_PATTERN.matcher(html);
+        while (m.find()) {
+            try {
+                collectUrls(mapper.readTree(m.group(1)), urls);
+            } catch (Exception ignore) {
+            }
+        }
+        return urls;
+    }
+
+    @Benchmark
+    public List<String> streaming() {
+        return parser.extractApplyUrls(html);
+    }
+
+    private void collectUrls(JsonNode node, List<String> urls) {
+        if (node == null) return;
+        if (node.isArray()) {
+            for (JsonNode n : node) collectUrls(n, urls);
+            return;
+        }
+        String type = node.path("@type").asText("");
+        if ("JobPosting".equalsIgnoreCase(type)) {
+            addIfPresent(urls, node.path("url").asText(""));
+            addIfPresent(urls, node.path("applicationUrl").asText(""));
+        } else if ("Organization".equalsIgnoreCase(type)) {
+            addIfPresent(urls, node.path("url").asText(""));
+        }
+        collectUrls(node.path("@graph"), urls);
+    }
+
+    private static void addIfPresent(List<String> urls, String u) {
+        if (StringUtils.hasText(u)) urls.add(u);
+    }
+}
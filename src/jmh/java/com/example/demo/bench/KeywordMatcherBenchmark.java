@@ -0,0 +1,110 @@
+package com.example.demo.bench;
+
+import com.example.demo.util.HtmlAnchorScanner;
+import com.example.demo.util.KeywordMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个锚点的关键词判定：原 toLowerCase + contains 循环 vs {@link KeywordMatcher}。
+ * <p>
+ * 锚点（href 与文本）取自 pages/ 下全部样本页面，每次调用判定一个，依次轮换；
+ * keywords=8 为默认 jobs.crawler.keywords，keywords=200 追加 192 个职位/公司词，观察关键词数增长时的开销。
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeywordMatcherBenchmark {
+
+    private static final List<String> DEFAULT_KEYWORDS = List.of("招聘", "投递", "职位", "校招", "社招", "apply", "career", "join");
+    private static final String[] PAGES = {"search-results.html", "portal-search.html", "career-site.html"};
+
+    @Param({"8", "200"})
+    public int keywords;
+
+    private List<String> keywordList;
+    private KeywordMatcher matcher;
+    private String[] hrefs;
+    private String[] texts;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        List<String> kw = new ArrayList<>(DEFAULT_KEYWORDS);
+        String[] roles = {"engineer", "developer", "intern", "graduate", "后端", "前端", "算法", "测试", "运维", "产品", "设计", "运营"};
+        String[] prefixes = {"senior-", "junior-", "lead-", "高级", "资深", "初级", "实习", "北京", "上海", "深圳", "杭州", "广州", "成都", "武汉", "西安", "南京"};
+        outer:
+        for (String p : prefixes) {
+            for (String r : roles) {
+                if (kw.size() >= keywords) break outer;
+                kw.add(p + r);
+            }
+        }
+        keywordList = List.copyOf(kw);
+        matcher = KeywordMatcher.compile(keywordList);
+
+        List<String> h = new ArrayList<>();
+        List<String> t = new ArrayList<>();
+        URI base = URI.create("https://www.example.com/search?q=x");
+        for (String page : PAGES) {
+            HtmlAnchorScanner.scan(read(page), base, (href, text) -> {
+                h.add(href);
+                t.add(text);
+                return true;
+            });
+        }
+        hrefs = h.toArray(String[]::new);
+        texts = t.toArray(String[]::new);
+    }
+
+    private static String read(String page) {
+        try (InputStream in = KeywordMatcherBenchmark.class.getResourceAsStream("/pages/" + page)) {
+            if (in == null) throw new IllegalArgumentException("page not found: " + page);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int next() {
+        int n = i;
+        i = n + 1 == hrefs.length ? 0 : n + 1;
+        return n;
+    }
+
+    /** user-007 之前 GenericTemplateCrawler 的判定方式 */
+    @Benchmark
+    public boolean lowerCaseContains() {
+        int n = next();
+        String lower = (texts[n] + " " + hrefs[n]).toLowerCase();
+        return keywordList.stream().anyMatch(k -> lower.contains(k.toLowerCase()));
+    }
+
+    @Benchmark
+    public boolean ahoCorasick() {
+        int n = next();
+        return matcher.matchesAny(texts[n]) || matcher.matchesAny(hrefs[n]);
+    }
+}
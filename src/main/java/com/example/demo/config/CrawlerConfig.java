@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import com.example.demo.util.KeywordMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 爬虫公共组件配置（关键词匹配器）。
+ * <p>
+ * 关键词只在启动时编译一次，所有爬虫与候选入口筛选共享同一个匹配器。
+ * </p>
+ */
+@Configuration
+public class CrawlerConfig {
+
+    /**
+     * 投递链接关键词匹配器（jobs.crawler.keywords），用于 A 标签文本/URL 筛选。
+     */
+    @Bean
+    public KeywordMatcher jobKeywordMatcher(@Value("${jobs.crawler.keywords:招聘,投递,职位,校招,社招,apply,career,join}") String keywords) {
+        return KeywordMatcher.compile(split(keywords));
+    }
+
+    /**
+     * 官网招聘页 URL 匹配器：投递关键词 + 常见招聘路径片段（jobs.crawler.urlHints）。
+     */
+    @Bean
+    public KeywordMatcher careerUrlMatcher(@Value("${jobs.crawler.keywords:招聘,投递,职位,校招,社招,apply,career,join}") String keywords,
+                                           @Value("${jobs.crawler.urlHints:zhaopin,jobs,careers,join}") String urlHints) {
+        List<String> all = new ArrayList<>(split(keywords));
+        all.addAll(split(urlHints));
+        return KeywordMatcher.compile(all);
+    }
+
+    private static List<String> split(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
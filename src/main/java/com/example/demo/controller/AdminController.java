@@ -0,0 +1,238 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.AmapKeyPool;
+import com.example.demo.service.BulkRefreshService;
+import com.example.demo.service.CompanyAliasIndex;
+import com.example.demo.service.CompanyHotness;
+import com.example.demo.service.CrawlExecutor;
+import com.example.demo.service.CrawlWorkQueue;
+import com.example.demo.schedule.HealthCheckScheduler;
+import com.example.demo.service.CrawlFrontier;
+import com.example.demo.service.HttpResponseCache;
+import com.example.demo.service.JobLinkCache;
+import com.example.demo.service.JobLinkNegativeCache;
+import com.example.demo.service.MokaCatalog;
+import com.example.demo.service.NearbyTileCache;
+import com.example.demo.service.OsmLocalService;
+import com.example.demo.service.SourceGuard;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运维指标控制器。
+ * <p>
+ * 提供缓存等内部组件的运行指标，鉴权方式与审核接口一致（X-Admin-Token）。
+ * </p>
+ */
+@RestController
+public class AdminController {
+    private final JobLinkCache jobLinkCache;
+    private final HttpResponseCache httpResponseCache;
+    private final CrawlFrontier crawlFrontier;
+    private final CrawlExecutor crawlExecutor;
+    private final SourceGuard sourceGuard;
+    private final MokaCatalog mokaCatalog;
+    /** 未启用 db profile 时为 null（与 crawlWorkQueue 相同），对应接口返回 404 */
+    private final BulkRefreshService bulkRefreshService;
+    private final CrawlWorkQueue crawlWorkQueue;
+    private final CompanyHotness companyHotness;
+    private final JobLinkNegativeCache jobLinkNegativeCache;
+    private final CompanyAliasIndex companyAliasIndex;
+    private final NearbyTileCache nearbyTileCache;
+    private final OsmLocalService osmLocalService;
+    private final AmapKeyPool amapKeyPool;
+    @Value("${admin.token:}")
+    private String adminToken;
+
+    public AdminController(JobLinkCache jobLinkCache, HttpResponseCache httpResponseCache, CrawlFrontier crawlFrontier,
+                           CrawlExecutor crawlExecutor, SourceGuard sourceGuard, MokaCatalog mokaCatalog,
+                           ObjectProvider<BulkRefreshService> bulkRefreshService, ObjectProvider<CrawlWorkQueue> crawlWorkQueue,
+                           CompanyHotness companyHotness, JobLinkNegativeCache jobLinkNegativeCache,
+                           CompanyAliasIndex companyAliasIndex, NearbyTileCache nearbyTileCache,
+                           OsmLocalService osmLocalService,
+                           AmapKeyPool amapKeyPool) {
+        this.jobLinkCache = jobLinkCache;
+        this.httpResponseCache = httpResponseCache;
+        this.crawlFrontier = crawlFrontier;
+        this.crawlExecutor = crawlExecutor;
+        this.sourceGuard = sourceGuard;
+        this.mokaCatalog = mokaCatalog;
+        this.bulkRefreshService = bulkRefreshService.getIfAvailable();
+        this.crawlWorkQueue = crawlWorkQueue.getIfAvailable();
+        this.companyHotness = companyHotness;
+        this.jobLinkNegativeCache = jobLinkNegativeCache;
+        this.companyAliasIndex = companyAliasIndex;
+        this.nearbyTileCache = nearbyTileCache;
+        this.osmLocalService = osmLocalService;
+        this.amapKeyPool = amapKeyPool;
+    }
+
+    /**
+     * 投递链接缓存统计（命中、未命中、淘汰、刷新次数，以及负缓存条目与命中）。
+     */
+    @GetMapping("/api/admin/cache/job-links")
+    public ResponseEntity<Map<String, Object>> jobLinkCacheStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        Map<String, Object> m = new LinkedHashMap<>(jobLinkCache.stats());
+        m.put("negative", jobLinkNegativeCache.stats());
+        return ResponseEntity.ok(m);
+    }
+
+    /**
+     * 附近检索瓦片缓存统计（请求级命中率、瓦片命中率、回退与淘汰次数）。
+     */
+    @GetMapping("/api/admin/cache/nearby")
+    public ResponseEntity<Map<String, Object>> nearbyTileCacheStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(nearbyTileCache.stats());
+    }
+
+    /**
+     * 抓取响应缓存统计（本地命中、304 次数、下载流量、解析复用）。
+     */
+    @GetMapping("/api/admin/cache/http")
+    public ResponseEntity<Map<String, Object>> httpCacheStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(httpResponseCache.stats());
+    }
+
+    /**
+     * 抓取前沿指标（各主机排队深度、等待时间、拒绝与 robots 禁止次数）。
+     */
+    @GetMapping("/api/admin/crawl/frontier")
+    public ResponseEntity<Map<String, Object>> crawlFrontierStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(crawlFrontier.stats());
+    }
+
+    /**
+     * 抓取执行器指标（队列深度、活跃任务、背压等待与拒绝次数）。
+     */
+    @GetMapping("/api/admin/crawl/executor")
+    public ResponseEntity<Map<String, Object>> crawlExecutorStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(crawlExecutor.stats());
+    }
+
+    /**
+     * 数据源熔断指标（熔断状态、失败率、熔断/舱壁拒绝次数、兜底命中）。
+     */
+    @GetMapping("/api/admin/resilience")
+    public ResponseEntity<Map<String, Object>> resilienceStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(sourceGuard.stats());
+    }
+
+    /**
+     * Moka 本地职位目录指标（是否就绪、职位数、公司数、词元数）。
+     */
+    @GetMapping("/api/admin/moka/catalog")
+    public ResponseEntity<Map<String, Object>> mokaCatalogStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(mokaCatalog.stats());
+    }
+
+    /**
+     * 批量刷新进度（批次 ID、计划/已处理公司数、各结果计数、平均耗时）。
+     */
+    @GetMapping("/api/admin/refresh")
+    public ResponseEntity<Map<String, Object>> refreshStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        if (bulkRefreshService == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(bulkRefreshService.stats());
+    }
+
+    /**
+     * 多节点工作队列指标（各定时任务最近批次按节点、状态分组的工作项数）。
+     */
+    @GetMapping("/api/admin/work-queue")
+    public ResponseEntity<Map<String, Object>> workQueueStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        if (crawlWorkQueue == null) return ResponseEntity.notFound().build();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put(BulkRefreshService.SYNC_NAME, crawlWorkQueue.stats(BulkRefreshService.SYNC_NAME));
+        m.put(HealthCheckScheduler.WORK_KIND, crawlWorkQueue.stats(HealthCheckScheduler.WORK_KIND));
+        return ResponseEntity.ok(m);
+    }
+
+    /**
+     * 公司查询热度（sketch 规模与内存占用、当前 Top-K）。
+     */
+    @GetMapping("/api/admin/hotness")
+    public ResponseEntity<Map<String, Object>> hotnessStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(companyHotness.stats());
+    }
+
+    /**
+     * 公司别名索引指标（别名组数、别名数、冲突数、字典树规模）。
+     */
+    @GetMapping("/api/admin/company-aliases")
+    public ResponseEntity<Map<String, Object>> companyAliasStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(companyAliasIndex.stats());
+    }
+
+    /**
+     * 重新加载公司别名配置并重建索引（别名文件读取失败时保留原索引并返回 error）。
+     */
+    @PostMapping("/api/admin/company-aliases/reload")
+    public ResponseEntity<Map<String, Object>> reloadCompanyAliases(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(companyAliasIndex.reload());
+    }
+
+    /**
+     * 本地 OSM 数据源指标（POI 文件规模、来源时间、查询耗时）。
+     */
+    @GetMapping("/api/admin/osm-local")
+    public ResponseEntity<Map<String, Object>> osmLocalStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(osmLocalService.stats());
+    }
+
+    /**
+     * 立即刷新本地 OSM 数据（下载并强制重新导入提取文件）。
+     */
+    @PostMapping("/api/admin/osm-local/import")
+    public ResponseEntity<Map<String, Object>> importOsmLocal(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(osmLocalService.refresh(true));
+    }
+
+    /**
+     * 高德密钥池指标（各密钥当日用量、并发、错误与隔离状态，密钥脱敏）。
+     */
+    @GetMapping("/api/admin/amap-keys")
+    public ResponseEntity<Map<String, Object>> amapKeyStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdminAuthorized(token)) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(amapKeyPool.stats());
+    }
+
+    private boolean isAdminAuthorized(String token) {
+        return adminToken == null || adminToken.isBlank() || (token != null && token.equals(adminToken));
+    }
+}
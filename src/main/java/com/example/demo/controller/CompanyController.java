@@ -4,17 +4,28 @@ import com.example.demo.model.NearbyResponse;
 import com.example.demo.model.Place;
 import com.example.demo.model.CompanyDetail;
 import com.example.demo.model.JobLink;
+import com.example.demo.model.JobSearchResult;
 import com.example.demo.service.AmapService;
+import com.example.demo.service.NearbyTileCache;
+import com.example.demo.service.OsmLocalService;
 import com.example.demo.service.OverpassService;
+import com.example.demo.service.PlaceProvider;
 import com.example.demo.service.QccService;
 import com.example.demo.service.JobLinkService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 public class CompanyController {
@@ -22,26 +33,42 @@ public class CompanyController {
     private final AmapService amapService;
     private final QccService qccService;
     private final JobLinkService jobLinkService;
+    private final NearbyTileCache nearbyTileCache;
+    private final OsmLocalService osmLocalService;
+
+    /** 流式聚合连接超时（毫秒） */
+    @Value("${jobs.stream.timeoutMs:60000}")
+    private long streamTimeoutMs;
+
+    /** 附近检索的最大半径（米），超出时按此值检索 */
+    @Value("${nearby.maxRadiusMeters:50000}")
+    private int nearbyMaxRadiusMeters;
 
-    public CompanyController(OverpassService overpassService, AmapService amapService, QccService qccService, JobLinkService jobLinkService) {
+    public CompanyController(OverpassService overpassService, AmapService amapService, QccService qccService,
+                             JobLinkService jobLinkService, NearbyTileCache nearbyTileCache,
+                             OsmLocalService osmLocalService) {
         this.overpassService = overpassService;
         this.amapService = amapService;
         this.qccService = qccService;
         this.jobLinkService = jobLinkService;
+        this.nearbyTileCache = nearbyTileCache;
+        this.osmLocalService = osmLocalService;
     }
 
     /**
      * 附近公司检索接口。
      * <p>
      * 根据坐标与半径，从指定数据源（高德/OSM）检索附近公司并按距离排序。
-     * 若配置了高德密钥且未指定 source，则默认使用高德；否则使用 OSM。
+     * 若配置了高德密钥且未指定 source，则默认使用高德；否则使用 OSM：已导入本地提取文件时用 osm-local（无网络请求），
+     * 否则用 Overpass。source=osm-local 指定本地数据源（未导入时为空结果）。
+     * 结果经 {@link NearbyTileCache} 由缓存瓦片本地过滤得到，响应头 X-Cache 为 HIT/PARTIAL/MISS/BYPASS（本地数据源为 LOCAL）。
      * </p>
      *
      * @param lat     纬度（WGS-84）
      * @param lng     经度（WGS-84）
-     * @param radius  半径（米），默认 1500
+     * @param radius  半径（米），默认 1500，限制在 1 ~ nearby.maxRadiusMeters 之间
      * @param keyword 关键词（可选）
-     * @param source  数据源：amap 或 osm（可选）
+     * @param source  数据源：amap、osm 或 osm-local（可选）
      * @return 标准化结果列表与元信息
      */
     @GetMapping("/api/companies/nearby")
@@ -52,26 +79,29 @@ public class CompanyController {
             @RequestParam(value = "keyword", required = false) String keyword,
             @RequestParam(value = "source", required = false) String source
     ) {
-        String provider;
-        List<Place> items;
+        radius = Math.max(1, Math.min(radius, nearbyMaxRadiusMeters));
+        PlaceProvider osm = osmLocalService.isLoaded() ? osmLocalService : overpassService;
+        PlaceProvider provider;
         if ("amap".equalsIgnoreCase(String.valueOf(source)) && amapService.isConfigured()) {
-            provider = "amap";
-            items = amapService.searchNearby(lat, lng, radius, keyword);
+            provider = amapService;
+        } else if (OsmLocalService.PROVIDER.equalsIgnoreCase(String.valueOf(source))) {
+            provider = osmLocalService;
         } else if ("osm".equalsIgnoreCase(String.valueOf(source))) {
-            provider = "osm-overpass";
-            items = overpassService.searchNearby(lat, lng, radius, keyword);
+            provider = osm;
         } else if (amapService.isConfigured()) {
-            provider = "amap";
-            items = amapService.searchNearby(lat, lng, radius, keyword);
+            provider = amapService;
         } else {
-            provider = "osm-overpass";
-            items = overpassService.searchNearby(lat, lng, radius, keyword);
+            provider = osm;
         }
 
+        NearbyTileCache.Result result = nearbyTileCache.search(provider, lat, lng, radius, keyword);
+        List<Place> items = result.getItems();
         items.sort(Comparator.comparingDouble(Place::getDistance));
-        NearbyResponse.Meta meta = new NearbyResponse.Meta(lat, lng, radius, provider, keyword);
+        NearbyResponse.Meta meta = new NearbyResponse.Meta(lat, lng, radius, provider.getProviderName(), keyword);
         NearbyResponse response = new NearbyResponse(items, meta);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .header("X-Cache", result.getCacheStatus())
+                .body(response);
     }
 
     /**
@@ -98,6 +128,10 @@ public class CompanyController {
      * 公司投递链接聚合接口（按需丰富）。
      * <p>
      * 根据公司名称聚合“职位/投递”链接；仅在用户点击需要时调用，避免批量抓取导致限流与成本问题。
+     * 各数据源并发执行并受请求截止时间约束，超时时返回部分结果，
+     * 通过响应头 X-Partial-Result 与 X-Timed-Out-Sources 标记未完成的数据源。
+     * 响应头 X-Cache 为 HIT/STALE/MISS/NEGATIVE（NEGATIVE 表示近期已确认无结果，未重新抓取），
+     * X-Unavailable-Sources 为本次失败或因近期失败被跳过的数据源。
      * </p>
      *
      * @param name 公司名称
@@ -105,7 +139,46 @@ public class CompanyController {
      */
     @GetMapping("/api/companies/jobs")
     public ResponseEntity<java.util.List<JobLink>> jobs(@RequestParam("name") String name) {
-        java.util.List<JobLink> list = jobLinkService.searchLinks(name);
-        return ResponseEntity.ok(list);
+        JobSearchResult result = jobLinkService.search(name);
+        return ResponseEntity.ok()
+                .header("X-Partial-Result", String.valueOf(result.isPartial()))
+                .header("X-Timed-Out-Sources", String.join(",", result.getTimedOutSources()))
+                .header("X-Cache", result.getCacheStatus())
+                .header("X-Unavailable-Sources", String.join(",", result.getUnavailableSources()))
+                .body(result.getLinks());
+    }
+
+    /**
+     * 公司投递链接流式聚合接口（Server-Sent Events）。
+     * <p>
+     * 每个数据源完成后立即推送一个 links 事件（与已推送链接去重），
+     * 全部完成后推送 complete 事件（各数据源耗时，毫秒），随后结束连接。
+     * </p>
+     *
+     * @param name 公司名称
+     * @return SSE 连接
+     */
+    @GetMapping(value = "/api/companies/jobs/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter jobsStream(@RequestParam("name") String name) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        jobLinkService.streamSearch(name, batch -> {
+            try {
+                emitter.send(SseEmitter.event().name("links").data(batch));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((timings, ex) -> {
+            if (ex != null) {
+                emitter.completeWithError(ex);
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("complete").data(Map.of("timings", timings)));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.example.demo.controller;
 import com.example.demo.model.JobLink;
 import com.example.demo.model.SubmittedLink;
 import com.example.demo.service.LinkSubmissionService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +21,7 @@ import java.util.Optional;
  * 提供提交接口与审核接口；公告链接返回接口用于前端展示“公告”入口。
  * </p>
  */
+@Profile("db")
 @RestController
 public class LinkSubmissionController {
     private final LinkSubmissionService submissionService;
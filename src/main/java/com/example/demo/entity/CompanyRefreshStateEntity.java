@@ -0,0 +1,53 @@
+package com.example.demo.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.time.LocalDateTime;
+
+/**
+ * 公司批量刷新状态实体（持久化）。
+ * <p>
+ * 每家公司一行：被请求次数决定刷新优先级；同时记录最近一次刷新的批次 ID、结果、耗时与链接数，
+ * 以及连续失败次数（抓取出错）与连续无结果次数（抓取成功但没有链接）。
+ * </p>
+ */
+@TableName("company_refresh_state")
+public class CompanyRefreshStateEntity {
+    @TableId(type = IdType.INPUT)
+    private String companyKey;
+    private String companyName;
+    private Long requestCount;
+    private LocalDateTime lastRequestedAt;
+    private Long lastRunId;
+    private String lastStatus; // OK/PARTIAL/EMPTY/FAILED/SKIPPED
+    private Long lastDurationMs;
+    private Integer lastLinkCount;
+    private Integer consecutiveFailures;
+    private Integer consecutiveEmpty;
+    private LocalDateTime lastRefreshedAt;
+
+    public String getCompanyKey() { return companyKey; }
+    public void setCompanyKey(String companyKey) { this.companyKey = companyKey; }
+    public String getCompanyName() { return companyName; }
+    public void setCompanyName(String companyName) { this.companyName = companyName; }
+    public Long getRequestCount() { return requestCount; }
+    public void setRequestCount(Long requestCount) { this.requestCount = requestCount; }
+    public LocalDateTime getLastRequestedAt() { return lastRequestedAt; }
+    public void setLastRequestedAt(LocalDateTime lastRequestedAt) { this.lastRequestedAt = lastRequestedAt; }
+    public Long getLastRunId() { return lastRunId; }
+    public void setLastRunId(Long lastRunId) { this.lastRunId = lastRunId; }
+    public String getLastStatus() { return lastStatus; }
+    public void setLastStatus(String lastStatus) { this.lastStatus = lastStatus; }
+    public Long getLastDurationMs() { return lastDurationMs; }
+    public void setLastDurationMs(Long lastDurationMs) { this.lastDurationMs = lastDurationMs; }
+    public Integer getLastLinkCount() { return lastLinkCount; }
+    public void setLastLinkCount(Integer lastLinkCount) { this.lastLinkCount = lastLinkCount; }
+    public Integer getConsecutiveFailures() { return consecutiveFailures; }
+    public void setConsecutiveFailures(Integer consecutiveFailures) { this.consecutiveFailures = consecutiveFailures; }
+    public Integer getConsecutiveEmpty() { return consecutiveEmpty; }
+    public void setConsecutiveEmpty(Integer consecutiveEmpty) { this.consecutiveEmpty = consecutiveEmpty; }
+    public LocalDateTime getLastRefreshedAt() { return lastRefreshedAt; }
+    public void setLastRefreshedAt(LocalDateTime lastRefreshedAt) { this.lastRefreshedAt = lastRefreshedAt; }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 多节点共享的工作项实体（持久化）。
+ * <p>
+ * 每个批次（kind + run_id）入队一次；各节点以 FOR UPDATE SKIP LOCKED 领取并持有租约，
+ * 处理期间定期续约，节点宕机后租约过期即可被其他节点重新领取。
+ * </p>
+ */
+@TableName("crawl_work_items")
+public class CrawlWorkItemEntity {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String kind;
+    private Long runId;
+    private Long seq; // 处理顺序（越小越先）
+    private String itemKey;
+    private String payload;
+    private String status; // PENDING/LEASED/DONE
+    private Integer attempts;
+    private String leaseOwner;
+    private OffsetDateTime leaseUntil;
+    private String outcome;
+    private OffsetDateTime finishedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+    public Long getSeq() { return seq; }
+    public void setSeq(Long seq) { this.seq = seq; }
+    public String getItemKey() { return itemKey; }
+    public void setItemKey(String itemKey) { this.itemKey = itemKey; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+    public OffsetDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(OffsetDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+    public String getOutcome() { return outcome; }
+    public void setOutcome(String outcome) { this.outcome = outcome; }
+    public OffsetDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(OffsetDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
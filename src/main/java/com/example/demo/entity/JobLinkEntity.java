@@ -0,0 +1,52 @@
+package com.example.demo.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.time.LocalDateTime;
+
+/**
+ * 聚合投递链接实体（持久化）。
+ * <p>
+ * 唯一键：company_key（公司归一化名）+ url_key（规范化 URL）。
+ * </p>
+ */
+@TableName("job_links")
+public class JobLinkEntity {
+    @TableId(type = IdType.ASSIGN_UUID)
+    private String id;
+    private String companyKey;
+    private String companyName;
+    private String title;
+    private String url;
+    private String urlKey;
+    private String source;
+    private String description;
+    private Integer position; // 聚合结果中的顺序
+    private LocalDateTime collectedAt;
+    private LocalDateTime updatedAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getCompanyKey() { return companyKey; }
+    public void setCompanyKey(String companyKey) { this.companyKey = companyKey; }
+    public String getCompanyName() { return companyName; }
+    public void setCompanyName(String companyName) { this.companyName = companyName; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getUrlKey() { return urlKey; }
+    public void setUrlKey(String urlKey) { this.urlKey = urlKey; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Integer getPosition() { return position; }
+    public void setPosition(Integer position) { this.position = position; }
+    public LocalDateTime getCollectedAt() { return collectedAt; }
+    public void setCollectedAt(LocalDateTime collectedAt) { this.collectedAt = collectedAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
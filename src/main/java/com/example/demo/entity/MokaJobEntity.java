@@ -0,0 +1,47 @@
+package com.example.demo.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moka 职位目录实体（持久化）。
+ * <p>
+ * 主键为 Moka 职位 ID；remote_updated_at 为远端更新时间（epoch 毫秒），用于增量同步水位；
+ * seen_sweep_id 为最近一次在全量比对中出现时的批次 ID，用于跨续传识别已删除的职位。
+ * </p>
+ */
+@TableName("moka_jobs")
+public class MokaJobEntity {
+    @TableId(type = IdType.INPUT)
+    private String jobId;
+    private String companyKey;
+    private String companyName;
+    private String title;
+    private String applyUrl;
+    private String status;
+    private Long remoteUpdatedAt;
+    private LocalDateTime syncedAt;
+    private Long seenSweepId;
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+    public String getCompanyKey() { return companyKey; }
+    public void setCompanyKey(String companyKey) { this.companyKey = companyKey; }
+    public String getCompanyName() { return companyName; }
+    public void setCompanyName(String companyName) { this.companyName = companyName; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getApplyUrl() { return applyUrl; }
+    public void setApplyUrl(String applyUrl) { this.applyUrl = applyUrl; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Long getRemoteUpdatedAt() { return remoteUpdatedAt; }
+    public void setRemoteUpdatedAt(Long remoteUpdatedAt) { this.remoteUpdatedAt = remoteUpdatedAt; }
+    public LocalDateTime getSyncedAt() { return syncedAt; }
+    public void setSyncedAt(LocalDateTime syncedAt) { this.syncedAt = syncedAt; }
+    public Long getSeenSweepId() { return seenSweepId; }
+    public void setSeenSweepId(Long seenSweepId) { this.seenSweepId = seenSweepId; }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.entity.CompanyRefreshStateEntity;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * CompanyRefreshState 的 MyBatis-Plus Mapper。
+ */
+@Mapper
+public interface CompanyRefreshStateMapper extends BaseMapper<CompanyRefreshStateEntity> {
+
+    /**
+     * 批量累加请求次数（公司不存在时插入）。
+     */
+    @Insert({"<script>",
+            "INSERT INTO company_refresh_state (company_key, company_name, request_count, last_requested_at) VALUES",
+            "<foreach collection='list' item='e' separator=','>",
+            "(#{e.companyKey}, #{e.companyName}, #{e.requestCount}, #{e.lastRequestedAt})",
+            "</foreach>",
+            "ON CONFLICT (company_key) DO UPDATE SET company_name = EXCLUDED.company_name,",
+            "request_count = company_refresh_state.request_count + EXCLUDED.request_count,",
+            "last_requested_at = EXCLUDED.last_requested_at",
+            "</script>"})
+    int upsertRequests(@Param("list") List<CompanyRefreshStateEntity> list);
+
+    /**
+     * 批量登记公司（已存在则忽略）。
+     */
+    @Insert({"<script>",
+            "INSERT INTO company_refresh_state (company_key, company_name) VALUES",
+            "<foreach collection='list' item='e' separator=','>",
+            "(#{e.companyKey}, #{e.companyName})",
+            "</foreach>",
+            "ON CONFLICT (company_key) DO NOTHING",
+            "</script>"})
+    int insertIgnore(@Param("list") List<CompanyRefreshStateEntity> list);
+
+    /**
+     * 从聚合结果表登记公司（已存在则忽略）。
+     */
+    @Insert("INSERT INTO company_refresh_state (company_key, company_name) " +
+            "SELECT company_key, MAX(company_name) FROM job_links WHERE company_name IS NOT NULL GROUP BY company_key " +
+            "ON CONFLICT (company_key) DO NOTHING")
+    int seedFromJobLinks();
+
+    /**
+     * 审核通过的提交链接中出现过的公司名。
+     */
+    @Select("SELECT DISTINCT company_name FROM submitted_links WHERE status = 'APPROVED' AND company_name IS NOT NULL")
+    List<String> selectSubmittedCompanyNames();
+
+    /**
+     * 把全部公司作为一批刷新工作项入队，处理顺序：连续失败过多的排最后，其余按请求次数降序、上次刷新时间升序。
+     */
+    @Insert("INSERT INTO crawl_work_items (kind, run_id, seq, item_key, payload) " +
+            "SELECT #{kind}, #{runId}, ROW_NUMBER() OVER (ORDER BY " +
+            "CASE WHEN consecutive_failures >= #{maxFailures} THEN 1 ELSE 0 END, " +
+            "request_count DESC, last_refreshed_at ASC NULLS FIRST), company_key, company_name " +
+            "FROM company_refresh_state ON CONFLICT (kind, run_id, item_key) DO NOTHING")
+    int enqueueRefresh(@Param("kind") String kind, @Param("runId") long runId, @Param("maxFailures") int maxFailures);
+}
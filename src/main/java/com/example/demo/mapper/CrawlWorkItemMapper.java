@@ -0,0 +1,62 @@
+package com.example.demo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.entity.CrawlWorkItemEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CrawlWorkItem 的 MyBatis-Plus Mapper。
+ */
+@Mapper
+public interface CrawlWorkItemMapper extends BaseMapper<CrawlWorkItemEntity> {
+
+    /**
+     * 领取一批工作项：未领取的，或租约已过期且未超过重试次数的；已被其他事务锁定的行直接跳过。
+     */
+    @Select("UPDATE crawl_work_items SET status = 'LEASED', lease_owner = #{owner}, " +
+            "lease_until = now() + #{leaseSeconds} * INTERVAL '1 second', attempts = attempts + 1 " +
+            "WHERE id IN (SELECT id FROM crawl_work_items " +
+            "WHERE kind = #{kind} AND run_id = #{runId} AND attempts < #{maxAttempts} " +
+            "AND (status = 'PENDING' OR (status = 'LEASED' AND lease_until < now())) " +
+            "ORDER BY seq LIMIT #{limit} FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, kind, run_id, seq, item_key, payload, status, attempts, lease_owner")
+    @Options(flushCache = Options.FlushCachePolicy.TRUE, useCache = false)
+    List<CrawlWorkItemEntity> lease(@Param("kind") String kind, @Param("runId") long runId,
+                                    @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds,
+                                    @Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    /**
+     * 续约本节点持有的全部租约。
+     */
+    @Update("UPDATE crawl_work_items SET lease_until = now() + #{leaseSeconds} * INTERVAL '1 second' " +
+            "WHERE lease_owner = #{owner} AND status = 'LEASED'")
+    int extendLeases(@Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * 标记完成（仅当租约仍属于本节点）。
+     */
+    @Update("UPDATE crawl_work_items SET status = 'DONE', outcome = #{outcome}, finished_at = now(), lease_until = NULL " +
+            "WHERE id = #{id} AND lease_owner = #{owner} AND status = 'LEASED'")
+    int complete(@Param("id") long id, @Param("owner") String owner, @Param("outcome") String outcome);
+
+    /**
+     * 批次内仍需处理的工作项数（含其他节点租约未过期的；重试耗尽且租约已过期的视为放弃）。
+     */
+    @Select("SELECT count(*) FROM crawl_work_items WHERE kind = #{kind} AND run_id = #{runId} " +
+            "AND status <> 'DONE' AND (attempts < #{maxAttempts} OR lease_until >= now())")
+    long countRemaining(@Param("kind") String kind, @Param("runId") long runId, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * 批次内按节点、状态分组的工作项数。
+     */
+    @Select("SELECT COALESCE(lease_owner, '') AS owner, status, count(*) AS items FROM crawl_work_items " +
+            "WHERE kind = #{kind} AND run_id = #{runId} GROUP BY lease_owner, status ORDER BY owner, status")
+    List<Map<String, Object>> countByOwner(@Param("kind") String kind, @Param("runId") long runId);
+}
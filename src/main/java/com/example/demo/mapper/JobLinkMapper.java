@@ -0,0 +1,37 @@
+package com.example.demo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.entity.JobLinkEntity;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * JobLink 的 MyBatis-Plus Mapper。
+ */
+@Mapper
+public interface JobLinkMapper extends BaseMapper<JobLinkEntity> {
+
+    /**
+     * 批量 upsert（按 company_key + url_key 冲突更新）。
+     */
+    @Insert({"<script>",
+            "INSERT INTO job_links (id, company_key, company_name, title, url, url_key, source, description, position, collected_at, updated_at) VALUES",
+            "<foreach collection='list' item='e' separator=','>",
+            "(#{e.id}, #{e.companyKey}, #{e.companyName}, #{e.title}, #{e.url}, #{e.urlKey}, #{e.source}, #{e.description}, #{e.position}, #{e.collectedAt}, #{e.updatedAt})",
+            "</foreach>",
+            "ON CONFLICT (company_key, url_key) DO UPDATE SET company_name = EXCLUDED.company_name, title = EXCLUDED.title,",
+            "url = EXCLUDED.url, source = EXCLUDED.source, description = EXCLUDED.description, position = EXCLUDED.position,",
+            "collected_at = EXCLUDED.collected_at, updated_at = EXCLUDED.updated_at",
+            "</script>"})
+    int upsertBatch(@Param("list") List<JobLinkEntity> list);
+
+    /**
+     * 最近更新的公司（热点集合）。
+     */
+    @Select("SELECT company_key FROM job_links GROUP BY company_key ORDER BY MAX(updated_at) DESC LIMIT #{limit}")
+    List<String> selectRecentCompanyKeys(@Param("limit") int limit);
+}
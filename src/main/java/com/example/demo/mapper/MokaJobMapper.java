@@ -0,0 +1,30 @@
+package com.example.demo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.entity.MokaJobEntity;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * MokaJob 的 MyBatis-Plus Mapper。
+ */
+@Mapper
+public interface MokaJobMapper extends BaseMapper<MokaJobEntity> {
+
+    /**
+     * 批量 upsert（按 job_id 冲突更新）。
+     */
+    @Insert({"<script>",
+            "INSERT INTO moka_jobs (job_id, company_key, company_name, title, apply_url, status, remote_updated_at, synced_at) VALUES",
+            "<foreach collection='list' item='e' separator=','>",
+            "(#{e.jobId}, #{e.companyKey}, #{e.companyName}, #{e.title}, #{e.applyUrl}, #{e.status}, #{e.remoteUpdatedAt}, #{e.syncedAt})",
+            "</foreach>",
+            "ON CONFLICT (job_id) DO UPDATE SET company_key = EXCLUDED.company_key, company_name = EXCLUDED.company_name,",
+            "title = EXCLUDED.title, apply_url = EXCLUDED.apply_url, status = EXCLUDED.status,",
+            "remote_updated_at = EXCLUDED.remote_updated_at, synced_at = EXCLUDED.synced_at",
+            "</script>"})
+    int upsertBatch(@Param("list") List<MokaJobEntity> list);
+}
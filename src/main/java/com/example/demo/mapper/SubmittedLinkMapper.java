@@ -2,11 +2,22 @@ package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.example.demo.entity.SubmittedLinkEntity;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 /**
  * SubmittedLink 的 MyBatis-Plus Mapper。
  */
 @Mapper
 public interface SubmittedLinkMapper extends BaseMapper<SubmittedLinkEntity> {
-}
\ No newline at end of file
+
+    /**
+     * 把审核通过且未过期的链接作为一批健康检查工作项入队（最久未检查的优先）。
+     */
+    @Insert("INSERT INTO crawl_work_items (kind, run_id, seq, item_key, payload) " +
+            "SELECT #{kind}, #{runId}, ROW_NUMBER() OVER (ORDER BY last_checked_at ASC NULLS FIRST), CAST(id AS VARCHAR), url " +
+            "FROM submitted_links WHERE status = 'APPROVED' AND expire_at IS NULL " +
+            "ON CONFLICT (kind, run_id, item_key) DO NOTHING")
+    int enqueueHealthChecks(@Param("kind") String kind, @Param("runId") long runId);
+}
@@ -0,0 +1,26 @@
+package com.example.demo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.entity.SyncStateEntity;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * SyncState 的 MyBatis-Plus Mapper。
+ */
+@Mapper
+public interface SyncStateMapper extends BaseMapper<SyncStateEntity> {
+
+    /**
+     * 抢占新批次：没有进行中的批次、且上一批开始于 staleBefore 之前时写入 pending_watermark。
+     * 并发抢占时后到的事务会等待先到的提交，再按新值判断。
+     *
+     * @return 1 表示抢占成功
+     */
+    @Insert("INSERT INTO sync_state (name, pending_watermark, last_run_at) VALUES (#{name}, #{runId}, now()) " +
+            "ON CONFLICT (name) DO UPDATE SET pending_watermark = EXCLUDED.pending_watermark, last_run_at = EXCLUDED.last_run_at " +
+            "WHERE (sync_state.pending_watermark IS NULL OR sync_state.pending_watermark < #{staleBefore}) " +
+            "AND (sync_state.watermark IS NULL OR sync_state.watermark < #{staleBefore})")
+    int claimRun(@Param("name") String name, @Param("runId") long runId, @Param("staleBefore") long staleBefore);
+}
@@ -0,0 +1,30 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * 流式聚合中单个数据源的一批投递链接（已与此前发送的链接去重）。
+ */
+public class JobLinkBatch {
+    private String source;
+    private List<JobLink> links;
+    /** 该数据源自启动到完成的耗时（毫秒） */
+    private long elapsedMs;
+
+    public JobLinkBatch() {}
+
+    public JobLinkBatch(String source, List<JobLink> links, long elapsedMs) {
+        this.source = source;
+        this.links = links;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public List<JobLink> getLinks() { return links; }
+    public void setLinks(List<JobLink> links) { this.links = links; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.model;
+
+/**
+ * 官网 JSON-LD 中的 schema.org JobPosting（只保留聚合所需字段，日期保留原始字符串）。
+ */
+public class JobPosting {
+    private String url;
+    private String applicationUrl;
+    private String title;
+    private String datePosted;
+    private String validThrough;
+    /** 招聘组织名称（hiringOrganization.name 或字符串值） */
+    private String hiringOrganization;
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getApplicationUrl() { return applicationUrl; }
+    public void setApplicationUrl(String applicationUrl) { this.applicationUrl = applicationUrl; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDatePosted() { return datePosted; }
+    public void setDatePosted(String datePosted) { this.datePosted = datePosted; }
+
+    public String getValidThrough() { return validThrough; }
+    public void setValidThrough(String validThrough) { this.validThrough = validThrough; }
+
+    public String getHiringOrganization() { return hiringOrganization; }
+    public void setHiringOrganization(String hiringOrganization) { this.hiringOrganization = hiringOrganization; }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * 投递链接聚合结果。
+ * <p>
+ * 除链接列表外，还记录本次请求在截止时间内未完成的数据源，
+ * 便于接口告知前端结果可能不完整（未完成的数据源会在后台继续执行并回填缓存）。
+ * 缓存状态区分命中负缓存的空结果（NEGATIVE）与实际抓取后为空的结果（MISS）。
+ * </p>
+ */
+public class JobSearchResult {
+    private List<JobLink> links;
+    /** 截止时间内未完成的数据源 */
+    private List<String> timedOutSources;
+    /** 是否为部分结果 */
+    private boolean partial;
+    /** 缓存状态：HIT/STALE/MISS/NEGATIVE */
+    private String cacheStatus = "MISS";
+    /** 调用失败或因近期失败被跳过的数据源 */
+    private List<String> unavailableSources = List.of();
+
+    public JobSearchResult() {}
+
+    public JobSearchResult(List<JobLink> links, List<String> timedOutSources, boolean partial) {
+        this.links = links;
+        this.timedOutSources = timedOutSources;
+        this.partial = partial;
+    }
+
+    public JobSearchResult(List<JobLink> links, List<String> timedOutSources, boolean partial,
+                           String cacheStatus, List<String> unavailableSources) {
+        this(links, timedOutSources, partial);
+        this.cacheStatus = cacheStatus;
+        this.unavailableSources = unavailableSources;
+    }
+
+    public List<JobLink> getLinks() { return links; }
+    public void setLinks(List<JobLink> links) { this.links = links; }
+
+    public List<String> getTimedOutSources() { return timedOutSources; }
+    public void setTimedOutSources(List<String> timedOutSources) { this.timedOutSources = timedOutSources; }
+
+    public boolean isPartial() { return partial; }
+    public void setPartial(boolean partial) { this.partial = partial; }
+
+    public String getCacheStatus() { return cacheStatus; }
+    public void setCacheStatus(String cacheStatus) { this.cacheStatus = cacheStatus; }
+
+    public List<String> getUnavailableSources() { return unavailableSources; }
+    public void setUnavailableSources(List<String> unavailableSources) { this.unavailableSources = unavailableSources; }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.model;
+
+/**
+ * Moka 职位目录中的一条职位（本地同步副本）。
+ */
+public class MokaJob {
+    private String id;
+    private String title;
+    private String applyUrl;
+    /** 招聘主体名称（职位未给出时使用 moka.catalog.companyName） */
+    private String companyName;
+    /** 职位状态原始值（如 open、closed） */
+    private String status;
+    /** 远端更新时间（epoch 毫秒）；未知为 -1 */
+    private long updatedAt = -1;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getApplyUrl() { return applyUrl; }
+    public void setApplyUrl(String applyUrl) { this.applyUrl = applyUrl; }
+
+    public String getCompanyName() { return companyName; }
+    public void setCompanyName(String companyName) { this.companyName = companyName; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
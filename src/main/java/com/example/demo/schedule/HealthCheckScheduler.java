@@ -1,68 +1,163 @@
 package com.example.demo.schedule;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.example.demo.entity.CrawlWorkItemEntity;
 import com.example.demo.entity.SubmittedLinkEntity;
 import com.example.demo.mapper.SubmittedLinkMapper;
+import com.example.demo.service.CrawlFrontier;
+import com.example.demo.service.CrawlWorkQueue;
+import com.example.demo.service.OutboundHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 链接健康检查与过期清理调度。
  * <p>
  * 每日检查审核通过的链接是否有效（状态码 200-399 认为有效），
  * 连续失败超过阈值或到达过期时间则标记为 EXPIRED。
+ * 待检查的链接经 {@link CrawlWorkQueue} 在多个节点间分摊，每条链接每批只探测一次。
  * </p>
  */
+@Profile("db")
 @Component
 public class HealthCheckScheduler {
 
+    /** 工作队列类型与 sync_state 中的批次状态名 */
+    public static final String WORK_KIND = "link-healthcheck";
+
+    /** 单节点并发探测的链接数（不超过抓取前沿单主机排队上限） */
+    private static final int PROBE_BATCH = 50;
+    private static final Duration PROBE_MAX_WAIT = Duration.ofMinutes(10);
+    private static final int FAIL_THRESHOLD = 3;
+
     private final SubmittedLinkMapper mapper;
+    private final OutboundHttpClient http;
+    private final CrawlFrontier frontier;
+    private final CrawlWorkQueue queue;
+    private final AtomicBoolean running = new AtomicBoolean();
 
-    public HealthCheckScheduler(SubmittedLinkMapper mapper) {
+    @Value("${healthcheck.windowMinutes:120}")
+    private long windowMinutes;
+
+    public HealthCheckScheduler(SubmittedLinkMapper mapper, OutboundHttpClient http, CrawlFrontier frontier,
+                                CrawlWorkQueue queue) {
         this.mapper = mapper;
+        this.http = http;
+        this.frontier = frontier;
+        this.queue = queue;
     }
 
-    /** 每日 02:30 进行健康检查与过期清理。 */
+    /** 每日 02:30 进行健康检查与过期清理（已有节点开始的批次则加入分担）。 */
     @Scheduled(cron = "0 30 2 * * ?")
     public void checkAndExpireDaily() {
-        int failThreshold = 3;
-        LocalDateTime now = LocalDateTime.now();
-        // 选取 APPROVED 且未过期的记录
-        LambdaQueryWrapper<SubmittedLinkEntity> qw = new LambdaQueryWrapper<SubmittedLinkEntity>()
-                .eq(SubmittedLinkEntity::getStatus, "APPROVED")
-                .isNull(SubmittedLinkEntity::getExpireAt);
-        List<SubmittedLinkEntity> list = mapper.selectList(qw);
-        for (SubmittedLinkEntity e : list) {
-            boolean ok = isUrlAlive(e.getUrl());
-            Integer fail = e.getFailureCount() == null ? 0 : e.getFailureCount();
-            LambdaUpdateWrapper<SubmittedLinkEntity> uw = new LambdaUpdateWrapper<SubmittedLinkEntity>()
-                    .eq(SubmittedLinkEntity::getId, e.getId())
-                    .set(SubmittedLinkEntity::getLastCheckedAt, now)
-                    .set(SubmittedLinkEntity::getValid, ok)
-                    .set(SubmittedLinkEntity::getUpdatedAt, now);
-            if (!ok) {
-                fail = fail + 1;
-                uw.set(SubmittedLinkEntity::getFailureCount, fail);
-                if (fail >= failThreshold) {
-                    uw.set(SubmittedLinkEntity::getStatus, "EXPIRED")
-                      .set(SubmittedLinkEntity::getExpireAt, now);
-                }
-            } else {
-                // 成功则清零失败计数
-                uw.set(SubmittedLinkEntity::getFailureCount, 0);
+        execute(true);
+    }
+
+    /** 应用就绪后加入时间窗口内未完成的批次。 */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeAsync() {
+        Thread.ofVirtual().name("healthcheck-resume").start(() -> {
+            try {
+                execute(false);
+            } catch (RuntimeException ignore) {
+                // 数据库不可用时跳过，等待下次调度
+            }
+        });
+    }
+
+    private void execute(boolean startNew) {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            long windowMs = TimeUnit.MINUTES.toMillis(Math.max(1, windowMinutes));
+            Long runId = startNew
+                    ? queue.startRun(WORK_KIND, windowMs, id -> mapper.enqueueHealthChecks(WORK_KIND, id))
+                    : queue.activeRun(WORK_KIND, windowMs);
+            if (runId == null) return;
+            // 经抓取前沿探测：不同主机并行，同一主机按节流排队
+            boolean complete = queue.drain(WORK_KIND, runId, runId + windowMs, PROBE_BATCH, this::checkOne);
+            queue.finishRun(WORK_KIND, runId, complete);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** 探测单条链接并更新状态。 */
+    private String checkOne(CrawlWorkItemEntity item) {
+        SubmittedLinkEntity e = mapper.selectById(item.getItemKey());
+        // 入队后已被驳回或过期
+        if (e == null || !"APPROVED".equals(e.getStatus()) || e.getExpireAt() != null) {
+            return "SKIPPED";
+        }
+        boolean ok;
+        try {
+            ok = probeAsync(e.getUrl()).join();
+        } catch (CompletionException ex) {
+            // 未能排队（主机队列已满或等待过长）：本轮跳过，不计入失败
+            return "SKIPPED";
+        }
+        update(e, ok, FAIL_THRESHOLD, LocalDateTime.now());
+        return ok ? "OK" : "FAILED";
+    }
+
+    private void update(SubmittedLinkEntity e, boolean ok, int failThreshold, LocalDateTime now) {
+        Integer fail = e.getFailureCount() == null ? 0 : e.getFailureCount();
+        LambdaUpdateWrapper<SubmittedLinkEntity> uw = new LambdaUpdateWrapper<SubmittedLinkEntity>()
+                .eq(SubmittedLinkEntity::getId, e.getId())
+                .set(SubmittedLinkEntity::getLastCheckedAt, now)
+                .set(SubmittedLinkEntity::getValid, ok)
+                .set(SubmittedLinkEntity::getUpdatedAt, now);
+        if (!ok) {
+            fail = fail + 1;
+            uw.set(SubmittedLinkEntity::getFailureCount, fail);
+            if (fail >= failThreshold) {
+                uw.set(SubmittedLinkEntity::getStatus, "EXPIRED")
+                  .set(SubmittedLinkEntity::getExpireAt, now);
             }
-            mapper.update(null, uw);
+        } else {
+            // 成功则清零失败计数
+            uw.set(SubmittedLinkEntity::getFailureCount, 0);
+        }
+        mapper.update(null, uw);
+    }
+
+    /**
+     * 经抓取前沿提交探测（探测不是抓取内容，不校验 robots Disallow，但遵守单主机节流与 Crawl-delay）。
+     * 作为后台任务提交：可等待较久，但不提前占满主机令牌，交互抓取仍能在 crawl.host.maxWaitMs 内排上。
+     */
+    private CompletableFuture<Boolean> probeAsync(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (uri.getHost() == null) {
+            return CompletableFuture.completedFuture(false);
         }
+        return frontier.submitBackground(uri, false, PROBE_MAX_WAIT, () -> isUrlAlive(url));
     }
 
     /**
      * 链接健康探测：优先 HEAD，不支持则 GET；状态码 200-399 认为有效。
+     * <p>
+     * 经共享出站客户端发出（数据源 healthcheck），超时见 http.client.sources.healthcheck.*。
+     * </p>
      *
      * @param url 链接
      * @return 是否可用
@@ -70,25 +165,23 @@ public class HealthCheckScheduler {
     private boolean isUrlAlive(String url) {
         try {
             // HEAD 尝试
-            HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
-            con.setRequestMethod("HEAD");
-            con.setConnectTimeout(5000);
-            con.setReadTimeout(5000);
-            int code = con.getResponseCode();
+            int code = probe(url, HttpMethod.HEAD);
             if (code >= 200 && code < 400) {
                 return true;
             }
         } catch (Exception ignore) {}
         try {
-            HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
-            con.setRequestMethod("GET");
-            con.setInstanceFollowRedirects(true);
-            con.setConnectTimeout(7000);
-            con.setReadTimeout(7000);
-            int code = con.getResponseCode();
+            int code = probe(url, HttpMethod.GET);
             return code >= 200 && code < 400;
         } catch (Exception e) {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /** 发出探测请求，只读取状态码（不读取响应体）。 */
+    private int probe(String url, HttpMethod method) throws Exception {
+        try (ClientHttpResponse resp = http.open("healthcheck", URI.create(url), method, null)) {
+            return resp.getStatusCode().value();
+        }
+    }
+}
@@ -1,42 +1,98 @@
 package com.example.demo.schedule;
 
-import com.example.demo.model.JobLink;
+import com.example.demo.service.BulkRefreshService;
+import com.example.demo.service.CompanyHotness;
+import com.example.demo.service.CompanyRefreshStore;
 import com.example.demo.service.JobLinkService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.time.Duration;
 
 /**
  * 投递链接定时刷新任务。
  * <p>
- * 每日按照配置的公司名列表执行一次聚合刷新，结果缓存于内存供接口快速返回。
+ * 每日按 jobs.refresh.cron 启动一批刷新（见 {@link BulkRefreshService}），覆盖被查询过的公司、
+ * 已有聚合结果的公司与 jobs.scheduler.companyNames；应用启动时续跑时间窗口内未完成的批次。
+ * 查询计数定期批量落库，用于确定刷新优先级。
+ * 此外按 {@link CompanyHotness} 的 Top-K 做提前刷新：最热的公司在缓存变为陈旧前
+ * jobs.hotness.refreshAheadMinutes 内重新抓取；不在 Top-K 的冷门公司不做提前刷新，缓存到期后自然淘汰。
+ * 未启用 db profile 时只做提前刷新。
  * </p>
  */
 @Component
 public class JobLinkScheduler {
 
+    /** 未启用 db profile 时为 null（与 refreshStore 相同） */
+    private final BulkRefreshService bulkRefresh;
+    private final CompanyRefreshStore refreshStore;
+    private final CompanyHotness hotness;
     private final JobLinkService jobLinkService;
 
-    @Value("${jobs.scheduler.companyNames:腾讯,阿里巴巴,字节跳动,美团}")
-    private String companyNames;
+    @Value("${jobs.hotness.refreshAheadMinutes:30}")
+    private long refreshAheadMinutes;
 
-    public JobLinkScheduler(JobLinkService jobLinkService) {
+    @Value("${jobs.hotness.refreshPerTick:20}")
+    private int refreshPerTick;
+
+    @Value("${jobs.hotness.minCount:2}")
+    private double minCount;
+
+    public JobLinkScheduler(ObjectProvider<BulkRefreshService> bulkRefresh, ObjectProvider<CompanyRefreshStore> refreshStore,
+                            CompanyHotness hotness, JobLinkService jobLinkService) {
+        this.bulkRefresh = bulkRefresh.getIfAvailable();
+        this.refreshStore = refreshStore.getIfAvailable();
+        this.hotness = hotness;
         this.jobLinkService = jobLinkService;
     }
 
     /**
-     * 每日凌晨 3 点执行一次（可调整 cron）。
+     * 应用就绪后续跑未完成的批次。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeAsync() {
+        if (bulkRefresh == null) return;
+        Thread.ofVirtual().name("job-link-refresh-resume").start(bulkRefresh::resume);
+    }
+
+    /**
+     * 每日凌晨 3 点执行一次（可通过 jobs.refresh.cron 调整）。
      */
-    @Scheduled(cron = "0 0 3 * * ?")
+    @Scheduled(cron = "${jobs.refresh.cron:0 0 3 * * ?}")
     public void refreshDaily() {
-        List<String> names = new ArrayList<>(Arrays.asList(companyNames.split(",")));
-        for (String name : names) {
-            List<JobLink> links = jobLinkService.searchLinks(name.trim());
-            // 演示：只刷新，将结果留在内存 cache 中，接口直接返回
+        if (bulkRefresh == null) return;
+        bulkRefresh.run();
+    }
+
+    /**
+     * 定期把内存中的查询计数写入数据库。
+     */
+    @Scheduled(fixedDelayString = "${jobs.refresh.flushIntervalMs:60000}")
+    public void flushRequests() {
+        if (refreshStore == null) return;
+        try {
+            refreshStore.flushRequests();
+        } catch (Exception ignore) {
+            // 数据库不可用：本轮计数丢弃，不影响查询
+        }
+    }
+
+    /**
+     * 热门公司提前刷新（默认每分钟检查一次，每轮最多触发 jobs.hotness.refreshPerTick 家）。
+     */
+    @Scheduled(fixedDelayString = "${jobs.hotness.refreshIntervalMs:60000}")
+    public void refreshAhead() {
+        Duration ahead = Duration.ofMinutes(refreshAheadMinutes);
+        int started = 0;
+        for (CompanyHotness.Hot h : hotness.topK()) {
+            if (started >= refreshPerTick || h.getCount() < minCount) break;
+            if (jobLinkService.refreshAhead(h.getCompanyName(), ahead)) {
+                started++;
+            }
         }
     }
-}
\ No newline at end of file
+}
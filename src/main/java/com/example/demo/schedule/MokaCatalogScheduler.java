@@ -0,0 +1,174 @@
+package com.example.demo.schedule;
+
+import com.example.demo.entity.SyncStateEntity;
+import com.example.demo.model.MokaJob;
+import com.example.demo.service.MokaCatalog;
+import com.example.demo.service.MokaCatalogStore;
+import com.example.demo.service.MokaService;
+import com.example.demo.service.SyncStateStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moka 职位目录增量同步。
+ * <p>
+ * 启动时从 moka_jobs 表加载目录到内存索引，随后按 moka.catalog.syncIntervalMs 周期同步：
+ * 接口支持按更新时间过滤时只拉取水位（上轮已见最大更新时间，减去 moka.catalog.watermarkOverlapMs）之后的变更；
+ * 否则每轮全量分页拉取，与内存目录比对后只写入有变化的职位，并把未再出现的职位标记为已删除。
+ * 每页处理后记录续传游标（页码与本轮已见最大更新时间），单轮页数超过 moka.catalog.maxPagesPerRun
+ * 或中途失败时，下一轮从游标处继续。
+ * 全量比对以批次 ID 跨续传进行：每页出现的职位在 moka_jobs 中记下批次 ID，最后一页处理完后
+ * 未记下该批次 ID 的职位即为已删除。
+ * </p>
+ */
+@Profile("db")
+@Component
+public class MokaCatalogScheduler {
+
+    private final MokaService mokaService;
+    private final MokaCatalog catalog;
+    private final MokaCatalogStore store;
+    private final SyncStateStore syncState;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${moka.catalog.enabled:true}")
+    private boolean enabled;
+
+    @Value("${moka.catalog.maxPagesPerRun:200}")
+    private int maxPagesPerRun;
+
+    @Value("${moka.catalog.watermarkOverlapMs:60000}")
+    private long watermarkOverlapMs;
+
+    public MokaCatalogScheduler(MokaService mokaService, MokaCatalog catalog, MokaCatalogStore store,
+                                SyncStateStore syncState) {
+        this.mokaService = mokaService;
+        this.catalog = catalog;
+        this.store = store;
+        this.syncState = syncState;
+    }
+
+    /**
+     * 应用就绪后异步加载本地目录并立即同步一轮。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        if (!enabled || !mokaService.isConfigured()) return;
+        Thread.ofVirtual().name("moka-catalog-load").start(() -> {
+            try {
+                catalog.replaceAll(store.loadAll());
+            } catch (Exception ignore) {
+                // 数据库不可用时跳过加载，检索回退官方 API
+            }
+            sync();
+        });
+    }
+
+    /**
+     * 周期同步（默认每 30 分钟，上一轮结束后计时）。
+     */
+    @Scheduled(fixedDelayString = "${moka.catalog.syncIntervalMs:1800000}",
+            initialDelayString = "${moka.catalog.syncIntervalMs:1800000}")
+    public void syncPeriodically() {
+        if (!enabled || !mokaService.isConfigured()) return;
+        sync();
+    }
+
+    /**
+     * 执行一轮同步（同一时刻只运行一轮）。
+     */
+    public void sync() {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            runOnce();
+        } catch (Exception ignore) {
+            // 接口或数据库不可用：保留续传游标，下一轮继续
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void runOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        SyncStateEntity state = syncState.load(MokaCatalogStore.SYNC_NAME);
+        boolean incremental = mokaService.supportsIncremental() && state.getWatermark() != null;
+        long since = incremental ? Math.max(0, state.getWatermark() - watermarkOverlapMs) : -1;
+        int page = state.getCursorPage() != null ? state.getCursorPage() : 1;
+        boolean fromStart = page == 1;
+        long maxSeen = state.getPendingWatermark() != null ? state.getPendingWatermark()
+                : state.getWatermark() != null ? state.getWatermark() : -1;
+        // 全量比对批次：从第 1 页开始时新建，续传时沿用（升级前中断的批次没有 ID，本批不识别删除）
+        Long sweepId = incremental ? null
+                : fromStart ? Long.valueOf(System.currentTimeMillis()) : state.getSweepId();
+        state.setSweepId(sweepId);
+        state.setLastRunAt(now);
+
+        int changed = 0;
+        int pages = 0;
+        boolean complete = false;
+        while (pages < Math.max(1, maxPagesPerRun)) {
+            MokaService.JobPage p = mokaService.fetchCatalogPage(page, since);
+            List<MokaJob> diff = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (MokaJob job : p.jobs()) {
+                if (job.getId() == null) continue;
+                seen.add(job.getId());
+                maxSeen = Math.max(maxSeen, job.getUpdatedAt());
+                if (!sameAs(catalog.get(job.getId()), job)) diff.add(job);
+            }
+            store.upsert(diff);
+            if (sweepId != null) {
+                store.markSeen(seen, sweepId);
+            }
+            catalog.apply(diff, List.of());
+            changed += diff.size();
+            pages++;
+            page++;
+            if (p.items() < mokaService.getPageSize()) {
+                complete = true;
+                break;
+            }
+            state.setCursorPage(page);
+            state.setPendingWatermark(maxSeen);
+            syncState.save(state);
+        }
+        if (complete) {
+            if (sweepId != null) {
+                // 全量比对：本批次（含续传的各轮）未出现的职位视为已删除
+                List<String> removed = store.findUnseen(sweepId);
+                store.markRemoved(removed);
+                catalog.apply(List.of(), removed);
+            }
+            state.setSweepId(null);
+            state.setWatermark(maxSeen >= 0 ? maxSeen : null);
+            state.setPendingWatermark(null);
+            state.setCursorPage(null);
+            state.setLastSuccessAt(now);
+            catalog.markLoaded();
+        }
+        state.setLastChanged(changed);
+        syncState.save(state);
+    }
+
+    /** 同步字段是否一致（一致则无需写入）。 */
+    private boolean sameAs(MokaJob a, MokaJob b) {
+        return a != null
+                && a.getUpdatedAt() == b.getUpdatedAt()
+                && Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getApplyUrl(), b.getApplyUrl())
+                && Objects.equals(a.getCompanyName(), b.getCompanyName())
+                && Objects.equals(a.getStatus(), b.getStatus());
+    }
+}
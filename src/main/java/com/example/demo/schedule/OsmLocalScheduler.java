@@ -0,0 +1,50 @@
+package com.example.demo.schedule;
+
+import com.example.demo.service.OsmLocalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本地 OSM 数据刷新任务。
+ * <p>
+ * 启动时打开已有的 POI 文件（没有时立即导入一次），之后按 osm.local.refreshCron 刷新提取文件并在有变化时重新导入。
+ * 每个实例维护各自的本地文件，无需跨实例协调。
+ * </p>
+ */
+@Component
+public class OsmLocalScheduler {
+
+    private final OsmLocalService osmLocal;
+
+    @Value("${osm.local.enabled:true}")
+    private boolean enabled;
+
+    public OsmLocalScheduler(OsmLocalService osmLocal) {
+        this.osmLocal = osmLocal;
+    }
+
+    /**
+     * 应用就绪后异步加载本地 POI 文件。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        if (!enabled) return;
+        Thread.ofVirtual().name("osm-local-load").start(() -> {
+            if (!osmLocal.openLatest()) {
+                osmLocal.refresh(false);
+            }
+        });
+    }
+
+    /**
+     * 每日凌晨 4:30 刷新一次（可通过 osm.local.refreshCron 调整）。
+     */
+    @Scheduled(cron = "${osm.local.refreshCron:0 30 4 * * ?}")
+    public void refreshDaily() {
+        if (!enabled) return;
+        osmLocal.refresh(false);
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import com.example.demo.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 高德 API 密钥池。
+ * <p>
+ * map.amap.keys（逗号分隔，兼容单个 map.amap.key）中的每个密钥各自持有一个 map.amap.qps 令牌桶
+ * 与 map.amap.dailyQuota 日配额计数（按北京时间零点重置）。{@link #acquire(long)} 在健康密钥中
+ * 选择令牌等待最短、其次并发最少、再次当日用量最少的一个并预约令牌；
+ * 高德返回密钥相关的 infocode 时按错误类型隔离该密钥：日配额用尽隔离到次日零点，
+ * 并发/QPS 超限隔离 map.amap.throttleQuarantineSeconds，密钥无效等隔离 map.amap.quarantineMinutes。
+ * 线程安全。
+ * </p>
+ */
+@Component
+public class AmapKeyPool {
+    private static final ZoneId QUOTA_ZONE = ZoneId.of("Asia/Shanghai");
+    /** 日配额用尽 */
+    private static final Set<String> QUOTA_CODES = Set.of("10003", "10044", "10045");
+    /** 访问过于频繁、并发或 QPS 超限 */
+    private static final Set<String> THROTTLE_CODES = Set.of("10004", "10014", "10015", "10019", "10020", "10021", "10029");
+    /** 密钥无效、签名错误、IP/平台不匹配、服务未开通等 */
+    private static final Set<String> KEY_CODES = Set.of("10001", "10002", "10005", "10006", "10007", "10008", "10009", "10010", "10011", "10012", "10013");
+
+    /**
+     * 池中的一个密钥。
+     */
+    public static final class Key {
+        private final String value;
+        private final TokenBucket bucket;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong quarantines = new AtomicLong();
+        private int usedToday;
+        private LocalDate day;
+        private long quarantinedUntil;
+        private volatile String lastInfocode;
+
+        private Key(String value, double qps) {
+            this.value = value;
+            this.bucket = new TokenBucket(qps, Math.max(1, qps));
+        }
+
+        /** 密钥原文（用于请求参数） */
+        public String value() {
+            return value;
+        }
+
+        private String masked() {
+            return value.length() <= 8 ? "****" : value.substring(0, 4) + "****" + value.substring(value.length() - 4);
+        }
+    }
+
+    private final List<Key> keys;
+    private final int dailyQuota;
+    private final long throttleQuarantineMillis;
+    private final long keyQuarantineMillis;
+    private final AtomicLong exhausted = new AtomicLong();
+    /** 时钟（隔离截止时间与日配额换日） */
+    private final Clock clock;
+
+    @Autowired
+    public AmapKeyPool(@Value("${map.amap.keys:}") String keys,
+                       @Value("${map.amap.key:}") String key,
+                       @Value("${map.amap.qps:10}") double qps,
+                       @Value("${map.amap.dailyQuota:5000}") int dailyQuota,
+                       @Value("${map.amap.throttleQuarantineSeconds:60}") long throttleQuarantineSeconds,
+                       @Value("${map.amap.quarantineMinutes:60}") long quarantineMinutes) {
+        this(keys, key, qps, dailyQuota, throttleQuarantineSeconds, quarantineMinutes, Clock.systemUTC());
+    }
+
+    /** 测试用：指定时钟。 */
+    AmapKeyPool(String keys, String key, double qps, int dailyQuota,
+                long throttleQuarantineSeconds, long quarantineMinutes, Clock clock) {
+        Set<String> values = new LinkedHashSet<>();
+        for (String k : (keys + "," + key).split(",")) {
+            if (!k.isBlank()) values.add(k.trim());
+        }
+        List<Key> list = new ArrayList<>(values.size());
+        for (String v : values) list.add(new Key(v, qps));
+        this.keys = List.copyOf(list);
+        this.dailyQuota = dailyQuota;
+        this.throttleQuarantineMillis = Duration.ofSeconds(throttleQuarantineSeconds).toMillis();
+        this.keyQuarantineMillis = Duration.ofMinutes(quarantineMinutes).toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * 是否配置了至少一个密钥。
+     */
+    public boolean isConfigured() {
+        return !keys.isEmpty();
+    }
+
+    /**
+     * 选择负载最低的健康密钥并预约一个令牌（计入当日用量与并发）；调用结束后须 {@link #release(Key)}。
+     *
+     * @param maxWaitNanos 可接受的最长令牌等待
+     * @return 选中的密钥与需等待的纳秒数
+     * @throws IllegalStateException 没有可用密钥（均被隔离、配额用尽或令牌等待超限）
+     */
+    public Lease acquire(long maxWaitNanos) {
+        long now = clock.millis();
+        LocalDate today = today();
+        // 每个密钥的负载只取一次快照再排序：排序过程中令牌等待随时间变化，逐次比较时读取会使比较结果前后不一致
+        List<Candidate> candidates = new ArrayList<>(keys.size());
+        for (Key k : keys) {
+            int used;
+            synchronized (k) {
+                if (!today.equals(k.day)) {
+                    k.day = today;
+                    k.usedToday = 0;
+                }
+                if (k.quarantinedUntil > now) continue;
+                if (dailyQuota > 0 && k.usedToday >= dailyQuota) continue;
+                used = k.usedToday;
+            }
+            candidates.add(new Candidate(k, k.bucket.peekWaitNanos(), k.inFlight.get(), used));
+        }
+        candidates.sort(Comparator.comparingLong(Candidate::waitNanos)
+                .thenComparingInt(Candidate::inFlight)
+                .thenComparingInt(Candidate::usedToday));
+        for (Candidate c : candidates) {
+            Key k = c.key();
+            synchronized (k) {
+                if (dailyQuota > 0 && k.usedToday >= dailyQuota) continue;
+                long wait = k.bucket.reserve(maxWaitNanos);
+                if (wait < 0) continue;
+                k.usedToday++;
+                k.inFlight.incrementAndGet();
+                k.requests.incrementAndGet();
+                return new Lease(k, wait);
+            }
+        }
+        exhausted.incrementAndGet();
+        throw new IllegalStateException(candidates.isEmpty()
+                ? "no amap key available: all quarantined or over daily quota"
+                : "amap qps limit: wait exceeds " + maxWaitNanos / 1_000_000 + "ms on all keys");
+    }
+
+    /**
+     * 调用结束（无论成功与否）。
+     */
+    public void release(Key key) {
+        key.inFlight.decrementAndGet();
+    }
+
+    /**
+     * 记录高德返回的错误；密钥相关的 infocode 隔离该密钥。
+     *
+     * @param infocode 高德 infocode
+     */
+    public void reportError(Key key, String infocode) {
+        key.errors.incrementAndGet();
+        key.lastInfocode = infocode;
+        long until;
+        if (QUOTA_CODES.contains(infocode)) {
+            until = today().plusDays(1).atStartOfDay(QUOTA_ZONE).toInstant().toEpochMilli();
+        } else if (THROTTLE_CODES.contains(infocode)) {
+            until = clock.millis() + throttleQuarantineMillis;
+        } else if (KEY_CODES.contains(infocode)) {
+            until = clock.millis() + keyQuarantineMillis;
+        } else {
+            return;
+        }
+        synchronized (key) {
+            if (until > key.quarantinedUntil) {
+                key.quarantinedUntil = until;
+                key.quarantines.incrementAndGet();
+            }
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.ofInstant(clock.instant(), QUOTA_ZONE);
+    }
+
+    /**
+     * 各密钥指标：令牌速率、当日用量与配额、并发、请求与错误次数、隔离状态（密钥脱敏）。
+     */
+    public Map<String, Object> stats() {
+        long now = clock.millis();
+        LocalDate today = today();
+        List<Map<String, Object>> list = new ArrayList<>(keys.size());
+        int healthy = 0;
+        for (Key k : keys) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("key", k.masked());
+            synchronized (k) {
+                int used = today.equals(k.day) ? k.usedToday : 0;
+                boolean quarantined = k.quarantinedUntil > now;
+                boolean overQuota = dailyQuota > 0 && used >= dailyQuota;
+                if (!quarantined && !overQuota) healthy++;
+                m.put("state", quarantined ? "QUARANTINED" : overQuota ? "QUOTA_EXHAUSTED" : "HEALTHY");
+                m.put("usedToday", used);
+                m.put("quarantinedUntil", quarantined ? Instant.ofEpochMilli(k.quarantinedUntil).toString() : null);
+            }
+            m.put("qps", k.bucket.getRatePerSecond());
+            m.put("inFlight", k.inFlight.get());
+            m.put("requests", k.requests.get());
+            m.put("errors", k.errors.get());
+            m.put("quarantines", k.quarantines.get());
+            m.put("lastInfocode", k.lastInfocode);
+            list.add(m);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("size", keys.size());
+        out.put("healthy", healthy);
+        out.put("dailyQuota", dailyQuota);
+        out.put("exhausted", exhausted.get());
+        out.put("keys", list);
+        return out;
+    }
+
+    /**
+     * 一次预约：选中的密钥与需等待的纳秒数。
+     */
+    public record Lease(Key key, long waitNanos) {
+    }
+
+    /** 排序用的负载快照 */
+    private record Candidate(Key key, long waitNanos, int inFlight, int usedToday) {
+    }
+}
@@ -15,17 +15,61 @@ import org.springframework.web.client.RestTemplate;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * 高德周边搜索。
+ * <p>
+ * 分页模式：先取第 1 页并读取 count，剩余页并发抓取（不超过 map.amap.maxPages 页、map.amap.maxResults 条），
+ * 按 POI ID 合并去重。半径超过 map.amap.splitRadiusMeters 时拆成 7 个子圆
+ * （中心一个、周围六个，子圆半径为原半径的一半，恰好覆盖原圆）并发查询，
+ * 合并后按到原圆心的距离重新计算并过滤，绕开单次查询的结果上限。
+ * 每个请求从 {@link AmapKeyPool} 取负载最低的健康密钥并按该密钥的 QPS 排队，
+ * 所有密钥排队都超过 map.amap.maxQpsWaitMs 时本次查询失败。
+ * </p>
+ */
 @Service
-public class AmapService {
+public class AmapService implements PlaceProvider {
+    public static final String PROVIDER = "amap";
     private static final String AMAP_PLACE_AROUND = "https://restapi.amap.com/v3/place/around";
+    /** 周边搜索单页条数（高德上限 25） */
+    private static final int PAGE_SIZE = 25;
 
-    @Value("${map.amap.key:}")
-    private String amapKey;
+    /** 子圆相对原圆心的方位角（度） */
+    private static final int[] SPLIT_BEARINGS = {0, 60, 120, 180, 240, 300};
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final SourceGuard guard;
+    private final ExecutorService pageExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AmapKeyPool keyPool;
+    private final long maxQpsWaitNanos;
+    private final int maxPages;
+    private final int maxResults;
+    private final int splitRadiusMeters;
+
+    public AmapService(OutboundHttpClient http, SourceGuard guard, AmapKeyPool keyPool,
+                       @Value("${map.amap.maxQpsWaitMs:5000}") long maxQpsWaitMs,
+                       @Value("${map.amap.maxPages:8}") int maxPages,
+                       @Value("${map.amap.maxResults:200}") int maxResults,
+                       @Value("${map.amap.splitRadiusMeters:3000}") int splitRadiusMeters) {
+        this.restTemplate = http.forSource("amap");
+        this.guard = guard;
+        this.keyPool = keyPool;
+        this.maxQpsWaitNanos = Duration.ofMillis(maxQpsWaitMs).toNanos();
+        this.maxPages = Math.max(1, maxPages);
+        this.maxResults = Math.max(PAGE_SIZE, maxResults);
+        this.splitRadiusMeters = splitRadiusMeters;
+    }
 
     /**
      * 判断是否已配置高德密钥。
@@ -33,24 +77,189 @@ public class AmapService {
      * @return true 已配置；false 未配置
      */
     public boolean isConfigured() {
-        return amapKey != null && !amapKey.isBlank();
+        return keyPool.isConfigured();
+    }
+
+    @Override
+    public String getProviderName() {
+        return PROVIDER;
     }
 
     /**
      * 使用高德周边搜索进行附近公司检索。
      * <p>
      * 将传入的 WGS-84 坐标转换为 GCJ-02 后调用高德接口；并将返回结果坐标再转换回 WGS-84。
+     * 调用经 {@link SourceGuard} 按 amap 源熔断，失败或熔断打开时返回同一查询最近一次成功的结果。
      * </p>
      *
      * @param wgsLat       纬度（WGS-84）
      * @param wgsLng       经度（WGS-84）
      * @param radiusMeters 半径（米）
      * @param keyword      关键词（可选）
-     * @return 标准化 Place 列表
+     * @return 标准化 Place 列表（可修改的副本）
      */
+    @Override
     public List<Place> searchNearby(double wgsLat, double wgsLng, int radiusMeters, String keyword) {
-        if (!isConfigured()) return List.of();
+        if (!isConfigured()) return new ArrayList<>();
+        String key = String.format(Locale.ROOT, "%.5f,%.5f|%d|%s", wgsLat, wgsLng, radiusMeters, keyword == null ? "" : keyword.trim());
+        return new ArrayList<>(guard.call("amap", key,
+                () -> fetchNearby(wgsLat, wgsLng, radiusMeters, keyword).getPlaces(), List.of()));
+    }
+
+    /**
+     * 不带关键词抓取区域内的公司类 POI（分页，不使用兜底结果）；任一分页查询受页数或条数上限限制时视为被截断。
+     */
+    @Override
+    public Area fetchArea(double wgsLat, double wgsLng, int radiusMeters) {
+        if (!isConfigured()) throw new IllegalStateException("amap key not configured");
+        Area area = guard.call("amap", null, () -> fetchNearby(wgsLat, wgsLng, radiusMeters, null), null);
+        if (area == null) throw new IllegalStateException("source unavailable: amap");
+        return area;
+    }
+
+    /**
+     * 周边搜索：半径超过拆分阈值时拆成子圆，否则分页抓取。结果按到 (wgsLat, wgsLng) 的距离升序。
+     */
+    private Area fetchNearby(double wgsLat, double wgsLng, int radiusMeters, String keyword) {
+        Area area = splitRadiusMeters > 0 && radiusMeters > splitRadiusMeters
+                ? fetchSplit(wgsLat, wgsLng, radiusMeters, keyword)
+                : fetchPaged(wgsLat, wgsLng, radiusMeters, keyword);
+        area.getPlaces().sort(Comparator.comparingDouble(Place::getDistance));
+        return area;
+    }
+
+    /**
+     * 拆成 7 个子圆并发分页抓取，合并去重后按到原圆心的距离过滤；任一子圆被截断则结果被截断。
+     */
+    private Area fetchSplit(double wgsLat, double wgsLng, int radiusMeters, String keyword) {
+        int subRadius = splitRadius(radiusMeters);
+        List<CompletableFuture<Area>> parts = new ArrayList<>(SPLIT_BEARINGS.length + 1);
+        for (double[] c : splitCenters(wgsLat, wgsLng, radiusMeters)) {
+            parts.add(CompletableFuture.supplyAsync(() -> fetchPaged(c[0], c[1], subRadius, keyword), pageExecutor));
+        }
+        Map<String, Place> merged = new LinkedHashMap<>();
+        boolean truncated = false;
+        for (CompletableFuture<Area> f : parts) {
+            Area part = join(f);
+            truncated |= part.isTruncated();
+            for (Place p : part.getPlaces()) {
+                double d = GeoUtils.haversineMeters(wgsLat, wgsLng, p.getLat(), p.getLng());
+                if (d > radiusMeters) continue;
+                p.setDistance(d);
+                merged.putIfAbsent(p.getId(), p);
+            }
+        }
+        return new Area(new ArrayList<>(merged.values()), truncated);
+    }
+
+    /**
+     * 子圆半径：原半径的一半（向上取整）。
+     */
+    static int splitRadius(int radiusMeters) {
+        return (radiusMeters + 1) / 2;
+    }
+
+    /**
+     * 子圆圆心 {lat, lng}：原圆心，以及按 {@link #SPLIT_BEARINGS} 方位、距原圆心 √3/2 倍原半径的六个点。
+     */
+    static List<double[]> splitCenters(double wgsLat, double wgsLng, int radiusMeters) {
+        double offset = radiusMeters * Math.sqrt(3) / 2;
+        List<double[]> centers = new ArrayList<>(SPLIT_BEARINGS.length + 1);
+        centers.add(new double[]{wgsLat, wgsLng});
+        for (int bearing : SPLIT_BEARINGS) {
+            double rad = Math.toRadians(bearing);
+            double lat = wgsLat + Math.toDegrees(offset * Math.cos(rad) / 6371000.0);
+            double lng = wgsLng + Math.toDegrees(offset * Math.sin(rad) / 6371000.0)
+                    / Math.max(0.01, Math.cos(Math.toRadians(wgsLat)));
+            centers.add(new double[]{lat, lng});
+        }
+        return centers;
+    }
+
+    /**
+     * 分页抓取：第 1 页得到 count 后并发抓取其余页，按 ID 去重，最多 maxResults 条。
+     * count 超过实际抓取的页数（maxPages）或去重后超过 maxResults 时结果被截断。
+     */
+    private Area fetchPaged(double wgsLat, double wgsLng, int radiusMeters, String keyword) {
+        Page first = fetchPage(wgsLat, wgsLng, radiusMeters, keyword, 1);
+        Map<String, Place> merged = new LinkedHashMap<>();
+        for (Place p : first.places) merged.putIfAbsent(p.getId(), p);
+        int pages = Math.min(maxPages, (Math.min(first.count, maxResults) + PAGE_SIZE - 1) / PAGE_SIZE);
+        if (pages > 1 && first.places.size() >= PAGE_SIZE) {
+            List<CompletableFuture<Page>> rest = new ArrayList<>(pages - 1);
+            for (int page = 2; page <= pages; page++) {
+                int n = page;
+                rest.add(CompletableFuture.supplyAsync(() -> fetchPage(wgsLat, wgsLng, radiusMeters, keyword, n), pageExecutor));
+            }
+            for (CompletableFuture<Page> f : rest) {
+                for (Place p : join(f).places) merged.putIfAbsent(p.getId(), p);
+            }
+        }
+        List<Place> out = new ArrayList<>(merged.values());
+        boolean truncated = first.places.size() >= PAGE_SIZE && first.count > pages * PAGE_SIZE;
+        if (out.size() > maxResults) {
+            return new Area(new ArrayList<>(out.subList(0, maxResults)), true);
+        }
+        return new Area(out, truncated);
+    }
+
+    /** 等待并发抓取结果，失败时抛出原始异常（计入熔断）。 */
+    private static <T> T join(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    /**
+     * 从密钥池取一个密钥并等待其令牌。
+     *
+     * @throws IllegalStateException 没有可用密钥或排队时间超过 map.amap.maxQpsWaitMs
+     */
+    private AmapKeyPool.Key acquireKey() {
+        AmapKeyPool.Lease lease = keyPool.acquire(maxQpsWaitNanos);
+        if (lease.waitNanos() > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(lease.waitNanos()));
+            } catch (InterruptedException e) {
+                keyPool.release(lease.key());
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted waiting for amap qps", e);
+            }
+        }
+        return lease.key();
+    }
+
+    /**
+     * 一页结果与结果总数。
+     */
+    private static final class Page {
+        private final List<Place> places;
+        private final int count;
+
+        private Page(List<Place> places, int count) {
+            this.places = places;
+            this.count = count;
+        }
+    }
 
+    /**
+     * 调用高德周边搜索（单页）。
+     *
+     * @throws IllegalStateException 高德返回 status=0（密钥无效、超出配额等）
+     */
+    private Page fetchPage(double wgsLat, double wgsLng, int radiusMeters, String keyword, int page) {
+        AmapKeyPool.Key key = acquireKey();
+        try {
+            return fetchPage(key, wgsLat, wgsLng, radiusMeters, keyword, page);
+        } finally {
+            keyPool.release(key);
+        }
+    }
+
+    private Page fetchPage(AmapKeyPool.Key key, double wgsLat, double wgsLng, int radiusMeters, String keyword, int page) {
         double[] gcj = CoordTransform.wgsToGcj(wgsLat, wgsLng);
         double gcjLat = gcj[0];
         double gcjLng = gcj[1];
@@ -60,21 +269,25 @@ public class AmapService {
             keywords.append("|").append(keyword.trim());
         }
 
-        String qs = "key=" + URLEncoder.encode(amapKey, StandardCharsets.UTF_8) +
+        String qs = "key=" + URLEncoder.encode(key.value(), StandardCharsets.UTF_8) +
                 "&location=" + gcjLng + "," + gcjLat +
                 "&radius=" + radiusMeters +
                 "&keywords=" + URLEncoder.encode(keywords.toString(), StandardCharsets.UTF_8) +
-                "&offset=25&extensions=base&output=json";
+                "&offset=" + PAGE_SIZE + "&page=" + page + "&extensions=base&output=json";
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-        headers.set(HttpHeaders.USER_AGENT, "NearbyCompaniesDemo/1.0");
+        headers.set(HttpHeaders.USER_AGENT, OutboundHttpClient.USER_AGENT);
         HttpEntity<String> entity = new HttpEntity<>(qs, headers);
 
         ResponseEntity<JsonNode> resp = restTemplate.exchange(AMAP_PLACE_AROUND, HttpMethod.POST, entity, JsonNode.class);
         JsonNode body = resp.getBody();
         List<Place> results = new ArrayList<>();
-        if (body == null) return results;
+        if (body == null) return new Page(results, 0);
+        if ("0".equals(body.path("status").asText())) {
+            keyPool.reportError(key, body.path("infocode").asText());
+            throw new IllegalStateException("amap error " + body.path("infocode").asText() + ": " + body.path("info").asText());
+        }
 
         JsonNode pois = body.path("pois");
         if (pois.isArray()) {
@@ -105,9 +318,10 @@ public class AmapService {
                 if (!typecode.isEmpty()) categories.add("typecode:" + typecode);
 
                 String url = "https://uri.amap.com/marker?position=" + gcjPLon + "," + gcjPLat + "&name=" + URLEncoder.encode(name, StandardCharsets.UTF_8);
-                results.add(new Place(id, name, address, lat, lng, distance, categories, "amap", url));
+                results.add(new Place(id, name, address, lat, lng, distance, categories, PROVIDER, url));
             }
         }
-        return results;
+        // count 为字符串形式的总条数
+        return new Page(results, body.path("count").asInt(results.size()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CrawlWorkItemEntity;
+import com.example.demo.model.JobSearchResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 投递链接批量刷新引擎。
+ * <p>
+ * 公司集合来自 company_refresh_state 表（被查询过的公司、已有聚合结果的公司、审核通过的提交链接中的公司）。
+ * 每批由一个节点按优先级（请求次数降序、上次刷新时间升序，连续失败过多的排最后）把公司入队到
+ * {@link CrawlWorkQueue}，各节点领取后调用 {@link JobLinkService#refresh(String, long)}，
+ * 单节点同时刷新的公司数不超过 jobs.refresh.concurrency，出站请求仍经抓取前沿与 {@link CrawlExecutor} 节流。
+ * 已完成的公司记录在队列中，进程重启或新节点加入后在时间窗口内继续处理剩余公司；
+ * 超过 jobs.refresh.windowMinutes 后不再领取，未处理的公司留到下一批（高优先级的已先完成）。
+ * </p>
+ */
+@Profile("db")
+@Service
+public class BulkRefreshService {
+    /** 工作队列类型与 sync_state 中的批次状态名（watermark 为上一批 ID，pending_watermark 为进行中的批次 ID） */
+    public static final String SYNC_NAME = "job-link-refresh";
+
+    private final JobLinkService jobLinkService;
+    private final CompanyRefreshStore store;
+    private final CrawlWorkQueue queue;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /** 本节点当前批次指标 */
+    private volatile long currentRunId = -1;
+    private volatile LocalDateTime currentStartedAt;
+    private final AtomicLong ok = new AtomicLong();
+    private final AtomicLong partial = new AtomicLong();
+    private final AtomicLong empty = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong totalDurationMs = new AtomicLong();
+
+    @Value("${jobs.refresh.concurrency:16}")
+    private int concurrency;
+
+    @Value("${jobs.refresh.windowMinutes:240}")
+    private long windowMinutes;
+
+    @Value("${jobs.refresh.companyTimeoutMs:30000}")
+    private long companyTimeoutMs;
+
+    @Value("${jobs.refresh.maxFailures:3}")
+    private int maxFailures;
+
+    @Value("${jobs.scheduler.companyNames:腾讯,阿里巴巴,字节跳动,美团}")
+    private String seedNames;
+
+    public BulkRefreshService(JobLinkService jobLinkService, CompanyRefreshStore store, CrawlWorkQueue queue) {
+        this.jobLinkService = jobLinkService;
+        this.store = store;
+        this.queue = queue;
+    }
+
+    /**
+     * 开始新的一批刷新；已有批次在时间窗口内未完成时（本节点或其他节点开始的）加入该批次。
+     */
+    public void run() {
+        execute(true);
+    }
+
+    /**
+     * 仅加入时间窗口内未完成的批次（应用启动时调用）。
+     */
+    public void resume() {
+        execute(false);
+    }
+
+    private void execute(boolean startNew) {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            long windowMs = TimeUnit.MINUTES.toMillis(Math.max(1, windowMinutes));
+            Long runId;
+            if (startNew) {
+                store.flushRequests();
+                store.seed(Arrays.stream(seedNames.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList());
+                runId = queue.startRun(SYNC_NAME, windowMs, id -> store.enqueue(SYNC_NAME, id, maxFailures));
+            } else {
+                runId = queue.activeRun(SYNC_NAME, windowMs);
+            }
+            if (runId == null) return;
+            resetStats(runId);
+            long deadline = runId + windowMs;
+            boolean complete = queue.drain(SYNC_NAME, runId, deadline, concurrency,
+                    item -> refreshOne(item, runId, deadline));
+            queue.finishRun(SYNC_NAME, runId, complete);
+        } catch (Exception ignore) {
+            // 数据库不可用：批次保持未完成，下次启动或调度时继续
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private String refreshOne(CrawlWorkItemEntity item, long runId, long deadlineMillis) {
+        long start = System.nanoTime();
+        String status;
+        int links = 0;
+        long timeoutMs = Math.min(companyTimeoutMs, Math.max(1, deadlineMillis - System.currentTimeMillis()));
+        try {
+            JobSearchResult r = jobLinkService.refresh(item.getPayload(), timeoutMs);
+            if (r == null) {
+                status = "SKIPPED";
+            } else {
+                links = r.getLinks().size();
+                boolean incomplete = r.isPartial() || !r.getUnavailableSources().isEmpty();
+                // 无链接且有数据源超时/不可用：算作失败而不是“确实没有”
+                status = links == 0 ? (incomplete ? "FAILED" : "EMPTY") : incomplete ? "PARTIAL" : "OK";
+            }
+        } catch (RuntimeException e) {
+            status = "FAILED";
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        count(status, durationMs);
+        try {
+            store.recordOutcome(item.getItemKey(), runId, status, durationMs, links);
+        } catch (RuntimeException ignore) {
+            // 只影响下一批的优先级
+        }
+        return status;
+    }
+
+    private void count(String status, long durationMs) {
+        totalDurationMs.addAndGet(durationMs);
+        switch (status) {
+            case "OK" -> ok.incrementAndGet();
+            case "PARTIAL" -> partial.incrementAndGet();
+            case "EMPTY" -> empty.incrementAndGet();
+            case "FAILED" -> failed.incrementAndGet();
+            default -> skipped.incrementAndGet();
+        }
+    }
+
+    private void resetStats(long runId) {
+        if (currentRunId == runId) return;
+        currentRunId = runId;
+        currentStartedAt = LocalDateTime.now();
+        ok.set(0);
+        partial.set(0);
+        empty.set(0);
+        failed.set(0);
+        skipped.set(0);
+        totalDurationMs.set(0);
+    }
+
+    /**
+     * 批量刷新指标：本节点当前（或最近）批次的各结果计数、平均耗时，以及队列中全部节点的进度。
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        long done = ok.get() + partial.get() + empty.get() + failed.get() + skipped.get();
+        m.put("running", running.get());
+        m.put("runId", currentRunId);
+        m.put("startedAt", currentStartedAt);
+        m.put("done", done);
+        m.put("ok", ok.get());
+        m.put("partial", partial.get());
+        m.put("empty", empty.get());
+        m.put("failed", failed.get());
+        m.put("skipped", skipped.get());
+        m.put("avgDurationMs", done == 0 ? 0 : totalDurationMs.get() / done);
+        try {
+            m.put("queue", queue.stats(SYNC_NAME));
+        } catch (RuntimeException ignore) {
+            // 数据库不可用时只返回本节点指标
+        }
+        return m;
+    }
+}
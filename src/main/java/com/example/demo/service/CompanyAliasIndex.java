@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import com.example.demo.util.CharTrie;
+import com.example.demo.util.CompanyNames;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 公司别名索引。
+ * <p>
+ * 启动时（及 {@link #reload()} 时）把别名组编译为一棵 {@link CharTrie}：键为别名的归一化名称，
+ * 值为别名组的规范 ID。别名组来自 company.aliases 与可选的 company.aliasFile（每行一组），
+ * 格式均为 {@code 规范ID=别名1,别名2,...}（组之间在配置项中以 ; 分隔，文件中以 # 开头的行为注释）。
+ * 官网域名映射 jobs.domains 同样按规范 ID 存放，因此“字节跳动有限公司”“字节跳动”“ByteDance”
+ * 得到相同的缓存键与域名。不在任何别名组中的公司以归一化名称作为键。
+ * 索引为不可变快照，重新加载时整体替换，查询无锁。
+ * </p>
+ */
+@Service
+public class CompanyAliasIndex {
+    private final Environment env;
+    private final ResourceLoader resources;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public CompanyAliasIndex(Environment env, ResourceLoader resources) {
+        this.env = env;
+        this.resources = resources;
+        reload();
+    }
+
+    /**
+     * 公司的规范键：命中别名组时为组的规范 ID，否则为归一化名称。
+     *
+     * @param name 公司名
+     * @return 规范键；空名称返回空字符串
+     */
+    public String canonicalKey(String name) {
+        return snapshot.canonicalKey(CompanyNames.normalize(name));
+    }
+
+    /**
+     * 公司官网域名（jobs.domains 中同一别名组内任一名称配置的域名）。
+     *
+     * @param name 公司名
+     * @return 域名；未配置返回空字符串
+     */
+    public String domain(String name) {
+        Snapshot s = snapshot;
+        return s.domains.getOrDefault(s.canonicalKey(CompanyNames.normalize(name)), "");
+    }
+
+    /**
+     * 重新读取配置并编译索引；读取别名文件失败时保留原索引。
+     *
+     * @return 索引指标（失败时含 error）
+     */
+    public synchronized Map<String, Object> reload() {
+        List<String> groups = new ArrayList<>();
+        for (String g : env.getProperty("company.aliases", "").split(";")) {
+            if (!g.isBlank()) groups.add(g);
+        }
+        String file = env.getProperty("company.aliasFile", "");
+        if (StringUtils.hasText(file)) {
+            try {
+                groups.addAll(readLines(resources.getResource(file.trim())));
+            } catch (IOException e) {
+                Map<String, Object> m = stats();
+                m.put("error", "alias file unreadable: " + e.getMessage());
+                return m;
+            }
+        }
+        snapshot = Snapshot.build(groups, env.getProperty("jobs.domains", ""));
+        return stats();
+    }
+
+    /**
+     * 索引指标：别名组数、别名数、冲突数、域名数与字典树规模。
+     */
+    public Map<String, Object> stats() {
+        Snapshot s = snapshot;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("groups", s.ids.length);
+        m.put("aliases", s.aliases);
+        m.put("conflicts", s.conflicts);
+        m.put("domains", s.domains.size());
+        m.put("trieNodes", s.trie.nodeCount());
+        m.put("trieBytes", s.trie.memoryBytes());
+        m.put("loadedAt", s.loadedAt);
+        return m;
+    }
+
+    private static List<String> readLines(Resource r) throws IOException {
+        List<String> out = new ArrayList<>();
+        if (!r.exists()) throw new IOException(r.getDescription() + " not found");
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(r.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) out.add(line);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 不可变索引快照。
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new CharTrie.Builder().build(), new String[0], Map.of(), 0, 0);
+
+        private final CharTrie trie;
+        /** 别名组下标 → 规范 ID */
+        private final String[] ids;
+        /** 规范键 → 官网域名 */
+        private final Map<String, String> domains;
+        private final int aliases;
+        private final int conflicts;
+        private final LocalDateTime loadedAt = LocalDateTime.now();
+
+        private Snapshot(CharTrie trie, String[] ids, Map<String, String> domains, int aliases, int conflicts) {
+            this.trie = trie;
+            this.ids = ids;
+            this.domains = domains;
+            this.aliases = aliases;
+            this.conflicts = conflicts;
+        }
+
+        private String canonicalKey(String normalized) {
+            if (normalized.isEmpty()) return normalized;
+            int group = trie.get(normalized);
+            return group >= 0 ? ids[group] : normalized;
+        }
+
+        /**
+         * 编译别名组；同一别名出现在多个组时归属先出现的组（计入冲突数）。
+         */
+        private static Snapshot build(List<String> groups, String domainConfig) {
+            CharTrie.Builder b = new CharTrie.Builder();
+            List<String> ids = new ArrayList<>();
+            Map<String, Integer> owner = new HashMap<>();
+            int conflicts = 0;
+            for (String g : groups) {
+                int eq = g.indexOf('=');
+                String id = CompanyNames.normalize(eq >= 0 ? g.substring(0, eq) : g);
+                if (id.isEmpty()) continue;
+                int group = ids.size();
+                ids.add(id);
+                List<String> names = new ArrayList<>();
+                names.add(id);
+                if (eq >= 0) {
+                    for (String a : g.substring(eq + 1).split(",")) names.add(CompanyNames.normalize(a));
+                }
+                for (String a : names) {
+                    if (a.isEmpty()) continue;
+                    Integer prev = owner.putIfAbsent(a, group);
+                    if (prev == null) {
+                        b.add(a, group);
+                    } else if (prev != group) {
+                        conflicts++;
+                    }
+                }
+            }
+            CharTrie trie = b.build();
+            String[] idArr = ids.toArray(new String[0]);
+            int aliases = owner.size();
+            Snapshot partial = new Snapshot(trie, idArr, Map.of(), aliases, conflicts);
+            Map<String, String> domains = new HashMap<>();
+            for (String p : domainConfig.split(";")) {
+                String[] kv = p.split("=");
+                if (kv.length == 2 && !kv[1].isBlank()) {
+                    String key = partial.canonicalKey(CompanyNames.normalize(kv[0]));
+                    if (!key.isEmpty()) domains.putIfAbsent(key, kv[1].trim());
+                }
+            }
+            return new Snapshot(trie, idArr, Map.copyOf(domains), aliases, conflicts);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import com.example.demo.util.CountMinSketch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 公司查询热度（按归一化公司名）。
+ * <p>
+ * 用可衰减的 {@link CountMinSketch} 估计每家公司的查询频率（半衰期 jobs.hotness.halfLifeHours），
+ * 并以小顶堆维护估计值最高的 jobs.hotness.topK 家公司：新查询的估计值超过堆顶时替换堆顶。
+ * 热度随时间衰减，招聘季变化后旧的热门公司会逐渐被挤出 Top-K。内存固定，与公司数量无关。
+ * </p>
+ */
+@Service
+public class CompanyHotness {
+
+    /**
+     * Top-K 中的一家公司。
+     */
+    public static final class Hot {
+        private final String key;
+        private String companyName;
+        private double count;
+
+        private Hot(String key, String companyName, double count) {
+            this.key = key;
+            this.companyName = companyName;
+            this.count = count;
+        }
+
+        public String getKey() { return key; }
+        public String getCompanyName() { return companyName; }
+        public double getCount() { return count; }
+    }
+
+    private final CountMinSketch sketch;
+    private final int k;
+    private final double decayFactor;
+    /** Top-K：归一化名 → 条目；堆按估计值升序（堆顶为最冷） */
+    private final Map<String, Hot> top = new HashMap<>();
+    private final PriorityQueue<Hot> heap = new PriorityQueue<>(Comparator.comparingDouble(Hot::getCount));
+
+    public CompanyHotness(@Value("${jobs.hotness.width:8192}") int width,
+                          @Value("${jobs.hotness.depth:4}") int depth,
+                          @Value("${jobs.hotness.topK:200}") int topK,
+                          @Value("${jobs.hotness.halfLifeHours:24}") double halfLifeHours,
+                          @Value("${jobs.hotness.decayIntervalMs:600000}") long decayIntervalMs) {
+        this.sketch = new CountMinSketch(width, depth);
+        this.k = Math.max(1, topK);
+        double halfLifeMs = Math.max(1, halfLifeHours) * 3_600_000d;
+        this.decayFactor = Math.pow(0.5, decayIntervalMs / halfLifeMs);
+    }
+
+    /**
+     * 记录一次查询。
+     *
+     * @param key         公司归一化名
+     * @param companyName 公司名称（刷新时使用）
+     */
+    public void record(String key, String companyName) {
+        if (key == null || key.isEmpty()) return;
+        double count = sketch.add(key, 1);
+        synchronized (this) {
+            Hot h = top.get(key);
+            if (h != null) {
+                // 更新优先级：移除后重新入堆
+                heap.remove(h);
+                h.count = count;
+                h.companyName = companyName;
+                heap.add(h);
+                return;
+            }
+            if (top.size() >= k) {
+                if (count <= heap.peek().count) return;
+                top.remove(heap.poll().key);
+            }
+            h = new Hot(key, companyName, count);
+            top.put(key, h);
+            heap.add(h);
+        }
+    }
+
+    /**
+     * 估计查询次数（已衰减）。
+     */
+    public double estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    /**
+     * 当前 Top-K（按热度降序）。
+     */
+    public synchronized List<Hot> topK() {
+        List<Hot> out = new ArrayList<>(heap);
+        out.sort(Comparator.comparingDouble(Hot::getCount).reversed());
+        return out;
+    }
+
+    /**
+     * 周期衰减：sketch 与 Top-K 估计值同比例缩小（相对顺序不变）。
+     */
+    @Scheduled(fixedDelayString = "${jobs.hotness.decayIntervalMs:600000}",
+            initialDelayString = "${jobs.hotness.decayIntervalMs:600000}")
+    public void decay() {
+        sketch.decay(decayFactor);
+        synchronized (this) {
+            for (Hot h : top.values()) {
+                h.count *= decayFactor;
+            }
+        }
+    }
+
+    /**
+     * 热度指标：sketch 规模与内存占用、Top-K 列表。
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("sketchWidth", sketch.getWidth());
+        m.put("sketchDepth", sketch.getDepth());
+        m.put("sketchBytes", sketch.memoryBytes());
+        m.put("decayFactor", decayFactor);
+        m.put("totalWeight", sketch.total());
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Hot h : topK()) {
+            Map<String, Object> e = new LinkedHashMap<>();
+            e.put("key", h.key);
+            e.put("companyName", h.companyName);
+            e.put("count", Math.round(h.count * 100) / 100d);
+            list.add(e);
+        }
+        m.put("topK", list);
+        return m;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.example.demo.entity.CompanyRefreshStateEntity;
+import com.example.demo.mapper.CompanyRefreshStateMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 公司批量刷新状态持久化（company_refresh_state 表）。
+ * <p>
+ * 请求计数先在内存中累加，由调度任务定期批量写入，避免每次查询都写库；
+ * 批量刷新时把公司按优先级入队（见 {@link CrawlWorkQueue}），并逐家记录结果。
+ * </p>
+ */
+@Profile("db")
+@Service
+public class CompanyRefreshStore {
+    /** 单条 INSERT 的批量大小 */
+    private static final int BATCH = 500;
+
+    private final CompanyRefreshStateMapper mapper;
+    private final CompanyAliasIndex aliasIndex;
+    /** 未落库的请求计数：公司归一化名 → 计数 */
+    private final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+
+    public CompanyRefreshStore(CompanyRefreshStateMapper mapper, CompanyAliasIndex aliasIndex) {
+        this.mapper = mapper;
+        this.aliasIndex = aliasIndex;
+    }
+
+    /**
+     * 记录一次公司查询（仅内存累加）。
+     */
+    public void recordRequest(String companyKey, String companyName) {
+        if (companyKey == null || companyKey.isEmpty()) return;
+        pendingRequests.computeIfAbsent(companyKey, k -> new PendingRequest()).add(companyName);
+    }
+
+    /**
+     * 把内存中的请求计数写入数据库。
+     */
+    public void flushRequests() {
+        if (pendingRequests.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        List<CompanyRefreshStateEntity> rows = new ArrayList<>();
+        for (String key : List.copyOf(pendingRequests.keySet())) {
+            PendingRequest p = pendingRequests.remove(key);
+            if (p == null) continue;
+            CompanyRefreshStateEntity e = new CompanyRefreshStateEntity();
+            e.setCompanyKey(key);
+            e.setCompanyName(p.name);
+            e.setRequestCount(p.count.get());
+            e.setLastRequestedAt(now);
+            rows.add(e);
+        }
+        for (int from = 0; from < rows.size(); from += BATCH) {
+            mapper.upsertRequests(rows.subList(from, Math.min(rows.size(), from + BATCH)));
+        }
+    }
+
+    /**
+     * 登记候选公司：聚合结果表、审核通过的提交链接与配置的公司名。
+     *
+     * @param extraNames 额外的公司名（如 jobs.scheduler.companyNames）
+     */
+    public void seed(Collection<String> extraNames) {
+        mapper.seedFromJobLinks();
+        Map<String, CompanyRefreshStateEntity> rows = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(mapper.selectSubmittedCompanyNames());
+        names.addAll(extraNames);
+        for (String name : names) {
+            String key = aliasIndex.canonicalKey(name);
+            if (key.isEmpty()) continue;
+            CompanyRefreshStateEntity e = new CompanyRefreshStateEntity();
+            e.setCompanyKey(key);
+            e.setCompanyName(name.trim());
+            rows.putIfAbsent(key, e);
+        }
+        List<CompanyRefreshStateEntity> list = new ArrayList<>(rows.values());
+        for (int from = 0; from < list.size(); from += BATCH) {
+            mapper.insertIgnore(list.subList(from, Math.min(list.size(), from + BATCH)));
+        }
+    }
+
+    /**
+     * 把全部公司作为一批刷新工作项入队（按优先级排序）。
+     *
+     * @param kind        工作类型
+     * @param runId       批次 ID
+     * @param maxFailures 连续失败达到该次数的公司排到最后
+     * @return 入队数量
+     */
+    public int enqueue(String kind, long runId, int maxFailures) {
+        return mapper.enqueueRefresh(kind, runId, maxFailures);
+    }
+
+    /**
+     * 记录单家公司的刷新结果：FAILED 累计连续失败次数，EMPTY 累计连续无结果次数（不算失败，不影响排序），
+     * OK/PARTIAL 两者清零，SKIPPED 不变。
+     *
+     * @param companyKey 公司归一化名
+     * @param runId      批次 ID
+     * @param status     结果：OK/PARTIAL/EMPTY/FAILED/SKIPPED
+     * @param durationMs 耗时
+     * @param linkCount  链接数
+     */
+    public void recordOutcome(String companyKey, long runId, String status, long durationMs, int linkCount) {
+        boolean failed = "FAILED".equals(status);
+        boolean empty = "EMPTY".equals(status);
+        LambdaUpdateWrapper<CompanyRefreshStateEntity> uw = new LambdaUpdateWrapper<CompanyRefreshStateEntity>()
+                .eq(CompanyRefreshStateEntity::getCompanyKey, companyKey)
+                .set(CompanyRefreshStateEntity::getLastRunId, runId)
+                .set(CompanyRefreshStateEntity::getLastStatus, status)
+                .set(CompanyRefreshStateEntity::getLastDurationMs, durationMs)
+                .set(CompanyRefreshStateEntity::getLastLinkCount, linkCount);
+        if (!"SKIPPED".equals(status)) {
+            uw.setSql(failed ? "consecutive_failures = consecutive_failures + 1" : "consecutive_failures = 0")
+                    .setSql(empty ? "consecutive_empty = consecutive_empty + 1" : "consecutive_empty = 0")
+                    .set(CompanyRefreshStateEntity::getLastRefreshedAt, LocalDateTime.now());
+        }
+        mapper.update(null, uw);
+    }
+
+    /**
+     * 内存中的请求计数。
+     */
+    private static final class PendingRequest {
+        private final AtomicLong count = new AtomicLong();
+        private volatile String name;
+
+        private void add(String companyName) {
+            name = companyName == null ? "" : companyName.trim();
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全局抓取执行器（只执行叶子抓取任务）。
+ * <p>
+ * 虚拟线程工作者 + 有界并发（crawl.executor.maxConcurrency）+ 有界队列（crawl.executor.queueCapacity）：
+ * 队列满时提交方最多阻塞 crawl.executor.offerTimeoutMs 等待空位（背压），仍无空位则拒绝并计数。
+ * {@link CrawlFrontier} 到点派发的请求、robots.txt 加载均在此执行，因此 JobLinkService、SitemapService
+ * 与各调度任务的出站抓取共享同一并发上限。
+ * </p>
+ * <p>
+ * 任务内不得再提交并等待本执行器的任务（嵌套等待在满载时会死锁）；编排逻辑（扇出、等待截止时间）
+ * 应留在调用方自己的虚拟线程上。
+ * </p>
+ */
+@Service
+public class CrawlExecutor implements Executor {
+    private final ThreadPoolExecutor pool;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong backPressureWaits = new AtomicLong();
+
+    public CrawlExecutor(@Value("${crawl.executor.maxConcurrency:64}") int maxConcurrency,
+                         @Value("${crawl.executor.queueCapacity:1000}") int queueCapacity,
+                         @Value("${crawl.executor.offerTimeoutMs:1000}") long offerTimeoutMs) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.pool = new ThreadPoolExecutor(this.maxConcurrency, this.maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                Thread.ofVirtual().name("crawl-", 0).factory(),
+                (r, executor) -> {
+                    // 背压：队列满时限时等待空位
+                    backPressureWaits.incrementAndGet();
+                    try {
+                        if (!executor.isShutdown() && executor.getQueue().offer(r, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("crawl executor saturated");
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 执行任务（队列满时按背压策略等待或拒绝）。
+     *
+     * @throws RejectedExecutionException 等待超时仍无空位
+     */
+    @Override
+    public void execute(Runnable task) {
+        pool.execute(task);
+    }
+
+    /**
+     * 提交任务。
+     *
+     * @param task 抓取任务
+     * @return 任务结果；被拒绝时以 RejectedExecutionException 失败
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            pool.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * 执行器指标：队列深度、活跃任务、完成数、背压等待与拒绝次数。
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("maxConcurrency", maxConcurrency);
+        m.put("queueCapacity", queueCapacity);
+        m.put("queueDepth", pool.getQueue().size());
+        m.put("activeTasks", pool.getActiveCount());
+        m.put("completedTasks", pool.getCompletedTaskCount());
+        m.put("largestPoolSize", pool.getLargestPoolSize());
+        m.put("backPressureWaits", backPressureWaits.get());
+        m.put("rejected", rejected.get());
+        return m;
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.demo.service;
+
+import com.example.demo.util.RobotsRules;
+import com.example.demo.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 抓取调度前沿（per-host 礼貌抓取）。
+ * <p>
+ * 所有面向目标站点的抓取经此提交：按主机缓存解析后的 robots.txt（Disallow/Allow、Crawl-delay、Sitemap），
+ * 每个主机一个令牌桶（Crawl-delay 存在时按其降速），请求按预约时刻排队，到点后交给 {@link CrawlExecutor} 执行。
+ * 各主机相互独立排队，总吞吐不受单个慢主机限制；单主机排队数与最长等待有上限，超出时直接拒绝，
+ * 避免请求在队列中耗尽调用方的时限。
+ * 后台任务（{@link #submitBackground}）可以等待更久，但每次最多提前 crawl.host.backgroundReserveAheadMs 预约令牌，
+ * 其余时间在桶外等待，不会把主机的令牌提前占满而让交互请求因等待超限被拒绝。
+ * </p>
+ * <p>
+ * robots.txt 经 {@link HttpResponseCache} 条件 GET 获取：不存在或 4xx 视为全部允许，
+ * 5xx/网络异常按 RFC 9309 视为暂时全部禁止（仅缓存 crawl.robots.unreachableTtlMinutes），
+ * 此时需校验 robots 的请求以 {@link RobotsUnavailableException} 失败，与站点明确禁止（{@link DisallowedException}）区分；
+ * 本地限流（主机连接配额、执行器饱和）导致的加载失败不缓存，只让当次请求失败。
+ * </p>
+ */
+@Service
+public class CrawlFrontier {
+    /** robots.txt 中匹配的产品标识 */
+    public static final String AGENT_TOKEN = "HireRadar";
+
+    private final HttpResponseCache responseCache;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "crawl-frontier");
+        t.setDaemon(true);
+        return t;
+    });
+    private final CrawlExecutor workers;
+    private final Cache<String, HostQueue> hosts;
+    private final Cache<String, RobotsEntry> robots;
+
+    @Value("${crawl.robots.enabled:true}")
+    private boolean robotsEnabled;
+    @Value("${crawl.robots.ttlMinutes:60}")
+    private long robotsTtlMinutes;
+    @Value("${crawl.robots.unreachableTtlMinutes:5}")
+    private long robotsUnreachableTtlMinutes;
+    @Value("${crawl.host.ratePerSecond:2}")
+    private double hostRatePerSecond;
+    @Value("${crawl.host.burst:4}")
+    private double hostBurst;
+    @Value("${crawl.host.maxQueue:100}")
+    private int hostMaxQueue;
+    @Value("${crawl.host.maxWaitMs:5000}")
+    private long hostMaxWaitMs;
+    @Value("${crawl.host.backgroundReserveAheadMs:1000}")
+    private long backgroundReserveAheadMs;
+    /** Crawl-delay 上限（秒），过大的声明按此值处理 */
+    @Value("${crawl.maxCrawlDelaySeconds:30}")
+    private double maxCrawlDelaySeconds;
+
+    public CrawlFrontier(HttpResponseCache responseCache, CrawlExecutor workers) {
+        this.responseCache = responseCache;
+        this.workers = workers;
+        this.hosts = Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(30)).build();
+        this.robots = Caffeine.newBuilder().maximumSize(10_000).build();
+    }
+
+    /**
+     * 提交抓取任务（使用默认最长等待 crawl.host.maxWaitMs）。
+     *
+     * @see #submit(URI, boolean, Duration, Callable)
+     */
+    public <T> CompletableFuture<T> submit(URI uri, boolean checkRobots, Callable<T> task) {
+        return submit(uri, checkRobots, Duration.ofMillis(hostMaxWaitMs), task);
+    }
+
+    /**
+     * 被 robots.txt 禁止抓取。
+     */
+    public static final class DisallowedException extends IOException {
+        public DisallowedException(URI uri) {
+            super("disallowed by robots.txt: " + uri);
+        }
+    }
+
+    /**
+     * robots.txt 暂不可达（5xx 或网络异常），按 RFC 9309 暂时不抓取；不代表站点禁止抓取该地址。
+     */
+    public static final class RobotsUnavailableException extends IOException {
+        public RobotsUnavailableException(URI uri) {
+            super("robots.txt unavailable for " + uri);
+        }
+    }
+
+    /**
+     * 提交抓取任务：按主机节流排队，到点后交给 {@link CrawlExecutor} 执行。
+     *
+     * @param uri         目标地址（决定主机与 robots 规则）
+     * @param checkRobots 是否校验 robots.txt 的 Disallow（链接探测等非抓取请求可传 false，仍遵守 Crawl-delay）
+     * @param maxWait     可接受的最长排队时间
+     * @param task        实际请求
+     * @return 任务结果；被 robots 禁止时以 {@link DisallowedException} 失败，robots.txt 暂不可达时以
+     *         {@link RobotsUnavailableException} 失败，队列已满、等待超限或执行器饱和时以 RejectedExecutionException 失败，
+     *         robots.txt 因本地限流未能加载时以 {@link OutboundHttpClient.ConnectionLimitException} 失败
+     */
+    public <T> CompletableFuture<T> submit(URI uri, boolean checkRobots, Duration maxWait, Callable<T> task) {
+        return submit(uri, checkRobots, maxWait.toNanos(), maxWait.toNanos(), task);
+    }
+
+    /**
+     * 提交后台任务（如链接健康探测）：可接受较长的 maxWait，但每次最多提前 crawl.host.backgroundReserveAheadMs 预约令牌，
+     * 其余时间在桶外等待后重新预约，给交互请求留出余量。
+     *
+     * @see #submit(URI, boolean, Duration, Callable)
+     */
+    public <T> CompletableFuture<T> submitBackground(URI uri, boolean checkRobots, Duration maxWait, Callable<T> task) {
+        long ahead = Math.min(maxWait.toNanos(), TimeUnit.MILLISECONDS.toNanos(backgroundReserveAheadMs));
+        return submit(uri, checkRobots, maxWait.toNanos(), ahead, task);
+    }
+
+    private <T> CompletableFuture<T> submit(URI uri, boolean checkRobots, long maxWait, long reserveAhead, Callable<T> task) {
+        if (uri.getHost() == null) {
+            return CompletableFuture.failedFuture(new IOException("no host in " + uri));
+        }
+        HostQueue host = hosts.get(hostKey(uri), HostQueue::new);
+        return rules(uri).thenCompose(rules -> {
+            if (checkRobots && !rules.isAllowed(pathOf(uri))) {
+                host.blocked.incrementAndGet();
+                // DISALLOW_ALL 只用于 robots.txt 不可达（站点自己声明的全站禁止是解析出的新实例）
+                return CompletableFuture.failedFuture(rules == RobotsRules.DISALLOW_ALL
+                        ? new RobotsUnavailableException(uri) : new DisallowedException(uri));
+            }
+            host.applyCrawlDelay(rules.getCrawlDelaySeconds());
+            return host.enqueue(task, maxWait, reserveAhead);
+        });
+    }
+
+    /**
+     * 获取站点的 robots 规则（按 origin 缓存）。
+     *
+     * @param uri 站点内任意地址
+     * @return 规则；禁用 robots 校验时为全部允许
+     */
+    public CompletableFuture<RobotsRules> rules(URI uri) {
+        if (!robotsEnabled) {
+            return CompletableFuture.completedFuture(RobotsRules.ALLOW_ALL);
+        }
+        String origin = originOf(uri);
+        RobotsEntry entry = robots.asMap().compute(origin, (k, e) -> e == null || e.isExpired() ? loadRobots(k) : e);
+        return entry.future;
+    }
+
+    private RobotsEntry loadRobots(String origin) {
+        RobotsEntry entry = new RobotsEntry();
+        Runnable load = () -> {
+            RobotsRules rules;
+            long ttlMinutes = robotsTtlMinutes;
+            try {
+                rules = responseCache.fetchParsed("robots", URI.create(origin + "/robots.txt"), "robots-rules", r -> {
+                    try (Reader reader = r.openReader()) {
+                        return RobotsRules.parse(reader, AGENT_TOKEN);
+                    }
+                });
+            } catch (HttpResponseCache.StatusException e) {
+                if (e.getStatus() >= 400 && e.getStatus() < 500) {
+                    rules = RobotsRules.ALLOW_ALL;
+                } else {
+                    rules = RobotsRules.DISALLOW_ALL;
+                    ttlMinutes = robotsUnreachableTtlMinutes;
+                }
+            } catch (OutboundHttpClient.ConnectionLimitException | RuntimeException e) {
+                // 本地限流或内部错误：请求未到达站点，不缓存结论，本次失败、下次重新加载
+                entry.expiresAtNanos = System.nanoTime();
+                entry.future.completeExceptionally(e);
+                return;
+            } catch (IOException e) {
+                // 网络不可达、超时等
+                rules = RobotsRules.DISALLOW_ALL;
+                ttlMinutes = robotsUnreachableTtlMinutes;
+            }
+            entry.expiresAtNanos = System.nanoTime() + TimeUnit.MINUTES.toNanos(ttlMinutes);
+            entry.future.complete(rules);
+        };
+        try {
+            workers.execute(load);
+        } catch (RejectedExecutionException e) {
+            // 执行器饱和：本次失败，下次请求重新加载
+            entry.expiresAtNanos = System.nanoTime();
+            entry.future.completeExceptionally(e);
+        }
+        return entry;
+    }
+
+    /**
+     * 调度指标：全局汇总与各主机排队深度、等待时间、拒绝/禁止次数（按排队深度降序）。
+     */
+    public Map<String, Object> stats() {
+        List<HostQueue> all = new ArrayList<>(hosts.asMap().values());
+        all.sort(Comparator.comparingInt((HostQueue h) -> h.queued.get()).reversed()
+                .thenComparing(h -> -h.dispatched.get()));
+        long queued = 0, dispatched = 0, rejected = 0, blocked = 0;
+        List<Map<String, Object>> perHost = new ArrayList<>();
+        for (HostQueue h : all) {
+            queued += h.queued.get();
+            dispatched += h.dispatched.get();
+            rejected += h.rejected.get();
+            blocked += h.blocked.get();
+            if (perHost.size() < 100) perHost.add(h.stats());
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hosts", all.size());
+        m.put("robotsCached", robots.estimatedSize());
+        m.put("queued", queued);
+        m.put("dispatched", dispatched);
+        m.put("rejected", rejected);
+        m.put("blockedByRobots", blocked);
+        m.put("perHost", perHost);
+        return m;
+    }
+
+    private static String hostKey(URI uri) {
+        return uri.getHost().toLowerCase(Locale.ROOT);
+    }
+
+    private static String originOf(URI uri) {
+        String scheme = uri.getScheme() == null ? "https" : uri.getScheme().toLowerCase(Locale.ROOT);
+        return scheme + "://" + uri.getRawAuthority().toLowerCase(Locale.ROOT);
+    }
+
+    private static String pathOf(URI uri) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+    }
+
+    /**
+     * robots 缓存条目（加载完成后才确定过期时间）。
+     */
+    private static final class RobotsEntry {
+        private final CompletableFuture<RobotsRules> future = new CompletableFuture<>();
+        private volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        private boolean isExpired() {
+            return future.isDone() && System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+
+    /**
+     * 单主机队列：令牌桶预约执行时刻，记录排队深度与等待时间。
+     */
+    private final class HostQueue {
+        private final String host;
+        private final TokenBucket bucket;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong dispatched = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong blocked = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private volatile double crawlDelaySeconds = -1;
+
+        private HostQueue(String host) {
+            this.host = host;
+            this.bucket = new TokenBucket(hostRatePerSecond, hostBurst);
+        }
+
+        private void applyCrawlDelay(double seconds) {
+            if (seconds == crawlDelaySeconds) return;
+            crawlDelaySeconds = seconds;
+            if (seconds > 0) {
+                double delay = Math.min(seconds, maxCrawlDelaySeconds);
+                bucket.setRate(Math.min(hostRatePerSecond, 1.0 / delay), 1);
+            } else {
+                bucket.setRate(hostRatePerSecond, hostBurst);
+            }
+        }
+
+        private <T> CompletableFuture<T> enqueue(Callable<T> task, long maxWait, long reserveAhead) {
+            if (queued.get() >= hostMaxQueue) {
+                rejected.incrementAndGet();
+                return CompletableFuture.failedFuture(new RejectedExecutionException("crawl queue full for " + host));
+            }
+            queued.incrementAndGet();
+            long enqueuedAt = System.nanoTime();
+            CompletableFuture<T> result = new CompletableFuture<>();
+            reserve(task, result, enqueuedAt, enqueuedAt + maxWait, reserveAhead, false);
+            return result;
+        }
+
+        /**
+         * 预约令牌并在预约时刻派发；距截止时间还长但暂时预约不到（只允许提前 reserveAhead）时，
+         * 在桶外等到令牌可在 reserveAhead 内预约时再试。
+         */
+        private <T> void reserve(Callable<T> task, CompletableFuture<T> result, long enqueuedAt, long deadline,
+                                 long reserveAhead, boolean onTimer) {
+            long remaining = deadline - System.nanoTime();
+            long delay = bucket.reserve(Math.min(Math.max(0, remaining), reserveAhead));
+            if (delay < 0) {
+                long retryIn = Math.max(bucket.peekWaitNanos() - reserveAhead, TimeUnit.MILLISECONDS.toNanos(1));
+                if (reserveAhead < remaining && retryIn < remaining) {
+                    timer.schedule(() -> reserve(task, result, enqueuedAt, deadline, reserveAhead, true),
+                            retryIn, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                queued.decrementAndGet();
+                rejected.incrementAndGet();
+                result.completeExceptionally(new RejectedExecutionException("crawl wait too long for " + host));
+                return;
+            }
+            Runnable start = () -> {
+                try {
+                    workers.execute(() -> run(task, result, enqueuedAt));
+                } catch (RejectedExecutionException e) {
+                    queued.decrementAndGet();
+                    rejected.incrementAndGet();
+                    result.completeExceptionally(e);
+                }
+            };
+            if (delay == 0 && !onTimer) {
+                start.run();
+            } else {
+                // 执行器满时 execute 会阻塞等待空位，不能占用唯一的定时线程
+                timer.schedule(() -> Thread.ofVirtual().name("crawl-dispatch").start(start), delay, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private <T> void run(Callable<T> task, CompletableFuture<T> result, long enqueuedAt) {
+            queued.decrementAndGet();
+            long waited = System.nanoTime() - enqueuedAt;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            dispatched.incrementAndGet();
+            inFlight.incrementAndGet();
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private Map<String, Object> stats() {
+            long n = dispatched.get();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("host", host);
+            m.put("queued", queued.get());
+            m.put("inFlight", inFlight.get());
+            m.put("dispatched", n);
+            m.put("rejected", rejected.get());
+            m.put("blockedByRobots", blocked.get());
+            m.put("avgWaitMs", n == 0 ? 0 : totalWaitNanos.get() / n / 1_000_000);
+            m.put("maxWaitMs", maxWaitNanos.get() / 1_000_000);
+            m.put("ratePerSecond", bucket.getRatePerSecond());
+            m.put("crawlDelaySeconds", crawlDelaySeconds);
+            return m;
+        }
+    }
+}
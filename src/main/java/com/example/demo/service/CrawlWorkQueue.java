@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.example.demo.entity.CrawlWorkItemEntity;
+import com.example.demo.entity.SyncStateEntity;
+import com.example.demo.mapper.CrawlWorkItemMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * 多节点共享的定时任务工作队列（crawl_work_items 表）。
+ * <p>
+ * 每个批次由一个节点在 sync_state 中抢占后入队（抢占与入队在同一事务内，其他节点提交后才能看到批次），
+ * 各节点随后以 {@code FOR UPDATE SKIP LOCKED} 按空闲并发数领取工作项并持有租约，
+ * 处理期间按 crawl.work.heartbeatMs 续约。节点宕机后租约在 crawl.work.leaseSeconds 内过期，
+ * 剩余工作项由其他节点继续领取（至少一次，单项最多领取 crawl.work.maxAttempts 次）。
+ * 节点数增加时同一批次被更多节点分担，出站请求总量不变。
+ * </p>
+ */
+@Profile("db")
+@Service
+public class CrawlWorkQueue {
+    private final CrawlWorkItemMapper mapper;
+    private final SyncStateStore syncState;
+    private final TransactionTemplate tx;
+    private final String owner;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    /** 本节点持有租约、处理中的工作项数 */
+    private final AtomicInteger held = new AtomicInteger();
+
+    @Value("${crawl.work.leaseSeconds:120}")
+    private long leaseSeconds;
+
+    @Value("${crawl.work.maxAttempts:3}")
+    private int maxAttempts;
+
+    @Value("${crawl.work.pollMs:2000}")
+    private long pollMs;
+
+    public CrawlWorkQueue(CrawlWorkItemMapper mapper,
+                          SyncStateStore syncState,
+                          TransactionTemplate tx,
+                          @Value("${crawl.work.nodeId:}") String nodeId) {
+        this.mapper = mapper;
+        this.syncState = syncState;
+        this.tx = tx;
+        this.owner = StringUtils.hasText(nodeId) ? nodeId.trim()
+                : ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 本节点标识（租约持有者）。
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * 开始或加入批次：抢占成功时清理该类型的旧批次并调用 enqueue 入队；
+     * 已有其他节点开始的批次仍在时间窗口内时加入该批次。
+     *
+     * @param kind     工作类型（同时作为 sync_state 中的同步名）
+     * @param windowMs 批次时间窗口
+     * @param enqueue  入队回调（参数为批次 ID，在抢占事务内执行）
+     * @return 批次 ID；没有可处理的批次时返回 null
+     */
+    public Long startRun(String kind, long windowMs, LongConsumer enqueue) {
+        long runId = System.currentTimeMillis();
+        Boolean claimed = tx.execute(status -> {
+            if (!syncState.claimRun(kind, runId, windowMs)) {
+                return false;
+            }
+            mapper.delete(new LambdaQueryWrapper<CrawlWorkItemEntity>()
+                    .eq(CrawlWorkItemEntity::getKind, kind)
+                    .ne(CrawlWorkItemEntity::getRunId, runId));
+            enqueue.accept(runId);
+            return true;
+        });
+        return Boolean.TRUE.equals(claimed) ? Long.valueOf(runId) : activeRun(kind, windowMs);
+    }
+
+    /**
+     * 时间窗口内仍在进行的批次（节点启动时加入）。
+     *
+     * @return 批次 ID；没有时返回 null
+     */
+    public Long activeRun(String kind, long windowMs) {
+        Long pending = syncState.load(kind).getPendingWatermark();
+        return pending != null && System.currentTimeMillis() < pending + windowMs ? pending : null;
+    }
+
+    /**
+     * 结束批次（多个节点重复调用时只有第一次生效）。
+     */
+    public void finishRun(String kind, long runId, boolean complete) {
+        syncState.finishRun(kind, runId, complete);
+    }
+
+    /**
+     * 领取并处理批次内的工作项，直到批次全部完成（含其他节点处理中的）或到达截止时刻。
+     * <p>
+     * 每次只领取空闲并发数量的工作项，避免单个节点囤积；没有可领取的工作项但其他节点仍持有租约时，
+     * 按 crawl.work.pollMs 轮询，以便接手过期的租约。worker 返回值记为结果，抛出异常记为 FAILED。
+     * </p>
+     *
+     * @param kind           工作类型
+     * @param runId          批次 ID
+     * @param deadlineMillis 截止时刻（之后不再领取）
+     * @param concurrency    本节点同时处理的工作项上限
+     * @param worker         处理单个工作项，返回结果（如 OK/FAILED/SKIPPED）
+     * @return 批次是否全部完成
+     */
+    public boolean drain(String kind, long runId, long deadlineMillis, int concurrency,
+                         Function<CrawlWorkItemEntity, String> worker) throws InterruptedException {
+        int permits = Math.max(1, concurrency);
+        Semaphore slots = new Semaphore(permits);
+        try {
+            while (System.currentTimeMillis() < deadlineMillis) {
+                slots.acquire();
+                int free = 1 + slots.drainPermits();
+                List<CrawlWorkItemEntity> items = mapper.lease(kind, runId, owner, leaseSeconds, maxAttempts, free);
+                slots.release(free - items.size());
+                if (items.isEmpty()) {
+                    if (mapper.countRemaining(kind, runId, maxAttempts) == 0) {
+                        return true;
+                    }
+                    Thread.sleep(Math.max(1, Math.min(pollMs, deadlineMillis - System.currentTimeMillis())));
+                    continue;
+                }
+                for (CrawlWorkItemEntity item : items) {
+                    held.incrementAndGet();
+                    workers.execute(() -> process(item, worker, slots));
+                }
+            }
+            return false;
+        } finally {
+            // 等待本节点已领取的工作项处理完
+            slots.acquireUninterruptibly(permits);
+            slots.release(permits);
+        }
+    }
+
+    private void process(CrawlWorkItemEntity item, Function<CrawlWorkItemEntity, String> worker, Semaphore slots) {
+        try {
+            String outcome;
+            try {
+                outcome = worker.apply(item);
+            } catch (RuntimeException e) {
+                outcome = "FAILED";
+            }
+            mapper.complete(item.getId(), owner, outcome);
+        } catch (RuntimeException ignore) {
+            // 未能标记完成：租约过期后由本节点或其他节点重做
+        } finally {
+            held.decrementAndGet();
+            slots.release();
+        }
+    }
+
+    /**
+     * 租约心跳：本节点有处理中的工作项时续约。
+     */
+    @Scheduled(fixedDelayString = "${crawl.work.heartbeatMs:30000}")
+    public void heartbeat() {
+        if (held.get() == 0) return;
+        try {
+            mapper.extendLeases(owner, leaseSeconds);
+        } catch (Exception ignore) {
+            // 数据库暂不可用：下次心跳重试，期间租约可能过期被其他节点接手
+        }
+    }
+
+    /**
+     * 队列指标：当前（或最近）批次按节点、状态分组的工作项数。
+     *
+     * @param kind 工作类型
+     */
+    public Map<String, Object> stats(String kind) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("node", owner);
+        m.put("heldLeases", held.get());
+        SyncStateEntity state = syncState.load(kind);
+        Long runId = state.getPendingWatermark() != null ? state.getPendingWatermark() : state.getWatermark();
+        m.put("runId", runId);
+        m.put("active", state.getPendingWatermark() != null);
+        m.put("lastSuccessAt", state.getLastSuccessAt());
+        m.put("items", runId == null ? List.of() : mapper.countByOwner(kind, runId));
+        return m;
+    }
+}
@@ -1,64 +1,81 @@
 package com.example.demo.service;
 
 import com.example.demo.model.JobLink;
-import org.springframework.http.HttpEntity;
+import com.example.demo.util.HtmlAnchorScanner;
+import com.example.demo.util.KeywordMatcher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletionException;
 
 /**
  * 通用模板爬虫。
  * <p>
  * 通过配置的 URL 模板（如：https://www.nowcoder.com/search?query=${name}），
- * 拉取 HTML 并基于关键字提取 A 标签投递链接，适合快速 MVP。
+ * 流式读取 HTML 并基于关键字提取 A 标签投递链接（见 {@link HtmlAnchorScanner}）。
+ * 请求经 {@link CrawlFrontier} 提交，遵守目标站点 robots.txt 与单主机节流。
  * </p>
  */
 public class GenericTemplateCrawler implements JobCrawler {
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final CrawlFrontier frontier;
     private final String templateUrl;
     private final String sourceName;
-    private final List<String> keywords;
+    private final KeywordMatcher keywords;
 
     /**
      * 构造函数。
      *
      * @param templateUrl URL 模板，包含占位符 ${name}
      * @param sourceName  数据源标识（站点名）
-     * @param keywords    提取 A 标签文本/URL 的关键词列表（如：招聘、投递、职位、apply、career）
+     * @param keywords    提取 A 标签文本/URL 的关键词匹配器（如：招聘、投递、职位、apply、career）
+     * @param restTemplate 共享出站客户端提供的 RestTemplate（见 {@link OutboundHttpClient#forSource(String)}）
+     * @param frontier    抓取前沿
      */
-    public GenericTemplateCrawler(String templateUrl, String sourceName, List<String> keywords) {
+    public GenericTemplateCrawler(String templateUrl, String sourceName, KeywordMatcher keywords, RestTemplate restTemplate,
+                                  CrawlFrontier frontier) {
+        this.restTemplate = restTemplate;
+        this.frontier = frontier;
         this.templateUrl = templateUrl;
         this.sourceName = sourceName;
-        this.keywords = keywords != null ? keywords : List.of("招聘", "投递", "职位", "校招", "社招", "apply", "career", "join");
+        this.keywords = keywords != null ? keywords : KeywordMatcher.compile(List.of("招聘", "投递", "职位", "校招", "社招", "apply", "career", "join"));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 被 robots.txt 禁止时返回空列表；robots.txt 暂不可达、本地节流拒绝或站点请求失败时抛出异常
+     * （由 {@link GuardedJobCrawler} 处理，本地拒绝不计入熔断），调用方据此把数据源记为不可用而不是“没有结果”。
+     * </p>
+     */
     @Override
     public List<JobLink> crawlByCompanyName(String companyName, int limit) {
+        URI uri = URI.create(templateUrl.replace("${name}", URLEncoder.encode(companyName, StandardCharsets.UTF_8)));
         try {
-            String url = templateUrl.replace("${name}", URLEncoder.encode(companyName, StandardCharsets.UTF_8));
-            HttpHeaders headers = new HttpHeaders();
-            headers.set(HttpHeaders.USER_AGENT, "NearbyCompaniesDemo/1.0");
-            headers.setAccept(List.of(MediaType.TEXT_HTML));
-            ResponseEntity<String> resp = restTemplate.exchange(URI.create(url), HttpMethod.GET, new HttpEntity<>(headers), String.class);
-            String html = resp.getBody();
-            if (!StringUtils.hasText(html)) {
+            List<JobLink> list = frontier.submit(uri, true, () -> restTemplate.execute(uri, HttpMethod.GET, req -> {
+                req.getHeaders().set(HttpHeaders.USER_AGENT, OutboundHttpClient.USER_AGENT);
+                req.getHeaders().setAccept(List.of(MediaType.TEXT_HTML));
+            }, resp -> extractLinks(resp, uri, limit))).join();
+            return list != null ? list : List.of();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof CrawlFrontier.DisallowedException) {
                 return List.of();
             }
-            return extractLinks(html, limit);
-        } catch (Exception ex) {
-            return List.of();
+            throw ex;
         }
     }
 
@@ -68,36 +85,31 @@ public class GenericTemplateCrawler implements JobCrawler {
     }
 
     /**
-     * 基于关键词从 HTML 中提取 A 标签链接。
+     * 基于关键词从响应流中提取 A 标签链接（单遍扫描，凑满上限即停止读取）。
      *
-     * @param html  HTML 文本
+     * @param resp  HTTP 响应（按 Content-Type 字符集解码，缺省 UTF-8）
+     * @param base  页面地址，用于解析相对链接
      * @param limit 返回条数上限
      * @return 投递链接列表
      */
-    private List<JobLink> extractLinks(String html, int limit) {
+    private List<JobLink> extractLinks(ClientHttpResponse resp, URI base, int limit) throws IOException {
+        MediaType contentType = resp.getHeaders().getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        int max = Math.max(1, limit);
         List<JobLink> list = new ArrayList<>();
-        // 简单 A 标签提取（MVP），复杂场景建议替换为 Jsoup
-        Pattern p = Pattern.compile("<a\\s+[^>]*href=\\\"([^\\\"]+)\\\"[^>]*>(.*?)</a>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-        Matcher m = p.matcher(html);
-        while (m.find() && list.size() < Math.max(1, limit)) {
-            String href = m.group(1);
-            String text = m.group(2).replaceAll("<.*?>", "").trim();
-            if (!StringUtils.hasText(href)) {
-                continue;
+        Reader reader = new InputStreamReader(resp.getBody(), charset);
+        HtmlAnchorScanner.scan(reader, base, (href, text) -> {
+            if (keywords.matchesAny(text) || keywords.matchesAny(href)) {
+                JobLink jl = new JobLink();
+                jl.setTitle(StringUtils.hasText(text) ? text : "投递链接");
+                jl.setUrl(href);
+                jl.setSource(sourceName);
+                jl.setDescription("来源：" + sourceName);
+                jl.setCollectedAt(LocalDateTime.now());
+                list.add(jl);
             }
-            String lower = (text + " " + href).toLowerCase();
-            boolean match = keywords.stream().anyMatch(k -> lower.contains(k.toLowerCase()));
-            if (!match) {
-                continue;
-            }
-            JobLink jl = new JobLink();
-            jl.setTitle(StringUtils.hasText(text) ? text : "投递链接");
-            jl.setUrl(href);
-            jl.setSource(sourceName);
-            jl.setDescription("来源：" + sourceName);
-            jl.setCollectedAt(LocalDateTime.now());
-            list.add(jl);
-        }
+            return list.size() < max;
+        });
         return list;
     }
-}
\ No newline at end of file
+}
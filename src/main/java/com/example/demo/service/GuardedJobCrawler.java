@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.model.JobLink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 带熔断与舱壁的爬虫装饰器。
+ * <p>
+ * 以爬虫的数据源名称经 {@link SourceGuard} 调用被装饰的爬虫：该源熔断打开时快速失败，
+ * 返回同一公司最近一次成功的结果；没有可用结果时抛出 {@link UnavailableException}（cause 为本次调用的异常，
+ * 熔断或舱壁拒绝时为 null），以便调用方区分“数据源不可用”与“没有结果”。
+ * </p>
+ */
+public class GuardedJobCrawler implements JobCrawler {
+    /** 无兜底结果时的标记值（按引用比较） */
+    private static final List<JobLink> UNAVAILABLE = Collections.unmodifiableList(new ArrayList<>());
+
+    private final JobCrawler delegate;
+    private final SourceGuard guard;
+
+    /**
+     * 构造函数。
+     *
+     * @param delegate 被装饰的爬虫（失败时应抛出异常）
+     * @param guard    数据源熔断与舱壁
+     */
+    public GuardedJobCrawler(JobCrawler delegate, SourceGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public List<JobLink> crawlByCompanyName(String companyName, int limit) {
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<JobLink> result = guard.call(delegate.getSourceName(), companyName + "|" + limit, () -> {
+            try {
+                return delegate.crawlByCompanyName(companyName, limit);
+            } catch (RuntimeException e) {
+                failure.set(e);
+                throw e;
+            }
+        }, UNAVAILABLE);
+        if (result == UNAVAILABLE) {
+            throw new UnavailableException(delegate.getSourceName(), failure.get());
+        }
+        return result;
+    }
+
+    @Override
+    public String getSourceName() {
+        return delegate.getSourceName();
+    }
+
+    /**
+     * 数据源熔断、舱壁已满或调用失败，且没有同一公司的兜底结果。
+     */
+    public static final class UnavailableException extends IllegalStateException {
+        public UnavailableException(String source, Throwable cause) {
+            super("source unavailable: " + source, cause);
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘持久化的抓取响应缓存（条件 GET）。
+ * <p>
+ * 响应体写入缓存目录，元数据记录 ETag、Last-Modified、响应体 SHA-256 摘要与过期时间：
+ * Cache-Control max-age 有效期内直接读本地文件；过期后携带 If-None-Match / If-Modified-Since 重新验证，
+ * 304 时沿用本地副本。解析结果按「类型 + 地址 + 摘要」缓存在内存中，内容未变（304 或摘要相同）时无需重新解析。
+ * 磁盘总量按 http.cache.maxBytes 限制，超出时按 W-TinyLFU 淘汰并删除文件；
+ * 返回的 {@link CachedResponse} 持有已打开的文件通道，之后的淘汰或替换不影响正在读取的响应体。
+ * Cache-Control: no-store 的响应体只写入临时文件，不进入缓存，{@link CachedResponse#close()} 时删除。
+ * </p>
+ */
+@Component
+public class HttpResponseCache {
+
+    /**
+     * 取回方式。
+     */
+    public enum Outcome {
+        /** max-age 内，未发请求 */
+        FRESH,
+        /** 服务端返回 304，沿用本地副本 */
+        NOT_MODIFIED,
+        /** 服务端返回新内容 */
+        FETCHED
+    }
+
+    /**
+     * 解析函数：从响应体构建结果。
+     */
+    @FunctionalInterface
+    public interface BodyParser<T> {
+        T parse(CachedResponse response) throws IOException;
+    }
+
+    /**
+     * 非 2xx/304 响应。
+     */
+    public static final class StatusException extends IOException {
+        private final int status;
+
+        public StatusException(int status, URI uri) {
+            super("HTTP " + status + " for " + uri);
+            this.status = status;
+        }
+
+        public int getStatus() { return status; }
+    }
+
+    /**
+     * 缓存的响应（响应体位于磁盘，返回前已打开）。用完应关闭：关闭文件通道，
+     * no-store 响应的临时文件在关闭时删除，缓存的副本不受影响。
+     */
+    public static final class CachedResponse implements AutoCloseable {
+        private final URI uri;
+        private final Outcome outcome;
+        private final Meta meta;
+        private final FileChannel body;
+        private final Path temporary;
+
+        private CachedResponse(URI uri, Outcome outcome, Meta meta, FileChannel body, Path temporary) {
+            this.uri = uri;
+            this.outcome = outcome;
+            this.meta = meta;
+            this.body = body;
+            this.temporary = temporary;
+        }
+
+        public URI getUri() { return uri; }
+        public Outcome getOutcome() { return outcome; }
+        public String getDigest() { return meta.digest; }
+        public String getContentType() { return meta.contentType; }
+
+        /**
+         * 从头打开响应体（调用方负责关闭；可多次打开，各自独立读取）。
+         */
+        public InputStream openBody() throws IOException {
+            return new ChannelInputStream(body);
+        }
+
+        /**
+         * 按 Content-Type 声明的字符集（默认 UTF-8）打开响应体。
+         */
+        public Reader openReader() throws IOException {
+            return new BufferedReader(new InputStreamReader(openBody(), charset()));
+        }
+
+        /**
+         * 以字符串读取响应体。
+         */
+        public String bodyAsString() throws IOException {
+            try (InputStream in = openBody()) {
+                return new String(in.readAllBytes(), charset());
+            }
+        }
+
+        /**
+         * 响应体是否为不缓存的临时文件（no-store）。
+         */
+        public boolean isTemporary() { return temporary != null; }
+
+        @Override
+        public void close() {
+            try {
+                body.close();
+                if (temporary != null) Files.deleteIfExists(temporary);
+            } catch (IOException ignore) {
+                // 残留的 .tmp 在下次启动时清理
+            }
+        }
+
+        private Charset charset() {
+            try {
+                if (StringUtils.hasText(meta.contentType)) {
+                    Charset cs = MediaType.parseMediaType(meta.contentType).getCharset();
+                    if (cs != null) return cs;
+                }
+            } catch (Exception ignore) {
+            }
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    /**
+     * 按绝对位置读取文件通道的输入流，不改变通道自身的位置，同一通道上的多个流互不影响。
+     */
+    private static final class ChannelInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+
+        private ChannelInputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            int n = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if (n > 0) position += n;
+            return n;
+        }
+    }
+
+    /**
+     * 元数据（以 properties 文件与响应体并列存放）。
+     */
+    private static final class Meta {
+        private String url;
+        private String etag;
+        private String lastModified;
+        private String contentType;
+        private String digest;
+        private long size;
+        private long expiresAtMillis;
+    }
+
+    private final Path dir;
+    private final long defaultMaxAgeSeconds;
+    private final OutboundHttpClient http;
+    private final Cache<String, Meta> index;
+    private final Cache<String, Object> parsed;
+    private final AtomicLong freshHits = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong fetched = new AtomicLong();
+    private final AtomicLong bytesDownloaded = new AtomicLong();
+    private final AtomicLong parseHits = new AtomicLong();
+    private final AtomicLong parseMisses = new AtomicLong();
+
+    public HttpResponseCache(OutboundHttpClient http,
+                             @Value("${http.cache.dir:${java.io.tmpdir}/hireradar-http-cache}") String dir,
+                             @Value("${http.cache.maxBytes:268435456}") long maxBytes,
+                             @Value("${http.cache.defaultMaxAgeSeconds:300}") long defaultMaxAgeSeconds,
+                             @Value("${http.cache.parsedEntries:2000}") long parsedEntries) throws IOException {
+        this.http = http;
+        this.dir = Paths.get(dir);
+        this.defaultMaxAgeSeconds = defaultMaxAgeSeconds;
+        Files.createDirectories(this.dir);
+        this.index = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String k, Meta m) -> (int) Math.min(Integer.MAX_VALUE, m.size + 1))
+                .removalListener((String k, Meta m, RemovalCause cause) -> {
+                    if (k != null && cause.wasEvicted()) deleteFiles(k);
+                })
+                .build();
+        this.parsed = Caffeine.newBuilder().maximumSize(parsedEntries).build();
+        loadIndex();
+    }
+
+    /**
+     * 条件 GET：有效期内直接返回本地副本，否则重新验证或下载。
+     *
+     * @param source 数据源标识（决定超时等出站配置）
+     * @param uri    地址
+     * @return 缓存的响应
+     * @throws IOException 网络异常；非 2xx/304 状态时为 {@link StatusException}
+     */
+    public CachedResponse fetch(String source, URI uri) throws IOException {
+        String key = keyOf(uri);
+        Meta meta = index.getIfPresent(key);
+        // 先打开本地副本：之后被淘汰或被并发下载替换时，已打开的通道仍读到与 meta 对应的内容
+        FileChannel cached = meta != null ? openIfExists(bodyPath(key)) : null;
+        if (cached == null) {
+            meta = null;
+        }
+        long now = System.currentTimeMillis();
+        if (meta != null && now < meta.expiresAtMillis) {
+            freshHits.incrementAndGet();
+            return new CachedResponse(uri, Outcome.FRESH, meta, cached, null);
+        }
+        try {
+            CachedResponse response = revalidate(source, uri, key, meta, cached, now);
+            if (response.body != cached && cached != null) cached.close();
+            return response;
+        } catch (IOException | RuntimeException e) {
+            if (cached != null) cached.close();
+            throw e;
+        }
+    }
+
+    /** 携带验证器请求：304 时沿用已打开的本地副本，否则下载新内容。 */
+    private CachedResponse revalidate(String source, URI uri, String key, Meta meta, FileChannel cached, long now)
+            throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        if (meta != null) {
+            if (meta.etag != null) headers.set(HttpHeaders.IF_NONE_MATCH, meta.etag);
+            if (meta.lastModified != null) headers.set(HttpHeaders.IF_MODIFIED_SINCE, meta.lastModified);
+        }
+        try (ClientHttpResponse resp = http.open(source, uri, HttpMethod.GET, headers)) {
+            HttpHeaders rh = resp.getHeaders();
+            int status = resp.getStatusCode().value();
+            if (status == 304 && meta != null) {
+                Meta updated = copyOf(meta);
+                updated.expiresAtMillis = expiresAt(rh, now);
+                if (rh.getETag() != null) updated.etag = rh.getETag();
+                saveMeta(key, updated);
+                notModified.incrementAndGet();
+                return new CachedResponse(uri, Outcome.NOT_MODIFIED, updated, cached, null);
+            }
+            if (status < 200 || status >= 300) {
+                throw new StatusException(status, uri);
+            }
+            Meta fresh = new Meta();
+            fresh.url = uri.toString();
+            fresh.etag = rh.getETag();
+            fresh.lastModified = rh.getFirst(HttpHeaders.LAST_MODIFIED);
+            fresh.contentType = rh.getFirst(HttpHeaders.CONTENT_TYPE);
+            fresh.expiresAtMillis = expiresAt(rh, now);
+            Path tmp = writeTemp(key, resp.getBody(), fresh);
+            fetched.incrementAndGet();
+            bytesDownloaded.addAndGet(fresh.size);
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(tmp, StandardOpenOption.READ);
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            if (isNoStore(rh)) {
+                // 不落缓存：旧副本一并作废，响应体留在临时文件中直到调用方关闭
+                index.invalidate(key);
+                deleteFiles(key);
+                return new CachedResponse(uri, Outcome.FETCHED, fresh, channel, tmp);
+            }
+            // 通道随文件一起移动；超出容量的响应体随即被淘汰删除，也不影响本次读取
+            try {
+                Files.move(tmp, bodyPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            saveMeta(key, fresh);
+            return new CachedResponse(uri, Outcome.FETCHED, fresh, channel, null);
+        }
+    }
+
+    /**
+     * 解析响应体，结果按「类型 + 地址 + 内容摘要」缓存：内容未变时直接复用上次解析结果（no-store 响应不缓存解析结果）。
+     * 键中包含地址，解析函数可以按响应地址解析相对链接。
+     *
+     * @param kind     解析类型（如 sitemap、jsonld），同一内容的不同解析方式须使用不同类型
+     * @param response 缓存的响应
+     * @param parser   解析函数
+     * @return 解析结果
+     * @throws IOException 读取异常
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T parse(String kind, CachedResponse response, BodyParser<T> parser) throws IOException {
+        String k = kind + '|' + response.getUri() + '|' + response.getDigest();
+        Object hit = parsed.getIfPresent(k);
+        if (hit != null) {
+            parseHits.incrementAndGet();
+            return (T) hit;
+        }
+        parseMisses.incrementAndGet();
+        T result = parser.parse(response);
+        if (result != null && !response.isTemporary()) parsed.put(k, result);
+        return result;
+    }
+
+    /**
+     * 条件 GET 并解析的便捷方法（解析后关闭响应）。
+     */
+    public <T> T fetchParsed(String source, URI uri, String kind, BodyParser<T> parser) throws IOException {
+        try (CachedResponse response = fetch(source, uri)) {
+            return parse(kind, response, parser);
+        }
+    }
+
+    /**
+     * 缓存统计：本地命中、304、下载次数与流量、解析复用率。
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("entries", index.estimatedSize());
+        m.put("bytesOnDisk", index.asMap().values().stream().mapToLong(x -> x.size).sum());
+        m.put("freshHitCount", freshHits.get());
+        m.put("notModifiedCount", notModified.get());
+        m.put("fetchCount", fetched.get());
+        m.put("bytesDownloaded", bytesDownloaded.get());
+        m.put("parseHitCount", parseHits.get());
+        m.put("parseMissCount", parseMisses.get());
+        return m;
+    }
+
+    private long expiresAt(HttpHeaders headers, long now) {
+        String cc = headers.getCacheControl();
+        long maxAge = defaultMaxAgeSeconds;
+        if (StringUtils.hasText(cc)) {
+            for (String d : cc.toLowerCase(Locale.ROOT).split(",")) {
+                d = d.trim();
+                if (d.equals("no-cache") || d.equals("no-store")) {
+                    return 0;
+                }
+                if (d.startsWith("max-age=")) {
+                    try {
+                        maxAge = Long.parseLong(d.substring(8).replace("\"", "").trim());
+                    } catch (NumberFormatException ignore) {
+                    }
+                }
+            }
+        }
+        return maxAge <= 0 ? 0 : now + maxAge * 1000;
+    }
+
+    private static boolean isNoStore(HttpHeaders headers) {
+        String cc = headers.getCacheControl();
+        return cc != null && cc.toLowerCase(Locale.ROOT).contains("no-store");
+    }
+
+    /** 边下载边写临时文件并计算摘要；由调用方原子替换为正式副本或在用完后删除。 */
+    private Path writeTemp(String key, InputStream in, Meta meta) throws IOException {
+        MessageDigest sha = sha256();
+        Path tmp = Files.createTempFile(dir, key, ".tmp");
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                sha.update(buf, 0, n);
+                out.write(buf, 0, n);
+                size += n;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        meta.size = size;
+        meta.digest = HexFormat.of().formatHex(sha.digest());
+        return tmp;
+    }
+
+    private void saveMeta(String key, Meta meta) {
+        Properties p = new Properties();
+        p.setProperty("url", meta.url);
+        if (meta.etag != null) p.setProperty("etag", meta.etag);
+        if (meta.lastModified != null) p.setProperty("lastModified", meta.lastModified);
+        if (meta.contentType != null) p.setProperty("contentType", meta.contentType);
+        p.setProperty("digest", meta.digest);
+        p.setProperty("size", String.valueOf(meta.size));
+        p.setProperty("expiresAt", String.valueOf(meta.expiresAtMillis));
+        try {
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                p.store(w, null);
+            }
+            Files.move(tmp, metaPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignore) {
+            // 元数据写盘失败只影响重启后的复用，内存索引仍可用
+        }
+        index.put(key, meta);
+    }
+
+    /** 启动时载入磁盘上的元数据，清理残留的临时文件。 */
+    private void loadIndex() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(f -> {
+                String name = f.getFileName().toString();
+                try {
+                    if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(f);
+                    } else if (name.endsWith(".meta")) {
+                        String key = name.substring(0, name.length() - 5);
+                        Meta meta = readMeta(f);
+                        if (meta != null && Files.exists(bodyPath(key))) {
+                            index.put(key, meta);
+                        } else {
+                            deleteFiles(key);
+                        }
+                    }
+                } catch (IOException ignore) {
+                }
+            });
+        }
+    }
+
+    private static Meta readMeta(Path f) {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(f, StandardCharsets.UTF_8)) {
+            p.load(r);
+            Meta m = new Meta();
+            m.url = p.getProperty("url");
+            m.etag = p.getProperty("etag");
+            m.lastModified = p.getProperty("lastModified");
+            m.contentType = p.getProperty("contentType");
+            m.digest = p.getProperty("digest");
+            m.size = Long.parseLong(p.getProperty("size", "0"));
+            m.expiresAtMillis = Long.parseLong(p.getProperty("expiresAt", "0"));
+            return m.url == null || m.digest == null ? null : m;
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Meta copyOf(Meta m) {
+        Meta c = new Meta();
+        c.url = m.url;
+        c.etag = m.etag;
+        c.lastModified = m.lastModified;
+        c.contentType = m.contentType;
+        c.digest = m.digest;
+        c.size = m.size;
+        c.expiresAtMillis = m.expiresAtMillis;
+        return c;
+    }
+
+    private static FileChannel openIfExists(Path path) throws IOException {
+        try {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void deleteFiles(String key) {
+        try {
+            Files.deleteIfExists(bodyPath(key));
+            Files.deleteIfExists(metaPath(key));
+        } catch (IOException ignore) {
+        }
+    }
+
+    private Path bodyPath(String key) {
+        return dir.resolve(key + ".body");
+    }
+
+    private Path metaPath(String key) {
+        return dir.resolve(key + ".meta");
+    }
+
+    private static String keyOf(URI uri) {
+        return HexFormat.of().formatHex(sha256().digest(uri.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
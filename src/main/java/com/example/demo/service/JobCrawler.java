@@ -19,6 +19,7 @@ public interface JobCrawler {
      * @param companyName 公司名称
      * @param limit       返回条数上限
      * @return 投递链接列表（不要求排序）
+     * @throws RuntimeException 数据源请求失败（聚合服务经 {@link GuardedJobCrawler} 计入熔断并回退）
      */
     List<JobLink> crawlByCompanyName(String companyName, int limit);
 
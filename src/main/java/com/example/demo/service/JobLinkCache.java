@@ -0,0 +1,180 @@
+package com.example.demo.service;
+
+import com.example.demo.model.JobLink;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 投递链接缓存（公司归一化名 -> 链接列表）。
+ * <p>
+ * 基于 Caffeine（W-TinyLFU 频率感知淘汰），按链接条数加权限制总容量。
+ * 条目写入后 ttl 内为新鲜；ttl 之后的 stale 窗口内仍可直接返回（陈旧可用），
+ * 同时由调用方触发一次后台刷新（同一 key 同时只允许一个刷新）；超过 ttl + stale 后过期。
+ * 有数据源失败时的结果按较短的 partialTtl 写入，尽快由下一次请求触发重新抓取。
+ * </p>
+ */
+@Component
+public class JobLinkCache {
+
+    /**
+     * 缓存条目。
+     */
+    public static final class Entry {
+        private final List<JobLink> links;
+        private final long loadedAtNanos;
+        private final long ttlNanos;
+
+        private Entry(List<JobLink> links, long loadedAtNanos, long ttlNanos) {
+            this.links = links;
+            this.loadedAtNanos = loadedAtNanos;
+            this.ttlNanos = ttlNanos;
+        }
+
+        public List<JobLink> getLinks() { return links; }
+    }
+
+    private final Cache<String, Entry> cache;
+    private final long ttlNanos;
+    private final long maxAgeNanos;
+    private final long partialTtlNanos;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    public JobLinkCache(@Value("${jobs.cache.maxWeight:50000}") long maxWeight,
+                        @Value("${jobs.cache.ttlMinutes:360}") long ttlMinutes,
+                        @Value("${jobs.cache.staleMinutes:1440}") long staleMinutes,
+                        @Value("${jobs.cache.partialTtlMinutes:10}") long partialTtlMinutes) {
+        this.ttlNanos = Duration.ofMinutes(ttlMinutes).toNanos();
+        this.partialTtlNanos = Duration.ofMinutes(Math.min(partialTtlMinutes, ttlMinutes)).toNanos();
+        this.maxAgeNanos = Duration.ofMinutes(ttlMinutes + staleMinutes).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String k, Entry e) -> e.links.size() + 1)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes + staleMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 读取缓存条目（记录命中/未命中）。
+     *
+     * @param key 公司归一化名
+     * @return 条目；不存在或已过期返回 null
+     */
+    public Entry get(String key) {
+        Entry e = cache.getIfPresent(key);
+        if (e != null && isStale(e)) {
+            staleHits.incrementAndGet();
+        }
+        return e;
+    }
+
+    /**
+     * 读取缓存条目，不计入命中统计、不影响淘汰顺序（刷新调度用）。
+     *
+     * @param key 公司归一化名
+     * @return 条目；不存在或已过期返回 null
+     */
+    public Entry peek(String key) {
+        return cache.policy().getIfPresentQuietly(key);
+    }
+
+    /**
+     * 判断条目是否将在 within 内超过 ttl（含已超过的）。
+     */
+    public boolean staleWithin(Entry e, Duration within) {
+        return System.nanoTime() - e.loadedAtNanos > e.ttlNanos - within.toNanos();
+    }
+
+    /**
+     * 判断条目是否已超过 ttl（处于陈旧可用窗口）。
+     */
+    public boolean isStale(Entry e) {
+        return System.nanoTime() - e.loadedAtNanos > e.ttlNanos;
+    }
+
+    /**
+     * 写入（覆盖）条目。
+     */
+    public void put(String key, List<JobLink> links) {
+        cache.put(key, new Entry(List.copyOf(links), System.nanoTime(), ttlNanos));
+    }
+
+    /**
+     * 写入（覆盖）部分数据源失败时的条目：partialTtl 后即变为陈旧，陈旧窗口与普通条目相同。
+     */
+    public void putPartial(String key, List<JobLink> links) {
+        cache.put(key, new Entry(List.copyOf(links), System.nanoTime(), partialTtlNanos));
+    }
+
+    /**
+     * 写入已有一定年龄的条目（如从数据库预热），年龄决定其新鲜/陈旧状态。
+     *
+     * @param key   公司归一化名
+     * @param links 链接列表
+     * @param age   数据年龄；超过 ttl + stale 时不写入
+     */
+    public void putWithAge(String key, List<JobLink> links, Duration age) {
+        long ageNanos = Math.max(0, age.toNanos());
+        if (ageNanos >= maxAgeNanos) {
+            return;
+        }
+        cache.asMap().putIfAbsent(key, new Entry(List.copyOf(links), System.nanoTime() - ageNanos, ttlNanos));
+    }
+
+    /**
+     * 申请对 key 进行后台刷新（单飞）。
+     *
+     * @return true 表示获得刷新权，完成后须调用 {@link #endRefresh(String, boolean)}
+     */
+    public boolean beginRefresh(String key) {
+        return refreshing.add(key);
+    }
+
+    /**
+     * 结束刷新。
+     *
+     * @param key     公司归一化名
+     * @param success 刷新是否成功
+     */
+    public void endRefresh(String key, boolean success) {
+        refreshing.remove(key);
+        if (success) {
+            refreshes.incrementAndGet();
+        } else {
+            refreshFailures.incrementAndGet();
+        }
+    }
+
+    /**
+     * 缓存统计：命中、未命中、淘汰、刷新次数等。
+     */
+    public Map<String, Object> stats() {
+        CacheStats s = cache.stats();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("size", cache.estimatedSize());
+        m.put("hitCount", s.hitCount());
+        m.put("missCount", s.missCount());
+        m.put("hitRate", s.hitRate());
+        m.put("staleHitCount", staleHits.get());
+        m.put("evictionCount", s.evictionCount());
+        m.put("evictionWeight", s.evictionWeight());
+        m.put("refreshCount", refreshes.get());
+        m.put("refreshFailureCount", refreshFailures.get());
+        m.put("refreshingNow", refreshing.size());
+        return m;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 投递链接负缓存。
+ * <p>
+ * 两类条目，TTL 均较短：
+ * 所有数据源都正常返回但没有任何链接的公司（jobs.negative.emptyTtlSeconds 内不再扇出抓取）；
+ * 对某公司调用失败的数据源（公司 + 数据源，jobs.negative.sourceErrorTtlSeconds 内跳过该数据源）。
+ * </p>
+ */
+@Component
+public class JobLinkNegativeCache {
+    private final Cache<String, Boolean> emptyCompanies;
+    private final Cache<String, Boolean> failedSources;
+    private final AtomicLong emptyHits = new AtomicLong();
+    private final AtomicLong sourceSkips = new AtomicLong();
+
+    public JobLinkNegativeCache(@Value("${jobs.negative.emptyTtlSeconds:600}") long emptyTtlSeconds,
+                                @Value("${jobs.negative.sourceErrorTtlSeconds:120}") long sourceErrorTtlSeconds,
+                                @Value("${jobs.negative.maxEntries:100000}") long maxEntries) {
+        this.emptyCompanies = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(emptyTtlSeconds))
+                .build();
+        this.failedSources = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(sourceErrorTtlSeconds))
+                .build();
+    }
+
+    /**
+     * 公司是否处于“无结果”负缓存中。
+     *
+     * @param key 公司归一化名
+     */
+    public boolean isEmpty(String key) {
+        boolean hit = emptyCompanies.getIfPresent(key) != null;
+        if (hit) emptyHits.incrementAndGet();
+        return hit;
+    }
+
+    /**
+     * 记录公司无结果。
+     */
+    public void putEmpty(String key) {
+        emptyCompanies.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * 清除公司的无结果记录（已抓到链接时）。
+     */
+    public void clearEmpty(String key) {
+        emptyCompanies.invalidate(key);
+    }
+
+    /**
+     * 数据源对该公司是否处于失败负缓存中。
+     *
+     * @param source 数据源名
+     * @param key    公司归一化名
+     */
+    public boolean isSourceFailed(String source, String key) {
+        boolean hit = failedSources.getIfPresent(source + "\n" + key) != null;
+        if (hit) sourceSkips.incrementAndGet();
+        return hit;
+    }
+
+    /**
+     * 记录数据源对该公司调用失败。
+     */
+    public void putSourceFailure(String source, String key) {
+        failedSources.put(source + "\n" + key, Boolean.TRUE);
+    }
+
+    /**
+     * 负缓存统计：条目数与命中次数。
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("emptyCompanies", emptyCompanies.estimatedSize());
+        m.put("emptyHitCount", emptyHits.get());
+        m.put("failedSources", failedSources.estimatedSize());
+        m.put("sourceSkipCount", sourceSkips.get());
+        return m;
+    }
+}
@@ -1,11 +1,29 @@
 package com.example.demo.service;
 
 import com.example.demo.model.JobLink;
+import com.example.demo.model.JobLinkBatch;
+import com.example.demo.model.JobPosting;
+import com.example.demo.model.JobSearchResult;
+import com.example.demo.util.KeywordMatcher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -18,170 +36,552 @@ import java.util.stream.Collectors;
 @Service
 public class JobLinkService {
 
-    @Value("${jobs.crawler.templates:https://www.nowcoder.com/search?query=${name},https://www.offershow.cn/search?keyword=${name}}")
+    @Value("${jobs.crawler.templates:https://www.nowcoder.com/search?query=\\${name},https://www.offershow.cn/search?keyword=\\${name}}")
     private String templates;
 
-    @Value("${jobs.crawler.keywords:招聘,投递,职位,校招,社招,apply,career,join}")
-    private String keywords;
-
     @Value("${jobs.crawler.maxPerCompany:8}")
     private int maxPerCompany;
 
-    /** 内存存储（演示用）：公司名 -> 链接列表 */
-    private final Map<String, List<JobLink>> cache = new ConcurrentHashMap<>();
+    /** 单次聚合请求的截止时间（毫秒），超时返回部分结果 */
+    @Value("${jobs.search.deadlineMs:4000}")
+    private long deadlineMs;
+
+    /** 数据源并发执行器（虚拟线程，每任务一线程） */
+    private final ExecutorService fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     private final MokaService mokaService;
+    /** 未启用 db profile 时为 null（与 store、refreshStore 相同） */
     private final LinkSubmissionService linkSubmissionService;
     private final SitemapService sitemapService;
     private final JsonLdParser jsonLdParser;
+    private final OutboundHttpClient http;
+    private final HttpResponseCache responseCache;
+    private final CrawlFrontier frontier;
+    private final SourceGuard guard;
+    private final JobLinkCache cache;
+    private final JobLinkStore store;
+    private final KeywordMatcher jobKeywordMatcher;
+    private final CompanyRefreshStore refreshStore;
+    private final CompanyHotness hotness;
+    private final JobLinkNegativeCache negativeCache;
+    private final CompanyAliasIndex aliasIndex;
+
+    /** 启动预热加载的热点公司数量 */
+    @Value("${jobs.warmup.companies:500}")
+    private int warmupCompanies;
 
     /**
-     * 构造函数，注入各 ATS 服务与 Moka 服务。
+     * 构造函数，注入各 ATS 服务与 Moka 服务；依赖数据库的组件在未启用 db profile 时缺省
+     * （不预热、不落库、不记录刷新优先级，也没有“提交链接”数据源）。
      */
     public JobLinkService(MokaService mokaService,
-                          LinkSubmissionService linkSubmissionService,
+                          ObjectProvider<LinkSubmissionService> linkSubmissionService,
                           SitemapService sitemapService,
-                          JsonLdParser jsonLdParser) {
+                          JsonLdParser jsonLdParser,
+                          OutboundHttpClient http,
+                          HttpResponseCache responseCache,
+                          CrawlFrontier frontier,
+                          SourceGuard guard,
+                          JobLinkCache cache,
+                          ObjectProvider<JobLinkStore> store,
+                          @Qualifier("jobKeywordMatcher") KeywordMatcher jobKeywordMatcher,
+                          ObjectProvider<CompanyRefreshStore> refreshStore,
+                          CompanyHotness hotness,
+                          JobLinkNegativeCache negativeCache,
+                          CompanyAliasIndex aliasIndex) {
         this.mokaService = mokaService;
-        this.linkSubmissionService = linkSubmissionService;
+        this.linkSubmissionService = linkSubmissionService.getIfAvailable();
         this.sitemapService = sitemapService;
         this.jsonLdParser = jsonLdParser;
+        this.http = http;
+        this.responseCache = responseCache;
+        this.frontier = frontier;
+        this.guard = guard;
+        this.cache = cache;
+        this.store = store.getIfAvailable();
+        this.jobKeywordMatcher = jobKeywordMatcher;
+        this.refreshStore = refreshStore.getIfAvailable();
+        this.hotness = hotness;
+        this.negativeCache = negativeCache;
+        this.aliasIndex = aliasIndex;
+    }
+
+    /**
+     * 应用就绪后异步预热缓存：从 job_links 表加载热点公司，预热期间即可正常提供服务。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpAsync() {
+        if (store == null) return;
+        Thread.ofVirtual().name("job-link-warmup").start(() -> {
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                for (Map.Entry<String, JobLinkStore.Snapshot> e : store.loadHotSet(warmupCompanies).entrySet()) {
+                    LocalDateTime updatedAt = e.getValue().getUpdatedAt();
+                    Duration age = updatedAt == null ? Duration.ZERO : Duration.between(updatedAt, now);
+                    cache.putWithAge(e.getKey(), e.getValue().getLinks(), age);
+                }
+            } catch (Exception ignore) {
+                // 数据库不可用时跳过预热，首个请求按需抓取
+            }
+        });
     }
 
     /**
      * 根据公司名称检索投递链接并返回。
      * <p>
-     * 若内存已缓存且不过期（演示不做过期），直接返回；否则按照模板抓取。
+     * 命中缓存直接返回；否则并发抓取各数据源（见 {@link #search(String)}）。
      * </p>
      *
      * @param companyName 公司名称
      * @return 聚合后的投递链接列表
      */
     public List<JobLink> searchLinks(String companyName) {
+        return search(companyName).getLinks();
+    }
+
+    /**
+     * 在请求截止时间内并发聚合投递链接。
+     * <p>
+     * 各爬虫、审核通过链接的 DB 查询与 sitemap 候选抽取同时在虚拟线程上执行；
+     * 到达截止时间后立即返回已完成部分的去重结果，并标记超时的数据源；部分结果不写入缓存，
+     * 超时的数据源继续在后台执行，全部完成后才以完整结果写入缓存（此前的请求仍为 MISS）。
+     * 缓存条目过了 ttl 但仍在陈旧窗口内时，立即返回旧结果并触发一次后台刷新。
+     * 公司处于无结果负缓存中时直接返回空结果（缓存状态 NEGATIVE）；近期对该公司失败过的数据源被跳过。
+     * </p>
+     *
+     * @param companyName 公司名称
+     * @return 聚合结果（含超时数据源、缓存状态与不可用的数据源）
+     */
+    public JobSearchResult search(String companyName) {
         if (companyName == null || companyName.isBlank()) {
-            return List.of();
+            return new JobSearchResult(List.of(), List.of(), false);
         }
         String key = normalizeName(companyName);
-        List<JobLink> cached = cache.get(key);
-        if (cached != null && !cached.isEmpty()) {
-            return limit(cached, maxPerCompany);
+        recordRequest(key, companyName);
+        JobLinkCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            boolean stale = cache.isStale(cached);
+            if (stale) {
+                refreshAsync(key, companyName);
+            }
+            return new JobSearchResult(limit(cached.getLinks(), maxPerCompany), List.of(), false,
+                    stale ? "STALE" : "HIT", List.of());
         }
-        List<JobCrawler> crawlers = buildCrawlers();
-        List<JobLink> all = new ArrayList<>();
-        for (JobCrawler c : crawlers) {
+        if (negativeCache.isEmpty(key)) {
+            return new JobSearchResult(List.of(), List.of(), false, "NEGATIVE", List.of());
+        }
+        Set<String> unavailable = ConcurrentHashMap.newKeySet();
+        Map<String, CompletableFuture<List<JobLink>>> tasks = launchSources(key, companyName, unavailable);
+        CompletableFuture<Void> all = CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture[0]));
+        try {
+            all.get(Math.max(1, deadlineMs), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignore) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<String> timedOut = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<List<JobLink>>> e : tasks.entrySet()) {
+            if (!e.getValue().isDone()) {
+                timedOut.add(e.getKey());
+            }
+        }
+        List<JobLink> limited = merge(tasks);
+        store(key, companyName, limited, timedOut.isEmpty(), unavailable);
+        if (!timedOut.isEmpty()) {
+            // 落后的数据源完成后写入完整结果
+            all.thenRun(() -> store(key, companyName, merge(tasks), true, unavailable));
+        }
+        return new JobSearchResult(limited, timedOut, !timedOut.isEmpty(), "MISS", List.copyOf(unavailable));
+    }
+
+    /**
+     * 流式聚合：每个数据源完成即回调其去重后的链接批次，全部完成后返回各数据源耗时。
+     * <p>
+     * 回调串行执行；已发送过的 URL 不再重复发送，累计条数不超过单公司上限。
+     * 命中缓存时只回调一次（数据源为 cache）；命中无结果负缓存时不回调，耗时中只有 negative-cache。
+     * 全部完成后的完整结果同样写入缓存并落库。
+     * </p>
+     *
+     * @param companyName 公司名称
+     * @param onBatch     批次回调（仅在批次非空时调用）
+     * @return 数据源名 -> 耗时（毫秒），按启动顺序
+     */
+    public CompletableFuture<Map<String, Long>> streamSearch(String companyName, Consumer<JobLinkBatch> onBatch) {
+        if (companyName == null || companyName.isBlank()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        String key = normalizeName(companyName);
+        recordRequest(key, companyName);
+        JobLinkCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            if (cache.isStale(cached)) {
+                refreshAsync(key, companyName);
+            }
+            onBatch.accept(new JobLinkBatch("cache", limit(cached.getLinks(), maxPerCompany), 0));
+            return CompletableFuture.completedFuture(Map.of("cache", 0L));
+        }
+        if (negativeCache.isEmpty(key)) {
+            return CompletableFuture.completedFuture(Map.of("negative-cache", 0L));
+        }
+        long start = System.nanoTime();
+        Set<String> unavailable = ConcurrentHashMap.newKeySet();
+        Map<String, CompletableFuture<List<JobLink>>> tasks = launchSources(key, companyName, unavailable);
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        Set<String> sent = new HashSet<>();
+        List<CompletableFuture<Void>> emitted = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<List<JobLink>>> e : tasks.entrySet()) {
+            String source = e.getKey();
+            emitted.add(e.getValue().thenAccept(part -> {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                timings.put(source, elapsedMs);
+                synchronized (sent) {
+                    List<JobLink> fresh = new ArrayList<>();
+                    for (JobLink jl : part) {
+                        if (sent.size() >= maxPerCompany) break;
+                        if (jl.getUrl() != null && sent.add(jl.getUrl())) {
+                            fresh.add(jl);
+                        }
+                    }
+                    if (!fresh.isEmpty()) {
+                        try {
+                            onBatch.accept(new JobLinkBatch(source, fresh, elapsedMs));
+                        } catch (RuntimeException ignore) {
+                            // 客户端断开等情况不影响其余数据源完成并回填缓存
+                        }
+                    }
+                }
+            }));
+        }
+        // 等待全部批次回调结束后再汇总，保证完成事件在最后一批之后
+        return CompletableFuture.allOf(emitted.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    store(key, companyName, merge(tasks), true, unavailable);
+                    Map<String, Long> ordered = new LinkedHashMap<>();
+                    for (String source : tasks.keySet()) {
+                        ordered.put(source, timings.getOrDefault(source, 0L));
+                    }
+                    return ordered;
+                });
+    }
+
+    /**
+     * 记录一次查询：热度 sketch 与（启用数据库时）批量刷新优先级。
+     */
+    private void recordRequest(String key, String companyName) {
+        if (refreshStore != null) {
+            refreshStore.recordRequest(key, companyName);
+        }
+        hotness.record(key, companyName);
+    }
+
+    /**
+     * 后台重新抓取并覆盖缓存（同一公司同时只有一个刷新在执行）。
+     *
+     * @param key         公司归一化名
+     * @param companyName 公司名称
+     * @return 是否启动了刷新（已有刷新在执行时返回 false）
+     */
+    private boolean refreshAsync(String key, String companyName) {
+        if (!cache.beginRefresh(key)) {
+            return false;
+        }
+        try {
+            Set<String> unavailable = ConcurrentHashMap.newKeySet();
+            Map<String, CompletableFuture<List<JobLink>>> tasks = launchSources(key, companyName, unavailable);
+            CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture[0]))
+                    .whenComplete((v, ex) -> {
+                        boolean ok = ex == null;
+                        if (ok) {
+                            store(key, companyName, merge(tasks), true, unavailable);
+                        }
+                        cache.endRefresh(key, ok);
+                    });
+            return true;
+        } catch (RuntimeException e) {
+            cache.endRefresh(key, false);
+            return false;
+        }
+    }
+
+    /**
+     * 提前刷新：缓存条目将在 ahead 内变为陈旧时触发一次后台刷新（不在缓存中的不处理，由下次查询按需抓取）。
+     *
+     * @param companyName 公司名称
+     * @param ahead       提前量
+     * @return 是否触发了刷新
+     */
+    public boolean refreshAhead(String companyName, Duration ahead) {
+        String key = normalizeName(companyName);
+        if (key.isEmpty()) return false;
+        JobLinkCache.Entry e = cache.peek(key);
+        if (e == null || !cache.staleWithin(e, ahead)) return false;
+        return refreshAsync(key, companyName);
+    }
+
+    /**
+     * 同步重新抓取并覆盖缓存（批量刷新用，不读缓存与无结果负缓存、不计入请求次数）。
+     * <p>
+     * 到达超时后返回已完成部分并标记超时的数据源；部分结果不写缓存，落后的数据源完成后再写入完整结果。
+     * </p>
+     *
+     * @param companyName 公司名称
+     * @param timeoutMs   等待全部数据源的上限
+     * @return 聚合结果；该公司已有刷新在执行时返回 null
+     */
+    public JobSearchResult refresh(String companyName, long timeoutMs) {
+        String key = normalizeName(companyName);
+        if (key.isEmpty() || !cache.beginRefresh(key)) {
+            return null;
+        }
+        boolean ok = false;
+        try {
+            Set<String> unavailable = ConcurrentHashMap.newKeySet();
+            Map<String, CompletableFuture<List<JobLink>>> tasks = launchSources(key, companyName, unavailable);
             try {
-                List<JobLink> part = c.crawlByCompanyName(companyName, maxPerCompany);
-                if (part != null && !part.isEmpty()) {
-                    all.addAll(part);
+                CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture[0]))
+                        .get(Math.max(1, timeoutMs), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException ignore) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<String> timedOut = new ArrayList<>();
+            for (Map.Entry<String, CompletableFuture<List<JobLink>>> e : tasks.entrySet()) {
+                if (!e.getValue().isDone()) {
+                    timedOut.add(e.getKey());
                 }
+            }
+            List<JobLink> links = merge(tasks);
+            store(key, companyName, links, timedOut.isEmpty(), unavailable);
+            if (!timedOut.isEmpty()) {
+                CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture[0]))
+                        .thenRun(() -> store(key, companyName, merge(tasks), true, unavailable));
+            }
+            ok = timedOut.isEmpty();
+            return new JobSearchResult(links, timedOut, !timedOut.isEmpty(), "MISS", List.copyOf(unavailable));
+        } finally {
+            cache.endRefresh(key, ok);
+        }
+    }
+
+    /**
+     * 写入缓存并异步落库（job_links）；部分结果（有数据源未完成）不写缓存也不落库，
+     * 避免后续请求以 HIT 拿到不完整的结果。
+     * <p>
+     * 空结果不写入缓存：所有数据源都已完成且均未失败时记入无结果负缓存，否则不记录（可能是失败导致的空）。
+     * 有数据源失败时，保留缓存中该数据源此前的链接，按较短的有效期写入（见 {@link JobLinkCache#putPartial}），
+     * 落库时也不删除本次未出现的旧链接，避免短暂故障清空该数据源的结果。
+     * </p>
+     *
+     * @param key         公司归一化名
+     * @param companyName 公司名称
+     * @param links       聚合结果
+     * @param complete    是否所有数据源均已完成
+     * @param unavailable 失败或被跳过的数据源
+     */
+    private void store(String key, String companyName, List<JobLink> links, boolean complete, Set<String> unavailable) {
+        if (!complete) {
+            return;
+        }
+        boolean partial = !unavailable.isEmpty();
+        List<JobLink> merged = partial ? keepPrevious(key, links, unavailable) : links;
+        if (merged.isEmpty()) {
+            if (!partial) {
+                negativeCache.putEmpty(key);
+            }
+            return;
+        }
+        negativeCache.clearEmpty(key);
+        if (partial) {
+            cache.putPartial(key, merged);
+        } else {
+            cache.put(key, merged);
+        }
+        if (store == null) return;
+        fanOutExecutor.execute(() -> {
+            try {
+                store.save(key, companyName, merged, !partial);
             } catch (Exception ignore) {
             }
+        });
+    }
+
+    /**
+     * 在本次结果之后补上缓存中来自失败数据源的旧链接（去重 + 限量）。
+     *
+     * @param key         公司归一化名
+     * @param links       本次聚合结果
+     * @param unavailable 失败或被跳过的数据源
+     * @return 合并后的列表
+     */
+    private List<JobLink> keepPrevious(String key, List<JobLink> links, Set<String> unavailable) {
+        JobLinkCache.Entry previous = cache.peek(key);
+        if (previous == null) return links;
+        List<JobLink> all = new ArrayList<>(links);
+        for (JobLink jl : previous.getLinks()) {
+            if (fromSource(jl, unavailable)) {
+                all.add(jl);
+            }
+        }
+        return limit(dedupe(all), maxPerCompany);
+    }
+
+    /**
+     * 判断链接是否来自给定数据源之一（官网候选的来源带子类型，如 sitemap/jsonld）。
+     */
+    private static boolean fromSource(JobLink jl, Set<String> sources) {
+        String source = jl.getSource();
+        if (source == null) return false;
+        int slash = source.indexOf('/');
+        return sources.contains(source) || (slash > 0 && sources.contains(source.substring(0, slash)));
+    }
+
+    /**
+     * 为每个数据源启动异步任务（爬虫、审核通过链接、官网候选入口）。
+     * <p>
+     * 返回的 Future 不会异常完成：单个数据源失败时返回空列表，不影响其它数据源。
+     * 失败的数据源记入（公司, 数据源）负缓存，负缓存有效期内直接跳过；两者都加入 unavailable。
+     * 本地拒绝（见 {@link SourceGuard#isLocalRejection(Throwable)}）只加入 unavailable，不记负缓存。
+     * </p>
+     *
+     * @param key         公司归一化名
+     * @param companyName 公司名称
+     * @param unavailable 收集失败或被跳过的数据源（并发写入）
+     * @return 数据源名（唯一，见 {@link #buildCrawlers()}） -> 任务（保持合并顺序：爬虫、提交链接、官网候选）
+     */
+    private Map<String, CompletableFuture<List<JobLink>>> launchSources(String key, String companyName,
+                                                                        Set<String> unavailable) {
+        Map<String, CompletableFuture<List<JobLink>>> tasks = new LinkedHashMap<>();
+        for (JobCrawler c : buildCrawlers()) {
+            tasks.put(c.getSourceName(), supplySafely(c.getSourceName(), key, unavailable,
+                    () -> c.crawlByCompanyName(companyName, maxPerCompany)));
         }
         // 合并审核通过的“提交投递链接”
-        List<JobLink> submitted = linkSubmissionService.listApprovedApplyLinks(companyName);
-        all.addAll(submitted);
-        // 自动补充候选入口：基于官网域名映射 + sitemap/JSON-LD 抽取
-        if (all.size() < maxPerCompany) {
-            List<JobLink> candidates = extractCandidates(companyName, kw);
-            all.addAll(candidates);
+        if (linkSubmissionService != null) {
+            tasks.put("submitted", supplySafely("submitted", key, unavailable,
+                    () -> linkSubmissionService.listApprovedApplyLinks(companyName)));
         }
-        List<JobLink> deduped = dedupe(all);
-        List<JobLink> limited = limit(deduped, maxPerCompany);
-        cache.put(key, limited);
-        return limited;
+        // 自动补充候选入口：基于官网域名映射 + sitemap/JSON-LD 抽取
+        tasks.put("sitemap", supplySafely("sitemap", key, unavailable, () -> extractCandidates(companyName)));
+        return tasks;
     }
 
-    /** 公司域名映射（配置），格式示例：字节跳动=www.bytedance.com;阿里巴巴=www.alibaba.com */
-    @org.springframework.beans.factory.annotation.Value("${jobs.domains:}")
-    private String companyDomains;
+    private CompletableFuture<List<JobLink>> supplySafely(String source, String key, Set<String> unavailable,
+                                                          java.util.function.Supplier<List<JobLink>> supplier) {
+        if (negativeCache.isSourceFailed(source, key)) {
+            unavailable.add(source);
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return CompletableFuture.supplyAsync(supplier, fanOutExecutor)
+                .thenApply(part -> part == null ? List.<JobLink>of() : part)
+                .exceptionally(ex -> {
+                    if (!SourceGuard.isLocalRejection(ex)) {
+                        negativeCache.putSourceFailure(source, key);
+                    }
+                    unavailable.add(source);
+                    return List.of();
+                });
+    }
 
     /**
-     * 从配置域名映射加载官网域名。
+     * 合并已完成数据源的结果（去重 + 限量）。
      */
-    private String findDomain(String companyName) {
-        if (companyDomains == null || companyDomains.isBlank()) return "";
-        String[] pairs = companyDomains.split(";");
-        for (String p : pairs) {
-            String[] kv = p.split("=");
-            if (kv.length == 2) {
-                if (companyName.equalsIgnoreCase(kv[0].trim())) {
-                    return kv[1].trim();
-                }
+    private List<JobLink> merge(Map<String, CompletableFuture<List<JobLink>>> tasks) {
+        List<JobLink> all = new ArrayList<>();
+        for (CompletableFuture<List<JobLink>> f : tasks.values()) {
+            if (f.isDone()) {
+                all.addAll(f.join());
             }
         }
-        return "";
+        return limit(dedupe(all), maxPerCompany);
     }
 
     /**
-     * 基于官网 sitemap 与页面 JSON-LD 抽取候选投递入口。
+     * 基于官网 sitemap 与页面 JSON-LD 抽取候选投递入口（官网域名见 {@link CompanyAliasIndex#domain(String)}）。
+     * <p>
+     * sitemap 不可用（见 {@link SitemapService#extractUrlsFromSitemap(String)}）时抛出异常；
+     * 候选页面全部失败（robots 禁止与 4xx 除外）且没有收集到任何入口时同样抛出，由调用方记为数据源不可用。
+     * </p>
      */
-    private List<JobLink> extractCandidates(String companyName, List<String> kw) {
-        String domain = findDomain(companyName);
+    private List<JobLink> extractCandidates(String companyName) {
+        String domain = aliasIndex.domain(companyName);
         if (domain.isEmpty()) return java.util.List.of();
-        try {
-            java.util.List<String> urls = sitemapService.extractUrlsFromSitemap(domain);
-            java.util.List<JobLink> list = new java.util.ArrayList<>();
-            java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(3);
+        // sitemap 流式解析时已按招聘关键词预筛，只消费前几条即关闭流，不再下载剩余文档
+        try (java.util.stream.Stream<String> urls = sitemapService.extractUrlsFromSitemap(domain)) {
+            // 无锁收集：各抓取任务在 CrawlExecutor 的虚拟线程上并发写入
+            java.util.Queue<JobLink> collected = new java.util.concurrent.ConcurrentLinkedQueue<>();
+            java.util.Queue<Throwable> failures = new java.util.concurrent.ConcurrentLinkedQueue<>();
             java.util.List<java.util.concurrent.CompletableFuture<Void>> tasks = new java.util.ArrayList<>();
-            for (String u : urls) {
-                // 关键词预筛：减少请求量
-                String lower = u.toLowerCase();
-                boolean match = kw.stream().anyMatch(k -> lower.contains(k.toLowerCase())) || lower.contains("zhaopin") || lower.contains("jobs") || lower.contains("careers") || lower.contains("join");
-                if (!match) continue;
-                tasks.add(java.util.concurrent.CompletableFuture.runAsync(() -> {
-                    try {
-                        org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-                        headers.set(org.springframework.http.HttpHeaders.USER_AGENT, "HireRadar/1.0");
-                        org.springframework.web.client.RestTemplate rt = new org.springframework.web.client.RestTemplate();
-                        org.springframework.http.ResponseEntity<String> resp = rt.exchange(java.net.URI.create(u), org.springframework.http.HttpMethod.GET, new org.springframework.http.HttpEntity<>(headers), String.class);
-                        String html = resp.getBody();
-                        if (html == null || html.isBlank()) return;
-                        java.util.List<String> applyUrls = jsonLdParser.extractApplyUrls(html);
-                        for (String au : applyUrls) {
-                            JobLink jl = new JobLink();
-                            jl.setTitle("投递入口");
-                            jl.setUrl(com.example.demo.util.UrlUtils.normalize(au));
-                            jl.setSource("sitemap/jsonld");
-                            jl.setDescription("来源：官网 JSON-LD");
-                            jl.setCollectedAt(java.time.LocalDateTime.now());
-                            synchronized (list) { list.add(jl); }
+            java.util.Iterator<String> it = urls.iterator();
+            while (it.hasNext()) {
+                String u = it.next();
+                // 经抓取前沿提交：遵守 robots.txt，并与同主机的其他请求一起节流
+                tasks.add(frontier.<Void>submit(java.net.URI.create(u), true, () -> {
+                    // 条件 GET：页面未变化时直接复用上次抽取的 JSON-LD 结果
+                    java.net.URI page = java.net.URI.create(u);
+                    java.util.List<JobPosting> postings = responseCache.fetchParsed("career", page, "jobposting", r -> {
+                        try (java.io.Reader reader = r.openReader()) {
+                            return java.util.List.copyOf(jsonLdParser.extractPostings(reader, page));
                         }
-                        // 若 JSON-LD 未命中，但页面 URL 符合关键词，也作为候选
-                        JobLink jl2 = new JobLink();
-                        jl2.setTitle("投递入口");
-                        jl2.setUrl(com.example.demo.util.UrlUtils.normalize(u));
-                        jl2.setSource("sitemap");
-                        jl2.setDescription("来源：官网 sitemap");
-                        jl2.setCollectedAt(java.time.LocalDateTime.now());
-                        synchronized (list) { list.add(jl2); }
-                    } catch (Exception ignore) {}
-                }, pool));
+                    });
+                    for (JobPosting jp : postings) {
+                        String au = StringUtils.hasText(jp.getApplicationUrl()) ? jp.getApplicationUrl() : jp.getUrl();
+                        if (!StringUtils.hasText(au)) continue;
+                        JobLink jl = new JobLink();
+                        jl.setTitle(StringUtils.hasText(jp.getTitle()) ? jp.getTitle() : "投递入口");
+                        jl.setUrl(com.example.demo.util.UrlUtils.normalize(au));
+                        jl.setSource("sitemap/jsonld");
+                        jl.setDescription("来源：官网 JSON-LD");
+                        jl.setCollectedAt(java.time.LocalDateTime.now());
+                        collected.add(jl);
+                    }
+                    // 若 JSON-LD 未命中，但页面 URL 符合关键词，也作为候选
+                    JobLink jl2 = new JobLink();
+                    jl2.setTitle("投递入口");
+                    jl2.setUrl(com.example.demo.util.UrlUtils.normalize(u));
+                    jl2.setSource("sitemap");
+                    jl2.setDescription("来源：官网 sitemap");
+                    jl2.setCollectedAt(java.time.LocalDateTime.now());
+                    collected.add(jl2);
+                    return null;
+                }).exceptionally(e -> {
+                    Throwable cause = e instanceof java.util.concurrent.CompletionException && e.getCause() != null ? e.getCause() : e;
+                    boolean missing = cause instanceof CrawlFrontier.DisallowedException
+                            || (cause instanceof HttpResponseCache.StatusException se && se.getStatus() >= 400 && se.getStatus() < 500);
+                    if (!missing) failures.add(cause);
+                    return null;
+                }));
                 if (tasks.size() >= 6) break; // 控制请求量
             }
             java.util.concurrent.CompletableFuture.allOf(tasks.toArray(new java.util.concurrent.CompletableFuture[0])).join();
-            pool.shutdown();
-            return list;
-        } catch (Exception e) {
-            return java.util.List.of();
+            if (collected.isEmpty() && !failures.isEmpty()) {
+                throw new IllegalStateException(failures.size() + " candidate pages failed for " + domain, failures.peek());
+            }
+            return new java.util.ArrayList<>(collected);
         }
     }
 
     /**
      * 构建爬虫实现。
+     * <p>
+     * 模板的数据源名取站点名；同一站点配置了多个模板时依次加后缀 #2、#3…，
+     * 保证每个模板的结果、超时标记与熔断状态互不覆盖（出站配置仍按站点名）。
+     * </p>
      *
      * @return 爬虫列表
      */
     private List<JobCrawler> buildCrawlers() {
         List<String> tmpl = Arrays.stream(templates.split(",")).map(String::trim)
                 .filter(s -> !s.isEmpty()).collect(Collectors.toList());
-        List<String> kw = Arrays.stream(keywords.split(",")).map(String::trim)
-                .filter(s -> !s.isEmpty()).collect(Collectors.toList());
         List<JobCrawler> list = new ArrayList<>();
-        // 优先接入国内官方源（仅保留 Moka）
+        // 优先接入国内官方源（仅保留 Moka；MokaService 内部已按 moka 源熔断）
         list.add(new MokaCrawlerAdapter(mokaService));
+        Map<String, Integer> perHost = new HashMap<>();
         for (String t : tmpl) {
-            String source = parseSourceName(t);
-            list.add(new GenericTemplateCrawler(t, source, kw));
+            String host = parseSourceName(t);
+            int n = perHost.merge(host, 1, Integer::sum);
+            String source = n == 1 ? host : host + "#" + n;
+            list.add(new GuardedJobCrawler(
+                    new GenericTemplateCrawler(t, source, jobKeywordMatcher, http.forSource(host), frontier), guard));
         }
         return list;
     }
@@ -230,16 +630,12 @@ public class JobLinkService {
     }
 
     /**
-     * 名称归一化（去空格与常见后缀）。
+     * 缓存键：别名组的规范 ID 或归一化名称（见 {@link CompanyAliasIndex#canonicalKey(String)}）。
      *
      * @param name 公司名
-     * @return 归一化名称
+     * @return 规范键
      */
     private String normalizeName(String name) {
-        String n = name.trim().toLowerCase(Locale.ROOT);
-        n = n.replace("有限公司", "").replace("有限责任公司", "").replace("股份有限公司", "");
-        n = n.replace("公司", "").replace("集团", "");
-        n = n.replaceAll("\\s+", "");
-        return n;
+        return aliasIndex.canonicalKey(name);
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.example.demo.entity.JobLinkEntity;
+import com.example.demo.mapper.JobLinkMapper;
+import com.example.demo.model.JobLink;
+import com.example.demo.util.UrlUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 聚合投递链接持久化（job_links 表）。
+ * <p>
+ * 每次完整聚合后批量 upsert，并删除该公司本次未出现的旧链接；
+ * 启动时按最近更新时间加载热点公司，供缓存预热。
+ * </p>
+ */
+@Profile("db")
+@Service
+public class JobLinkStore {
+
+    /**
+     * 某公司已持久化的聚合结果快照。
+     */
+    public static final class Snapshot {
+        private final List<JobLink> links = new ArrayList<>();
+        private LocalDateTime updatedAt;
+
+        public List<JobLink> getLinks() { return links; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+    }
+
+    private final JobLinkMapper mapper;
+
+    public JobLinkStore(JobLinkMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * 保存某公司的聚合结果。
+     *
+     * @param companyKey  公司归一化名
+     * @param companyName 公司名称（原始输入）
+     * @param links       聚合结果（已去重、限量）
+     */
+    public void save(String companyKey, String companyName, List<JobLink> links) {
+        save(companyKey, companyName, links, true);
+    }
+
+    /**
+     * 保存某公司的聚合结果。
+     *
+     * @param companyKey  公司归一化名
+     * @param companyName 公司名称（原始输入）
+     * @param links       聚合结果（已去重、限量）
+     * @param replace     是否删除本次未出现的旧链接；有数据源失败时传 false，保留其此前的链接
+     */
+    public void save(String companyKey, String companyName, List<JobLink> links, boolean replace) {
+        if (links.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, JobLinkEntity> rows = new LinkedHashMap<>();
+        for (JobLink jl : links) {
+            String urlKey = UrlUtils.normalize(jl.getUrl());
+            JobLinkEntity e = new JobLinkEntity();
+            e.setId(java.util.UUID.randomUUID().toString().replace("-", ""));
+            e.setCompanyKey(companyKey);
+            e.setCompanyName(companyName);
+            e.setTitle(jl.getTitle());
+            e.setUrl(jl.getUrl());
+            e.setUrlKey(urlKey);
+            e.setSource(jl.getSource());
+            e.setDescription(jl.getDescription());
+            e.setPosition(rows.size());
+            e.setCollectedAt(jl.getCollectedAt() != null ? jl.getCollectedAt() : now);
+            e.setUpdatedAt(now);
+            // 同一批内规范化后重复的 URL 只保留第一条，避免 ON CONFLICT 同批冲突
+            rows.putIfAbsent(urlKey, e);
+        }
+        mapper.upsertBatch(new ArrayList<>(rows.values()));
+        if (!replace) return;
+        mapper.delete(new LambdaQueryWrapper<JobLinkEntity>()
+                .eq(JobLinkEntity::getCompanyKey, companyKey)
+                .lt(JobLinkEntity::getUpdatedAt, now));
+    }
+
+    /**
+     * 加载最近更新的热点公司及其链接。
+     *
+     * @param limit 公司数量上限
+     * @return 公司归一化名 -> 快照（链接按聚合顺序）
+     */
+    public Map<String, Snapshot> loadHotSet(int limit) {
+        Map<String, Snapshot> result = new LinkedHashMap<>();
+        List<String> keys = mapper.selectRecentCompanyKeys(limit);
+        if (keys.isEmpty()) return result;
+        List<JobLinkEntity> rows = mapper.selectList(new LambdaQueryWrapper<JobLinkEntity>()
+                .in(JobLinkEntity::getCompanyKey, keys)
+                .orderByAsc(JobLinkEntity::getCompanyKey, JobLinkEntity::getPosition));
+        for (JobLinkEntity e : rows) {
+            Snapshot s = result.computeIfAbsent(e.getCompanyKey(), k -> new Snapshot());
+            s.links.add(toJobLink(e));
+            if (s.updatedAt == null || (e.getUpdatedAt() != null && e.getUpdatedAt().isAfter(s.updatedAt))) {
+                s.updatedAt = e.getUpdatedAt();
+            }
+        }
+        return result;
+    }
+
+    /** Entity -> JobLink。 */
+    private JobLink toJobLink(JobLinkEntity e) {
+        JobLink jl = new JobLink();
+        jl.setTitle(e.getTitle());
+        jl.setUrl(e.getUrl());
+        jl.setSource(e.getSource());
+        jl.setDescription(e.getDescription());
+        jl.setCollectedAt(e.getCollectedAt());
+        return jl;
+    }
+}
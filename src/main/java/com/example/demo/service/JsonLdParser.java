@@ -1,22 +1,42 @@
 package com.example.demo.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.model.JobPosting;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * JSON-LD 解析器（只抽取 JobPosting/Organization 的 URL/投递入口）。
+ * <p>
+ * 单遍流式处理：手写扫描器逐字符读取 HTML，只截取 type 含 ld+json 的 script 块（单块超过
+ * jsonld.maxBlockChars 时整块跳过），再用 Jackson 流式 JsonParser 逐 token 读取，不构建 JsonNode 树。
+ * 任意层级（含 @graph、数组、嵌套对象）的 JobPosting 都会被识别，@type 支持字符串与数组，
+ * 以及 schema:JobPosting、https://schema.org/JobPosting 等写法。
+ * 嵌套超过 {@value #MAX_DEPTH} 层的值用 skipChildren 迭代跳过，不再递归，恶意深层嵌套不会耗尽调用栈。
+ * </p>
  */
 @Service
 public class JsonLdParser {
-    private static final Pattern JSON_LD_PATTERN = Pattern.compile("<script[^>]*type=\\\"application/ld\\+json\\\"[^>]*>(.*?)</script>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-    private final ObjectMapper mapper = new ObjectMapper();
+    /** 递归读取的最大嵌套层数，更深的值整体跳过 */
+    static final int MAX_DEPTH = 64;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /** 单个 ld+json 块的字符上限 */
+    @Value("${jsonld.maxBlockChars:262144}")
+    private int maxBlockChars;
 
     /**
      * 从 HTML 中提取 JSON-LD，并抽取投递相关链接。
@@ -25,38 +45,347 @@ public class JsonLdParser {
      * @return 可能的投递/职位/组织 URL 列表
      */
     public List<String> extractApplyUrls(String html) {
-        List<String> urls = new ArrayList<>();
-        Matcher m = JSON_LD_PATTERN.matcher(html);
-        while (m.find()) {
-            String json = m.group(1);
-            try {
-                JsonNode node = mapper.readTree(json);
-                collectUrls(node, urls);
-            } catch (Exception ignore) {}
+        try {
+            return scan(new StringReader(html), null).applyUrls;
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * 从 HTML 字符流中抽取 JobPosting。
+     *
+     * @param html HTML 字符流（不负责关闭）
+     * @param base 页面地址，用于解析相对 url；可为 null
+     * @return 职位列表（按在页面中出现的顺序）
+     * @throws IOException 读取异常
+     */
+    public List<JobPosting> extractPostings(Reader html, URI base) throws IOException {
+        return scan(html, base).postings;
+    }
+
+    private Extraction scan(Reader html, URI base) throws IOException {
+        Extraction out = new Extraction(base);
+        new ScriptScanner(html, maxBlockChars).forEachLdJson(block -> {
+            try (JsonParser p = jsonFactory.createParser(block)) {
+                JsonToken t;
+                while ((t = p.nextToken()) != null) {
+                    readValue(p, t, out, 0);
+                }
+            } catch (IOException ignore) {
+                // 单个块格式错误不影响其他块（已收集的部分保留）
+            }
+        });
+        return out;
+    }
+
+    /** 读取当前 token 开始的值：对象/数组递归（超过 MAX_DEPTH 时跳过），标量跳过。 */
+    private void readValue(JsonParser p, JsonToken t, Extraction out, int depth) throws IOException {
+        if (depth >= MAX_DEPTH) {
+            p.skipChildren();
+        } else if (t == JsonToken.START_OBJECT) {
+            readObject(p, out, false, depth + 1);
+        } else if (t == JsonToken.START_ARRAY) {
+            while ((t = p.nextToken()) != null && t != JsonToken.END_ARRAY) {
+                readValue(p, t, out, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * 读取对象（当前 token 为 START_OBJECT），只保留关心的字段；对象结束时按 @type 产出结果。
+     *
+     * @param nestedOrganization 是否为 JobPosting 的 hiringOrganization（其 url 是公司主页，不作为投递入口）
+     */
+    private LdObject readObject(JsonParser p, Extraction out, boolean nestedOrganization, int depth) throws IOException {
+        LdObject o = new LdObject();
+        JsonToken t;
+        while ((t = p.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            t = p.nextToken();
+            if ("@type".equals(field)) {
+                readTypes(p, t, o);
+            } else if ("hiringOrganization".equals(field)) {
+                if (t == JsonToken.START_OBJECT && depth < MAX_DEPTH) {
+                    o.organizationName = readObject(p, out, true, depth + 1).name;
+                } else if (t.isScalarValue()) {
+                    o.organizationName = p.getValueAsString();
+                } else {
+                    readValue(p, t, out, depth);
+                }
+            } else if (t.isScalarValue()) {
+                switch (field) {
+                    case "url" -> o.url = p.getValueAsString();
+                    case "applicationUrl" -> o.applicationUrl = p.getValueAsString();
+                    case "title" -> o.title = p.getValueAsString();
+                    case "name" -> o.name = p.getValueAsString();
+                    case "datePosted" -> o.datePosted = p.getValueAsString();
+                    case "validThrough" -> o.validThrough = p.getValueAsString();
+                    default -> { }
+                }
+            } else {
+                readValue(p, t, out, depth);
+            }
+        }
+        if (o.jobPosting) {
+            out.addPosting(o);
+        } else if (o.organization && !nestedOrganization) {
+            out.addUrl(o.url);
+        }
+        return o;
+    }
+
+    private void readTypes(JsonParser p, JsonToken t, LdObject o) throws IOException {
+        if (t == JsonToken.VALUE_STRING) {
+            o.addType(p.getText());
+        } else if (t == JsonToken.START_ARRAY) {
+            while ((t = p.nextToken()) != null && t != JsonToken.END_ARRAY) {
+                if (t == JsonToken.VALUE_STRING) {
+                    o.addType(p.getText());
+                } else {
+                    p.skipChildren();
+                }
+            }
+        } else {
+            p.skipChildren();
+        }
+    }
+
+    /**
+     * 解析中的 JSON-LD 对象（只含关心的字段）。
+     */
+    private static final class LdObject {
+        private boolean jobPosting;
+        private boolean organization;
+        private String url;
+        private String applicationUrl;
+        private String title;
+        private String name;
+        private String datePosted;
+        private String validThrough;
+        private String organizationName;
+
+        private void addType(String type) {
+            String local = type;
+            int cut = Math.max(local.lastIndexOf('/'), local.lastIndexOf(':'));
+            if (cut >= 0) local = local.substring(cut + 1);
+            local = local.toLowerCase(Locale.ROOT);
+            if (local.equals("jobposting")) jobPosting = true;
+            else if (local.equals("organization")) organization = true;
         }
-        return urls;
     }
 
-    private void collectUrls(JsonNode node, List<String> urls) {
-        if (node == null) return;
-        if (node.isArray()) {
-            for (JsonNode n : node) collectUrls(n, urls);
-            return;
+    /**
+     * 抽取结果。
+     */
+    private static final class Extraction {
+        private final URI base;
+        private final List<JobPosting> postings = new ArrayList<>();
+        private final List<String> applyUrls = new ArrayList<>();
+
+        private Extraction(URI base) {
+            this.base = base;
+        }
+
+        private void addPosting(LdObject o) {
+            JobPosting jp = new JobPosting();
+            jp.setUrl(resolve(o.url));
+            jp.setApplicationUrl(resolve(o.applicationUrl));
+            jp.setTitle(StringUtils.hasText(o.title) ? o.title.trim() : o.name);
+            jp.setDatePosted(o.datePosted);
+            jp.setValidThrough(o.validThrough);
+            jp.setHiringOrganization(o.organizationName);
+            postings.add(jp);
+            addUrl(jp.getUrl());
+            addUrl(jp.getApplicationUrl());
         }
-        String type = node.path("@type").asText("");
-        if ("JobPosting".equalsIgnoreCase(type)) {
-            addIfPresent(urls, node.path("url").asText(""));
-            addIfPresent(urls, node.path("applicationUrl").asText(""));
-        } else if ("Organization".equalsIgnoreCase(type)) {
-            addIfPresent(urls, node.path("url").asText(""));
+
+        private void addUrl(String u) {
+            if (StringUtils.hasText(u)) {
+                applyUrls.add(u);
+            }
+        }
+
+        private String resolve(String u) {
+            if (!StringUtils.hasText(u)) return null;
+            String t = u.trim();
+            if (base == null) return t;
+            try {
+                return base.resolve(t.replace(" ", "%20")).toString();
+            } catch (IllegalArgumentException e) {
+                return t;
+            }
         }
-        // 深度遍历可能的 graph 或 nested
-        collectUrls(node.path("@graph"), urls);
     }
 
-    private void addIfPresent(List<String> urls, String u) {
-        if (StringUtils.hasText(u)) {
-            urls.add(u);
+    /**
+     * ld+json script 块扫描器：跳过注释与其他 script/style 内容，只截取 ld+json 块。
+     */
+    private static final class ScriptScanner {
+        private static final int MAX_NAME = 16;
+        private static final int MAX_ATTR = 256;
+
+        private final Reader in;
+        private final int maxBlockChars;
+        private final char[] buf = new char[8192];
+        private int pos;
+        private int limit;
+        private final StringBuilder name = new StringBuilder(MAX_NAME);
+        private final StringBuilder attr = new StringBuilder(MAX_NAME);
+        private final StringBuilder value = new StringBuilder(MAX_ATTR);
+
+        private ScriptScanner(Reader in, int maxBlockChars) {
+            this.in = in;
+            this.maxBlockChars = maxBlockChars;
+        }
+
+        private void forEachLdJson(Consumer<String> handler) throws IOException {
+            int c;
+            while ((c = read()) != -1) {
+                if (c != '<') continue;
+                c = read();
+                if (c == '!') {
+                    skipDeclaration();
+                    continue;
+                }
+                if (!isLetter(c)) {
+                    if (c != -1) pos--;
+                    continue;
+                }
+                readTagName(c);
+                boolean script = "script".contentEquals(name);
+                String type = readAttributes(script);
+                if (script) {
+                    boolean ld = type != null && type.toLowerCase(Locale.ROOT).contains("ld+json");
+                    String block = readRawText("script", ld);
+                    if (block != null) handler.accept(block);
+                } else if ("style".contentEquals(name)) {
+                    readRawText("style", false);
+                }
+            }
+        }
+
+        private int read() throws IOException {
+            if (pos >= limit) {
+                limit = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buf[pos++];
+        }
+
+        private void readTagName(int first) throws IOException {
+            name.setLength(0);
+            int c = first;
+            while (c != -1 && (isLetter(c) || (c >= '0' && c <= '9') || c == '-')) {
+                if (name.length() < MAX_NAME) name.append(Character.toLowerCase((char) c));
+                c = read();
+            }
+            if (c != -1) pos--;
+        }
+
+        /** 读取属性直到 '>'，返回 type 属性值（wantType 为 false 时返回 null）。 */
+        private String readAttributes(boolean wantType) throws IOException {
+            String type = null;
+            while (true) {
+                int c = read();
+                while (c != -1 && isSpace(c)) c = read();
+                if (c == -1 || c == '>') return type;
+                if (c == '/') continue;
+                attr.setLength(0);
+                while (c != -1 && !isSpace(c) && c != '=' && c != '>' && c != '/') {
+                    if (attr.length() < MAX_NAME) attr.append(Character.toLowerCase((char) c));
+                    c = read();
+                }
+                while (c != -1 && isSpace(c)) c = read();
+                if (c == -1) return type;
+                if (c != '=') {
+                    pos--;
+                    continue;
+                }
+                c = read();
+                while (c != -1 && isSpace(c)) c = read();
+                boolean capture = wantType && "type".contentEquals(attr);
+                value.setLength(0);
+                if (c == '"' || c == '\'') {
+                    int quote = c;
+                    while ((c = read()) != -1 && c != quote) {
+                        if (capture && value.length() < MAX_ATTR) value.append((char) c);
+                    }
+                } else {
+                    while (c != -1 && !isSpace(c) && c != '>') {
+                        if (capture && value.length() < MAX_ATTR) value.append((char) c);
+                        c = read();
+                    }
+                    if (c == '>') pos--;
+                }
+                if (capture) type = value.toString();
+                if (c == -1) return type;
+            }
+        }
+
+        /**
+         * 读取原始文本直到对应结束标签（逐字符匹配 "&lt;/tag"，无需回溯）。
+         *
+         * @param capture 是否保留内容；超过上限时放弃并返回 null
+         */
+        private String readRawText(String tag, boolean capture) throws IOException {
+            String end = "</" + tag;
+            StringBuilder block = capture ? new StringBuilder(1024) : null;
+            int matched = 0;
+            int c;
+            while ((c = read()) != -1) {
+                char ch = Character.toLowerCase((char) c);
+                if (ch == end.charAt(matched)) {
+                    matched++;
+                } else {
+                    matched = ch == '<' ? 1 : 0;
+                }
+                if (block != null) {
+                    if (block.length() >= maxBlockChars + end.length()) {
+                        block = null;
+                    } else {
+                        block.append((char) c);
+                    }
+                }
+                if (matched == end.length()) {
+                    while ((c = read()) != -1 && c != '>') {
+                        // skip
+                    }
+                    if (block == null) return null;
+                    block.setLength(block.length() - end.length());
+                    return block.toString();
+                }
+            }
+            return null;
+        }
+
+        private void skipDeclaration() throws IOException {
+            int c = read();
+            if (c == '-') {
+                int c2 = read();
+                if (c2 == '-') {
+                    int dashes = 0;
+                    while ((c = read()) != -1) {
+                        if (c == '>' && dashes >= 2) return;
+                        dashes = c == '-' ? dashes + 1 : 0;
+                    }
+                    return;
+                }
+                c = c2;
+            }
+            while (c != -1 && c != '>') c = read();
+        }
+
+        private static boolean isLetter(int c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+
+        private static boolean isSpace(int c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
         }
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,7 @@ import com.example.demo.entity.SubmittedLinkEntity;
 import com.example.demo.mapper.SubmittedLinkMapper;
 import com.example.demo.model.JobLink;
 import com.example.demo.model.SubmittedLink;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -18,6 +19,7 @@ import java.util.stream.Collectors;
  * 使用 MyBatis-Plus 持久化，提供提交、审核与查询；并将审核通过的链接转换为 JobLink。
  * </p>
  */
+@Profile("db")
 @Service
 public class LinkSubmissionService {
     private final SubmittedLinkMapper mapper;
@@ -69,7 +71,7 @@ public class LinkSubmissionService {
 
     /** 列出指定公司审核通过的“投递链接(APPLY)”并转换为 JobLink。 */
     public List<JobLink> listApprovedApplyLinks(String companyName) {
-        LambdaQueryWrapper<SubmittedLinkEntity> qw = new LambdaQueryWrapper<>()
+        LambdaQueryWrapper<SubmittedLinkEntity> qw = new LambdaQueryWrapper<SubmittedLinkEntity>()
                 .eq(SubmittedLinkEntity::getCompanyName, companyName)
                 .eq(SubmittedLinkEntity::getStatus, "APPROVED")
                 .eq(SubmittedLinkEntity::getType, "APPLY")
@@ -97,7 +99,7 @@ public class LinkSubmissionService {
 
     /** 更新状态通用方法。 */
     private boolean updateStatus(String id, String to) {
-        LambdaUpdateWrapper<SubmittedLinkEntity> uw = new LambdaUpdateWrapper<>()
+        LambdaUpdateWrapper<SubmittedLinkEntity> uw = new LambdaUpdateWrapper<SubmittedLinkEntity>()
                 .eq(SubmittedLinkEntity::getId, id)
                 .set(SubmittedLinkEntity::getStatus, to)
                 .set(SubmittedLinkEntity::getUpdatedAt, LocalDateTime.now());
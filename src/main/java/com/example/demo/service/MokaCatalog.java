@@ -0,0 +1,251 @@
+package com.example.demo.service;
+
+import com.example.demo.model.MokaJob;
+import com.example.demo.util.CompanyNames;
+import com.example.demo.util.SearchTokens;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Moka 职位目录内存索引。
+ * <p>
+ * 保存同步到本地的全部在招职位，并维护不可变索引快照：公司规范键（见 {@link CompanyAliasIndex}）→ 职位，
+ * 以及公司名/职位标题词元（字母数字按单词、CJK 按二元组）→ 职位下标的倒排表。
+ * 写入（同步）时整体重建快照后原子替换，读取无锁；检索先按公司名精确命中，
+ * 未命中再对查询词元的倒排表求交集。
+ * </p>
+ */
+@Service
+public class MokaCatalog {
+    private final Map<String, MokaJob> jobs = new ConcurrentHashMap<>();
+    private final Set<String> closedStatuses;
+    private final CompanyAliasIndex aliasIndex;
+    private volatile Index index = Index.EMPTY;
+    private volatile boolean loaded;
+
+    public MokaCatalog(@Value("${moka.catalog.closedStatuses:closed,deleted,offline,archived,inactive}") String closedStatuses,
+                       CompanyAliasIndex aliasIndex) {
+        this.aliasIndex = aliasIndex;
+        Set<String> set = new HashSet<>();
+        for (String s : closedStatuses.split(",")) {
+            if (!s.isBlank()) set.add(s.trim().toLowerCase(Locale.ROOT));
+        }
+        set.add(MokaCatalogStore.STATUS_REMOVED);
+        this.closedStatuses = Set.copyOf(set);
+    }
+
+    /**
+     * 是否已有完整目录（数据库中已有同步结果，或首轮同步已完成）。
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 标记目录已完整（一轮同步完成后调用）。
+     */
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * 职位是否已下线（状态属于 moka.catalog.closedStatuses 或没有投递链接）。
+     */
+    public boolean isClosed(MokaJob job) {
+        return !StringUtils.hasText(job.getApplyUrl())
+                || (job.getStatus() != null && closedStatuses.contains(job.getStatus().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * 已索引的职位（按 ID）。
+     */
+    public MokaJob get(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * 当前已索引的职位 ID（可修改的副本）。
+     */
+    public Set<String> ids() {
+        return new HashSet<>(jobs.keySet());
+    }
+
+    /**
+     * 用完整目录替换索引（启动时从数据库加载；数据库为空时仍视为未就绪）。
+     *
+     * @param all 全部职位（已下线的会被忽略）
+     */
+    public synchronized void replaceAll(Collection<MokaJob> all) {
+        jobs.clear();
+        for (MokaJob job : all) {
+            if (!isClosed(job)) jobs.put(job.getId(), job);
+        }
+        rebuild();
+        if (!all.isEmpty()) loaded = true;
+    }
+
+    /**
+     * 应用一批变更：新增/更新在招职位，移除已下线或已删除的职位。
+     *
+     * @param changed    变更的职位
+     * @param removedIds 已删除的职位 ID（可为空）
+     */
+    public synchronized void apply(Collection<MokaJob> changed, Collection<String> removedIds) {
+        for (MokaJob job : changed) {
+            if (isClosed(job)) {
+                jobs.remove(job.getId());
+            } else {
+                jobs.put(job.getId(), job);
+            }
+        }
+        for (String id : removedIds) {
+            jobs.remove(id);
+        }
+        rebuild();
+    }
+
+    /**
+     * 按公司名检索职位。
+     *
+     * @param companyName 公司名称
+     * @param limit       返回上限
+     * @return 职位列表（精确命中公司名时按目录顺序，否则按词元交集）
+     */
+    public List<MokaJob> search(String companyName, int limit) {
+        Index idx = index;
+        String key = aliasIndex.canonicalKey(companyName);
+        if (key.isEmpty()) return List.of();
+        int[] hits = idx.byCompany.get(key);
+        if (hits == null) {
+            hits = idx.intersect(SearchTokens.tokenize(CompanyNames.normalize(companyName)));
+        }
+        List<MokaJob> out = new ArrayList<>(Math.min(hits.length, limit));
+        for (int i = 0; i < hits.length && out.size() < limit; i++) {
+            out.add(idx.jobs[hits[i]]);
+        }
+        return out;
+    }
+
+    /**
+     * 索引规模指标。
+     */
+    public Map<String, Object> stats() {
+        Index idx = index;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("loaded", loaded);
+        m.put("jobs", idx.jobs.length);
+        m.put("companies", idx.byCompany.size());
+        m.put("tokens", idx.byToken.size());
+        return m;
+    }
+
+    private void rebuild() {
+        index = Index.build(jobs.values(), aliasIndex::canonicalKey);
+    }
+
+    /**
+     * 不可变索引快照（倒排表为升序下标数组）。
+     */
+    private static final class Index {
+        private static final Index EMPTY = new Index(new MokaJob[0], Map.of(), Map.of());
+
+        private final MokaJob[] jobs;
+        private final Map<String, int[]> byCompany;
+        private final Map<String, int[]> byToken;
+
+        private Index(MokaJob[] jobs, Map<String, int[]> byCompany, Map<String, int[]> byToken) {
+            this.jobs = jobs;
+            this.byCompany = byCompany;
+            this.byToken = byToken;
+        }
+
+        private static Index build(Collection<MokaJob> source, Function<String, String> companyKey) {
+            MokaJob[] arr = source.toArray(new MokaJob[0]);
+            Map<String, IntList> company = new HashMap<>();
+            Map<String, IntList> tokens = new HashMap<>();
+            for (int i = 0; i < arr.length; i++) {
+                String name = CompanyNames.normalize(arr[i].getCompanyName());
+                String key = companyKey.apply(arr[i].getCompanyName());
+                if (!key.isEmpty()) {
+                    company.computeIfAbsent(key, k -> new IntList()).add(i);
+                }
+                Set<String> words = SearchTokens.tokenize(name);
+                words.addAll(SearchTokens.tokenize(arr[i].getTitle()));
+                for (String w : words) {
+                    tokens.computeIfAbsent(w, k -> new IntList()).add(i);
+                }
+            }
+            return new Index(arr, freeze(company), freeze(tokens));
+        }
+
+        private static Map<String, int[]> freeze(Map<String, IntList> lists) {
+            Map<String, int[]> out = new HashMap<>(lists.size() * 2);
+            lists.forEach((k, v) -> out.put(k, v.toArray()));
+            return out;
+        }
+
+        /** 倒排表求交集（从最短的表开始逐个归并）。 */
+        private int[] intersect(Set<String> words) {
+            if (words.isEmpty()) return new int[0];
+            List<int[]> lists = new ArrayList<>(words.size());
+            for (String w : words) {
+                int[] p = byToken.get(w);
+                if (p == null) return new int[0];
+                lists.add(p);
+            }
+            lists.sort((a, b) -> Integer.compare(a.length, b.length));
+            int[] acc = lists.get(0);
+            for (int k = 1; k < lists.size() && acc.length > 0; k++) {
+                int[] other = lists.get(k);
+                int[] next = new int[acc.length];
+                int n = 0;
+                int i = 0;
+                int j = 0;
+                while (i < acc.length && j < other.length) {
+                    if (acc[i] == other[j]) {
+                        next[n++] = acc[i];
+                        i++;
+                        j++;
+                    } else if (acc[i] < other[j]) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+                acc = Arrays.copyOf(next, n);
+            }
+            return acc;
+        }
+    }
+
+    /**
+     * 可增长的 int 列表（建索引用）。
+     */
+    private static final class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        private void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
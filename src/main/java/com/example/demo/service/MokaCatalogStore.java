@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.example.demo.entity.MokaJobEntity;
+import com.example.demo.mapper.MokaJobMapper;
+import com.example.demo.model.MokaJob;
+import com.example.demo.util.CompanyNames;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moka 职位目录持久化（moka_jobs 表）；同步水位见 {@link SyncStateStore}。
+ */
+@Profile("db")
+@Service
+public class MokaCatalogStore {
+    /** sync_state 中的同步名 */
+    public static final String SYNC_NAME = "moka-jobs";
+    /** 全量比对时未再出现的职位状态 */
+    public static final String STATUS_REMOVED = "removed";
+
+    /** 单条 INSERT 的批量大小 */
+    private static final int BATCH = 500;
+
+    private final MokaJobMapper jobMapper;
+
+    public MokaCatalogStore(MokaJobMapper jobMapper) {
+        this.jobMapper = jobMapper;
+    }
+
+    /**
+     * 加载全部职位（含已下线的，由调用方过滤）。
+     */
+    public List<MokaJob> loadAll() {
+        List<MokaJob> out = new ArrayList<>();
+        for (MokaJobEntity e : jobMapper.selectList(null)) {
+            out.add(toJob(e));
+        }
+        return out;
+    }
+
+    /**
+     * 批量保存变更的职位。
+     *
+     * @param jobs 职位（同一批内 ID 重复时保留最后一条）
+     */
+    public void upsert(Collection<MokaJob> jobs) {
+        if (jobs.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, MokaJobEntity> rows = new LinkedHashMap<>();
+        for (MokaJob job : jobs) {
+            MokaJobEntity e = new MokaJobEntity();
+            e.setJobId(job.getId());
+            e.setCompanyKey(CompanyNames.normalize(job.getCompanyName()));
+            e.setCompanyName(job.getCompanyName());
+            e.setTitle(job.getTitle());
+            e.setApplyUrl(job.getApplyUrl());
+            e.setStatus(job.getStatus());
+            e.setRemoteUpdatedAt(job.getUpdatedAt() >= 0 ? job.getUpdatedAt() : null);
+            e.setSyncedAt(now);
+            // 同一批内 ID 重复会导致 ON CONFLICT 同批冲突
+            rows.put(e.getJobId(), e);
+        }
+        List<MokaJobEntity> list = new ArrayList<>(rows.values());
+        for (int from = 0; from < list.size(); from += BATCH) {
+            jobMapper.upsertBatch(list.subList(from, Math.min(list.size(), from + BATCH)));
+        }
+    }
+
+    /**
+     * 记录职位在全量比对批次中出现过（续传跨多轮同步时据此识别删除）。
+     *
+     * @param ids     本页出现的职位 ID
+     * @param sweepId 全量比对批次 ID
+     */
+    public void markSeen(Collection<String> ids, long sweepId) {
+        if (ids.isEmpty()) return;
+        List<String> list = new ArrayList<>(ids);
+        for (int from = 0; from < list.size(); from += BATCH) {
+            jobMapper.update(null, new LambdaUpdateWrapper<MokaJobEntity>()
+                    .in(MokaJobEntity::getJobId, list.subList(from, Math.min(list.size(), from + BATCH)))
+                    .set(MokaJobEntity::getSeenSweepId, sweepId));
+        }
+    }
+
+    /**
+     * 查询全量比对批次中未出现过、且尚未标记删除的职位。
+     *
+     * @param sweepId 全量比对批次 ID
+     * @return 职位 ID
+     */
+    public List<String> findUnseen(long sweepId) {
+        List<String> out = new ArrayList<>();
+        for (MokaJobEntity e : jobMapper.selectList(new LambdaQueryWrapper<MokaJobEntity>()
+                .select(MokaJobEntity::getJobId)
+                .and(w -> w.isNull(MokaJobEntity::getSeenSweepId).or().ne(MokaJobEntity::getSeenSweepId, sweepId))
+                .and(w -> w.isNull(MokaJobEntity::getStatus).or().ne(MokaJobEntity::getStatus, STATUS_REMOVED)))) {
+            out.add(e.getJobId());
+        }
+        return out;
+    }
+
+    /**
+     * 标记全量比对中未再出现的职位为已删除。
+     */
+    public void markRemoved(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        List<String> list = new ArrayList<>(ids);
+        for (int from = 0; from < list.size(); from += BATCH) {
+            jobMapper.update(null, new LambdaUpdateWrapper<MokaJobEntity>()
+                    .in(MokaJobEntity::getJobId, list.subList(from, Math.min(list.size(), from + BATCH)))
+                    .set(MokaJobEntity::getStatus, STATUS_REMOVED)
+                    .set(MokaJobEntity::getSyncedAt, LocalDateTime.now()));
+        }
+    }
+
+    /** Entity -> MokaJob。 */
+    private MokaJob toJob(MokaJobEntity e) {
+        MokaJob job = new MokaJob();
+        job.setId(e.getJobId());
+        job.setTitle(e.getTitle());
+        job.setApplyUrl(e.getApplyUrl());
+        job.setCompanyName(e.getCompanyName());
+        job.setStatus(e.getStatus());
+        job.setUpdatedAt(e.getRemoteUpdatedAt() != null ? e.getRemoteUpdatedAt() : -1);
+        return job;
+    }
+}
@@ -1,19 +1,36 @@
 package com.example.demo.service;
 
 import com.example.demo.model.JobLink;
+import com.example.demo.model.MokaJob;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Moka 招聘平台适配服务。
@@ -22,10 +39,29 @@ import java.util.List;
  * 当配置了组织的职位接口路径时，优先调用官方 API 获取结构化职位与投递链接；
  * 未配置 API 时，回退提供 app.mokahr.com 的搜索链接作为线索。
  * </p>
+ * <p>
+ * OAuth2 令牌按 expiresIn 缓存，到期前 moka.token.refreshAheadSeconds 内由首个请求触发后台刷新，
+ * 刷新为单飞（同一时刻只有一次令牌请求，其余调用方复用结果）；职位接口返回 401 时作废令牌并重试一次。
+ * 职位接口按页流式读取（Jackson JsonParser），首页之后的分页在 {@link CrawlExecutor} 上并行拉取，
+ * 页数受 moka.jobs.maxPages 限制，凑满上限即停止；配置 moka.jobs.keywordParam 时公司名作为服务端检索参数。
+ * </p>
+ * <p>
+ * 职位目录由 MokaCatalogScheduler 周期同步到本地（moka_jobs 表 + {@link MokaCatalog} 内存索引），
+ * 目录就绪后按公司名检索不再请求官方 API。
+ * </p>
  */
 @Service
 public class MokaService {
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final SourceGuard guard;
+    private final CrawlExecutor workers;
+    private final MokaCatalog catalog;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /** 当前令牌（未获取或已作废时为 null） */
+    private volatile AccessToken token;
+    /** 进行中的令牌刷新（单飞） */
+    private final AtomicReference<CompletableFuture<AccessToken>> refreshing = new AtomicReference<>();
 
     /** 是否启用 Moka 适配 */
     @Value("${moka.enabled:false}")
@@ -55,6 +91,57 @@ public class MokaService {
     @Value("${moka.jobs.endpoint:}")
     private String jobsEndpoint;
 
+    /** 分页参数名（页码从 1 开始） */
+    @Value("${moka.jobs.pageParam:page}")
+    private String pageParam;
+
+    /** 每页条数参数名 */
+    @Value("${moka.jobs.pageSizeParam:pageSize}")
+    private String pageSizeParam;
+
+    /** 每页条数 */
+    @Value("${moka.jobs.pageSize:50}")
+    private int pageSize;
+
+    /** 最多拉取页数 */
+    @Value("${moka.jobs.maxPages:5}")
+    private int maxPages;
+
+    /** 并行拉取的页数 */
+    @Value("${moka.jobs.pageConcurrency:4}")
+    private int pageConcurrency;
+
+    /** 服务端关键词参数名（为空表示接口不支持关键词检索） */
+    @Value("${moka.jobs.keywordParam:}")
+    private String keywordParam;
+
+    /** 令牌响应未给出有效期时的默认有效期（秒） */
+    @Value("${moka.token.defaultTtlSeconds:3600}")
+    private long tokenDefaultTtlSeconds;
+
+    /** 令牌到期前多久开始后台刷新（秒） */
+    @Value("${moka.token.refreshAheadSeconds:300}")
+    private long tokenRefreshAheadSeconds;
+
+    /** 增量拉取参数名（为空表示接口不支持按更新时间过滤，目录同步每轮全量比对） */
+    @Value("${moka.catalog.updatedSinceParam:}")
+    private String updatedSinceParam;
+
+    /** 增量拉取参数格式：iso（ISO-8601 UTC）或 millis（epoch 毫秒） */
+    @Value("${moka.catalog.updatedSinceFormat:iso}")
+    private String updatedSinceFormat;
+
+    /** 职位未给出招聘主体时使用的公司名（通常为本组织名称） */
+    @Value("${moka.catalog.companyName:}")
+    private String catalogCompanyName;
+
+    public MokaService(OutboundHttpClient http, SourceGuard guard, CrawlExecutor workers, MokaCatalog catalog) {
+        this.restTemplate = http.forSource("moka");
+        this.guard = guard;
+        this.workers = workers;
+        this.catalog = catalog;
+    }
+
     /**
      * 判断服务是否已满足调用官方 API 的必要配置。
      *
@@ -72,15 +159,29 @@ public class MokaService {
     }
 
     /**
-     * 按公司名检索职位投递链接：优先官方 API，未配置则回退 app.mokahr.com 搜索链接。
+     * 按公司名检索职位投递链接：优先本地职位目录，其次官方 API，未配置则回退 app.mokahr.com 搜索链接。
+     * <p>
+     * 本地目录（{@link MokaCatalog}）完成首次加载后直接在内存索引中检索，不发起请求；
+     * 目录未就绪时调用官方 API，经 {@link SourceGuard} 按 moka 源熔断：接口失败或熔断打开时使用该公司最近一次成功的结果，
+     * 仍无结果时回退搜索链接。
+     * </p>
      *
      * @param companyName 公司名称
      * @param limit       返回上限
      * @return 投递链接列表
      */
     public List<JobLink> searchByCompanyName(String companyName, int limit) {
-        if (isConfigured()) {
-            List<JobLink> apiList = fetchJobsViaApi(limit, companyName);
+        if (isConfigured() && catalog.isLoaded()) {
+            List<JobLink> hits = new ArrayList<>();
+            for (MokaJob job : catalog.search(companyName, Math.max(1, limit))) {
+                hits.add(toJobLink(job));
+            }
+            if (!hits.isEmpty()) {
+                return hits;
+            }
+        } else if (isConfigured()) {
+            List<JobLink> apiList = guard.call("moka", companyName + "|" + limit,
+                    () -> fetchJobsViaApi(limit, companyName), List.of());
             if (!apiList.isEmpty()) {
                 return apiList;
             }
@@ -99,106 +200,363 @@ public class MokaService {
 
     /**
      * 调用官方职位接口，返回结构化投递链接（需要企业侧授权与职位接口路径）。
+     * <p>
+     * 先取首页确定总页数，再按 moka.jobs.pageConcurrency 分批并行拉取后续页；
+     * 某页不足一页、没有新链接或后续页失败时停止，返回已取得的结果。
+     * </p>
      *
      * @param limit       返回上限
-     * @param companyName 可选关键词（若接口支持关键词检索）
-     * @return 投递链接列表
+     * @param companyName 关键词（配置 moka.jobs.keywordParam 时下推到服务端）
+     * @return 投递链接列表（按 URL 去重）
+     * @throws RuntimeException 令牌获取失败或接口不可用
      */
     private List<JobLink> fetchJobsViaApi(int limit, String companyName) {
-        try {
-            String url = "https://" + apiDomain + jobsEndpoint; // 由企业侧提供的职位接口相对路径
-            HttpHeaders headers = new HttpHeaders();
-            headers.set(HttpHeaders.USER_AGENT, "HireRadar/1.0");
-            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-
-            if ("basic".equalsIgnoreCase(authType)) {
-                String basic = Base64.getEncoder().encodeToString((apiKey + ":").getBytes(StandardCharsets.UTF_8));
-                headers.set(HttpHeaders.AUTHORIZATION, "Basic " + basic);
-            } else {
-                String token = getAccessToken();
-                if (!StringUtils.hasText(token)) {
-                    return List.of();
+        int max = Math.max(1, limit);
+        int size = getPageSize();
+        Map<String, JobLink> out = new LinkedHashMap<>();
+        JobPage first = fetchPage(1, companyName, -1);
+        addAll(out, first);
+        int lastPage = Math.max(1, maxPages);
+        if (first.total() >= 0) {
+            lastPage = (int) Math.min(lastPage, (first.total() + size - 1) / size);
+        }
+        if (first.items() < size) {
+            lastPage = 1;
+        }
+        int next = 2;
+        while (out.size() < max && next <= lastPage) {
+            int needed = (max - out.size() + size - 1) / size;
+            int wave = Math.min(Math.min(Math.max(1, pageConcurrency), lastPage - next + 1), needed);
+            List<CompletableFuture<JobPage>> pages = new ArrayList<>(wave);
+            for (int i = 0; i < wave; i++) {
+                int n = next + i;
+                pages.add(workers.submit(() -> fetchPage(n, companyName, -1)));
+            }
+            next += wave;
+            boolean more = true;
+            for (CompletableFuture<JobPage> f : pages) {
+                try {
+                    JobPage page = f.join();
+                    if (!addAll(out, page) || page.items() < size) {
+                        more = false;
+                    }
+                } catch (CompletionException e) {
+                    more = false;
                 }
-                headers.setBearerAuth(token);
             }
+            if (!more) {
+                break;
+            }
+        }
+        List<JobLink> list = new ArrayList<>(out.values());
+        return list.size() > max ? new ArrayList<>(list.subList(0, max)) : list;
+    }
 
-            // 如果职位接口支持关键词，可按需添加查询参数（这里保持 GET 纯路径）
-            ResponseEntity<JsonNode> resp = restTemplate.exchange(URI.create(url), HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class);
-            JsonNode body = resp.getBody();
-            if (body == null) {
-                return List.of();
+    /** 合并一页结果，返回是否有新链接（接口忽略分页参数时据此停止）。 */
+    private boolean addAll(Map<String, JobLink> out, JobPage page) {
+        boolean added = false;
+        for (MokaJob job : page.jobs()) {
+            if (StringUtils.hasText(job.getApplyUrl())) {
+                added |= out.putIfAbsent(job.getApplyUrl(), toJobLink(job)) == null;
             }
-            // 兼容不同返回结构：jobs / data / items
-            JsonNode arr = body.path("jobs");
-            if (!arr.isArray() || arr.size() == 0) {
-                arr = body.path("data");
+        }
+        return added;
+    }
+
+    /**
+     * 拉取职位目录的一页（供本地目录同步使用，不经熔断）。
+     *
+     * @param page         页码（从 1 开始）
+     * @param updatedSince 只拉取该时刻（epoch 毫秒）之后更新的职位；-1 或未配置 moka.catalog.updatedSinceParam 时拉取全部
+     * @return 一页职位
+     * @throws RuntimeException 令牌获取失败或接口不可用
+     */
+    public JobPage fetchCatalogPage(int page, long updatedSince) {
+        return fetchPage(page, null, updatedSince);
+    }
+
+    /**
+     * 职位接口是否支持按更新时间增量拉取（配置了 moka.catalog.updatedSinceParam）。
+     */
+    public boolean supportsIncremental() {
+        return StringUtils.hasText(updatedSinceParam);
+    }
+
+    /**
+     * 每页条数。
+     */
+    public int getPageSize() {
+        return Math.max(1, pageSize);
+    }
+
+    /**
+     * 拉取单页；Bearer 令牌被拒（401）时作废令牌并重试一次。
+     */
+    private JobPage fetchPage(int page, String companyName, long updatedSince) {
+        UriComponentsBuilder b = UriComponentsBuilder.fromUriString("https://" + apiDomain + jobsEndpoint) // 由企业侧提供的职位接口相对路径
+                .queryParam(pageParam, page)
+                .queryParam(pageSizeParam, getPageSize());
+        if (StringUtils.hasText(keywordParam) && StringUtils.hasText(companyName)) {
+            b.queryParam(keywordParam, companyName);
+        }
+        if (updatedSince >= 0 && supportsIncremental()) {
+            b.queryParam(updatedSinceParam, "millis".equalsIgnoreCase(updatedSinceFormat)
+                    ? String.valueOf(updatedSince) : Instant.ofEpochMilli(updatedSince).toString());
+        }
+        URI uri = b.encode().build().toUri();
+        if ("basic".equalsIgnoreCase(authType)) {
+            String basic = Base64.getEncoder().encodeToString((apiKey + ":").getBytes(StandardCharsets.UTF_8));
+            return requestPage(uri, "Basic " + basic);
+        }
+        String bearer = getAccessToken();
+        try {
+            return requestPage(uri, "Bearer " + bearer);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            invalidateToken(bearer);
+            return requestPage(uri, "Bearer " + getAccessToken());
+        }
+    }
+
+    private JobPage requestPage(URI uri, String authorization) {
+        return restTemplate.execute(uri, HttpMethod.GET, req -> {
+            req.getHeaders().set(HttpHeaders.USER_AGENT, OutboundHttpClient.USER_AGENT);
+            req.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+            req.getHeaders().set(HttpHeaders.AUTHORIZATION, authorization);
+        }, resp -> readPage(resp.getBody()));
+    }
+
+    /**
+     * 一页职位。
+     *
+     * @param jobs  本页职位（含无投递链接的）
+     * @param items 本页职位条数
+     * @param total 接口声明的职位总数；未声明为 -1
+     */
+    public record JobPage(List<MokaJob> jobs, int items, long total) {
+    }
+
+    /**
+     * 流式读取职位列表：兼容 jobs / data / items 数组（可位于顶层或 data 对象内），以及 total/totalCount 字段。
+     */
+    private JobPage readPage(InputStream in) throws IOException {
+        List<MokaJob> jobs = new ArrayList<>();
+        long[] total = {-1};
+        try (JsonParser p = jsonFactory.createParser(in)) {
+            if (p.nextToken() == JsonToken.START_OBJECT) {
+                readContainer(p, jobs, total, 0);
             }
-            if (!arr.isArray() || arr.size() == 0) {
-                arr = body.path("items");
+        }
+        return new JobPage(jobs, jobs.size(), total[0]);
+    }
+
+    private void readContainer(JsonParser p, List<MokaJob> jobs, long[] total, int depth) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t = p.nextToken();
+            boolean listField = "jobs".equals(field) || "data".equals(field) || "items".equals(field);
+            if (listField && t == JsonToken.START_ARRAY && jobs.isEmpty()) {
+                while ((t = p.nextToken()) != null && t != JsonToken.END_ARRAY) {
+                    if (t == JsonToken.START_OBJECT) {
+                        jobs.add(readJob(p));
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else if ("data".equals(field) && t == JsonToken.START_OBJECT && depth == 0) {
+                readContainer(p, jobs, total, depth + 1);
+            } else if (("total".equals(field) || "totalCount".equals(field)) && t.isNumeric()) {
+                total[0] = p.getLongValue();
+            } else {
+                p.skipChildren();
             }
-            if (!arr.isArray() || arr.size() == 0) {
-                return List.of();
+        }
+    }
+
+    /** 读取单个职位对象（当前 token 为 START_OBJECT），字段按备选顺序取第一个非空值。 */
+    private MokaJob readJob(JsonParser p) throws IOException {
+        String[] ids = new String[2];
+        String[] titles = new String[3];
+        String[] applies = new String[4];
+        String[] companies = new String[3];
+        String[] updated = new String[3];
+        String status = null;
+        JsonToken t;
+        while ((t = p.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            t = p.nextToken();
+            if (!t.isScalarValue()) {
+                p.skipChildren();
+                continue;
             }
-            List<JobLink> list = new ArrayList<>();
-            for (int i = 0; i < arr.size() && list.size() < Math.max(1, limit); i++) {
-                JsonNode j = arr.get(i);
-                String title = firstText(j, "title", "name", "jobTitle");
-                String apply = firstText(j, "applyUrl", "apply_url", "url", "jobUrl");
-                if (!StringUtils.hasText(apply)) {
-                    continue;
-                }
-                JobLink jl = new JobLink();
-                jl.setTitle(StringUtils.hasText(title) ? title : "职位投递");
-                jl.setUrl(apply);
-                jl.setSource("moka");
-                jl.setDescription("来源：Moka 官方接口");
-                jl.setCollectedAt(LocalDateTime.now());
-                list.add(jl);
+            switch (field) {
+                case "id" -> ids[0] = p.getValueAsString();
+                case "jobId" -> ids[1] = p.getValueAsString();
+                case "title" -> titles[0] = p.getValueAsString();
+                case "name" -> titles[1] = p.getValueAsString();
+                case "jobTitle" -> titles[2] = p.getValueAsString();
+                case "applyUrl" -> applies[0] = p.getValueAsString();
+                case "apply_url" -> applies[1] = p.getValueAsString();
+                case "url" -> applies[2] = p.getValueAsString();
+                case "jobUrl" -> applies[3] = p.getValueAsString();
+                case "companyName" -> companies[0] = p.getValueAsString();
+                case "orgName" -> companies[1] = p.getValueAsString();
+                case "company" -> companies[2] = p.getValueAsString();
+                case "updatedAt" -> updated[0] = p.getValueAsString();
+                case "updated_at" -> updated[1] = p.getValueAsString();
+                case "updateTime" -> updated[2] = p.getValueAsString();
+                case "status" -> status = p.getValueAsString();
+                default -> { }
             }
-            return list;
-        } catch (Exception ex) {
-            // 接口不可用或配置不完整时返回空
-            return List.of();
         }
+        MokaJob job = new MokaJob();
+        String apply = firstText(applies);
+        job.setId(StringUtils.hasText(firstText(ids)) ? firstText(ids) : apply);
+        job.setTitle(firstText(titles));
+        job.setApplyUrl(apply);
+        job.setCompanyName(StringUtils.hasText(firstText(companies)) ? firstText(companies) : catalogCompanyName);
+        job.setStatus(status);
+        job.setUpdatedAt(parseTime(firstText(updated)));
+        return job;
     }
 
     /**
-     * 获取 OAuth2 访问令牌（Client Credentials）。
+     * 职位 → 投递链接。
+     */
+    public static JobLink toJobLink(MokaJob job) {
+        JobLink jl = new JobLink();
+        jl.setTitle(StringUtils.hasText(job.getTitle()) ? job.getTitle() : "职位投递");
+        jl.setUrl(job.getApplyUrl());
+        jl.setSource("moka");
+        jl.setDescription("来源：Moka 官方接口");
+        jl.setCollectedAt(LocalDateTime.now());
+        return jl;
+    }
+
+    /**
+     * 解析更新时间：epoch 秒/毫秒、ISO-8601（带或不带时区，不带时区按系统时区）。
      *
-     * @return 访问令牌；失败返回空字符串
+     * @return epoch 毫秒；无法解析返回 -1
+     */
+    private static long parseTime(String s) {
+        if (!StringUtils.hasText(s)) return -1;
+        String v = s.trim();
+        try {
+            long n = Long.parseLong(v);
+            return n < 100_000_000_000L ? n * 1000 : n;
+        } catch (NumberFormatException ignore) {
+        }
+        try {
+            return OffsetDateTime.parse(v).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignore) {
+        }
+        try {
+            return LocalDateTime.parse(v.replace(' ', 'T')).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignore) {
+        }
+        return -1;
+    }
+
+    /**
+     * 获取 OAuth2 访问令牌：有效期内直接复用，临近到期时触发后台刷新，已过期则等待刷新结果。
+     *
+     * @return 访问令牌
+     * @throws RuntimeException 令牌获取失败
      */
     private String getAccessToken() {
+        AccessToken t = token;
+        long now = System.currentTimeMillis();
+        if (t != null && now < t.expiresAtMillis()) {
+            if (now >= t.expiresAtMillis() - tokenRefreshAheadSeconds * 1000) {
+                refreshToken();
+            }
+            return t.value();
+        }
         try {
-            String url = "https://" + apiDomain + "/api-platform/v1/auth/oauth2/getToken";
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set(HttpHeaders.USER_AGENT, "HireRadar/1.0");
-            String body = "{" +
-                    "\"clientID\":\"" + jsonEscape(clientId) + "\"," +
-                    "\"clientSecret\":\"" + jsonEscape(clientSecret) + "\"," +
-                    "\"grantType\":\"client_credentials\"}";
-            ResponseEntity<JsonNode> resp = restTemplate.exchange(URI.create(url), HttpMethod.POST, new HttpEntity<>(body, headers), JsonNode.class);
-            JsonNode node = resp.getBody();
-            if (node == null) {
-                return "";
-            }
-            String token = node.path("data").path("accessToken").asText("");
-            return token;
-        } catch (Exception e) {
-            return "";
+            return refreshToken().join().value();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /** 作废被拒绝的令牌（令牌已被其他请求更新时不动）。 */
+    private void invalidateToken(String rejected) {
+        AccessToken t = token;
+        if (t != null && t.value().equals(rejected)) {
+            token = null;
+        }
+    }
+
+    /**
+     * 单飞刷新令牌：已有刷新进行中时复用同一结果。
+     */
+    private CompletableFuture<AccessToken> refreshToken() {
+        CompletableFuture<AccessToken> mine;
+        while (true) {
+            CompletableFuture<AccessToken> inFlight = refreshing.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+            mine = new CompletableFuture<>();
+            if (refreshing.compareAndSet(null, mine)) {
+                break;
+            }
+        }
+        CompletableFuture<AccessToken> result = mine;
+        Thread.ofVirtual().name("moka-token").start(() -> {
+            // 先解除单飞占位再完成：调用方拿到结果后若令牌被拒，重试时应发起新的刷新而不是复用本次结果
+            try {
+                AccessToken t = requestToken();
+                token = t;
+                refreshing.compareAndSet(result, null);
+                result.complete(t);
+            } catch (Throwable e) {
+                refreshing.compareAndSet(result, null);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 请求 OAuth2 访问令牌（Client Credentials）。
+     *
+     * @throws IllegalStateException 响应中没有令牌
+     */
+    private AccessToken requestToken() {
+        String url = "https://" + apiDomain + "/api-platform/v1/auth/oauth2/getToken";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(HttpHeaders.USER_AGENT, OutboundHttpClient.USER_AGENT);
+        String body = "{" +
+                "\"clientID\":\"" + jsonEscape(clientId) + "\"," +
+                "\"clientSecret\":\"" + jsonEscape(clientSecret) + "\"," +
+                "\"grantType\":\"client_credentials\"}";
+        ResponseEntity<JsonNode> resp = restTemplate.exchange(URI.create(url), HttpMethod.POST, new HttpEntity<>(body, headers), JsonNode.class);
+        JsonNode node = resp.getBody();
+        JsonNode data = node == null ? null : node.path("data");
+        String value = data == null ? "" : data.path("accessToken").asText("");
+        if (!StringUtils.hasText(value)) {
+            throw new IllegalStateException("moka access token unavailable");
         }
+        long ttl = data.path("expiresIn").asLong(data.path("expires_in").asLong(tokenDefaultTtlSeconds));
+        if (ttl <= 0) ttl = tokenDefaultTtlSeconds;
+        return new AccessToken(value, System.currentTimeMillis() + ttl * 1000);
+    }
+
+    /**
+     * 访问令牌与过期时刻。
+     */
+    private record AccessToken(String value, long expiresAtMillis) {
     }
 
     /**
      * 多字段兜底读取文本。
      *
-     * @param n    节点
-     * @param keys 备选字段
-     * @return 第一个存在的非空文本
+     * @param values 按优先级排列的候选值
+     * @return 第一个非空文本
      */
-    private String firstText(JsonNode n, String... keys) {
-        for (String k : keys) {
-            String v = n.path(k).asText("");
+    private String firstText(String... values) {
+        for (String v : values) {
             if (StringUtils.hasText(v)) {
                 return v;
             }
@@ -0,0 +1,377 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Place;
+import com.example.demo.util.GeoHash;
+import com.example.demo.util.GeoUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 附近检索瓦片缓存（按数据源区分）。
+ * <p>
+ * 把查询圆覆盖到 geohash 瓦片上，缺失的瓦片合并为一次“外接圆 + 不带关键词”的数据源调用，
+ * 按 geohash 把 POI 分到各瓦片，每个瓦片作为一个区域写入 {@link PoiSpatialIndex}；
+ * 请求由覆盖区域按精确球面距离与关键词在本地过滤得到。
+ * 地图小幅平移、同一园区的多个用户、不同关键词的查询因此共用区域，不再调用数据源。
+ * </p>
+ * <p>
+ * 瓦片精度默认 nearby.tile.precision，可按数据源用 nearby.tile.sources.&lt;provider&gt;.precision 覆盖；
+ * 覆盖瓦片数超过 nearby.tile.maxTiles 时逐级降低精度，半径过大时直接查询数据源。
+ * 区域按数据源的 TTL 保持新鲜（空区域与被截断的区域使用较短的 nearby.tile.emptyTtlMinutes / nearby.tile.truncatedTtlMinutes）；超过 TTL 后在
+ * nearby.tile.staleMinutes 内仍直接使用，同时在后台刷新；更久或不存在的区域（冷区域）同步抓取。
+ * 同一区域并发抓取只进行一次；抓取失败不写入并回退为直接查询。
+ * 关键词始终按 {@link PoiSpatialIndex#matches(Place, String)} 在本地匹配，同一查询命中缓存与直接查询的匹配规则一致；
+ * 数据源报告截断的抓取（见 {@link PlaceProvider.Area#isTruncated()}）写入的区域标记为被截断，
+ * 覆盖区域中有被截断的区域时，带关键词的查询另按关键词查询数据源并合并匹配项（状态为 PARTIAL 或 MISS）。
+ * 本地数据源（{@link PlaceProvider#isLocal()}）本身即为索引，直接查询。
+ * </p>
+ */
+@Service
+public class NearbyTileCache {
+    public static final String HIT = "HIT";
+    public static final String PARTIAL = "PARTIAL";
+    public static final String MISS = "MISS";
+    public static final String BYPASS = "BYPASS";
+    public static final String LOCAL = "LOCAL";
+
+    /**
+     * 检索结果。
+     */
+    public static final class Result {
+        private final List<Place> items;
+        private final String cacheStatus;
+
+        private Result(List<Place> items, String cacheStatus) {
+            this.items = items;
+            this.cacheStatus = cacheStatus;
+        }
+
+        /** 结果（可修改的副本，未排序） */
+        public List<Place> getItems() { return items; }
+        /** HIT（全部区域来自索引，没有调用数据源）/ PARTIAL / MISS（全部区域新抓取）/ BYPASS（直接查询数据源）/ LOCAL（本地数据源） */
+        public String getCacheStatus() { return cacheStatus; }
+    }
+
+    private final Environment env;
+    private final PoiSpatialIndex index;
+    private final ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor();
+    /** 进行中的区域抓取（单飞） */
+    private final Map<String, CompletableFuture<PoiSpatialIndex.Region>> inflight = new ConcurrentHashMap<>();
+    /** 每个数据源同时进行的区域抓取数（不超过数据源舱壁） */
+    private final Map<String, Semaphore> loadPermits = new ConcurrentHashMap<>();
+    private final int precision;
+    private final int minPrecision;
+    private final int maxTiles;
+    private final int maxRadiusMeters;
+    private final int loadConcurrency;
+    private final long ttlMinutes;
+    private final long emptyTtlNanos;
+    private final long truncatedTtlNanos;
+    private final long staleNanos;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong fullHits = new AtomicLong();
+    private final AtomicLong tileHits = new AtomicLong();
+    private final AtomicLong tileMisses = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong truncatedLoads = new AtomicLong();
+    private final AtomicLong tileRefetches = new AtomicLong();
+    private final AtomicLong truncatedKeywordSearches = new AtomicLong();
+    private final AtomicLong bypassed = new AtomicLong();
+
+    public NearbyTileCache(Environment env, PoiSpatialIndex index) {
+        this.env = env;
+        this.index = index;
+        this.precision = env.getProperty("nearby.tile.precision", Integer.class, 6);
+        this.minPrecision = env.getProperty("nearby.tile.minPrecision", Integer.class, 5);
+        this.maxTiles = env.getProperty("nearby.tile.maxTiles", Integer.class, 24);
+        this.maxRadiusMeters = env.getProperty("nearby.tile.maxRadiusMeters", Integer.class, 5000);
+        this.loadConcurrency = Math.max(1, env.getProperty("nearby.tile.loadConcurrency", Integer.class, 4));
+        this.ttlMinutes = env.getProperty("nearby.tile.ttlMinutes", Long.class, 720L);
+        this.emptyTtlNanos = Duration.ofMinutes(env.getProperty("nearby.tile.emptyTtlMinutes", Long.class, 30L)).toNanos();
+        this.truncatedTtlNanos = Duration.ofMinutes(env.getProperty("nearby.tile.truncatedTtlMinutes", Long.class, 30L)).toNanos();
+        this.staleNanos = Duration.ofMinutes(env.getProperty("nearby.tile.staleMinutes", Long.class, 1440L)).toNanos();
+    }
+
+    /**
+     * 检索圆形区域内的 POI。
+     *
+     * @param provider     数据源
+     * @param lat          圆心纬度（WGS-84）
+     * @param lng          圆心经度（WGS-84）
+     * @param radiusMeters 半径（米）
+     * @param keyword      关键词（可选，匹配名称、地址与分类，不区分大小写）
+     * @return 结果与缓存状态
+     */
+    public Result search(PlaceProvider provider, double lat, double lng, int radiusMeters, String keyword) {
+        if (provider.isLocal()) {
+            return new Result(provider.searchNearby(lat, lng, radiusMeters, keyword), LOCAL);
+        }
+        requests.incrementAndGet();
+        String kw = PoiSpatialIndex.normalizeKeyword(keyword);
+        List<String> cells = radiusMeters <= maxRadiusMeters ? cover(provider, lat, lng, radiusMeters) : null;
+        if (cells == null) {
+            bypassed.incrementAndGet();
+            return bypass(provider, lat, lng, radiusMeters, keyword, kw);
+        }
+        List<PoiSpatialIndex.Region> regions = new ArrayList<>(cells.size());
+        List<String> cold = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        for (String cell : cells) {
+            PoiSpatialIndex.Region r = index.get(regionKey(provider, cell));
+            if (r == null) {
+                cold.add(cell);
+            } else {
+                if (r.isStale()) stale.add(cell);
+                regions.add(r);
+            }
+        }
+        int hits = regions.size();
+        tileHits.addAndGet(hits);
+        tileMisses.addAndGet(cold.size());
+        if (!stale.isEmpty()) {
+            staleHits.addAndGet(stale.size());
+            load(provider, stale);
+        }
+        if (!cold.isEmpty()) {
+            try {
+                for (CompletableFuture<PoiSpatialIndex.Region> f : load(provider, cold)) {
+                    regions.add(f.join());
+                }
+            } catch (CompletionException e) {
+                bypassed.incrementAndGet();
+                return bypass(provider, lat, lng, radiusMeters, keyword, kw);
+            }
+        }
+        List<Place> out = new ArrayList<>();
+        boolean truncated = false;
+        for (PoiSpatialIndex.Region r : regions) {
+            r.collect(lat, lng, radiusMeters, kw, out);
+            truncated |= r.isTruncated();
+        }
+        if (truncated && !kw.isEmpty()) {
+            // 被截断的区域不是全集：关键词匹配项可能不在其中，再按关键词查询数据源补齐
+            truncatedKeywordSearches.incrementAndGet();
+            mergeKeywordSearch(provider, lat, lng, radiusMeters, keyword, kw, out);
+            return new Result(out, hits == 0 ? MISS : PARTIAL);
+        }
+        if (hits == cells.size()) {
+            fullHits.incrementAndGet();
+            return new Result(out, HIT);
+        }
+        return new Result(out, hits == 0 ? MISS : PARTIAL);
+    }
+
+    /**
+     * 覆盖查询圆的瓦片；瓦片数超过上限时逐级降低精度，仍超过时返回 null。
+     */
+    private List<String> cover(PlaceProvider provider, double lat, double lng, int radiusMeters) {
+        int start = env.getProperty("nearby.tile.sources." + provider.getProviderName() + ".precision", Integer.class, precision);
+        for (int p = start; p >= Math.min(start, minPrecision); p--) {
+            List<String> cells = GeoHash.cover(lat, lng, radiusMeters, p);
+            if (cells.size() <= maxTiles) return cells;
+        }
+        return null;
+    }
+
+    private static String regionKey(PlaceProvider provider, String cell) {
+        return provider.getProviderName() + ":" + cell;
+    }
+
+    /**
+     * 发起（或加入进行中的）区域抓取：尚未在抓取中的瓦片合并为一次数据源调用。
+     *
+     * @param cells 同一精度的瓦片
+     * @return 与 cells 一一对应的区域
+     */
+    private List<CompletableFuture<PoiSpatialIndex.Region>> load(PlaceProvider provider, List<String> cells) {
+        List<CompletableFuture<PoiSpatialIndex.Region>> futures = new ArrayList<>(cells.size());
+        Map<String, CompletableFuture<PoiSpatialIndex.Region>> mine = new LinkedHashMap<>();
+        for (String cell : cells) {
+            CompletableFuture<PoiSpatialIndex.Region> created = new CompletableFuture<>();
+            CompletableFuture<PoiSpatialIndex.Region> f = inflight.putIfAbsent(regionKey(provider, cell), created);
+            if (f == null) {
+                mine.put(cell, created);
+                f = created;
+            }
+            futures.add(f);
+        }
+        if (!mine.isEmpty()) {
+            loaders.execute(() -> {
+                Map<String, PoiSpatialIndex.Region> loaded;
+                try {
+                    loaded = fetch(provider, mine.keySet());
+                } catch (RuntimeException e) {
+                    loadFailures.incrementAndGet();
+                    mine.forEach((cell, f) -> {
+                        inflight.remove(regionKey(provider, cell), f);
+                        f.completeExceptionally(e);
+                    });
+                    return;
+                }
+                // 先移除再完成：之后的请求直接读到索引中的新区域
+                mine.forEach((cell, f) -> {
+                    inflight.remove(regionKey(provider, cell), f);
+                    f.complete(loaded.get(cell));
+                });
+            });
+        }
+        return futures;
+    }
+
+    /**
+     * 抓取一组瓦片：以瓦片合并外接框的中心为圆心、到最远角点的距离为半径调用一次数据源，
+     * 再按 geohash 把 POI 分到各瓦片写入索引（没有 POI 的瓦片写入空区域）。
+     * 一次冷请求因此只产生一次区域抓取（与直接查询的调用量相当），而不是每个瓦片一次。
+     * 外接圆的结果被截断时分到各瓦片的 POI 不完整（可能整片缺失），丢弃该结果并逐瓦片重新抓取；
+     * 单个瓦片仍被截断时写入截断标记，并使用较短的 nearby.tile.truncatedTtlMinutes。
+     */
+    private Map<String, PoiSpatialIndex.Region> fetch(PlaceProvider provider, Collection<String> cells) {
+        PlaceProvider.Area area = fetchEnclosing(provider, cells);
+        if (!area.isTruncated() || cells.size() == 1) {
+            return store(provider, cells, area);
+        }
+        tileRefetches.addAndGet(cells.size());
+        Map<String, CompletableFuture<Map<String, PoiSpatialIndex.Region>>> parts = new LinkedHashMap<>();
+        for (String cell : cells) {
+            List<String> one = List.of(cell);
+            parts.put(cell, CompletableFuture.supplyAsync(() -> store(provider, one, fetchEnclosing(provider, one)), loaders));
+        }
+        Map<String, PoiSpatialIndex.Region> out = new HashMap<>();
+        for (CompletableFuture<Map<String, PoiSpatialIndex.Region>> f : parts.values()) {
+            try {
+                out.putAll(f.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 对覆盖一组瓦片的外接圆调用一次数据源（受每个数据源的并发抓取数限制）。
+     */
+    private PlaceProvider.Area fetchEnclosing(PlaceProvider provider, Collection<String> cells) {
+        double minLat = 90, minLng = 180, maxLat = -90, maxLng = -180;
+        for (String cell : cells) {
+            double[] b = GeoHash.bounds(cell);
+            minLat = Math.min(minLat, b[0]);
+            minLng = Math.min(minLng, b[1]);
+            maxLat = Math.max(maxLat, b[2]);
+            maxLng = Math.max(maxLng, b[3]);
+        }
+        double cLat = (minLat + maxLat) / 2;
+        double cLng = (minLng + maxLng) / 2;
+        double far = Math.max(GeoUtils.haversineMeters(cLat, cLng, minLat, minLng), GeoUtils.haversineMeters(cLat, cLng, maxLat, maxLng));
+        far = Math.max(far, Math.max(GeoUtils.haversineMeters(cLat, cLng, minLat, maxLng), GeoUtils.haversineMeters(cLat, cLng, maxLat, minLng)));
+        int radius = (int) Math.ceil(far) + 1;
+        Semaphore permits = loadPermits.computeIfAbsent(provider.getProviderName(), k -> new Semaphore(loadConcurrency));
+        PlaceProvider.Area area;
+        permits.acquireUninterruptibly();
+        try {
+            area = provider.fetchArea(cLat, cLng, radius);
+        } finally {
+            permits.release();
+        }
+        loads.incrementAndGet();
+        if (area.isTruncated()) truncatedLoads.incrementAndGet();
+        return area;
+    }
+
+    /**
+     * 按 geohash 把抓取结果分到各瓦片并写入索引。
+     */
+    private Map<String, PoiSpatialIndex.Region> store(PlaceProvider provider, Collection<String> cells, PlaceProvider.Area area) {
+        Map<String, List<Place>> byCell = new HashMap<>();
+        int cellPrecision = 0;
+        for (String cell : cells) {
+            byCell.put(cell, new ArrayList<>());
+            cellPrecision = cell.length();
+        }
+        for (Place p : area.getPlaces()) {
+            List<Place> inside = byCell.get(GeoHash.encode(p.getLat(), p.getLng(), cellPrecision));
+            if (inside != null) inside.add(p);
+        }
+        long ttl = Duration.ofMinutes(env.getProperty(
+                "nearby.tile.sources." + provider.getProviderName() + ".ttlMinutes", Long.class, ttlMinutes)).toNanos();
+        Map<String, PoiSpatialIndex.Region> out = new HashMap<>();
+        byCell.forEach((cell, inside) -> out.put(cell, index.put(regionKey(provider, cell), inside, area.isTruncated(),
+                area.isTruncated() ? truncatedTtlNanos : inside.isEmpty() ? emptyTtlNanos : ttl, staleNanos)));
+        return out;
+    }
+
+    /**
+     * 直接查询数据源：与区域抓取相同的不带关键词查询，再按与索引相同的规则在本地过滤关键词；
+     * 带关键词时另按关键词查询一次并合并（不带关键词的结果受数据源条数上限限制，密集区域会漏掉匹配项）。
+     * 同一查询无论命中缓存还是直接查询，关键词的匹配规则一致。
+     */
+    private static Result bypass(PlaceProvider provider, double lat, double lng, int radiusMeters, String keyword, String kw) {
+        List<Place> items = new ArrayList<>(provider.searchNearby(lat, lng, radiusMeters, null));
+        if (!kw.isEmpty()) {
+            items.removeIf(p -> !PoiSpatialIndex.matches(p, kw));
+            mergeKeywordSearch(provider, lat, lng, radiusMeters, keyword, kw, items);
+        }
+        return new Result(items, BYPASS);
+    }
+
+    /**
+     * 按关键词查询数据源，把圆内、按本地规则匹配关键词且尚未收录的 POI 并入结果。
+     */
+    private static void mergeKeywordSearch(PlaceProvider provider, double lat, double lng, int radiusMeters,
+                                           String keyword, String kw, List<Place> out) {
+        Set<String> seen = new HashSet<>();
+        for (Place p : out) seen.add(p.getId());
+        for (Place p : provider.searchNearby(lat, lng, radiusMeters, keyword)) {
+            double d = GeoUtils.haversineMeters(lat, lng, p.getLat(), p.getLng());
+            if (d > radiusMeters || !PoiSpatialIndex.matches(p, kw) || !seen.add(p.getId())) continue;
+            p.setDistance(d);
+            out.add(p);
+        }
+    }
+
+    /**
+     * 缓存统计：请求级命中（零数据源调用）、区域命中率、陈旧命中、回退次数，以及索引规模。
+     */
+    public Map<String, Object> stats() {
+        long req = requests.get();
+        long th = tileHits.get();
+        long tm = tileMisses.get();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("requests", req);
+        m.put("fullHitCount", fullHits.get());
+        m.put("requestHitRate", req == 0 ? 0d : (double) fullHits.get() / req);
+        m.put("tileHitCount", th);
+        m.put("tileMissCount", tm);
+        m.put("tileHitRate", th + tm == 0 ? 0d : (double) th / (th + tm));
+        m.put("staleHitCount", staleHits.get());
+        m.put("loadCount", loads.get());
+        m.put("loadFailureCount", loadFailures.get());
+        m.put("truncatedLoadCount", truncatedLoads.get());
+        m.put("tileRefetchCount", tileRefetches.get());
+        m.put("truncatedKeywordSearchCount", truncatedKeywordSearches.get());
+        m.put("loadingNow", inflight.size());
+        m.put("bypassCount", bypassed.get());
+        m.put("index", index.stats());
+        return m;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OSM 提取文件导入。
+ * <p>
+ * 流式读取 Overpass JSON 导出（{@code {"elements":[...]}}，逐个元素解析，不整体载入内存），
+ * 保留带 office 或 company 标签的 node / way / relation 及其地址标签，写成 {@link OsmPoiFile}。
+ * way / relation 的坐标取 center（导出时使用 {@code out center}），没有时取 bounds 中心或 geometry 均值；
+ * 均没有的元素跳过。
+ * </p>
+ */
+@Service
+public class OsmExtractImporter {
+    private static final String[] POI_TAGS = {"office", "company"};
+
+    private final ObjectMapper objectMapper;
+
+    public OsmExtractImporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 导入提取文件。
+     *
+     * @param extract   Overpass JSON 导出文件
+     * @param target    输出的 POI 文件（覆盖）
+     * @param precision 单元 geohash 精度
+     * @return 写入的 POI 数量
+     * @throws IOException 读取或写出失败、JSON 格式不符
+     */
+    public int importExtract(Path extract, Path target, int precision) throws IOException {
+        long modifiedAt = Files.getLastModifiedTime(extract).toMillis();
+        List<OsmPoiFile.Poi> pois = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(extract);
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) throw new IOException("expected a JSON object: " + extract);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"elements".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    OsmPoiFile.Poi poi = toPoi(parser.readValueAsTree());
+                    if (poi != null) pois.add(poi);
+                }
+            }
+        }
+        OsmPoiFile.write(target, pois, precision, modifiedAt);
+        return pois.size();
+    }
+
+    private static OsmPoiFile.Poi toPoi(JsonNode el) {
+        JsonNode tags = el.path("tags");
+        boolean keep = false;
+        for (String t : POI_TAGS) {
+            if (tags.has(t)) keep = true;
+        }
+        if (!keep) return null;
+        int type;
+        switch (el.path("type").asText("")) {
+            case "node" -> type = 0;
+            case "way" -> type = 1;
+            case "relation" -> type = 2;
+            default -> {
+                return null;
+            }
+        }
+        double[] c = coordinates(el);
+        if (c == null) return null;
+        String name = tags.path("name").asText("");
+        return new OsmPoiFile.Poi(type, el.path("id").asLong(), c[0], c[1], name,
+                OverpassService.buildAddress(tags), String.join("\n", OverpassService.buildCategories(tags)));
+    }
+
+    /**
+     * 元素坐标：node 的 lat/lon，或 way/relation 的 center、bounds 中心、geometry 均值。
+     */
+    private static double[] coordinates(JsonNode el) {
+        if (el.has("lat") && el.has("lon")) {
+            return new double[]{el.path("lat").asDouble(), el.path("lon").asDouble()};
+        }
+        JsonNode center = el.path("center");
+        if (center.has("lat") && center.has("lon")) {
+            return new double[]{center.path("lat").asDouble(), center.path("lon").asDouble()};
+        }
+        JsonNode b = el.path("bounds");
+        if (b.has("minlat") && b.has("maxlat") && b.has("minlon") && b.has("maxlon")) {
+            return new double[]{(b.path("minlat").asDouble() + b.path("maxlat").asDouble()) / 2,
+                    (b.path("minlon").asDouble() + b.path("maxlon").asDouble()) / 2};
+        }
+        JsonNode geometry = el.path("geometry");
+        if (geometry.isArray() && !geometry.isEmpty()) {
+            double lat = 0;
+            double lng = 0;
+            for (JsonNode g : geometry) {
+                lat += g.path("lat").asDouble();
+                lng += g.path("lon").asDouble();
+            }
+            return new double[]{lat / geometry.size(), lng / geometry.size()};
+        }
+        return null;
+    }
+}
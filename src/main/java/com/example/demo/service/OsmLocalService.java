@@ -0,0 +1,269 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Place;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地 OSM 数据源（osm-local）。
+ * <p>
+ * 从 osm.local.dir 下最新的 pois-&lt;时间戳&gt;.bin（{@link OsmPoiFile}，内存映射）直接检索，无网络请求。
+ * {@link #refresh(boolean)} 在配置了 osm.local.extractUrl 时先条件下载提取文件到 osm.local.extract（未变化时不下载），
+ * 提取文件比当前 POI 文件新时重新导入为新的 POI 文件并原子切换，旧文件随后删除
+ * （仍被映射而无法删除时留到下次刷新）。
+ * </p>
+ */
+@Service
+public class OsmLocalService implements PlaceProvider {
+    public static final String PROVIDER = "osm-local";
+    private static final String FILE_PREFIX = "pois-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final OsmExtractImporter importer;
+    private final OutboundHttpClient http;
+    private final Path dir;
+    private final String extract;
+    private final String extractUrl;
+    private final int precision;
+    private volatile OsmPoiFile file;
+    private volatile String lastError;
+    private volatile Instant lastRefreshAt;
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+
+    public OsmLocalService(OsmExtractImporter importer,
+                           OutboundHttpClient http,
+                           @Value("${osm.local.dir:data/osm-local}") String dir,
+                           @Value("${osm.local.extract:}") String extract,
+                           @Value("${osm.local.extractUrl:}") String extractUrl,
+                           @Value("${osm.local.precision:6}") int precision) {
+        this.importer = importer;
+        this.http = http;
+        this.dir = Paths.get(dir);
+        this.extract = extract;
+        this.extractUrl = extractUrl;
+        this.precision = precision;
+    }
+
+    @Override
+    public String getProviderName() {
+        return PROVIDER;
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    /**
+     * 是否已加载 POI 文件。
+     */
+    public boolean isLoaded() {
+        return file != null;
+    }
+
+    @Override
+    public List<Place> searchNearby(double lat, double lng, int radiusMeters, String keyword) {
+        OsmPoiFile f = file;
+        if (f == null) return new ArrayList<>();
+        long start = System.nanoTime();
+        String kw = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+        List<Place> out = f.search(lat, lng, radiusMeters, kw, PROVIDER);
+        queries.incrementAndGet();
+        queryNanos.addAndGet(System.nanoTime() - start);
+        return out;
+    }
+
+    @Override
+    public Area fetchArea(double lat, double lng, int radiusMeters) {
+        if (file == null) throw new IllegalStateException("osm-local not loaded");
+        return new Area(searchNearby(lat, lng, radiusMeters, null), false);
+    }
+
+    /**
+     * 打开目录中最新的可用 POI 文件（启动时调用）。
+     *
+     * @return 是否已加载
+     */
+    public synchronized boolean openLatest() {
+        List<Path> files = listFiles();
+        for (int i = files.size() - 1; i >= 0; i--) {
+            try {
+                file = OsmPoiFile.open(files.get(i));
+                return true;
+            } catch (IOException e) {
+                lastError = e.getMessage();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 刷新：按需下载提取文件，比当前 POI 文件新（或 force）时重新导入并切换。
+     *
+     * @param force 忽略修改时间比较，强制重新导入
+     * @return 刷新结果与当前指标
+     */
+    public synchronized Map<String, Object> refresh(boolean force) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        lastRefreshAt = Instant.now();
+        if (!StringUtils.hasText(extract)) {
+            m.put("skipped", "osm.local.extract not configured");
+            m.put("stats", stats());
+            return m;
+        }
+        Path source = Paths.get(extract);
+        try {
+            if (StringUtils.hasText(extractUrl)) {
+                m.put("downloaded", download(URI.create(extractUrl), source));
+            }
+            if (!Files.exists(source)) {
+                m.put("skipped", "extract not found: " + source);
+                m.put("stats", stats());
+                return m;
+            }
+            OsmPoiFile current = file;
+            long modifiedAt = Files.getLastModifiedTime(source).toMillis();
+            if (!force && current != null && current.getSourceModifiedAt() == modifiedAt) {
+                m.put("skipped", "extract unchanged");
+                m.put("stats", stats());
+                return m;
+            }
+            Files.createDirectories(dir);
+            Path tmp = dir.resolve(FILE_PREFIX + System.currentTimeMillis() + FILE_SUFFIX + ".tmp");
+            long start = System.nanoTime();
+            int count = importer.importExtract(source, tmp, precision);
+            Path target = dir.resolve(tmp.getFileName().toString().replace(".tmp", ""));
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            file = OsmPoiFile.open(target);
+            deleteOlderThan(target);
+            lastError = null;
+            m.put("imported", count);
+            m.put("importMs", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            lastError = e.getMessage();
+            m.put("error", e.getMessage());
+        }
+        m.put("stats", stats());
+        return m;
+    }
+
+    /**
+     * 条件下载提取文件：本地已有时携带 If-None-Match（上次的 ETag，保存在 &lt;extract&gt;.etag）
+     * 与 If-Modified-Since（本地文件修改时间，下载后设为服务端的 Last-Modified），304 时不下载；
+     * 服务端不支持条件请求时，下载内容与本地文件相同也视为未变化（保留本地文件及其修改时间）。
+     * 先写临时文件，完整下载后替换。
+     *
+     * @return 是否得到了新内容
+     */
+    private boolean download(URI uri, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path tmp = target.resolveSibling(target.getFileName() + ".download");
+        Path etagFile = target.resolveSibling(target.getFileName() + ".etag");
+        HttpHeaders headers = new HttpHeaders();
+        if (Files.exists(target)) {
+            if (Files.exists(etagFile)) headers.setIfNoneMatch(Files.readString(etagFile).trim());
+            headers.setIfModifiedSince(Files.getLastModifiedTime(target).toMillis());
+        }
+        String etag;
+        long lastModified;
+        try (ClientHttpResponse resp = http.open("osm-extract", uri, HttpMethod.GET, headers)) {
+            if (resp.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) return false;
+            if (!resp.getStatusCode().is2xxSuccessful()) {
+                throw new IOException("extract download failed: HTTP " + resp.getStatusCode().value());
+            }
+            etag = resp.getHeaders().getETag();
+            lastModified = resp.getHeaders().getLastModified();
+            try (InputStream in = resp.getBody()) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        if (Files.exists(target) && Files.mismatch(tmp, target) == -1) {
+            Files.delete(tmp);
+            return false;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        if (lastModified > 0) Files.setLastModifiedTime(target, FileTime.fromMillis(lastModified));
+        if (etag != null) {
+            Files.writeString(etagFile, etag);
+        } else {
+            Files.deleteIfExists(etagFile);
+        }
+        return true;
+    }
+
+    /** 目录中的 POI 文件（按文件名即时间戳升序）。 */
+    private List<Path> listFiles() {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            ds.forEach(out::add);
+        } catch (IOException e) {
+            lastError = e.getMessage();
+        }
+        out.sort(null);
+        return out;
+    }
+
+    private void deleteOlderThan(Path keep) {
+        for (Path p : listFiles()) {
+            if (p.equals(keep)) continue;
+            try {
+                Files.deleteIfExists(p);
+            } catch (IOException ignore) {
+                // Windows 下仍被映射的文件无法删除，下次刷新再删
+            }
+        }
+    }
+
+    /**
+     * 数据源指标：当前文件规模、来源修改时间、查询次数与平均耗时。
+     */
+    public Map<String, Object> stats() {
+        OsmPoiFile f = file;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("loaded", f != null);
+        if (f != null) {
+            m.put("file", f.getPath().toString());
+            m.put("pois", f.getPoiCount());
+            m.put("cells", f.getCellCount());
+            m.put("strings", f.getStringCount());
+            m.put("sizeBytes", f.getSizeBytes());
+            m.put("precision", f.getPrecision());
+            m.put("createdAt", Instant.ofEpochMilli(f.getCreatedAt()).toString());
+            m.put("sourceModifiedAt", Instant.ofEpochMilli(f.getSourceModifiedAt()).toString());
+        }
+        long q = queries.get();
+        m.put("queryCount", q);
+        m.put("avgQueryMicros", q == 0 ? 0 : queryNanos.get() / q / 1000);
+        m.put("lastRefreshAt", lastRefreshAt == null ? null : lastRefreshAt.toString());
+        m.put("lastError", lastError);
+        return m;
+    }
+}
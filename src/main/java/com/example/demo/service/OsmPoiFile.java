@@ -0,0 +1,316 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Place;
+import com.example.demo.util.GeoHash;
+import com.example.demo.util.GeoUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 本地 OSM POI 文件（只读、内存映射）。
+ * <p>
+ * 布局（大端）：文件头之后依次为按 geohash 升序的单元数组与各单元起始下标、
+ * 坐标数组（纬度/经度 ×1e7 的 int）、OSM 类型与 ID、名称/地址/分类在字符串表中的下标，
+ * 最后是去重字符串表（偏移数组 + UTF-8 数据）。同一单元的 POI 连续存放，
+ * 查询时对覆盖单元二分定位后顺序扫描坐标，只对圆内的候选解码字符串；读取全部使用绝对位置，线程安全。
+ * </p>
+ */
+public final class OsmPoiFile {
+    private static final int MAGIC = 0x48524F31;
+    private static final int VERSION = 1;
+    /** 文件头：magic、version、createdAt、sourceModifiedAt、precision、cellCount、poiCount、stringCount、stringBytes */
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4 + 8;
+    /** 单次查询覆盖的单元（或单元段）上限；超过时改用更粗的前缀段 */
+    private static final int MAX_RANGES = 256;
+    private static final String[] OSM_TYPES = {"node", "way", "relation"};
+
+    /**
+     * 导入时的一条 POI。
+     */
+    public static final class Poi {
+        private final int type;
+        private final long osmId;
+        private final double lat;
+        private final double lng;
+        private final String name;
+        private final String address;
+        private final String categories;
+
+        /**
+         * @param type       0 node / 1 way / 2 relation
+         * @param categories 分类（以换行分隔，可为空）
+         */
+        public Poi(int type, long osmId, double lat, double lng, String name, String address, String categories) {
+            this.type = type;
+            this.osmId = osmId;
+            this.lat = lat;
+            this.lng = lng;
+            this.name = name;
+            this.address = address;
+            this.categories = categories;
+        }
+    }
+
+    private final Path path;
+    private final MappedByteBuffer buf;
+    private final long createdAt;
+    private final long sourceModifiedAt;
+    private final int precision;
+    private final int cellCount;
+    private final int poiCount;
+    private final int stringCount;
+    private final int cellsOff;
+    private final int cellStartOff;
+    private final int latOff;
+    private final int lngOff;
+    private final int idOff;
+    private final int nameOff;
+    private final int addressOff;
+    private final int categoryOff;
+    private final int stringOffsetsOff;
+    private final int stringDataOff;
+
+    private OsmPoiFile(Path path, MappedByteBuffer buf) throws IOException {
+        this.path = path;
+        this.buf = buf;
+        if (buf.capacity() < HEADER_BYTES || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            throw new IOException("not an osm poi file: " + path);
+        }
+        this.createdAt = buf.getLong(8);
+        this.sourceModifiedAt = buf.getLong(16);
+        this.precision = buf.getInt(24);
+        this.cellCount = buf.getInt(28);
+        this.poiCount = buf.getInt(32);
+        this.stringCount = buf.getInt(36);
+        long stringBytes = buf.getLong(40);
+        this.cellsOff = HEADER_BYTES;
+        this.cellStartOff = cellsOff + cellCount * 8;
+        this.latOff = cellStartOff + (cellCount + 1) * 4;
+        this.lngOff = latOff + poiCount * 4;
+        this.idOff = lngOff + poiCount * 4;
+        this.nameOff = idOff + poiCount * 8;
+        this.addressOff = nameOff + poiCount * 4;
+        this.categoryOff = addressOff + poiCount * 4;
+        this.stringOffsetsOff = categoryOff + poiCount * 4;
+        this.stringDataOff = stringOffsetsOff + (stringCount + 1) * 4;
+        if ((long) stringDataOff + stringBytes != buf.capacity()) {
+            throw new IOException("truncated osm poi file: " + path);
+        }
+    }
+
+    /**
+     * 以只读方式映射文件。
+     *
+     * @throws IOException 文件不存在、超过 2GB 或格式不符
+     */
+    public static OsmPoiFile open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("osm poi file too large: " + path);
+            return new OsmPoiFile(path, ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    /**
+     * 写出文件（POI 按单元排序、字符串去重）。
+     *
+     * @param target           目标文件（覆盖）
+     * @param pois             POI
+     * @param precision        单元 geohash 精度
+     * @param sourceModifiedAt 源数据修改时间（毫秒，用于判断是否需要重新导入）
+     */
+    public static void write(Path target, List<Poi> pois, int precision, long sourceModifiedAt) throws IOException {
+        int n = pois.size();
+        long[] cellOf = new long[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Poi p = pois.get(i);
+            cellOf[i] = GeoHash.toBits(GeoHash.encode(p.lat, p.lng, precision));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> cellOf[i]));
+
+        List<Long> cells = new ArrayList<>();
+        List<Integer> cellStarts = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] nameRef = new int[n];
+        int[] addressRef = new int[n];
+        int[] categoryRef = new int[n];
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            if (cells.isEmpty() || cells.get(cells.size() - 1) != cellOf[i]) {
+                cells.add(cellOf[i]);
+                cellStarts.add(k);
+            }
+            Poi p = pois.get(i);
+            nameRef[k] = intern(p.name, stringIds, strings);
+            addressRef[k] = intern(p.address, stringIds, strings);
+            categoryRef[k] = intern(p.categories, stringIds, strings);
+        }
+        long stringBytes = 0;
+        for (byte[] s : strings) stringBytes += s.length;
+
+        try (OutputStream os = Files.newOutputStream(target);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(sourceModifiedAt);
+            out.writeInt(precision);
+            out.writeInt(cells.size());
+            out.writeInt(n);
+            out.writeInt(strings.size());
+            out.writeLong(stringBytes);
+            for (long c : cells) out.writeLong(c);
+            for (int s : cellStarts) out.writeInt(s);
+            out.writeInt(n);
+            for (int k = 0; k < n; k++) out.writeInt((int) Math.round(pois.get(order[k]).lat * 1e7));
+            for (int k = 0; k < n; k++) out.writeInt((int) Math.round(pois.get(order[k]).lng * 1e7));
+            for (int k = 0; k < n; k++) {
+                Poi p = pois.get(order[k]);
+                out.writeLong((p.osmId << 2) | p.type);
+            }
+            for (int r : nameRef) out.writeInt(r);
+            for (int r : addressRef) out.writeInt(r);
+            for (int r : categoryRef) out.writeInt(r);
+            int offset = 0;
+            for (byte[] s : strings) {
+                out.writeInt(offset);
+                offset += s.length;
+            }
+            out.writeInt(offset);
+            for (byte[] s : strings) out.write(s);
+        }
+    }
+
+    private static int intern(String s, Map<String, Integer> ids, List<byte[]> strings) {
+        if (s == null || s.isEmpty()) return -1;
+        Integer id = ids.get(s);
+        if (id == null) {
+            id = strings.size();
+            ids.put(s, id);
+            strings.add(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    /**
+     * 检索圆形区域内的 POI。
+     *
+     * @param kw 小写关键词（匹配名称、地址与分类）；空串表示不过滤
+     * @return Place 列表（可修改，未排序）
+     */
+    public List<Place> search(double lat, double lng, int radiusMeters, String kw, String source) {
+        List<Place> out = new ArrayList<>();
+        double maxDLat = Math.toDegrees(radiusMeters / 6371000.0);
+        for (long[] range : ranges(lat, lng, radiusMeters)) {
+            int from = lowerBound(range[0]);
+            int to = lowerBound(range[1]);
+            if (from >= to) continue;
+            int start = buf.getInt(cellStartOff + from * 4);
+            int end = buf.getInt(cellStartOff + to * 4);
+            for (int i = start; i < end; i++) {
+                double pLat = buf.getInt(latOff + i * 4) / 1e7;
+                if (Math.abs(pLat - lat) > maxDLat) continue;
+                double pLng = buf.getInt(lngOff + i * 4) / 1e7;
+                double d = GeoUtils.haversineMeters(lat, lng, pLat, pLng);
+                if (d > radiusMeters) continue;
+                String name = string(buf.getInt(nameOff + i * 4));
+                String address = string(buf.getInt(addressOff + i * 4));
+                String categories = string(buf.getInt(categoryOff + i * 4));
+                if (!kw.isEmpty() && !contains(name, kw) && !contains(address, kw) && !contains(categories, kw)) continue;
+                long typedId = buf.getLong(idOff + i * 8);
+                String type = OSM_TYPES[(int) (typedId & 3)];
+                String id = String.valueOf(typedId >>> 2);
+                out.add(new Place(type.equals("node") ? id : type + "/" + id,
+                        name == null ? "未命名企业" : name, address == null ? "" : address, pLat, pLng, d,
+                        categories == null ? new ArrayList<>() : new ArrayList<>(List.of(categories.split("\n"))),
+                        source, "https://www.openstreetmap.org/" + type + "/" + id));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 覆盖查询圆的单元段 [from, to)（单元整数值）；单元过多时改用更粗的前缀，前缀覆盖的是一段连续单元。
+     */
+    private List<long[]> ranges(double lat, double lng, int radiusMeters) {
+        int p = rangePrecision(lat, radiusMeters, precision);
+        List<String> cover = GeoHash.cover(lat, lng, radiusMeters, p);
+        int shift = 5 * (precision - p);
+        List<long[]> out = new ArrayList<>(cover.size());
+        for (String h : cover) {
+            long prefix = GeoHash.toBits(h);
+            out.add(new long[]{prefix << shift, (prefix + 1) << shift});
+        }
+        return out;
+    }
+
+    /**
+     * 覆盖单元数不超过 {@link #MAX_RANGES} 的最细精度（不超过 maxPrecision）：按查询圆外接框的行列数估算上限，
+     * 不生成覆盖列表，大半径查询不会先构造海量细单元。
+     */
+    static int rangePrecision(double lat, int radiusMeters, int maxPrecision) {
+        double dLat = Math.toDegrees(radiusMeters / 6371000.0);
+        double dLng = Math.min(180, dLat / Math.max(0.01, Math.cos(Math.toRadians(lat))));
+        for (int p = maxPrecision; p > 1; p--) {
+            double rows = Math.floor(2 * dLat / GeoHash.cellHeight(p)) + 2;
+            double cols = Math.floor(2 * dLng / GeoHash.cellWidth(p)) + 2;
+            if (rows * cols <= MAX_RANGES) return p;
+        }
+        return 1;
+    }
+
+    /** 第一个不小于 bits 的单元下标。 */
+    private int lowerBound(long bits) {
+        int lo = 0;
+        int hi = cellCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buf.getLong(cellsOff + mid * 8) < bits) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private String string(int ref) {
+        if (ref < 0) return null;
+        int from = buf.getInt(stringOffsetsOff + ref * 4);
+        int to = buf.getInt(stringOffsetsOff + (ref + 1) * 4);
+        byte[] b = new byte[to - from];
+        buf.get(stringDataOff + from, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static boolean contains(String s, String kw) {
+        return s != null && s.toLowerCase(Locale.ROOT).contains(kw);
+    }
+
+    public Path getPath() { return path; }
+    public long getCreatedAt() { return createdAt; }
+    public long getSourceModifiedAt() { return sourceModifiedAt; }
+    public int getPrecision() { return precision; }
+    public int getCellCount() { return cellCount; }
+    public int getPoiCount() { return poiCount; }
+    public int getStringCount() { return stringCount; }
+    public long getSizeBytes() { return buf.capacity(); }
+}
@@ -0,0 +1,267 @@
+package com.example.demo.service;
+
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 统一出站 HTTP 客户端。
+ * <p>
+ * 全应用共享一个 JDK HttpClient（HTTPS 下经 ALPN 协商 HTTP/2，否则 HTTP/1.1 keep-alive 连接复用），
+ * 并按数据源（source）提供 RestTemplate：统一 User-Agent、gzip 解压、单主机并发连接上限，
+ * 以及连接/读取/总超时。总超时到期会主动关闭响应，避免慢站点长期占用 Tomcat 线程。
+ * </p>
+ * <p>
+ * 配置：http.client.connectTimeoutMs、http.client.maxConnectionsPerHost、http.client.acquireTimeoutMs
+ * 为全局项；http.client.readTimeoutMs、http.client.totalTimeoutMs 可通过
+ * http.client.sources.&lt;source&gt;.readTimeoutMs / totalTimeoutMs 按数据源覆盖。
+ * </p>
+ */
+@Service
+public class OutboundHttpClient {
+    public static final String USER_AGENT = "HireRadar/1.0";
+
+    private final Environment env;
+    private final HttpClient httpClient;
+    private final int maxConnectionsPerHost;
+    private final long acquireTimeoutMs;
+    /** 总超时守护线程：到期关闭仍未读完的响应 */
+    private final ScheduledExecutorService deadlineTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "http-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, ClientHttpRequestFactory> factories = new ConcurrentHashMap<>();
+    private final Map<String, RestTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    public OutboundHttpClient(Environment env) {
+        this.env = env;
+        long connectTimeoutMs = env.getProperty("http.client.connectTimeoutMs", Long.class, 3000L);
+        this.maxConnectionsPerHost = env.getProperty("http.client.maxConnectionsPerHost", Integer.class, 8);
+        this.acquireTimeoutMs = env.getProperty("http.client.acquireTimeoutMs", Long.class, 2000L);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * 获取指定数据源的 RestTemplate（按数据源缓存复用，底层连接池全局共享）。
+     *
+     * @param source 数据源标识，如 amap、overpass、www.nowcoder.com
+     * @return RestTemplate
+     */
+    public RestTemplate forSource(String source) {
+        return templates.computeIfAbsent(source, s -> new RestTemplate(factoryFor(s)));
+    }
+
+    /**
+     * 以流的方式打开响应（不经 RestTemplate 的状态码校验与消息转换）。
+     * <p>
+     * 调用方必须关闭返回的响应以归还主机连接配额。
+     * </p>
+     *
+     * @param source  数据源标识
+     * @param uri     请求地址
+     * @param method  请求方法
+     * @param headers 附加请求头（可为 null）
+     * @return 响应
+     * @throws IOException 网络异常；等待主机连接配额超时为 {@link ConnectionLimitException}
+     */
+    public ClientHttpResponse open(String source, URI uri, HttpMethod method, HttpHeaders headers) throws IOException {
+        ClientHttpRequest request = factoryFor(source).createRequest(uri, method);
+        if (headers != null) {
+            request.getHeaders().putAll(headers);
+        }
+        return request.execute();
+    }
+
+    private ClientHttpRequestFactory factoryFor(String source) {
+        return factories.computeIfAbsent(source, s -> {
+            long readTimeoutMs = sourceProperty(s, "readTimeoutMs", 5000L);
+            long totalTimeoutMs = sourceProperty(s, "totalTimeoutMs", 10000L);
+            JdkClientHttpRequestFactory base = new JdkClientHttpRequestFactory(httpClient);
+            base.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+            return new InterceptingClientHttpRequestFactory(base, List.of(new ManagedInterceptor(totalTimeoutMs)));
+        });
+    }
+
+    private long sourceProperty(String source, String name, long defaultValue) {
+        long global = env.getProperty("http.client." + name, Long.class, defaultValue);
+        return env.getProperty("http.client.sources." + source + "." + name, Long.class, global);
+    }
+
+    private Semaphore permitsFor(URI uri) {
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+        return hostPermits.computeIfAbsent(host, h -> new Semaphore(Math.max(1, maxConnectionsPerHost)));
+    }
+
+    /**
+     * 未取得主机连接配额（本地限流，请求未发出）。
+     */
+    public static final class ConnectionLimitException extends IOException {
+        public ConnectionLimitException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * 出站拦截：补齐默认请求头，限制单主机并发，并包装响应（gzip、总超时、归还配额）。
+     */
+    private final class ManagedInterceptor implements ClientHttpRequestInterceptor {
+        private final long totalTimeoutMs;
+
+        private ManagedInterceptor(long totalTimeoutMs) {
+            this.totalTimeoutMs = totalTimeoutMs;
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+            HttpHeaders headers = request.getHeaders();
+            if (!headers.containsKey(HttpHeaders.USER_AGENT)) {
+                headers.set(HttpHeaders.USER_AGENT, USER_AGENT);
+            }
+            if (!headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            }
+            Semaphore permits = permitsFor(request.getURI());
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new ConnectionLimitException("too many concurrent connections to " + request.getURI().getHost(), null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConnectionLimitException("interrupted while waiting for connection to " + request.getURI().getHost(), e);
+            }
+            ManagedResponse managed = null;
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                managed = new ManagedResponse(response, permits);
+                managed.armDeadline(totalTimeoutMs);
+                return managed;
+            } finally {
+                if (managed == null) {
+                    permits.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * 受管响应：按 Content-Encoding 透明解压 gzip，总超时到期自动关闭，关闭时归还主机配额（仅一次）。
+     */
+    private final class ManagedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private ScheduledFuture<?> deadline;
+        private HttpHeaders headers;
+        private InputStream body;
+        private boolean gzip;
+
+        private ManagedResponse(ClientHttpResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+            this.gzip = "gzip".equalsIgnoreCase(delegate.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        }
+
+        private void armDeadline(long totalTimeoutMs) {
+            this.deadline = deadlineTimer.schedule(this::close, Math.max(1, totalTimeoutMs), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                HttpHeaders copy = new HttpHeaders();
+                copy.putAll(delegate.getHeaders());
+                if (gzip) {
+                    copy.remove(HttpHeaders.CONTENT_ENCODING);
+                    copy.remove(HttpHeaders.CONTENT_LENGTH);
+                }
+                headers = copy;
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                InputStream in = delegate.getBody();
+                if (gzip) {
+                    // 空响应体（HEAD/204/304）或未真正压缩时不解压
+                    PushbackInputStream pb = new PushbackInputStream(in, 2);
+                    byte[] magic = pb.readNBytes(2);
+                    if (magic.length > 0) {
+                        pb.unread(magic);
+                    }
+                    in = magic.length == 2 && magic[0] == (byte) 0x1f && magic[1] == (byte) 0x8b
+                            ? new GZIPInputStream(pb) : pb;
+                }
+                body = new FilterInputStream(in) {
+                    @Override
+                    public void close() {
+                        ManagedResponse.this.close();
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+                delegate.close();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -12,26 +12,64 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Service
-public class OverpassService {
+public class OverpassService implements PlaceProvider {
+    public static final String PROVIDER = "osm-overpass";
     private static final String OVERPASS_URL = "https://overpass-api.de/api/interpreter";
-    private final RestTemplate restTemplate = new RestTemplate();
+    /** 直接查询的返回上限 */
+    private static final int SEARCH_LIMIT = 100;
+    /** 区域抓取（瓦片缓存）的返回上限 */
+    private static final int AREA_LIMIT = 500;
+    private final RestTemplate restTemplate;
+    private final SourceGuard guard;
+
+    public OverpassService(OutboundHttpClient http, SourceGuard guard) {
+        this.restTemplate = http.forSource("overpass");
+        this.guard = guard;
+    }
+
+    @Override
+    public String getProviderName() {
+        return PROVIDER;
+    }
 
     /**
      * 使用 Overpass（OSM）进行附近公司类 POI 检索。
      * <p>
      * 基于节点（node）进行周边搜索，支持关键词模糊匹配，返回标准化 Place 列表。
+     * 调用经 {@link SourceGuard} 按 overpass 源熔断，失败或熔断打开时返回同一查询最近一次成功的结果。
      * </p>
      *
      * @param lat          请求中心纬度（WGS-84）
      * @param lng          请求中心经度（WGS-84）
      * @param radiusMeters 半径（米）
      * @param keyword      关键词（可选）
-     * @return Place 列表（按调用方排序）
+     * @return Place 列表（可修改的副本，按调用方排序）
      */
+    @Override
     public List<Place> searchNearby(double lat, double lng, int radiusMeters, String keyword) {
+        String key = String.format(Locale.ROOT, "%.5f,%.5f|%d|%s", lat, lng, radiusMeters, keyword == null ? "" : keyword.trim());
+        return new ArrayList<>(guard.call("overpass", key,
+                () -> fetchNearby(lat, lng, radiusMeters, keyword, SEARCH_LIMIT).getPlaces(), List.of()));
+    }
+
+    /**
+     * 不带关键词抓取区域内的 office 节点（最多 AREA_LIMIT 个元素，返回满额时视为被截断），不使用兜底结果。
+     */
+    @Override
+    public Area fetchArea(double lat, double lng, int radiusMeters) {
+        Area area = guard.call("overpass", null, () -> fetchNearby(lat, lng, radiusMeters, null, AREA_LIMIT), null);
+        if (area == null) throw new IllegalStateException("source unavailable: overpass");
+        return area;
+    }
+
+    /**
+     * 调用 Overpass 接口（失败时抛出异常）；返回元素数达到 limit 时视为被截断。
+     */
+    private Area fetchNearby(double lat, double lng, int radiusMeters, String keyword, int limit) {
         String filter;
         if (keyword != null && !keyword.trim().isEmpty()) {
             String safe = keyword.trim().replace("\"", "\\\"");
@@ -43,18 +81,18 @@ public class OverpassService {
 
         String q = "[out:json][timeout:25];" +
                 "node(around:" + radiusMeters + "," + lat + "," + lng + ")" + filter + ";" +
-                "out 100;"; // limit to 100 results
+                "out " + limit + ";";
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-        headers.set(HttpHeaders.USER_AGENT, "NearbyCompaniesDemo/1.0");
-        String body = "data=" + URLEncoder.encode(q, StandardCharsets.UTF_8);
-        HttpEntity<String> entity = new HttpEntity<>(body, headers);
+        headers.set(HttpHeaders.USER_AGENT, OutboundHttpClient.USER_AGENT);
+        String form = "data=" + URLEncoder.encode(q, StandardCharsets.UTF_8);
+        HttpEntity<String> entity = new HttpEntity<>(form, headers);
 
         ResponseEntity<JsonNode> resp = restTemplate.exchange(OVERPASS_URL, HttpMethod.POST, entity, JsonNode.class);
         JsonNode body = resp.getBody();
         List<Place> results = new ArrayList<>();
-        if (body == null) return results;
+        if (body == null) return new Area(results, false);
 
         JsonNode elements = body.get("elements");
         if (elements != null && elements.isArray()) {
@@ -70,18 +108,29 @@ public class OverpassService {
                 JsonNode tags = el.path("tags");
                 String name = tags.path("name").asText("未命名企业");
                 String address = buildAddress(tags);
-                List<String> categories = new ArrayList<>();
-                if (tags.has("office")) categories.add("office:" + tags.path("office").asText());
-                if (tags.has("amenity")) categories.add("amenity:" + tags.path("amenity").asText());
-                if (tags.has("industry")) categories.add("industry:" + tags.path("industry").asText());
+                List<String> categories = buildCategories(tags);
 
                 double distance = GeoUtils.haversineMeters(lat, lng, nLat, nLng);
                 String url = "https://www.openstreetmap.org/node/" + id;
 
-                results.add(new Place(id, name, address, nLat, nLng, distance, categories, "osm-overpass", url));
+                results.add(new Place(id, name, address, nLat, nLng, distance, categories, PROVIDER, url));
             }
         }
-        return results;
+        return new Area(results, elements != null && elements.size() >= limit);
+    }
+
+    /**
+     * 由 OSM 标签提取分类（office、amenity、industry、company）。
+     *
+     * @param tags OSM 标签
+     * @return 分类列表，形如 office:company
+     */
+    static List<String> buildCategories(JsonNode tags) {
+        List<String> categories = new ArrayList<>();
+        for (String k : new String[]{"office", "amenity", "industry", "company"}) {
+            if (tags.has(k)) categories.add(k + ":" + tags.path(k).asText());
+        }
+        return categories;
     }
 
     /**
@@ -90,7 +139,7 @@ public class OverpassService {
      * @param tags OSM 标签
      * @return 拼接后的地址（可能为空字符串）
      */
-    private String buildAddress(JsonNode tags) {
+    static String buildAddress(JsonNode tags) {
         StringBuilder sb = new StringBuilder();
         appendIfPresent(sb, tags, "addr:province");
         appendIfPresent(sb, tags, "addr:city");
@@ -110,7 +159,7 @@ public class OverpassService {
      * @param tags OSM 标签
      * @param key  键名
      */
-    private void appendIfPresent(StringBuilder sb, JsonNode tags, String key) {
+    private static void appendIfPresent(StringBuilder sb, JsonNode tags, String key) {
         if (tags.has(key)) {
             if (sb.length() > 0) sb.append(" ");
             sb.append(tags.path(key).asText());
@@ -0,0 +1,67 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Place;
+
+import java.util.List;
+
+/**
+ * 附近 POI 数据源接口。
+ * <p>
+ * 高德、OSM（Overpass 与本地提取文件）等数据源实现该接口：{@link #searchNearby} 供直接查询（带熔断兜底），
+ * {@link #fetchArea} 供 {@link NearbyTileCache} 按瓦片抓取不带关键词的全集。
+ * </p>
+ */
+public interface PlaceProvider {
+
+    /**
+     * 区域抓取结果。
+     */
+    final class Area {
+        private final List<Place> places;
+        private final boolean truncated;
+
+        public Area(List<Place> places, boolean truncated) {
+            this.places = places;
+            this.truncated = truncated;
+        }
+
+        /** POI（距离以圆心计算） */
+        public List<Place> getPlaces() { return places; }
+        /** 是否被截断：受数据源的条数或页数上限限制，区域内可能还有未返回的 POI */
+        public boolean isTruncated() { return truncated; }
+    }
+
+    /**
+     * 数据源标识（写入 Place.source 与响应 meta.provider），例如 amap、osm-overpass。
+     */
+    String getProviderName();
+
+    /**
+     * 按圆形区域与关键词检索。
+     *
+     * @param lat          圆心纬度（WGS-84）
+     * @param lng          圆心经度（WGS-84）
+     * @param radiusMeters 半径（米）
+     * @param keyword      关键词（可选）
+     * @return Place 列表（可修改的副本）；失败时为兜底结果或空列表
+     */
+    List<Place> searchNearby(double lat, double lng, int radiusMeters, String keyword);
+
+    /**
+     * 抓取圆形区域内的全部公司类 POI（不带关键词），距离以圆心计算。
+     *
+     * @param lat          圆心纬度（WGS-84）
+     * @param lng          圆心经度（WGS-84）
+     * @param radiusMeters 半径（米）
+     * @return POI 与是否被截断
+     * @throws RuntimeException 数据源不可用（熔断、舱壁已满或调用失败），结果不应被缓存
+     */
+    Area fetchArea(double lat, double lng, int radiusMeters);
+
+    /**
+     * 是否为本地数据源（无网络请求，检索不经过 {@link NearbyTileCache}）。
+     */
+    default boolean isLocal() {
+        return false;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Place;
+import com.example.demo.util.GeoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 已见 POI 的内存空间索引（分区网格）。
+ * <p>
+ * 按数据源 + geohash 单元划分区域，每个区域保存一次区域抓取得到的、落在单元内的全部 POI：
+ * 坐标存放在 double 数组中，距离过滤先比较纬度差再计算球面距离，只对命中项访问 Place 对象；
+ * 同一区域内按数据源 POI ID 去重。区域记录抓取时间与 TTL，由调用方判断新鲜/陈旧（见 {@link Region#isStale()}）。
+ * 总内存（估算值）超过 nearby.index.maxBytes 时淘汰最久未被查询的区域。
+ * </p>
+ */
+@Component
+public class PoiSpatialIndex {
+
+    /**
+     * 一个区域（不可变）。
+     */
+    public static final class Region {
+        private final double[] lats;
+        private final double[] lngs;
+        private final Place[] places;
+        /** 小写的名称 + 地址 + 分类（关键词匹配用） */
+        private final String[] text;
+        private final boolean truncated;
+        private final long loadedAtNanos;
+        private final long ttlNanos;
+        private final long expireAtNanos;
+        private final long bytes;
+
+        private Region(double[] lats, double[] lngs, Place[] places, String[] text, boolean truncated,
+                       long ttlNanos, long staleNanos, long bytes) {
+            this.lats = lats;
+            this.lngs = lngs;
+            this.places = places;
+            this.text = text;
+            this.truncated = truncated;
+            this.loadedAtNanos = System.nanoTime();
+            this.ttlNanos = ttlNanos;
+            this.expireAtNanos = loadedAtNanos + ttlNanos + staleNanos;
+            this.bytes = bytes;
+        }
+
+        /** 抓取结果是否达到数据源单次上限（区域内可能还有未收录的 POI） */
+        public boolean isTruncated() { return truncated; }
+
+        public int size() { return places.length; }
+
+        /**
+         * 是否已超过 TTL（陈旧可用，应在后台刷新）。
+         */
+        public boolean isStale() {
+            return System.nanoTime() - loadedAtNanos > ttlNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expireAtNanos > 0;
+        }
+
+        /**
+         * 收集圆内且匹配关键词的 POI（距离为到圆心的球面距离，返回新对象）。
+         *
+         * @param kw 小写关键词；空串表示不过滤
+         */
+        public void collect(double lat, double lng, double radiusMeters, String kw, List<Place> out) {
+            double maxDLat = Math.toDegrees(radiusMeters / 6371000.0);
+            for (int i = 0; i < lats.length; i++) {
+                if (Math.abs(lats[i] - lat) > maxDLat) continue;
+                double d = GeoUtils.haversineMeters(lat, lng, lats[i], lngs[i]);
+                if (d > radiusMeters || (!kw.isEmpty() && !text[i].contains(kw))) continue;
+                Place p = places[i];
+                out.add(new Place(p.getId(), p.getName(), p.getAddress(), lats[i], lngs[i], d,
+                        p.getCategories(), p.getSource(), p.getUrl()));
+            }
+        }
+    }
+
+    private final long maxBytes;
+    /** 区域键（数据源:geohash）→ 区域，按访问顺序排列（最久未查询在前） */
+    private final LinkedHashMap<String, Region> regions = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private long pois;
+    private long evictions;
+    private long expirations;
+
+    public PoiSpatialIndex(@Value("${nearby.index.maxBytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 读取区域并标记为最近查询；已超过 TTL + 陈旧窗口的区域被移除并返回 null。
+     *
+     * @param key 区域键（数据源:geohash）
+     */
+    public synchronized Region get(String key) {
+        Region r = regions.get(key);
+        if (r != null && r.isExpired(System.nanoTime())) {
+            remove(key);
+            expirations++;
+            return null;
+        }
+        return r;
+    }
+
+    /**
+     * 写入（替换）区域，随后按内存预算淘汰最久未查询的区域。
+     *
+     * @param key        区域键（数据源:geohash）
+     * @param places     落在区域内的 POI（按 ID 去重，保留最后一条）
+     * @param truncated  抓取结果是否被截断
+     * @param ttlNanos   新鲜期
+     * @param staleNanos 新鲜期之后仍可使用的陈旧窗口
+     * @return 写入的区域
+     */
+    public Region put(String key, List<Place> places, boolean truncated, long ttlNanos, long staleNanos) {
+        Map<String, Place> byId = new LinkedHashMap<>();
+        for (Place p : places) {
+            byId.put(p.getId(), p);
+        }
+        int n = byId.size();
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        Place[] arr = new Place[n];
+        String[] text = new String[n];
+        long size = 64 + (long) n * (8 + 8 + 8 + 8);
+        int i = 0;
+        for (Place p : byId.values()) {
+            lats[i] = p.getLat();
+            lngs[i] = p.getLng();
+            arr[i] = p;
+            text[i] = searchText(p);
+            size += estimateBytes(p) + 40 + 2L * text[i].length();
+            i++;
+        }
+        Region r = new Region(lats, lngs, arr, text, truncated, ttlNanos, staleNanos, size);
+        synchronized (this) {
+            remove(key);
+            regions.put(key, r);
+            bytes += r.bytes;
+            pois += n;
+            Iterator<Map.Entry<String, Region>> it = regions.entrySet().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Region> e = it.next();
+                if (e.getValue() == r) continue;
+                bytes -= e.getValue().bytes;
+                pois -= e.getValue().places.length;
+                it.remove();
+                evictions++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * 关键词归一化（去首尾空白、转小写）；null 为空串。
+     */
+    public static String normalizeKeyword(String keyword) {
+        return keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * POI 是否匹配关键词（名称、地址或分类包含关键词，不区分大小写）；区域内过滤与直接查询的过滤都用此规则。
+     *
+     * @param kw 已归一化的关键词（见 {@link #normalizeKeyword(String)}）；空串表示不过滤
+     */
+    public static boolean matches(Place p, String kw) {
+        return kw.isEmpty() || searchText(p).contains(kw);
+    }
+
+    /** 小写的名称 + 地址 + 分类（换行分隔）。 */
+    private static String searchText(Place p) {
+        StringBuilder sb = new StringBuilder();
+        if (p.getName() != null) sb.append(p.getName());
+        sb.append('\n');
+        if (p.getAddress() != null) sb.append(p.getAddress());
+        if (p.getCategories() != null) {
+            for (String c : p.getCategories()) sb.append('\n').append(c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private void remove(String key) {
+        Region old = regions.remove(key);
+        if (old != null) {
+            bytes -= old.bytes;
+            pois -= old.places.length;
+        }
+    }
+
+    /** Place 对象及其字符串字段的估算占用（字节）。 */
+    private static long estimateBytes(Place p) {
+        long b = 64;
+        b += str(p.getId()) + str(p.getName()) + str(p.getAddress()) + str(p.getUrl());
+        if (p.getCategories() != null) {
+            b += 32;
+            for (String c : p.getCategories()) b += str(c) + 8;
+        }
+        return b;
+    }
+
+    private static long str(String s) {
+        return s == null ? 0 : 40 + 2L * s.length();
+    }
+
+    /**
+     * 索引规模指标：区域数、POI 数、估算内存与预算、淘汰次数。
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("regions", regions.size());
+        m.put("pois", pois);
+        m.put("bytes", bytes);
+        m.put("maxBytes", maxBytes);
+        m.put("evictionCount", evictions);
+        m.put("expirationCount", expirations);
+        return m;
+    }
+}
@@ -34,7 +34,13 @@ public class QccService {
     @Value("${qcc.api.token:}")
     private String apiToken;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final SourceGuard guard;
+
+    public QccService(OutboundHttpClient http, SourceGuard guard) {
+        this.restTemplate = http.forSource("qcc");
+        this.guard = guard;
+    }
 
     /**
      * 判断服务是否已配置。
@@ -49,7 +55,8 @@ public class QccService {
      * 根据公司名称与地址进行工商详情查询（按需丰富）。
      * <p>
      * 说明：企查查接口通常以名称精确查询为主，地址用于后续匹配；
-     * 返回空 Optional 表示未配置或未命中。
+     * 返回空 Optional 表示未配置或未命中。调用经 {@link SourceGuard} 按 qcc 源熔断，
+     * 接口失败或熔断打开时返回同一公司最近一次成功的结果。
      * </p>
      *
      * @param name    公司名称
@@ -60,48 +67,50 @@ public class QccService {
         if (!isConfigured()) {
             return Optional.empty();
         }
+        return guard.call("qcc", name + "|" + (address == null ? "" : address),
+                () -> fetchDetail(name, address), Optional.empty());
+    }
 
-        try {
-            String qs = "key=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8) +
-                    "&token=" + URLEncoder.encode(apiToken, StandardCharsets.UTF_8) +
-                    "&keyword=" + URLEncoder.encode(name, StandardCharsets.UTF_8);
+    /**
+     * 调用企查查查询接口（接口不可用或限流时抛出异常）。
+     */
+    private Optional<CompanyDetail> fetchDetail(String name, String address) {
+        String qs = "key=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8) +
+                "&token=" + URLEncoder.encode(apiToken, StandardCharsets.UTF_8) +
+                "&keyword=" + URLEncoder.encode(name, StandardCharsets.UTF_8);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-            headers.set(HttpHeaders.USER_AGENT, "NearbyCompaniesDemo/1.0");
-            HttpEntity<String> entity = new HttpEntity<>(qs, headers);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.set(HttpHeaders.USER_AGENT, OutboundHttpClient.USER_AGENT);
+        HttpEntity<String> entity = new HttpEntity<>(qs, headers);
 
-            ResponseEntity<JsonNode> resp = restTemplate.exchange(QCC_SEARCH_URL, HttpMethod.POST, entity, JsonNode.class);
-            JsonNode body = resp.getBody();
-            if (body == null) {
-                return Optional.empty();
-            }
+        ResponseEntity<JsonNode> resp = restTemplate.exchange(QCC_SEARCH_URL, HttpMethod.POST, entity, JsonNode.class);
+        JsonNode body = resp.getBody();
+        if (body == null) {
+            return Optional.empty();
+        }
 
-            // 解析示意：具体字段名以企查查文档为准，这里做健壮性兜底
-            JsonNode data = body.path("Result");
-            if (data.isArray() && data.size() > 0) {
-                JsonNode first = data.get(0);
-                CompanyDetail detail = new CompanyDetail();
-                detail.setSource("qcc");
-                detail.setName(first.path("Name").asText(name));
-                detail.setUnifiedSocialCreditCode(first.path("CreditCode").asText(""));
-                detail.setLegalPerson(first.path("OperName").asText(""));
-                detail.setRegisteredCapital(first.path("RegistCapi").asText(""));
-                String estDateStr = first.path("StartDate").asText("");
-                if (!estDateStr.isEmpty()) {
-                    try { detail.setEstablishmentDate(LocalDate.parse(estDateStr)); } catch (Exception ignore) {}
-                }
-                detail.setAddress(first.path("Address").asText(address));
-                detail.setBusinessScope(first.path("Scope").asText(""));
-                detail.setPhone(first.path("Phone").asText(""));
-                detail.setEmail(first.path("Email").asText(""));
-                detail.setWebsite(first.path("WebSite").asText(""));
-                return Optional.of(detail);
+        // 解析示意：具体字段名以企查查文档为准，这里做健壮性兜底
+        JsonNode data = body.path("Result");
+        if (data.isArray() && data.size() > 0) {
+            JsonNode first = data.get(0);
+            CompanyDetail detail = new CompanyDetail();
+            detail.setSource("qcc");
+            detail.setName(first.path("Name").asText(name));
+            detail.setUnifiedSocialCreditCode(first.path("CreditCode").asText(""));
+            detail.setLegalPerson(first.path("OperName").asText(""));
+            detail.setRegisteredCapital(first.path("RegistCapi").asText(""));
+            String estDateStr = first.path("StartDate").asText("");
+            if (!estDateStr.isEmpty()) {
+                try { detail.setEstablishmentDate(LocalDate.parse(estDateStr)); } catch (Exception ignore) {}
             }
-            return Optional.empty();
-        } catch (Exception ex) {
-            // 接口不可用或限流时返回空，避免影响主流程
-            return Optional.empty();
+            detail.setAddress(first.path("Address").asText(address));
+            detail.setBusinessScope(first.path("Scope").asText(""));
+            detail.setPhone(first.path("Phone").asText(""));
+            detail.setEmail(first.path("Email").asText(""));
+            detail.setWebsite(first.path("WebSite").asText(""));
+            return Optional.of(detail);
         }
+        return Optional.empty();
     }
 }
\ No newline at end of file
@@ -1,76 +1,298 @@
 package com.example.demo.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import com.example.demo.util.KeywordMatcher;
+import com.example.demo.util.RobotsRules;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
 
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 /**
  * 官网 sitemap 抽取服务（只抽链接）。
+ * <p>
+ * 基于 StAX 流式解析（.xml.gz 或 gzip 内容即时解压），递归跟进 sitemapindex 子文件
+ * （受深度、文档数与 URL 数预算约束），解析时即按招聘关键词过滤 &lt;loc&gt;。
+ * Sitemap 声明取自 {@link CrawlFrontier} 缓存的 robots 规则；各 sitemap 文档经抓取前沿按主机节流，
+ * 并经 {@link HttpResponseCache} 条件 GET 落盘（内容未变化时不重新下载），再从本地文件逐事件解析，
+ * 不把整个文档或全部子 sitemap 读入内存。
+ * </p>
+ * <p>
+ * 取舍：每个文档先完整下载到磁盘再开始解析，下载与解析不重叠——单个文档的耗时是两者之和，
+ * URL 预算提前用完时已下载的剩余部分也白白传输，且解析期间临时文件占用与文档等大的磁盘空间。
+ * 换来的是内容未变化时（304）不再传输正文，且连接在解析前即归还连接池（慢速解析不占用主机并发）。
+ * sitemap 单文件上限 50 MB，这一代价可以接受。
+ * </p>
  */
 @Service
 public class SitemapService {
-    private final RestTemplate rest = new RestTemplate();
+    private final HttpResponseCache responseCache;
+    private final CrawlFrontier frontier;
+    private final KeywordMatcher careerUrlMatcher;
+    private final XMLInputFactory xmlInputFactory;
+
+    /** sitemapindex 递归深度上限（robots 中声明的 sitemap 为第 0 层） */
+    @Value("${sitemap.maxDepth:2}")
+    private int maxDepth;
+
+    /** 单次抽取最多解析的 sitemap 文档数 */
+    @Value("${sitemap.maxDocuments:20}")
+    private int maxDocuments;
+
+    /** 单次抽取最多返回的 URL 数 */
+    @Value("${sitemap.maxUrls:500}")
+    private int maxUrls;
+
+    public SitemapService(HttpResponseCache responseCache,
+                          CrawlFrontier frontier,
+                          @Qualifier("careerUrlMatcher") KeywordMatcher careerUrlMatcher) {
+        this.responseCache = responseCache;
+        this.frontier = frontier;
+        this.careerUrlMatcher = careerUrlMatcher;
+        XMLInputFactory f = XMLInputFactory.newFactory();
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        f.setProperty(XMLInputFactory.IS_COALESCING, true);
+        this.xmlInputFactory = f;
+    }
 
     /**
-     * 尝试读取 robots.txt 找到 Sitemap，再解析 sitemap.xml 抽取 URL。
+     * 读取 robots.txt 中声明的全部 Sitemap（未声明时尝试 /sitemap.xml），流式抽取招聘相关 URL。
+     * <p>
+     * 返回惰性流：按文档逐个下载与解析，消费方停止读取后不再获取剩余文档，调用方应关闭流（try-with-resources）。
+     * 单个文档不存在（4xx）视为没有 URL；其余获取或解析失败（网络异常、5xx、本地限流、XML 错误）会被记录，
+     * 若全部文档读完仍未产出任何 URL，则在流结束时抛出 {@link UncheckedIOException}，
+     * 以免把站点故障当作“没有招聘链接”。
+     * </p>
      *
      * @param domain 公司官网域名，如 https://www.example.com
-     * @return 站点 URL 列表
+     * @return 匹配招聘关键词的站点 URL 流
+     * @throws UncheckedIOException robots.txt 暂不可达或加载失败（调用时），或所有可用文档都失败且没有 URL（消费时）
      */
-    public List<String> extractUrlsFromSitemap(String domain) {
-        try {
-            String robotsUrl = normalize(domain) + "/robots.txt";
-            HttpHeaders h = new HttpHeaders();
-            h.set(HttpHeaders.USER_AGENT, "HireRadar/1.0");
-            ResponseEntity<String> robotsResp = rest.exchange(URI.create(robotsUrl), HttpMethod.GET, new HttpEntity<>(h), String.class);
-            String robots = robotsResp.getBody();
-            if (!StringUtils.hasText(robots)) return List.of();
-            String site = null;
-            for (String line : robots.split("\n")) {
-                line = line.trim();
-                if (line.toLowerCase().startsWith("sitemap:")) {
-                    site = line.substring(8).trim();
-                    break;
-                }
-            }
-            if (!StringUtils.hasText(site)) return List.of();
-            ResponseEntity<String> smResp = rest.exchange(URI.create(site), HttpMethod.GET, new HttpEntity<>(h), String.class);
-            String xml = smResp.getBody();
-            if (!StringUtils.hasText(xml)) return List.of();
-            return parseSitemapXml(xml);
-        } catch (Exception e) {
-            return List.of();
-        }
+    public Stream<String> extractUrlsFromSitemap(String domain) {
+        return extractUrlsFromSitemap(domain, careerUrlMatcher);
+    }
+
+    /**
+     * 同 {@link #extractUrlsFromSitemap(String)}，可指定过滤器。
+     *
+     * @param domain 公司官网域名
+     * @param filter URL 过滤器；为 null 时不过滤
+     * @return 站点 URL 惰性流
+     */
+    public Stream<String> extractUrlsFromSitemap(String domain, KeywordMatcher filter) {
+        List<String> roots = findSitemaps(normalize(domain));
+        if (roots.isEmpty()) return Stream.empty();
+        SitemapIterator it = new SitemapIterator(roots, filter);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(it::close);
     }
 
-    /** 简单解析 sitemap XML 中的 <loc>URL</loc>。 */
-    private List<String> parseSitemapXml(String xml) {
+    /** 从 robots.txt 读取全部 Sitemap 声明（复用抓取前沿缓存的 robots 规则）。 */
+    private List<String> findSitemaps(String base) {
+        URI root = URI.create(base + "/");
+        RobotsRules rules;
         try {
-            var dbf = DocumentBuilderFactory.newInstance();
-            var doc = dbf.newDocumentBuilder().parse(new java.io.ByteArrayInputStream(xml.getBytes()));
-            var nodes = doc.getElementsByTagName("loc");
-            List<String> urls = new ArrayList<>();
-            for (int i = 0; i < nodes.getLength(); i++) {
-                urls.add(nodes.item(i).getTextContent());
-            }
-            return urls;
-        } catch (Exception e) {
-            return List.of();
+            rules = frontier.rules(root).join();
+        } catch (CompletionException e) {
+            throw new UncheckedIOException(new IOException("robots.txt not loaded for " + base, e.getCause()));
+        }
+        if (rules == RobotsRules.DISALLOW_ALL) {
+            // robots.txt 不可达：站点暂不可用，不能据此认定没有 sitemap
+            throw new UncheckedIOException(new CrawlFrontier.RobotsUnavailableException(root));
         }
+        List<String> sitemaps = rules.getSitemaps();
+        if (sitemaps.isEmpty()) {
+            return List.of(base + "/sitemap.xml");
+        }
+        return sitemaps;
     }
 
     private String normalize(String domain) {
         if (domain.startsWith("http")) return domain;
         return "https://" + domain;
     }
-}
\ No newline at end of file
+
+    /**
+     * 惰性 sitemap 迭代器：同一时刻只打开一个文档，边读 StAX 事件边产出 URL；
+     * sitemapindex 子文件按广度优先排队，排队数受剩余文档预算约束（超出的子文件直接丢弃，不再收集）。
+     * 文档失败时继续下一个文档并记下首个异常，全部读完且没有产出时抛出。
+     */
+    private final class SitemapIterator implements Iterator<String>, AutoCloseable {
+        private final Deque<String[]> pending = new ArrayDeque<>(); // {url, depth}
+        private final KeywordMatcher filter;
+        private HttpResponseCache.CachedResponse response;
+        private InputStream body;
+        private XMLStreamReader reader;
+        private int currentDepth;
+        private boolean inIndexEntry;
+        private int documents;
+        private int yielded;
+        private String next;
+        private boolean done;
+        /** 首个失败文档的异常（4xx 不计） */
+        private Exception failure;
+        private int failed;
+
+        private SitemapIterator(List<String> roots, KeywordMatcher filter) {
+            this.filter = filter;
+            for (String r : roots) {
+                if (pending.size() >= maxDocuments) break;
+                pending.add(new String[]{r, "0"});
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) advance();
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String n = next;
+            next = null;
+            return n;
+        }
+
+        private void advance() {
+            while (next == null) {
+                if (yielded >= maxUrls) {
+                    finish();
+                    return;
+                }
+                if (reader == null && !openNext()) {
+                    finish();
+                    if (failed > 0 && yielded == 0) {
+                        throw new UncheckedIOException(new IOException(
+                                failed + " of " + documents + " sitemap documents failed", failure));
+                    }
+                    return;
+                }
+                try {
+                    readUntilLoc();
+                } catch (XMLStreamException | RuntimeException e) {
+                    // 截断或格式错误的文档：保留已产出部分，继续下一个文档
+                    recordFailure(e);
+                    closeCurrent();
+                }
+            }
+        }
+
+        /** 获取下一个排队的文档并打开 StAX 读取器；无可用文档返回 false。 */
+        private boolean openNext() {
+            while (!pending.isEmpty()) {
+                String[] p = pending.poll();
+                documents++;
+                try {
+                    URI uri = URI.create(p[0]);
+                    // robots.txt 声明的 sitemap 视为允许抓取，只按主机节流
+                    response = frontier.submit(uri, false, () -> responseCache.fetch("sitemap", uri)).join();
+                    body = decompressIfGzip(response.openBody());
+                    reader = xmlInputFactory.createXMLStreamReader(body);
+                    currentDepth = Integer.parseInt(p[1]);
+                    inIndexEntry = false;
+                    return true;
+                } catch (Exception e) {
+                    // 单个文档失败不影响其他文档；不存在（4xx）不算失败
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (!(cause instanceof HttpResponseCache.StatusException se && se.getStatus() >= 400 && se.getStatus() < 500)) {
+                        recordFailure(e);
+                    }
+                    closeCurrent();
+                }
+            }
+            return false;
+        }
+
+        /** 读取事件直到产出一个 URL 或文档结束。 */
+        private void readUntilLoc() throws XMLStreamException {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("sitemap".equals(name)) {
+                        inIndexEntry = true;
+                    } else if ("loc".equals(name)) {
+                        String loc = reader.getElementText().trim();
+                        if (loc.isEmpty()) continue;
+                        if (inIndexEntry) {
+                            if (currentDepth < maxDepth && documents + pending.size() < maxDocuments) {
+                                pending.add(new String[]{loc, String.valueOf(currentDepth + 1)});
+                            }
+                        } else if (filter == null || filter.matchesAny(loc)) {
+                            next = loc;
+                            yielded++;
+                            return;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "sitemap".equals(reader.getLocalName())) {
+                    inIndexEntry = false;
+                }
+            }
+            closeCurrent();
+        }
+
+        private void recordFailure(Exception e) {
+            failed++;
+            if (failure == null) failure = e;
+        }
+
+        private void finish() {
+            done = true;
+            pending.clear();
+            closeCurrent();
+        }
+
+        private void closeCurrent() {
+            if (reader != null) {
+                try { reader.close(); } catch (XMLStreamException ignore) {}
+                reader = null;
+            }
+            // XMLStreamReader.close 不关闭底层流
+            if (body != null) {
+                try { body.close(); } catch (IOException ignore) {}
+                body = null;
+            }
+            if (response != null) {
+                response.close();
+                response = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            finish();
+        }
+    }
+
+    /** 按魔数识别 gzip（.xml.gz 通常以 application/x-gzip 返回，而非 Content-Encoding）。 */
+    private static InputStream decompressIfGzip(InputStream in) throws IOException {
+        BufferedInputStream bin = new BufferedInputStream(in, 8192);
+        bin.mark(2);
+        int b1 = bin.read();
+        int b2 = bin.read();
+        bin.reset();
+        return b1 == 0x1f && b2 == 0x8b ? new GZIPInputStream(bin, 8192) : bin;
+    }
+}
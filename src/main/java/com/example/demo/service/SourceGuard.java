@@ -0,0 +1,165 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 数据源熔断与舱壁。
+ * <p>
+ * 每个外部数据源（各 JobCrawler、amap、overpass、qcc、moka）按名称各有一个熔断器与信号量舱壁，
+ * 配置来自 resilience4j.circuitbreaker / resilience4j.bulkhead 的 configs.default 与 instances.&lt;source&gt;。
+ * 熔断打开或舱壁已满时不再发起请求，直接返回该查询最近一次成功的结果（无则返回调用方给定的默认值）；
+ * 调用异常同样计入熔断统计并走兜底，因此被保护的调用应抛出异常而不是自行吞掉；
+ * 本地拒绝（抓取队列已满、执行器饱和、主机连接配额耗尽，见 {@link #isLocalRejection(Throwable)}）
+ * 请求并未到达数据源，只走兜底，不计入熔断失败率。
+ * </p>
+ */
+@Service
+public class SourceGuard {
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    /** 最近一次成功结果：source + 查询键 → 结果 */
+    private final Cache<String, Object> lastGood;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public SourceGuard(CircuitBreakerRegistry circuitBreakers,
+                       BulkheadRegistry bulkheads,
+                       @Value("${resilience.fallback.maxEntries:10000}") long maxEntries,
+                       @Value("${resilience.fallback.ttlMinutes:1440}") long ttlMinutes) {
+        this.circuitBreakers = circuitBreakers;
+        this.bulkheads = bulkheads;
+        this.lastGood = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * 在数据源的熔断器与舱壁保护下执行调用。
+     *
+     * @param source   数据源名称
+     * @param key      查询键（同一键的成功结果用作兜底）；为 null 时不记录兜底结果
+     * @param call     实际调用，失败时应抛出运行时异常
+     * @param fallback 无兜底结果时的默认值
+     * @return 调用结果；熔断、舱壁已满或调用失败时为兜底结果或默认值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T call(String source, String key, Supplier<T> call, T fallback) {
+        CircuitBreaker cb = circuitBreakers.circuitBreaker(source);
+        Bulkhead bh = bulkheads.bulkhead(source);
+        Counters c = counters.computeIfAbsent(source, k -> new Counters());
+        String cacheKey = key != null ? source + "\n" + key : null;
+
+        boolean permitted = false;
+        if (!cb.tryAcquirePermission()) {
+            c.shortCircuited.incrementAndGet();
+        } else if (!bh.tryAcquirePermission()) {
+            cb.releasePermission();
+            c.bulkheadRejected.incrementAndGet();
+        } else {
+            permitted = true;
+        }
+        if (permitted) {
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                cb.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (cacheKey != null && result != null) {
+                    lastGood.put(cacheKey, result);
+                }
+                return result;
+            } catch (RuntimeException e) {
+                if (isLocalRejection(e)) {
+                    cb.releasePermission();
+                    c.localRejected.incrementAndGet();
+                } else {
+                    cb.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                    c.failures.incrementAndGet();
+                }
+            } finally {
+                bh.onComplete();
+            }
+        }
+        Object cached = cacheKey != null ? lastGood.getIfPresent(cacheKey) : null;
+        if (cached != null) {
+            c.fallbackHits.incrementAndGet();
+            return (T) cached;
+        }
+        return fallback;
+    }
+
+    /**
+     * 异常（含 cause 链）是否为本地拒绝：抓取前沿或执行器的 {@link RejectedExecutionException}、
+     * 出站客户端的 {@link OutboundHttpClient.ConnectionLimitException}。这类失败说明本机过载，与数据源是否可用无关。
+     */
+    public static boolean isLocalRejection(Throwable t) {
+        for (int depth = 0; t != null && depth < 16; depth++, t = t.getCause()) {
+            if (t instanceof RejectedExecutionException || t instanceof OutboundHttpClient.ConnectionLimitException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 各数据源的熔断状态、失败率、拒绝次数与舱壁余量。
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> sources = new TreeMap<>();
+        for (CircuitBreaker cb : circuitBreakers.getAllCircuitBreakers()) {
+            String name = cb.getName();
+            CircuitBreaker.Metrics m = cb.getMetrics();
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("state", cb.getState().name());
+            s.put("failureRate", m.getFailureRate());
+            s.put("slowCallRate", m.getSlowCallRate());
+            s.put("bufferedCalls", m.getNumberOfBufferedCalls());
+            s.put("failedCalls", m.getNumberOfFailedCalls());
+            s.put("notPermittedCalls", m.getNumberOfNotPermittedCalls());
+            bulkheads.find(name).ifPresent(bh -> {
+                s.put("bulkheadMaxConcurrent", bh.getBulkheadConfig().getMaxConcurrentCalls());
+                s.put("bulkheadAvailable", bh.getMetrics().getAvailableConcurrentCalls());
+            });
+            Counters c = counters.get(name);
+            if (c != null) {
+                s.put("shortCircuited", c.shortCircuited.get());
+                s.put("bulkheadRejected", c.bulkheadRejected.get());
+                s.put("failures", c.failures.get());
+                s.put("localRejected", c.localRejected.get());
+                s.put("fallbackHits", c.fallbackHits.get());
+            }
+            sources.put(name, s);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("fallbackEntries", lastGood.estimatedSize());
+        out.put("sources", sources);
+        return out;
+    }
+
+    /**
+     * 单个数据源的拒绝与兜底计数。
+     */
+    private static final class Counters {
+        private final AtomicLong shortCircuited = new AtomicLong();
+        private final AtomicLong bulkheadRejected = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong localRejected = new AtomicLong();
+        private final AtomicLong fallbackHits = new AtomicLong();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.example.demo.entity.SyncStateEntity;
+import com.example.demo.mapper.SyncStateMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 增量同步/批处理状态持久化（sync_state 表，按名称一行）。
+ */
+@Profile("db")
+@Service
+public class SyncStateStore {
+    private final SyncStateMapper mapper;
+
+    public SyncStateStore(SyncStateMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * 读取状态；不存在时返回新状态（未持久化）。
+     *
+     * @param name 同步名
+     */
+    public SyncStateEntity load(String name) {
+        SyncStateEntity s = mapper.selectById(name);
+        if (s == null) {
+            s = new SyncStateEntity();
+            s.setName(name);
+        }
+        return s;
+    }
+
+    /**
+     * 保存状态（空值字段同样写入，用于清除续传游标）。
+     */
+    public void save(SyncStateEntity s) {
+        int updated = mapper.update(null, new LambdaUpdateWrapper<SyncStateEntity>()
+                .eq(SyncStateEntity::getName, s.getName())
+                .set(SyncStateEntity::getWatermark, s.getWatermark())
+                .set(SyncStateEntity::getPendingWatermark, s.getPendingWatermark())
+                .set(SyncStateEntity::getCursorPage, s.getCursorPage())
+                .set(SyncStateEntity::getLastChanged, s.getLastChanged())
+                .set(SyncStateEntity::getLastRunAt, s.getLastRunAt())
+                .set(SyncStateEntity::getLastSuccessAt, s.getLastSuccessAt())
+                .set(SyncStateEntity::getSweepId, s.getSweepId()));
+        if (updated == 0) {
+            mapper.insert(s);
+        }
+    }
+
+    /**
+     * 抢占新批次（多节点下只有一个节点成功）。
+     *
+     * @param name     同步名
+     * @param runId    批次 ID（开始时刻毫秒）
+     * @param windowMs 批次时间窗口：上一批开始不足一个窗口时不再开始新批次
+     * @return 是否抢占成功
+     */
+    public boolean claimRun(String name, long runId, long windowMs) {
+        return mapper.claimRun(name, runId, runId - windowMs) > 0;
+    }
+
+    /**
+     * 结束批次（仅当该批次仍是进行中的批次），watermark 记为该批次 ID。
+     *
+     * @param complete 是否全部处理完（是则更新 last_success_at）
+     */
+    public void finishRun(String name, long runId, boolean complete) {
+        LambdaUpdateWrapper<SyncStateEntity> uw = new LambdaUpdateWrapper<SyncStateEntity>()
+                .eq(SyncStateEntity::getName, name)
+                .eq(SyncStateEntity::getPendingWatermark, runId)
+                .set(SyncStateEntity::getWatermark, runId)
+                .set(SyncStateEntity::getPendingWatermark, null);
+        if (complete) {
+            uw.set(SyncStateEntity::getLastSuccessAt, LocalDateTime.now());
+        }
+        mapper.update(null, uw);
+    }
+}
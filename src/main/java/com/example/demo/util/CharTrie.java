@@ -0,0 +1,147 @@
+package com.example.demo.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 只读字符字典树（紧凑数组存储）。
+ * <p>
+ * 构建后按广度优先编号，同一节点的子节点编号连续且按字符升序，查找子节点时在该区间内二分。
+ * 每个节点只占一个 char 边标签与两个 int（子节点起始位置、值），没有对象头与哈希表开销。
+ * 除整键查找外，也可通过 {@link #child(int, char)} 逐字符行走（如从右向左匹配后缀）。线程安全（不可变）。
+ * </p>
+ */
+public final class CharTrie {
+    /** 根节点编号 */
+    public static final int ROOT = 0;
+
+    /** 节点 i 的子节点为 [childStart[i], childStart[i + 1]) */
+    private final int[] childStart;
+    /** 进入节点的边字符 */
+    private final char[] labels;
+    /** 节点值；-1 表示不是键的终点 */
+    private final int[] values;
+
+    private CharTrie(int[] childStart, char[] labels, int[] values) {
+        this.childStart = childStart;
+        this.labels = labels;
+        this.values = values;
+    }
+
+    /**
+     * 整键查找。
+     *
+     * @return 值；不存在返回 -1
+     */
+    public int get(CharSequence key) {
+        int node = ROOT;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        return node >= 0 ? values[node] : -1;
+    }
+
+    /**
+     * 子节点。
+     *
+     * @return 子节点编号；不存在返回 -1
+     */
+    public int child(int node, char c) {
+        int lo = childStart[node];
+        int hi = childStart[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = labels[mid];
+            if (m < c) {
+                lo = mid + 1;
+            } else if (m > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 节点值。
+     *
+     * @return 值；不是键的终点返回 -1
+     */
+    public int value(int node) {
+        return values[node];
+    }
+
+    public int nodeCount() {
+        return values.length;
+    }
+
+    /**
+     * 数组占用的内存（字节）。
+     */
+    public long memoryBytes() {
+        return (long) childStart.length * Integer.BYTES + (long) labels.length * Character.BYTES
+                + (long) values.length * Integer.BYTES;
+    }
+
+    /**
+     * 构建器（非线程安全）。
+     */
+    public static final class Builder {
+        private final Node root = new Node();
+
+        /**
+         * 加入键；同一键重复加入时保留最先加入的值。
+         *
+         * @return 是否加入（键已存在时返回 false）
+         */
+        public boolean add(CharSequence key, int value) {
+            if (value < 0) throw new IllegalArgumentException("value must be >= 0");
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), k -> new Node());
+            }
+            if (node.value >= 0) return false;
+            node.value = value;
+            return true;
+        }
+
+        public CharTrie build() {
+            // 广度优先编号：先数节点
+            int count = 0;
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Node n = queue.poll();
+                count++;
+                queue.addAll(n.children.values());
+            }
+            int[] childStart = new int[count + 1];
+            char[] labels = new char[count];
+            int[] values = new int[count];
+            Arrays.fill(values, -1);
+            queue.add(root);
+            int id = 0;
+            int next = 1;
+            while (!queue.isEmpty()) {
+                Node n = queue.poll();
+                values[id] = n.value;
+                childStart[id] = next;
+                for (Map.Entry<Character, Node> e : n.children.entrySet()) {
+                    labels[next++] = e.getKey();
+                    queue.add(e.getValue());
+                }
+                id++;
+            }
+            childStart[count] = next;
+            return new CharTrie(childStart, labels, values);
+        }
+
+        private static final class Node {
+            private final TreeMap<Character, Node> children = new TreeMap<>();
+            private int value = -1;
+        }
+    }
+}
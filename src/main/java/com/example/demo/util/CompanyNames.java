@@ -0,0 +1,101 @@
+package com.example.demo.util;
+
+/**
+ * 公司名称归一化工具。
+ * <p>
+ * 单次扫描完成：全角转半角、转小写、去掉括号内的地区等限定语、标点与空白视为分隔，
+ * 随后从右向左用预编译的反向后缀字典树剥离末尾的一个法律形式后缀（有限公司、股份有限公司、Co., Ltd. 等，取最长匹配），
+ * 最后去掉分隔。集团、控股、股份、Group、Holdings 等属于名称本身，不剥离，
+ * 否则“华润集团”与“华润控股”、“中信股份”与“中信集团”会得到相同的键。
+ * 英文后缀只在单词边界处剥离（避免 "zinc" 被剥去 "inc"）；剥离后不会变为空。
+ * 结果用作缓存键与索引键。
+ * </p>
+ */
+public class CompanyNames {
+
+    /** 法律形式后缀（只剥离末尾一个；英文多词形式中的空格对应标点或空白分隔，如 "Co., Ltd."） */
+    private static final String[] LEGAL_SUFFIXES = {
+            "股份有限公司", "有限责任公司", "有限公司", "公司",
+            "co", "co ltd", "co limited", "company", "company limited", "corp", "corporation", "inc", "incorporated",
+            "ltd", "limited", "pte ltd", "llc", "plc", "gmbh"
+    };
+
+    /** 反向后缀字典树（键为倒序的后缀，值为后缀长度） */
+    private static final CharTrie SUFFIXES;
+
+    static {
+        CharTrie.Builder b = new CharTrie.Builder();
+        for (String s : LEGAL_SUFFIXES) {
+            b.add(new StringBuilder(s).reverse(), s.length());
+        }
+        SUFFIXES = b.build();
+    }
+
+    /**
+     * 名称归一化（去空白、标点、括号限定语与法律后缀）。
+     *
+     * @param name 公司名
+     * @return 归一化名称；null 返回空字符串
+     */
+    public static String normalize(String name) {
+        if (name == null) return "";
+        int len = name.length();
+        char[] buf = new char[len];
+        int n = 0;
+        for (int i = 0; i < len; i++) {
+            char c = halfWidth(name.charAt(i));
+            if (c == '(' && n > 0) {
+                // 括号内为地区等限定语：有配对的右括号时整体跳过
+                int close = i + 1;
+                while (close < len && halfWidth(name.charAt(close)) != ')') close++;
+                if (close < len) {
+                    i = close;
+                    c = ' ';
+                }
+            }
+            if (Character.isLetterOrDigit(c)) {
+                buf[n++] = Character.toLowerCase(c);
+            } else if (n > 0 && buf[n - 1] != ' ') {
+                buf[n++] = ' ';
+            }
+        }
+        int end = n;
+        while (end > 0 && buf[end - 1] == ' ') end--;
+        int start = legalSuffixStart(buf, end);
+        if (start > 0) end = start;
+        int out = 0;
+        for (int i = 0; i < end; i++) {
+            if (buf[i] != ' ') buf[out++] = buf[i];
+        }
+        return new String(buf, 0, out);
+    }
+
+    /**
+     * 以 end 结尾的最长有效法律后缀的起始位置（保证前面还有内容）。
+     *
+     * @return 起始位置；没有时返回 -1
+     */
+    private static int legalSuffixStart(char[] buf, int end) {
+        int best = -1;
+        int node = CharTrie.ROOT;
+        for (int i = end - 1; i > 0; i--) {
+            node = SUFFIXES.child(node, buf[i]);
+            if (node < 0) break;
+            if (SUFFIXES.value(node) >= 0 && (!isAsciiWordChar(buf[i]) || !isAsciiWordChar(buf[i - 1]))) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isAsciiWordChar(char c) {
+        return c < 128 && Character.isLetterOrDigit(c);
+    }
+
+    /** 全角字符（含全角空格）转半角。 */
+    private static char halfWidth(char c) {
+        if (c >= '！' && c <= '～') return (char) (c - 0xFEE0);
+        if (c == '　') return ' ';
+        return c;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.util;
+
+/**
+ * 可衰减的 Count-Min Sketch（频率估计）。
+ * <p>
+ * depth 行、每行 width 个计数器，每个 key 在每行按独立哈希命中一个计数器；估计值取各行最小值，只会高估不会低估。
+ * 写入采用保守更新（只抬高低于新估计值的计数器），以降低哈希冲突带来的高估。
+ * {@link #decay(double)} 把全部计数器按系数缩小，使旧请求的权重随时间指数衰减。
+ * 内存固定为 depth × width 个 double，与 key 的数量无关。线程安全。
+ * </p>
+ */
+public final class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final double[] counters;
+    private double total;
+
+    /**
+     * @param width 每行计数器数（向上取整为 2 的幂，至少 16）
+     * @param depth 行数（1-8）
+     */
+    public CountMinSketch(int width, int depth) {
+        this.depth = Math.max(1, Math.min(SEEDS.length, depth));
+        this.width = Integer.highestOneBit(Math.max(16, width) - 1) << 1;
+        this.mask = this.width - 1;
+        this.counters = new double[this.depth * this.width];
+    }
+
+    /**
+     * 累加一次并返回累加后的估计值。
+     *
+     * @param key    键
+     * @param weight 权重（&gt; 0）
+     */
+    public synchronized double add(String key, double weight) {
+        int[] idx = indexes(key);
+        double min = Double.MAX_VALUE;
+        for (int i : idx) {
+            min = Math.min(min, counters[i]);
+        }
+        double target = min + weight;
+        for (int i : idx) {
+            if (counters[i] < target) counters[i] = target;
+        }
+        total += weight;
+        return target;
+    }
+
+    /**
+     * 估计值（各行计数器的最小值）。
+     */
+    public synchronized double estimate(String key) {
+        double min = Double.MAX_VALUE;
+        for (int i : indexes(key)) {
+            min = Math.min(min, counters[i]);
+        }
+        return min;
+    }
+
+    /**
+     * 全部计数器乘以 factor（0-1），过小的计数器归零。
+     */
+    public synchronized void decay(double factor) {
+        for (int i = 0; i < counters.length; i++) {
+            double v = counters[i] * factor;
+            counters[i] = v < 1e-3 ? 0 : v;
+        }
+        total *= factor;
+    }
+
+    /**
+     * 衰减后的累计权重。
+     */
+    public synchronized double total() {
+        return total;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * 计数器占用的内存（字节）。
+     */
+    public long memoryBytes() {
+        return (long) counters.length * Double.BYTES;
+    }
+
+    /**
+     * 每行用不同种子的 64 位 MurmurHash 独立计算下标：String.hashCode 相同的 key（如 "Aa" 与 "BB"）不会在所有行上同时冲突。
+     */
+    private int[] indexes(String key) {
+        int[] idx = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            idx[row] = row * width + (int) (murmur64(key, SEEDS[row]) & mask);
+        }
+        return idx;
+    }
+
+    /** MurmurHash64A，按 UTF-16 字符每 4 个一块（8 字节）处理。 */
+    static long murmur64(String key, long seed) {
+        final long m = 0xC6A4A7935BD1E995L;
+        final int r = 47;
+        int len = key.length();
+        long h = seed ^ ((long) len * 2 * m);
+        int blocks = len >>> 2;
+        for (int b = 0; b < blocks; b++) {
+            int i = b << 2;
+            long k = key.charAt(i)
+                    | (long) key.charAt(i + 1) << 16
+                    | (long) key.charAt(i + 2) << 32
+                    | (long) key.charAt(i + 3) << 48;
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h ^= k;
+            h *= m;
+        }
+        int tail = blocks << 2;
+        if (tail < len) {
+            for (int i = tail; i < len; i++) {
+                h ^= (long) key.charAt(i) << (16 * (i - tail));
+            }
+            h *= m;
+        }
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+        return h;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash 编码与圆形区域覆盖。
+ * <p>
+ * 精度 p 的单元格为 5p 位交替的经度/纬度二分（经度位数 ⌈5p/2⌉，纬度位数 ⌊5p/2⌋），
+ * 约为：p=5 → 4.9km × 4.9km，p=6 → 1.2km × 0.6km，p=7 → 153m × 153m（赤道附近，纬度越高经度方向越窄）。
+ * </p>
+ */
+public class GeoHash {
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        java.util.Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) DECODE[BASE32[i]] = i;
+    }
+
+    /**
+     * 编码坐标。
+     *
+     * @param lat       纬度
+     * @param lng       经度
+     * @param precision 字符数（1–12）
+     * @return geohash
+     */
+    public static String encode(double lat, double lng, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        char[] out = new char[precision];
+        boolean even = true;
+        for (int i = 0; i < precision; i++) {
+            int ch = 0;
+            for (int b = 0; b < 5; b++) {
+                if (even) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (lng >= mid) {
+                        ch = (ch << 1) | 1;
+                        minLng = mid;
+                    } else {
+                        ch <<= 1;
+                        maxLng = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (lat >= mid) {
+                        ch = (ch << 1) | 1;
+                        minLat = mid;
+                    } else {
+                        ch <<= 1;
+                        maxLat = mid;
+                    }
+                }
+                even = !even;
+            }
+            out[i] = BASE32[ch];
+        }
+        return new String(out);
+    }
+
+    /**
+     * geohash 转为整数（每字符 5 位）；同一精度下整数顺序与字符串字典序一致，
+     * 且某个较短前缀覆盖的较长 geohash 对应一段连续整数。
+     *
+     * @throws IllegalArgumentException 含非法字符或超过 12 位
+     */
+    public static long toBits(String hash) {
+        if (hash.length() > 12) throw new IllegalArgumentException("geohash too long: " + hash);
+        long bits = 0;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            int v = c < 128 ? DECODE[c] : -1;
+            if (v < 0) throw new IllegalArgumentException("invalid geohash: " + hash);
+            bits = (bits << 5) | v;
+        }
+        return bits;
+    }
+
+    /**
+     * 单元格边界。
+     *
+     * @return [minLat, minLng, maxLat, maxLng]
+     * @throws IllegalArgumentException 含非法字符
+     */
+    public static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        boolean even = true;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            int v = c < 128 ? DECODE[c] : -1;
+            if (v < 0) throw new IllegalArgumentException("invalid geohash: " + hash);
+            for (int b = 4; b >= 0; b--) {
+                int bit = (v >> b) & 1;
+                if (even) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (bit == 1) minLng = mid; else maxLng = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (bit == 1) minLat = mid; else maxLat = mid;
+                }
+                even = !even;
+            }
+        }
+        return new double[]{minLat, minLng, maxLat, maxLng};
+    }
+
+    /**
+     * 单元格高度（纬度度数）。
+     */
+    public static double cellHeight(int precision) {
+        return 180d / (1L << (5 * precision / 2));
+    }
+
+    /**
+     * 单元格宽度（经度度数）。
+     */
+    public static double cellWidth(int precision) {
+        return 360d / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /**
+     * 与圆形区域相交的全部单元格。
+     *
+     * @param lat          圆心纬度
+     * @param lng          圆心经度
+     * @param radiusMeters 半径（米）
+     * @param precision    精度
+     * @return 单元格 geohash（去重，按纬度行、经度列顺序）
+     */
+    public static List<String> cover(double lat, double lng, double radiusMeters, int precision) {
+        double dLat = Math.toDegrees(radiusMeters / 6371000.0);
+        double cos = Math.max(0.01, Math.cos(Math.toRadians(lat)));
+        double dLng = Math.min(180, dLat / cos);
+        double h = cellHeight(precision);
+        double w = cellWidth(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        double minLat = Math.max(-90, lat - dLat);
+        double maxLat = Math.min(90 - 1e-9, lat + dLat);
+        double minLng = lng - dLng;
+        double maxLng = lng + dLng;
+        // 按单元格尺寸步进采样，再补上边界行/列，保证每个相交单元格至少被采样一次
+        for (double y = minLat; ; y = Math.min(maxLat, y + h)) {
+            for (double x = minLng; ; x = Math.min(maxLng, x + w)) {
+                String cell = encode(y, wrapLng(x), precision);
+                if (!cells.contains(cell) && intersects(bounds(cell), lat, lng, radiusMeters)) {
+                    cells.add(cell);
+                }
+                if (x >= maxLng) break;
+            }
+            if (y >= maxLat) break;
+        }
+        return new ArrayList<>(cells);
+    }
+
+    /**
+     * 单元格与圆是否相交（圆心到矩形最近点的距离不超过半径）。
+     */
+    public static boolean intersects(double[] box, double lat, double lng, double radiusMeters) {
+        double nearLat = Math.max(box[0], Math.min(lat, box[2]));
+        double nearLng = Math.max(box[1], Math.min(lng, box[3]));
+        return GeoUtils.haversineMeters(lat, lng, nearLat, nearLng) <= radiusMeters;
+    }
+
+    private static double wrapLng(double x) {
+        if (x < -180) return x + 360;
+        if (x >= 180) return x - 360;
+        return x;
+    }
+}
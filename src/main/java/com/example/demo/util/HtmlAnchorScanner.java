@@ -0,0 +1,343 @@
+package com.example.demo.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+
+/**
+ * 单遍流式 HTML 锚点（A 标签）扫描器。
+ * <p>
+ * 手写状态机逐字符读取 Reader，不缓冲整页、不构建 DOM、不回溯：
+ * 支持双引号/单引号/无引号 href、相对地址解析、实体解码，跳过注释与 script/style 内容；
+ * 锚点内的嵌套标签被忽略，只保留文本（空白折叠）。回调返回 false 时立即停止读取。
+ * </p>
+ * <p>
+ * 实例非线程安全，每次扫描新建（见 {@link #scan(Reader, URI, AnchorHandler)}）。
+ * </p>
+ */
+public final class HtmlAnchorScanner {
+
+    /**
+     * 锚点回调。
+     */
+    @FunctionalInterface
+    public interface AnchorHandler {
+        /**
+         * @param href 解析为绝对地址并解码后的 href
+         * @param text 锚点文本（已去标签、解码、折叠空白）
+         * @return true 继续扫描；false 停止
+         */
+        boolean onAnchor(String href, String text);
+    }
+
+    private static final int MAX_TEXT = 512;
+    private static final int MAX_ATTR = 4096;
+    private static final int MAX_NAME = 32;
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos;
+    private int limit;
+    private final StringBuilder name = new StringBuilder(MAX_NAME);
+    private final StringBuilder attrName = new StringBuilder(MAX_NAME);
+    private final StringBuilder value = new StringBuilder(256);
+    private final StringBuilder text = new StringBuilder(128);
+
+    private HtmlAnchorScanner(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * 扫描流中的 A 标签。
+     *
+     * @param in      HTML 字符流（不负责关闭）
+     * @param base    页面地址，用于解析相对 href；为 null 时保留原值
+     * @param handler 回调
+     * @throws IOException 读取异常
+     */
+    public static void scan(Reader in, URI base, AnchorHandler handler) throws IOException {
+        new HtmlAnchorScanner(in).run(base, handler);
+    }
+
+    /**
+     * 扫描内存中的 HTML 文本。
+     */
+    public static void scan(String html, URI base, AnchorHandler handler) {
+        try {
+            scan(new StringReader(html), base, handler);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void run(URI base, AnchorHandler handler) throws IOException {
+        boolean inAnchor = false;
+        String href = null;
+        int c;
+        while ((c = read()) != -1) {
+            if (c != '<') {
+                if (inAnchor) appendText(c);
+                continue;
+            }
+            c = read();
+            if (c == -1) break;
+            if (c == '!') {
+                skipDeclaration();
+                continue;
+            }
+            boolean closing = c == '/';
+            if (closing) {
+                c = read();
+            }
+            if (!isLetter(c)) {
+                // 非标签的 '<'，按文本处理
+                if (inAnchor) appendText('<');
+                if (c != -1) unread();
+                continue;
+            }
+            readTagName(c);
+            if (closing) {
+                skipToTagEnd();
+                if (inAnchor && isName("a")) {
+                    inAnchor = false;
+                    if (!emit(href, base, handler)) return;
+                }
+                continue;
+            }
+            if (isName("a")) {
+                if (inAnchor && !emit(href, base, handler)) return;
+                href = readAttributes(true);
+                inAnchor = true;
+                text.setLength(0);
+            } else {
+                readAttributes(false);
+                if (isName("script") || isName("style")) {
+                    skipRawText();
+                }
+            }
+        }
+        if (inAnchor) {
+            emit(href, base, handler);
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos >= limit) {
+            limit = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buf[pos++];
+    }
+
+    /** 回退一个字符（仅在 read 返回非 -1 之后调用）。 */
+    private void unread() {
+        pos--;
+    }
+
+    private void readTagName(int first) throws IOException {
+        name.setLength(0);
+        int c = first;
+        while (c != -1 && (isLetter(c) || (c >= '0' && c <= '9') || c == '-' || c == ':')) {
+            if (name.length() < MAX_NAME) name.append(Character.toLowerCase((char) c));
+            c = read();
+        }
+        if (c != -1) unread();
+    }
+
+    private boolean isName(String tag) {
+        return tag.contentEquals(name);
+    }
+
+    /**
+     * 读取属性直到 '>'（已消费）。
+     *
+     * @param wantHref 是否提取 href
+     * @return href 原值（已解码实体）；未提取或不存在返回 null
+     */
+    private String readAttributes(boolean wantHref) throws IOException {
+        String href = null;
+        while (true) {
+            int c = read();
+            while (c != -1 && isSpace(c)) c = read();
+            if (c == -1 || c == '>') return href;
+            if (c == '/') continue;
+            attrName.setLength(0);
+            while (c != -1 && !isSpace(c) && c != '=' && c != '>' && c != '/') {
+                if (attrName.length() < MAX_NAME) attrName.append(Character.toLowerCase((char) c));
+                c = read();
+            }
+            while (c != -1 && isSpace(c)) c = read();
+            if (c == -1) return href;
+            if (c != '=') {
+                // 无值属性
+                unread();
+                continue;
+            }
+            c = read();
+            while (c != -1 && isSpace(c)) c = read();
+            if (c == -1) return href;
+            boolean capture = wantHref && "href".contentEquals(attrName);
+            value.setLength(0);
+            if (c == '"' || c == '\'') {
+                int quote = c;
+                while ((c = read()) != -1 && c != quote) {
+                    if (capture && value.length() < MAX_ATTR) value.append((char) c);
+                }
+            } else {
+                while (c != -1 && !isSpace(c) && c != '>') {
+                    if (capture && value.length() < MAX_ATTR) value.append((char) c);
+                    c = read();
+                }
+                if (c == '>') unread();
+            }
+            if (capture) {
+                href = decodeEntities(value).trim();
+            }
+            if (c == -1) return href;
+        }
+    }
+
+    private void skipToTagEnd() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '>') {
+            // skip
+        }
+    }
+
+    /** 跳过注释（&lt;!-- --&gt;）或声明（&lt;!DOCTYPE&gt;）。 */
+    private void skipDeclaration() throws IOException {
+        int c = read();
+        if (c == '-') {
+            int c2 = read();
+            if (c2 == '-') {
+                int dashes = 0;
+                while ((c = read()) != -1) {
+                    if (c == '>' && dashes >= 2) return;
+                    dashes = c == '-' ? dashes + 1 : 0;
+                }
+                return;
+            }
+            c = c2;
+        }
+        while (c != -1 && c != '>') c = read();
+    }
+
+    /** 跳过 script/style 原始文本，直到对应的结束标签。 */
+    private void skipRawText() throws IOException {
+        String tag = name.toString();
+        int c;
+        while ((c = read()) != -1) {
+            if (c != '<') continue;
+            c = read();
+            if (c != '/') {
+                if (c != -1) unread();
+                continue;
+            }
+            int i = 0;
+            while (i < tag.length() && (c = read()) != -1 && Character.toLowerCase((char) c) == tag.charAt(i)) {
+                i++;
+            }
+            if (i == tag.length()) {
+                skipToTagEnd();
+                return;
+            }
+            if (c == -1) return;
+            unread();
+        }
+    }
+
+    private void appendText(int c) {
+        if (isSpace(c)) {
+            if (text.length() > 0 && text.charAt(text.length() - 1) != ' ') text.append(' ');
+        } else if (text.length() < MAX_TEXT) {
+            text.append((char) c);
+        }
+    }
+
+    private boolean emit(String href, URI base, AnchorHandler handler) {
+        if (href == null || href.isEmpty() || href.startsWith("#")) return true;
+        String lower = href.length() > 11 ? href.substring(0, 11).toLowerCase() : href.toLowerCase();
+        if (lower.startsWith("javascript:") || lower.startsWith("mailto:") || lower.startsWith("tel:")) return true;
+        return handler.onAnchor(resolve(base, href), decodeEntities(text).trim());
+    }
+
+    private static String resolve(URI base, String href) {
+        if (base == null) return href;
+        try {
+            return base.resolve(href.replace(" ", "%20")).toString();
+        } catch (IllegalArgumentException e) {
+            return href;
+        }
+    }
+
+    /**
+     * 解码常见 HTML 实体（命名实体 amp/lt/gt/quot/apos/nbsp 与数字实体）。
+     *
+     * @param s 原文
+     * @return 解码后的文本
+     */
+    public static String decodeEntities(CharSequence s) {
+        int amp = indexOf(s, '&', 0);
+        if (amp < 0) return s.toString();
+        StringBuilder out = new StringBuilder(s.length());
+        int i = 0;
+        while (amp >= 0) {
+            out.append(s, i, amp);
+            int semi = indexOf(s, ';', amp + 1);
+            int decoded = semi > amp + 1 && semi - amp <= 10 ? decodeEntity(s, amp + 1, semi) : -1;
+            if (decoded >= 0) {
+                out.appendCodePoint(decoded);
+                i = semi + 1;
+            } else {
+                out.append('&');
+                i = amp + 1;
+            }
+            amp = indexOf(s, '&', i);
+        }
+        out.append(s, i, s.length());
+        return out.toString();
+    }
+
+    private static int decodeEntity(CharSequence s, int from, int to) {
+        if (s.charAt(from) == '#') {
+            try {
+                boolean hex = to - from > 1 && (s.charAt(from + 1) == 'x' || s.charAt(from + 1) == 'X');
+                String digits = s.subSequence(from + (hex ? 2 : 1), to).toString();
+                int cp = Integer.parseInt(digits, hex ? 16 : 10);
+                return Character.isValidCodePoint(cp) ? cp : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        String n = s.subSequence(from, to).toString();
+        switch (n) {
+            case "amp": return '&';
+            case "lt": return '<';
+            case "gt": return '>';
+            case "quot": return '"';
+            case "apos": return '\'';
+            case "nbsp": return ' ';
+            default: return -1;
+        }
+    }
+
+    private static int indexOf(CharSequence s, char ch, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) == ch) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+}
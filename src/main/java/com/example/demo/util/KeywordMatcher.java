@@ -0,0 +1,175 @@
+package com.example.demo.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 多关键词匹配器（Aho-Corasick 自动机）。
+ * <p>
+ * 构建一次后线程安全、可共享：对文本单遍扫描即可判断是否包含任一关键词，
+ * 匹配时逐字符大小写折叠（ASCII 与 CJK 关键词均适用，无需先整体转小写）。
+ * 每个状态的转移以有序 char 数组 + 二分查找存储，输出集合在构建时沿失败链合并。
+ * </p>
+ */
+public final class KeywordMatcher {
+    private static final int[] NONE = new int[0];
+
+    private final List<String> keywords;
+    /** 各状态的转移字符（有序）与目标状态 */
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    /** 各状态命中的关键词下标（已合并失败链上的输出） */
+    private final int[][] outputs;
+
+    private KeywordMatcher(List<String> keywords, char[][] labels, int[][] targets, int[] fail, int[][] outputs) {
+        this.keywords = keywords;
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * 编译关键词（忽略空白与重复项，按大小写折叠去重）。
+     *
+     * @param keywords 关键词
+     * @return 匹配器
+     */
+    public static KeywordMatcher compile(Collection<String> keywords) {
+        Map<String, String> folded = new LinkedHashMap<>();
+        for (String k : keywords) {
+            if (k == null || k.isBlank()) continue;
+            String t = k.trim();
+            folded.putIfAbsent(fold(t), t);
+        }
+        List<String> originals = List.copyOf(folded.values());
+        List<String> patterns = List.copyOf(folded.keySet());
+
+        // 1. 构建 trie
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        out.add(new ArrayList<>());
+        for (int i = 0; i < patterns.size(); i++) {
+            int state = 0;
+            for (char ch : patterns.get(i).toCharArray()) {
+                Integer next = edges.get(state).get(ch);
+                if (next == null) {
+                    next = edges.size();
+                    edges.get(state).put(ch, next);
+                    edges.add(new TreeMap<>());
+                    out.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            out.get(state).add(i);
+        }
+        int n = edges.size();
+        char[][] labels = new char[n][];
+        int[][] targets = new int[n][];
+        for (int s = 0; s < n; s++) {
+            TreeMap<Character, Integer> e = edges.get(s);
+            labels[s] = new char[e.size()];
+            targets[s] = new int[e.size()];
+            int j = 0;
+            for (Map.Entry<Character, Integer> en : e.entrySet()) {
+                labels[s][j] = en.getKey();
+                targets[s][j] = en.getValue();
+                j++;
+            }
+        }
+
+        // 2. BFS 计算失败链并合并输出
+        int[] fail = new int[n];
+        int[][] outputs = new int[n][];
+        outputs[0] = toArray(out.get(0));
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int t : targets[0]) {
+            fail[t] = 0;
+            queue.add(t);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            int[] own = toArray(out.get(s));
+            int[] inherited = outputs[fail[s]] == null ? NONE : outputs[fail[s]];
+            outputs[s] = merge(own, inherited);
+            for (int j = 0; j < labels[s].length; j++) {
+                char ch = labels[s][j];
+                int t = targets[s][j];
+                int f = fail[s];
+                int next;
+                while ((next = step(labels, targets, f, ch)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[t] = next >= 0 && next != t ? next : 0;
+                queue.add(t);
+            }
+        }
+        return new KeywordMatcher(originals, labels, targets, fail, outputs);
+    }
+
+    /**
+     * 是否包含任一关键词（命中即返回）。
+     */
+    public boolean matchesAny(CharSequence text) {
+        if (text == null || keywords.isEmpty()) return false;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = advance(state, Character.toLowerCase(text.charAt(i)));
+            if (outputs[state].length > 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 编译时使用的关键词（原始写法）。
+     */
+    public List<String> keywords() {
+        return keywords;
+    }
+
+    private int advance(int state, char ch) {
+        while (true) {
+            int next = step(labels, targets, state, ch);
+            if (next >= 0) return next;
+            if (state == 0) return 0;
+            state = fail[state];
+        }
+    }
+
+    private static int step(char[][] labels, int[][] targets, int state, char ch) {
+        int idx = Arrays.binarySearch(labels[state], ch);
+        return idx >= 0 ? targets[state][idx] : -1;
+    }
+
+    private static String fold(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            sb.append(Character.toLowerCase(s.charAt(i)));
+        }
+        return sb.toString();
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        if (list.isEmpty()) return NONE;
+        int[] a = new int[list.size()];
+        for (int i = 0; i < a.length; i++) a[i] = list.get(i);
+        return a;
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        if (b.length == 0) return a;
+        if (a.length == 0) return b;
+        int[] m = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, m, a.length, b.length);
+        return m;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * robots.txt 规则（RFC 9309）。
+ * <p>
+ * 选择与本爬虫 User-Agent 匹配的分组，无匹配时使用 "*" 分组；
+ * Allow/Disallow 按最长匹配生效，长度相同时 Allow 优先，支持 "*" 通配与 "$" 结尾锚定。
+ * 另外保留 Crawl-delay（非标准但被广泛使用）与 Sitemap 声明。实例不可变、线程安全。
+ * </p>
+ */
+public final class RobotsRules {
+    /** 全部允许（robots.txt 不存在或 4xx） */
+    public static final RobotsRules ALLOW_ALL = new RobotsRules(List.of(), -1, List.of());
+    /** 全部禁止（robots.txt 暂不可达，按 RFC 9309 视为完全禁止） */
+    public static final RobotsRules DISALLOW_ALL = new RobotsRules(List.of(new Rule("/", false)), -1, List.of());
+
+    /** RFC 9309 要求至少解析前 500 KiB */
+    private static final int MAX_CHARS = 512 * 1024;
+
+    private record Rule(String pattern, boolean allow) {
+    }
+
+    private final List<Rule> rules;
+    private final double crawlDelaySeconds;
+    private final List<String> sitemaps;
+
+    private RobotsRules(List<Rule> rules, double crawlDelaySeconds, List<String> sitemaps) {
+        this.rules = rules;
+        this.crawlDelaySeconds = crawlDelaySeconds;
+        this.sitemaps = sitemaps;
+    }
+
+    /**
+     * 解析 robots.txt。
+     *
+     * @param in         文本（不负责关闭）
+     * @param agentToken 本爬虫的产品标识（如 hireradar），大小写不敏感
+     * @return 规则
+     * @throws IOException 读取异常
+     */
+    public static RobotsRules parse(Reader in, String agentToken) throws IOException {
+        String token = agentToken.toLowerCase(Locale.ROOT);
+        BufferedReader reader = new BufferedReader(in);
+        List<Rule> specific = new ArrayList<>();
+        List<Rule> wildcard = new ArrayList<>();
+        double specificDelay = -1;
+        double wildcardDelay = -1;
+        boolean specificSeen = false;
+        List<String> sitemaps = new ArrayList<>();
+
+        boolean inAgentLines = false;
+        boolean groupSpecific = false;
+        boolean groupWildcard = false;
+        int read = 0;
+        String line;
+        while ((line = reader.readLine()) != null && read < MAX_CHARS) {
+            read += line.length() + 1;
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            int colon = line.indexOf(':');
+            if (colon < 0) continue;
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            switch (key) {
+                case "user-agent" -> {
+                    if (!inAgentLines) {
+                        groupSpecific = false;
+                        groupWildcard = false;
+                        inAgentLines = true;
+                    }
+                    String ua = value.toLowerCase(Locale.ROOT);
+                    if (ua.equals("*")) {
+                        groupWildcard = true;
+                    } else if (!ua.isEmpty() && (token.startsWith(ua) || ua.startsWith(token))) {
+                        groupSpecific = true;
+                        specificSeen = true;
+                    }
+                }
+                case "allow", "disallow" -> {
+                    inAgentLines = false;
+                    if (value.isEmpty()) continue;
+                    Rule r = new Rule(value, key.equals("allow"));
+                    if (groupSpecific) specific.add(r);
+                    if (groupWildcard) wildcard.add(r);
+                }
+                case "crawl-delay" -> {
+                    inAgentLines = false;
+                    try {
+                        double d = Double.parseDouble(value);
+                        if (d >= 0) {
+                            if (groupSpecific) specificDelay = d;
+                            if (groupWildcard) wildcardDelay = d;
+                        }
+                    } catch (NumberFormatException ignore) {
+                    }
+                }
+                case "sitemap" -> {
+                    if (!value.isEmpty()) sitemaps.add(value);
+                }
+                default -> inAgentLines = false;
+            }
+        }
+        return specificSeen
+                ? new RobotsRules(List.copyOf(specific), specificDelay, List.copyOf(sitemaps))
+                : new RobotsRules(List.copyOf(wildcard), wildcardDelay, List.copyOf(sitemaps));
+    }
+
+    /**
+     * 判断路径是否允许抓取。
+     *
+     * @param pathAndQuery 原始（未解码）路径，可带查询串，如 /jobs?page=2
+     * @return 是否允许
+     */
+    public boolean isAllowed(String pathAndQuery) {
+        if (rules.isEmpty()) return true;
+        String path = pathAndQuery == null || pathAndQuery.isEmpty() ? "/" : pathAndQuery;
+        if (path.equals("/robots.txt")) return true;
+        int bestLen = -1;
+        boolean allowed = true;
+        for (Rule r : rules) {
+            int len = r.pattern().length();
+            if (len < bestLen || (len == bestLen && allowed)) continue;
+            if (matches(r.pattern(), path)) {
+                bestLen = len;
+                allowed = r.allow();
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Crawl-delay（秒）；未声明返回 -1。
+     */
+    public double getCrawlDelaySeconds() {
+        return crawlDelaySeconds;
+    }
+
+    /**
+     * robots.txt 中声明的 Sitemap 地址。
+     */
+    public List<String> getSitemaps() {
+        return sitemaps;
+    }
+
+    /** 前缀匹配，支持 "*"（任意字符序列）与结尾 "$"。 */
+    private static boolean matches(String pattern, String path) {
+        boolean anchored = pattern.endsWith("$");
+        int pEnd = anchored ? pattern.length() - 1 : pattern.length();
+        int p = 0;
+        int s = 0;
+        int starP = -1;
+        int starS = -1;
+        while (s < path.length()) {
+            if (p < pEnd && pattern.charAt(p) == '*') {
+                starP = p++;
+                starS = s;
+            } else if (p < pEnd && pattern.charAt(p) == path.charAt(s)) {
+                p++;
+                s++;
+            } else if (p == pEnd && !anchored) {
+                return true;
+            } else if (starP >= 0) {
+                p = starP + 1;
+                s = ++starS;
+            } else {
+                return false;
+            }
+        }
+        while (p < pEnd && pattern.charAt(p) == '*') p++;
+        return p == pEnd;
+    }
+}
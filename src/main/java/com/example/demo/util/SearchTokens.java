@@ -0,0 +1,65 @@
+package com.example.demo.util;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 检索分词工具。
+ * <p>
+ * 连续的字母/数字按单词切分（转小写），连续的 CJK 字符按二元组（bigram）切分，
+ * 单个 CJK 字符保留为一元组；其余字符视为分隔符。用于内存倒排索引的建立与查询。
+ * </p>
+ */
+public class SearchTokens {
+
+    /**
+     * 切分文本。
+     *
+     * @param text 文本（可为 null）
+     * @return 去重后的词元（保持出现顺序）
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> out = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) return out;
+        String s = text.toLowerCase(Locale.ROOT);
+        int i = 0;
+        int n = s.length();
+        while (i < n) {
+            int cp = s.codePointAt(i);
+            if (isCjk(cp)) {
+                int start = i;
+                while (i < n && isCjk(s.codePointAt(i))) i += Character.charCount(s.codePointAt(i));
+                addBigrams(s.substring(start, i), out);
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < n && !isCjk(s.codePointAt(i)) && Character.isLetterOrDigit(s.codePointAt(i))) {
+                    i += Character.charCount(s.codePointAt(i));
+                }
+                out.add(s.substring(start, i));
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return out;
+    }
+
+    private static void addBigrams(String run, Set<String> out) {
+        int[] cps = run.codePoints().toArray();
+        if (cps.length == 1) {
+            out.add(run);
+            return;
+        }
+        for (int k = 0; k + 1 < cps.length; k++) {
+            out.add(new String(cps, k, 2));
+        }
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.util;
+
+/**
+ * 令牌桶（预约式，GCRA 实现）。
+ * <p>
+ * 按速率匀速产生令牌，最多累积 burst 个。{@link #reserve(long)} 立即为调用方预约一个令牌并返回需等待的时长，
+ * 令牌不足时预约排到未来（等价于令牌变为负数），因此多个调用方可以无锁竞争地按到达顺序排队。
+ * 线程安全。
+ * </p>
+ */
+public final class TokenBucket {
+    private double ratePerSecond;
+    private double burst;
+    /** 理论到达时间：下一个令牌在桶为空时的可用时刻 */
+    private long nextFreeNanos;
+
+    /**
+     * @param ratePerSecond 每秒令牌数（&gt; 0）
+     * @param burst         桶容量（&ge; 1）
+     */
+    public TokenBucket(double ratePerSecond, double burst) {
+        setRate(ratePerSecond, burst);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * 预约一个令牌。
+     *
+     * @param maxWaitNanos 可接受的最长等待；超出时不预约
+     * @return 需等待的纳秒数（0 表示立即可用）；超出最长等待返回 -1
+     */
+    public synchronized long reserve(long maxWaitNanos) {
+        long now = System.nanoTime();
+        long interval = intervalNanos();
+        long tat = Math.max(nextFreeNanos, now);
+        long allowAt = tat - (long) ((burst - 1) * interval);
+        long wait = Math.max(0, allowAt - now);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        nextFreeNanos = tat + interval;
+        return wait;
+    }
+
+    /**
+     * 若此刻预约一个令牌需等待的纳秒数（不预约，用于在多个令牌桶间比较负载）。
+     */
+    public synchronized long peekWaitNanos() {
+        long now = System.nanoTime();
+        long tat = Math.max(nextFreeNanos, now);
+        return Math.max(0, tat - (long) ((burst - 1) * intervalNanos()) - now);
+    }
+
+    /**
+     * 调整速率与容量（已预约的令牌不受影响）。
+     */
+    public synchronized void setRate(double ratePerSecond, double burst) {
+        if (!(ratePerSecond > 0)) throw new IllegalArgumentException("ratePerSecond must be > 0");
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+    }
+
+    public synchronized double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public synchronized double getBurst() {
+        return burst;
+    }
+
+    private long intervalNanos() {
+        return (long) (1_000_000_000L / ratePerSecond);
+    }
+}
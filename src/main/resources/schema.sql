@@ -0,0 +1,78 @@
+-- HireRadar 附加表结构（PostgreSQL）。
+-- 首次部署时手动执行，或设置 spring.sql.init.mode=always 由应用启动时执行。
+
+CREATE TABLE IF NOT EXISTS job_links (
+    id           VARCHAR(64) PRIMARY KEY,
+    company_key  VARCHAR(255) NOT NULL,
+    company_name VARCHAR(255),
+    title        TEXT,
+    url          TEXT NOT NULL,
+    url_key      TEXT NOT NULL,
+    source       VARCHAR(128),
+    description  TEXT,
+    position     INTEGER,
+    collected_at TIMESTAMP,
+    updated_at   TIMESTAMP NOT NULL,
+    CONSTRAINT uk_job_links_company_url UNIQUE (company_key, url_key)
+);
+CREATE INDEX IF NOT EXISTS idx_job_links_updated_at ON job_links (updated_at);
+
+CREATE TABLE IF NOT EXISTS moka_jobs (
+    job_id            VARCHAR(128) PRIMARY KEY,
+    company_key       VARCHAR(255),
+    company_name      VARCHAR(255),
+    title             TEXT,
+    apply_url         TEXT,
+    status            VARCHAR(64),
+    remote_updated_at BIGINT,
+    synced_at         TIMESTAMP NOT NULL,
+    seen_sweep_id     BIGINT
+);
+ALTER TABLE moka_jobs ADD COLUMN IF NOT EXISTS seen_sweep_id BIGINT;
+CREATE INDEX IF NOT EXISTS idx_moka_jobs_company_key ON moka_jobs (company_key);
+
+CREATE TABLE IF NOT EXISTS sync_state (
+    name              VARCHAR(64) PRIMARY KEY,
+    watermark         BIGINT,
+    pending_watermark BIGINT,
+    cursor_page       INTEGER,
+    last_changed      INTEGER,
+    last_run_at       TIMESTAMP,
+    last_success_at   TIMESTAMP,
+    sweep_id          BIGINT
+);
+ALTER TABLE sync_state ADD COLUMN IF NOT EXISTS sweep_id BIGINT;
+
+CREATE TABLE IF NOT EXISTS company_refresh_state (
+    company_key          VARCHAR(255) PRIMARY KEY,
+    company_name         VARCHAR(255) NOT NULL,
+    request_count        BIGINT NOT NULL DEFAULT 0,
+    last_requested_at    TIMESTAMP,
+    last_run_id          BIGINT,
+    last_status          VARCHAR(16),
+    last_duration_ms     BIGINT,
+    last_link_count      INTEGER,
+    consecutive_failures INTEGER NOT NULL DEFAULT 0,
+    consecutive_empty    INTEGER NOT NULL DEFAULT 0,
+    last_refreshed_at    TIMESTAMP
+);
+ALTER TABLE company_refresh_state ADD COLUMN IF NOT EXISTS consecutive_empty INTEGER NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_company_refresh_state_priority
+    ON company_refresh_state (request_count DESC, last_refreshed_at);
+
+CREATE TABLE IF NOT EXISTS crawl_work_items (
+    id          BIGSERIAL PRIMARY KEY,
+    kind        VARCHAR(64) NOT NULL,
+    run_id      BIGINT NOT NULL,
+    seq         BIGINT NOT NULL,
+    item_key    VARCHAR(255) NOT NULL,
+    payload     TEXT,
+    status      VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts    INTEGER NOT NULL DEFAULT 0,
+    lease_owner VARCHAR(128),
+    lease_until TIMESTAMPTZ,
+    outcome     VARCHAR(16),
+    finished_at TIMESTAMPTZ,
+    CONSTRAINT uk_crawl_work_items UNIQUE (kind, run_id, item_key)
+);
+CREATE INDEX IF NOT EXISTS idx_crawl_work_items_lease ON crawl_work_items (kind, run_id, status, seq);
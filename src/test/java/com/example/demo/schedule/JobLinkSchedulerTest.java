@@ -0,0 +1,68 @@
+package com.example.demo.schedule;
+
+import com.example.demo.service.CompanyHotness;
+import com.example.demo.service.JobLinkService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobLinkSchedulerTest {
+
+    private CompanyHotness hotness;
+    private JobLinkScheduler scheduler;
+    private final Set<String> refreshed = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Top-5，半衰期 1 小时、每次衰减 30 分钟
+        hotness = new CompanyHotness(8192, 4, 5, 1, 1_800_000);
+        JobLinkService service = mock(JobLinkService.class);
+        when(service.refreshAhead(anyString(), any(Duration.class))).thenAnswer(inv -> refreshed.add(inv.getArgument(0)));
+        scheduler = new JobLinkScheduler(mock(ObjectProvider.class), mock(ObjectProvider.class), hotness, service);
+        ReflectionTestUtils.setField(scheduler, "refreshAheadMinutes", 30L);
+        ReflectionTestUtils.setField(scheduler, "refreshPerTick", 20);
+        ReflectionTestUtils.setField(scheduler, "minCount", 5.0);
+    }
+
+    private void query(String company, int times) {
+        for (int i = 0; i < times; i++) {
+            hotness.record(company.toLowerCase(), company);
+        }
+    }
+
+    @Test
+    void hotCompaniesAreRefreshedAheadAndColdOnesAreNot() {
+        List<String> hot = List.of("Alpha", "Beta", "Gamma");
+        for (String h : hot) query(h, 50);
+        for (int i = 0; i < 2_000; i++) query("Cold" + i, 1);
+
+        scheduler.refreshAhead();
+        assertThat(refreshed).containsExactlyInAnyOrderElementsOf(hot);
+    }
+
+    @Test
+    void formerlyHotCompaniesAgeOutAfterTrafficMoves() {
+        for (String h : List.of("Alpha", "Beta", "Gamma", "Delta", "Epsilon")) query(h, 20);
+        // 热度转移：旧公司不再被查询，经过几个半衰期后新公司进入 Top-K
+        for (int i = 0; i < 8; i++) hotness.decay();
+        for (String h : List.of("Zeta", "Eta", "Theta")) query(h, 10);
+        for (int i = 0; i < 300; i++) query("Cold" + i, 1);
+
+        scheduler.refreshAhead();
+        assertThat(refreshed).containsExactlyInAnyOrder("Zeta", "Eta", "Theta");
+        assertThat(hotness.topK()).extracting(CompanyHotness.Hot::getCompanyName).contains("Zeta", "Eta", "Theta");
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.schedule;
+
+import com.example.demo.entity.SyncStateEntity;
+import com.example.demo.model.MokaJob;
+import com.example.demo.service.CompanyAliasIndex;
+import com.example.demo.service.MokaCatalog;
+import com.example.demo.service.MokaCatalogStore;
+import com.example.demo.service.MokaService;
+import com.example.demo.service.SyncStateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MokaCatalogSchedulerTest {
+
+    private final SyncStateEntity state = new SyncStateEntity();
+    /** moka_jobs 中各职位的 seen_sweep_id（null 表示未出现过） */
+    private final Map<String, Long> seenSweep = new ConcurrentHashMap<>();
+    private final List<String> removed = new ArrayList<>();
+    private List<MokaJob> remote;
+    private MokaCatalog catalog;
+    private MokaCatalogScheduler scheduler;
+
+    private static MokaJob job(String id) {
+        MokaJob job = new MokaJob();
+        job.setId(id);
+        job.setTitle("职位 " + id);
+        job.setCompanyName("Acme");
+        job.setApplyUrl("https://app.mokahr.com/apply/acme/" + id);
+        job.setStatus("open");
+        job.setUpdatedAt(1000);
+        return job;
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MokaService moka = mock(MokaService.class);
+        when(moka.supportsIncremental()).thenReturn(false);
+        when(moka.getPageSize()).thenReturn(1);
+        // 每页 1 条，超出末页返回空页
+        when(moka.fetchCatalogPage(anyInt(), anyLong())).thenAnswer(inv -> {
+            int page = inv.getArgument(0);
+            List<MokaJob> jobs = page <= remote.size() ? List.of(remote.get(page - 1)) : List.of();
+            return new MokaService.JobPage(jobs, jobs.size(), remote.size());
+        });
+
+        MokaCatalogStore store = mock(MokaCatalogStore.class);
+        doAnswer(inv -> {
+            for (MokaJob j : inv.<Collection<MokaJob>>getArgument(0)) seenSweep.putIfAbsent(j.getId(), -1L);
+            return null;
+        }).when(store).upsert(anyCollection());
+        doAnswer(inv -> {
+            for (String id : inv.<Collection<String>>getArgument(0)) seenSweep.put(id, inv.getArgument(1));
+            return null;
+        }).when(store).markSeen(anyCollection(), anyLong());
+        when(store.findUnseen(anyLong())).thenAnswer(inv -> seenSweep.entrySet().stream()
+                .filter(e -> !e.getValue().equals(inv.getArgument(0)) && !removed.contains(e.getKey()))
+                .map(Map.Entry::getKey).toList());
+        doAnswer(inv -> removed.addAll(inv.getArgument(0))).when(store).markRemoved(anyCollection());
+
+        SyncStateStore syncState = mock(SyncStateStore.class);
+        when(syncState.load(MokaCatalogStore.SYNC_NAME)).thenReturn(state);
+
+        CompanyAliasIndex aliases = mock(CompanyAliasIndex.class);
+        when(aliases.canonicalKey(anyString())).thenAnswer(inv -> inv.<String>getArgument(0).toLowerCase(Locale.ROOT));
+        catalog = new MokaCatalog("closed", aliases);
+        scheduler = new MokaCatalogScheduler(moka, catalog, store, syncState);
+        ReflectionTestUtils.setField(scheduler, "maxPagesPerRun", 2);
+        ReflectionTestUtils.setField(scheduler, "watermarkOverlapMs", 60_000L);
+    }
+
+    @Test
+    void jobsMissingFromASweepResumedAcrossRunsAreMarkedRemoved() {
+        remote = List.of(job("a"), job("b"), job("c"), job("d"));
+        for (int i = 0; i < 3 && state.getLastSuccessAt() == null; i++) {
+            scheduler.sync();
+        }
+        assertThat(catalog.ids()).containsExactlyInAnyOrder("a", "b", "c", "d");
+
+        // d 被删除；每轮只拉 2 页，第二轮从第 3 页续传后完成
+        remote = List.of(job("a"), job("b"), job("c"));
+        scheduler.sync();
+        assertThat(state.getCursorPage()).isEqualTo(3);
+        assertThat(removed).isEmpty();
+        scheduler.sync();
+        assertThat(state.getCursorPage()).isNull();
+        assertThat(state.getSweepId()).isNull();
+        assertThat(removed).containsExactly("d");
+        assertThat(catalog.ids()).containsExactlyInAnyOrder("a", "b", "c");
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AmapKeyPoolTest {
+
+    /** 北京时间 2025-03-01 10:00 */
+    private static final Instant START = Instant.parse("2025-03-01T02:00:00Z");
+
+    /** 可手动拨动的时钟 */
+    static final class MutableClock extends Clock {
+        private volatile Instant now = START;
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final MutableClock clock = new MutableClock();
+
+    private AmapKeyPool pool(String keys, double qps, int dailyQuota) {
+        return new AmapKeyPool(keys, "", qps, dailyQuota, 60, 30, clock);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> keyStats(AmapKeyPool pool, int index) {
+        return ((List<Map<String, Object>>) pool.stats().get("keys")).get(index);
+    }
+
+    @BeforeEach
+    void resetClock() {
+        clock.now = START;
+    }
+
+    @Test
+    void picksTheKeyWithTheShortestTokenWait() {
+        AmapKeyPool pool = pool("key-aaaa-1111,key-bbbb-2222", 1, 0);
+        AmapKeyPool.Lease first = pool.acquire(0);
+        AmapKeyPool.Lease second = pool.acquire(0);
+        assertThat(first.waitNanos()).isZero();
+        assertThat(second.waitNanos()).isZero();
+        assertThat(second.key()).isNotSameAs(first.key());
+        // 两个密钥的令牌都已用完：不接受等待时失败，接受时排到等待最短的密钥
+        assertThatThrownBy(() -> pool.acquire(0)).isInstanceOf(IllegalStateException.class).hasMessageContaining("qps limit");
+        AmapKeyPool.Lease queued = pool.acquire(Duration.ofSeconds(5).toNanos());
+        assertThat(queued.key()).isSameAs(first.key());
+        assertThat(queued.waitNanos()).isPositive();
+        assertThat(pool.stats()).containsEntry("exhausted", 1L);
+    }
+
+    @Test
+    void tiesAreBrokenByInFlightThenDailyUsage() {
+        AmapKeyPool pool = pool("key-aaaa-1111,key-bbbb-2222", 1000, 0);
+        AmapKeyPool.Lease a = pool.acquire(0);
+        AmapKeyPool.Lease b = pool.acquire(0);
+        assertThat(b.key()).isNotSameAs(a.key());
+        pool.release(a.key());
+        // a 已结束、b 仍在进行：选 a
+        assertThat(pool.acquire(0).key()).isSameAs(a.key());
+        pool.release(a.key());
+        pool.release(b.key());
+        // 并发相同：选当日用量较少的 b
+        assertThat(pool.acquire(0).key()).isSameAs(b.key());
+    }
+
+    @Test
+    void quotaErrorQuarantinesUntilBeijingMidnight() {
+        AmapKeyPool pool = pool("key-aaaa-1111", 1000, 0);
+        AmapKeyPool.Lease lease = pool.acquire(0);
+        pool.release(lease.key());
+        pool.reportError(lease.key(), "10003");
+        assertThat(keyStats(pool, 0)).containsEntry("state", "QUARANTINED")
+                .containsEntry("quarantinedUntil", "2025-03-01T16:00:00Z");
+        clock.advance(Duration.ofHours(13));
+        assertThatThrownBy(() -> pool.acquire(0)).isInstanceOf(IllegalStateException.class).hasMessageContaining("quarantined");
+        clock.advance(Duration.ofHours(1));
+        assertThat(pool.acquire(0).key()).isSameAs(lease.key());
+    }
+
+    @Test
+    void throttleAndKeyErrorsUseTheirOwnQuarantine() {
+        AmapKeyPool pool = pool("key-aaaa-1111,key-bbbb-2222", 1000, 0);
+        AmapKeyPool.Key throttled = pool.acquire(0).key();
+        AmapKeyPool.Key invalid = pool.acquire(0).key();
+        pool.reportError(throttled, "10021");
+        pool.reportError(invalid, "10001");
+        assertThatThrownBy(() -> pool.acquire(0)).isInstanceOf(IllegalStateException.class);
+
+        // 限流隔离 60 秒，密钥错误隔离 30 分钟
+        clock.advance(Duration.ofSeconds(61));
+        assertThat(pool.acquire(0).key()).isSameAs(throttled);
+        assertThat(keyStats(pool, 1)).containsEntry("state", "QUARANTINED");
+        clock.advance(Duration.ofMinutes(30));
+        assertThat(keyStats(pool, 1)).containsEntry("state", "HEALTHY");
+        assertThat(pool.stats()).containsEntry("healthy", 2);
+    }
+
+    @Test
+    void unrelatedErrorsDoNotQuarantine() {
+        AmapKeyPool pool = pool("key-aaaa-1111", 1000, 0);
+        AmapKeyPool.Key key = pool.acquire(0).key();
+        pool.reportError(key, "20800");
+        assertThat(keyStats(pool, 0)).containsEntry("state", "HEALTHY").containsEntry("errors", 1L)
+                .containsEntry("lastInfocode", "20800");
+        assertThat(pool.acquire(0).key()).isSameAs(key);
+    }
+
+    @Test
+    void dailyQuotaResetsAtBeijingMidnight() {
+        AmapKeyPool pool = pool("key-aaaa-1111", 1000, 2);
+        pool.acquire(0);
+        pool.acquire(0);
+        assertThatThrownBy(() -> pool.acquire(0)).isInstanceOf(IllegalStateException.class).hasMessageContaining("daily quota");
+        assertThat(keyStats(pool, 0)).containsEntry("state", "QUOTA_EXHAUSTED").containsEntry("usedToday", 2);
+
+        clock.advance(Duration.ofHours(14));
+        assertThat(keyStats(pool, 0)).containsEntry("state", "HEALTHY").containsEntry("usedToday", 0);
+        pool.acquire(0);
+        assertThat(keyStats(pool, 0)).containsEntry("usedToday", 1);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import com.example.demo.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AmapServiceTest {
+
+    @Test
+    void subCirclesCoverTheWholeCircle() {
+        Random random = new Random(3);
+        double[][] origins = {{31.2304, 121.4737}, {39.9042, 116.4074}, {45.75, 126.65}, {22.5431, 114.0579}};
+        for (double[] o : origins) {
+            for (int radius : new int[]{3001, 5000, 20_000, 50_000}) {
+                List<double[]> centers = AmapService.splitCenters(o[0], o[1], radius);
+                int subRadius = AmapService.splitRadius(radius);
+                assertThat(centers).hasSize(7);
+                for (int i = 0; i < 20_000; i++) {
+                    // 圆内均匀取点，外加圆周上的点（最容易漏掉的位置）
+                    double r = i % 4 == 0 ? radius : radius * Math.sqrt(random.nextDouble());
+                    double bearing = random.nextDouble() * 2 * Math.PI;
+                    double lat = o[0] + Math.toDegrees(r * Math.cos(bearing) / 6371000.0);
+                    double lng = o[1] + Math.toDegrees(r * Math.sin(bearing) / 6371000.0) / Math.cos(Math.toRadians(o[0]));
+                    if (GeoUtils.haversineMeters(o[0], o[1], lat, lng) > radius) continue;
+                    double nearest = Double.MAX_VALUE;
+                    for (double[] c : centers) {
+                        nearest = Math.min(nearest, GeoUtils.haversineMeters(c[0], c[1], lat, lng));
+                    }
+                    assertThat(nearest).as("radius %d at %s,%s", radius, lat, lng).isLessThanOrEqualTo(subRadius);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CrawlWorkItemEntity;
+import com.example.demo.model.JobLink;
+import com.example.demo.model.JobSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkRefreshServiceTest {
+
+    private static final String KIND = BulkRefreshService.SYNC_NAME;
+
+    private JobLinkService jobLinkService;
+    private CompanyRefreshStore store;
+    private CrawlWorkQueue queue;
+    private BulkRefreshService service;
+    /** 队列中的公司名（按入队顺序） */
+    private final List<String> items = new ArrayList<>();
+    /** 公司 → recordOutcome 记录的结果 */
+    private final Map<String, String> outcomes = new ConcurrentHashMap<>();
+    /** drain 处理的批次 ID */
+    private final List<Long> drained = new ArrayList<>();
+
+    private static JobSearchResult result(int links, boolean partial, List<String> unavailable) {
+        List<JobLink> list = new ArrayList<>();
+        for (int i = 0; i < links; i++) {
+            JobLink jl = new JobLink();
+            jl.setUrl("https://example.com/jobs/" + i);
+            list.add(jl);
+        }
+        JobSearchResult r = new JobSearchResult(list, partial ? List.of("site") : List.of(), partial);
+        r.setUnavailableSources(unavailable);
+        return r;
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        jobLinkService = mock(JobLinkService.class);
+        store = mock(CompanyRefreshStore.class);
+        queue = mock(CrawlWorkQueue.class);
+        // 单节点：drain 依次处理全部工作项
+        when(queue.drain(eq(KIND), anyLong(), anyLong(), anyInt(), any(Function.class))).thenAnswer(inv -> {
+            drained.add(inv.getArgument(1));
+            Function<CrawlWorkItemEntity, String> worker = inv.getArgument(4);
+            for (String name : items) {
+                CrawlWorkItemEntity item = new CrawlWorkItemEntity();
+                item.setItemKey(name.toLowerCase());
+                item.setPayload(name);
+                worker.apply(item);
+            }
+            return true;
+        });
+        when(queue.startRun(eq(KIND), anyLong(), any(LongConsumer.class))).thenAnswer(inv -> {
+            long runId = System.currentTimeMillis();
+            inv.<LongConsumer>getArgument(2).accept(runId);
+            return runId;
+        });
+        doAnswer(inv -> outcomes.put(inv.getArgument(0), inv.getArgument(2)))
+                .when(store).recordOutcome(anyString(), anyLong(), anyString(), anyLong(), anyInt());
+
+        service = new BulkRefreshService(jobLinkService, store, queue);
+        ReflectionTestUtils.setField(service, "concurrency", 4);
+        ReflectionTestUtils.setField(service, "windowMinutes", 240L);
+        ReflectionTestUtils.setField(service, "companyTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(service, "maxFailures", 3);
+        ReflectionTestUtils.setField(service, "seedNames", "Acme");
+    }
+
+    @Test
+    void eachCompanyIsClassifiedByItsRefreshResult() {
+        items.addAll(List.of("Ok", "Partial", "Unavailable", "Empty", "TimedOut", "Busy", "Broken"));
+        when(jobLinkService.refresh(eq("Ok"), anyLong())).thenReturn(result(2, false, List.of()));
+        when(jobLinkService.refresh(eq("Partial"), anyLong())).thenReturn(result(2, true, List.of()));
+        when(jobLinkService.refresh(eq("Unavailable"), anyLong())).thenReturn(result(1, false, List.of("moka")));
+        when(jobLinkService.refresh(eq("Empty"), anyLong())).thenReturn(result(0, false, List.of()));
+        // 无链接但有数据源超时：失败而不是“确实没有”
+        when(jobLinkService.refresh(eq("TimedOut"), anyLong())).thenReturn(result(0, true, List.of()));
+        // 已有刷新在执行
+        when(jobLinkService.refresh(eq("Busy"), anyLong())).thenReturn(null);
+        when(jobLinkService.refresh(eq("Broken"), anyLong())).thenThrow(new IllegalStateException("boom"));
+
+        service.run();
+
+        assertThat(outcomes).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "ok", "OK", "partial", "PARTIAL", "unavailable", "PARTIAL", "empty", "EMPTY",
+                "timedout", "FAILED", "busy", "SKIPPED", "broken", "FAILED"));
+        assertThat(service.stats()).containsEntry("done", 7L).containsEntry("ok", 1L).containsEntry("partial", 2L)
+                .containsEntry("empty", 1L).containsEntry("failed", 2L).containsEntry("skipped", 1L)
+                .containsEntry("running", false);
+        verify(store).enqueue(eq(KIND), anyLong(), eq(3));
+        verify(queue).finishRun(eq(KIND), eq(drained.get(0)), eq(true));
+    }
+
+    @Test
+    void resumeJoinsTheActiveRunWithoutStartingANewOne() throws Exception {
+        items.add("Acme");
+        when(jobLinkService.refresh(eq("Acme"), anyLong())).thenReturn(result(1, false, List.of()));
+        long active = System.currentTimeMillis() - 60_000;
+        when(queue.activeRun(eq(KIND), anyLong())).thenReturn(active);
+
+        service.resume();
+
+        assertThat(drained).containsExactly(active);
+        assertThat(outcomes).containsEntry("acme", "OK");
+        assertThat(service.stats()).containsEntry("runId", active);
+        verify(queue, never()).startRun(anyString(), anyLong(), any(LongConsumer.class));
+        verify(store, never()).flushRequests();
+        verify(store, never()).enqueue(anyString(), anyLong(), anyInt());
+        verify(queue).finishRun(KIND, active, true);
+    }
+
+    @Test
+    void resumeWithoutAnActiveRunDoesNothing() throws Exception {
+        when(queue.activeRun(eq(KIND), anyLong())).thenReturn(null);
+
+        service.resume();
+
+        assertThat(drained).isEmpty();
+        verify(queue, never()).startRun(anyString(), anyLong(), any(LongConsumer.class));
+        verify(queue, never()).finishRun(anyString(), anyLong(), anyBoolean());
+        verify(jobLinkService, never()).refresh(anyString(), anyLong());
+    }
+
+    @Test
+    void runPastTheWindowIsLeftUnfinishedForTheNextBatch() throws Exception {
+        long active = System.currentTimeMillis() - 60_000;
+        when(queue.activeRun(eq(KIND), anyLong())).thenReturn(active);
+        when(queue.drain(eq(KIND), eq(active), anyLong(), anyInt(), any())).thenReturn(false);
+
+        service.resume();
+
+        verify(queue).finishRun(KIND, active, false);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CrawlFrontierTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private URI base;
+    private final AtomicInteger robotsHits = new AtomicInteger();
+    private volatile int robotsStatus = 200;
+    private volatile String robotsBody = "User-agent: *\nDisallow: /private\n";
+    private OutboundHttpClient http;
+    private CrawlFrontier frontier;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/robots.txt", ex -> {
+            robotsHits.incrementAndGet();
+            if (robotsStatus != 200) {
+                ex.sendResponseHeaders(robotsStatus, -1);
+                ex.close();
+                return;
+            }
+            byte[] b = robotsBody.getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(200, b.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(b);
+            }
+        });
+        server.createContext("/slow", ex -> {
+            ex.sendResponseHeaders(200, 0);
+            // 保持连接占用主机配额，直到测试关闭服务
+        });
+        server.start();
+        base = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("http.client.maxConnectionsPerHost", "1")
+                .withProperty("http.client.acquireTimeoutMs", "100");
+        http = new OutboundHttpClient(env);
+        frontier = TestFrontiers.create(new HttpResponseCache(http, dir.toString(), 1 << 20, 0, 100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private Object submit(String path) {
+        return frontier.submit(base.resolve(path), true, () -> "ok").join();
+    }
+
+    @Test
+    void disallowFromRobotsIsEnforced() {
+        assertThat(submit("/jobs")).isEqualTo("ok");
+        assertThatThrownBy(() -> submit("/private/x")).hasCauseInstanceOf(CrawlFrontier.DisallowedException.class);
+        assertThat(robotsHits).hasValue(1);
+    }
+
+    @Test
+    void missingRobotsAllowsEverything() {
+        robotsStatus = 404;
+        assertThat(submit("/private/x")).isEqualTo("ok");
+    }
+
+    @Test
+    void siteWideDisallowIsNotReportedAsUnavailable() {
+        robotsBody = "User-agent: *\nDisallow: /\n";
+        assertThatThrownBy(() -> submit("/jobs")).hasCauseInstanceOf(CrawlFrontier.DisallowedException.class);
+    }
+
+    @Test
+    void serverErrorBlocksAsUnavailableAndIsCachedBriefly() {
+        robotsStatus = 503;
+        assertThatThrownBy(() -> submit("/jobs")).hasCauseInstanceOf(CrawlFrontier.RobotsUnavailableException.class);
+        robotsStatus = 200;
+        assertThatThrownBy(() -> submit("/jobs")).hasCauseInstanceOf(CrawlFrontier.RobotsUnavailableException.class);
+        assertThat(robotsHits).hasValue(1);
+        // 不校验 robots 的请求（sitemap、链接探测）不受影响
+        assertThat(frontier.submit(base.resolve("/jobs"), false, () -> "ok").join()).isEqualTo("ok");
+    }
+
+    @Test
+    void unreachableHostBlocksAsUnavailable() throws IOException {
+        int port;
+        try (ServerSocket s = new ServerSocket(0)) {
+            port = s.getLocalPort();
+        }
+        URI dead = URI.create("http://127.0.0.1:" + port + "/jobs");
+        assertThatThrownBy(() -> frontier.submit(dead, true, () -> "ok").join())
+                .hasCauseInstanceOf(CrawlFrontier.RobotsUnavailableException.class);
+    }
+
+    @Test
+    void localConnectionLimitFailsOnlyThatRequestAndIsNotCached() throws IOException {
+        // 占住唯一的主机连接配额，robots.txt 取不到配额
+        ClientHttpResponse held = http.open("test", base.resolve("/slow"), HttpMethod.GET, null);
+        try {
+            assertThatThrownBy(() -> submit("/jobs"))
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(OutboundHttpClient.ConnectionLimitException.class);
+            assertThat(robotsHits).hasValue(0);
+        } finally {
+            held.close();
+        }
+        assertThat(submit("/jobs")).isEqualTo("ok");
+        assertThat(robotsHits).hasValue(1);
+    }
+
+    @Test
+    void backgroundWorkDoesNotReserveTheHostFarAhead() {
+        robotsStatus = 404;
+        ReflectionTestUtils.setField(frontier, "hostRatePerSecond", 20.0);
+        ReflectionTestUtils.setField(frontier, "hostBurst", 1.0);
+        ReflectionTestUtils.setField(frontier, "backgroundReserveAheadMs", 100L);
+        URI uri = base.resolve("/jobs");
+        // 先载入 robots 规则，之后的提交按调用顺序排队
+        assertThat(frontier.submit(uri, false, () -> "ok").join()).isEqualTo("ok");
+        List<CompletableFuture<Object>> probes = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            probes.add(frontier.submitBackground(uri, false, Duration.ofMinutes(1), () -> "probe"));
+        }
+        // 40 个探测需约 2 秒；若一次性预约，交互请求在 500ms 内排不上
+        assertThat(frontier.submit(uri, false, Duration.ofMillis(500), () -> "ok").join()).isEqualTo("ok");
+        assertThat(probes).allSatisfy(f -> assertThat(f.join()).isEqualTo("probe"));
+    }
+}
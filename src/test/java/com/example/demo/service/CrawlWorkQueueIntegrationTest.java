@@ -0,0 +1,186 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.example.demo.entity.CrawlWorkItemEntity;
+import com.example.demo.mapper.CrawlWorkItemMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * crawl_work_items / sync_state 在真实 PostgreSQL 上的并发语义（需要 Docker，否则跳过）。
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.sql.init.mode=always")
+@ActiveProfiles("db")
+class CrawlWorkQueueIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    CrawlWorkItemMapper mapper;
+
+    @Autowired
+    SyncStateStore syncState;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    private void enqueue(String kind, long runId, int count) {
+        for (int i = 0; i < count; i++) {
+            CrawlWorkItemEntity e = new CrawlWorkItemEntity();
+            e.setKind(kind);
+            e.setRunId(runId);
+            e.setSeq((long) i);
+            e.setItemKey("item-" + i);
+            mapper.insert(e);
+        }
+    }
+
+    private CrawlWorkQueue queue(String nodeId, long leaseSeconds) {
+        CrawlWorkQueue q = new CrawlWorkQueue(mapper, syncState, tx, nodeId);
+        ReflectionTestUtils.setField(q, "leaseSeconds", leaseSeconds);
+        ReflectionTestUtils.setField(q, "maxAttempts", 3);
+        ReflectionTestUtils.setField(q, "pollMs", 50L);
+        return q;
+    }
+
+    private static <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> f : futures) results.add(f.get());
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentLeasesNeverHandOutTheSameItemTwice() throws Exception {
+        String kind = "it-skip-locked";
+        enqueue(kind, 1L, 200);
+        AtomicInteger owners = new AtomicInteger();
+        List<List<Long>> leased = runConcurrently(8, () -> {
+            String owner = "node-" + owners.incrementAndGet();
+            List<Long> ids = new ArrayList<>();
+            List<CrawlWorkItemEntity> batch;
+            while (!(batch = mapper.lease(kind, 1L, owner, 60, 3, 7)).isEmpty()) {
+                batch.forEach(item -> ids.add(item.getId()));
+            }
+            return ids;
+        });
+        List<Long> all = leased.stream().flatMap(List::stream).toList();
+        assertThat(all).hasSize(200).doesNotHaveDuplicates();
+        assertThat(mapper.selectList(new LambdaQueryWrapper<CrawlWorkItemEntity>().eq(CrawlWorkItemEntity::getKind, kind)))
+                .allSatisfy(item -> {
+                    assertThat(item.getStatus()).isEqualTo("LEASED");
+                    assertThat(item.getAttempts()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    void expiredLeaseIsReclaimedAndStaleOwnerCannotComplete() throws Exception {
+        String kind = "it-expiry";
+        enqueue(kind, 1L, 3);
+        List<CrawlWorkItemEntity> first = mapper.lease(kind, 1L, "node-a", 1, 2, 10);
+        assertThat(first).hasSize(3);
+        // 租约未过期：其他节点领取不到，但仍计为未完成
+        assertThat(mapper.lease(kind, 1L, "node-b", 1, 2, 10)).isEmpty();
+        assertThat(mapper.countRemaining(kind, 1L, 2)).isEqualTo(3);
+
+        Thread.sleep(1500);
+        List<CrawlWorkItemEntity> reclaimed = mapper.lease(kind, 1L, "node-b", 1, 2, 10);
+        assertThat(reclaimed).hasSize(3).allSatisfy(item -> {
+            assertThat(item.getLeaseOwner()).isEqualTo("node-b");
+            assertThat(item.getAttempts()).isEqualTo(2);
+        });
+        // 原持有者的租约已被接手，完成标记无效
+        assertThat(mapper.complete(first.get(0).getId(), "node-a", "OK")).isZero();
+        assertThat(mapper.complete(reclaimed.get(0).getId(), "node-b", "OK")).isEqualTo(1);
+
+        // 重试次数耗尽且租约过期后放弃，批次视为处理完
+        Thread.sleep(1500);
+        assertThat(mapper.lease(kind, 1L, "node-c", 1, 2, 10)).isEmpty();
+        assertThat(mapper.countRemaining(kind, 1L, 2)).isZero();
+    }
+
+    @Test
+    void heartbeatKeepsLeaseAlive() throws Exception {
+        String kind = "it-heartbeat";
+        enqueue(kind, 1L, 1);
+        assertThat(mapper.lease(kind, 1L, "node-a", 1, 3, 10)).hasSize(1);
+        Thread.sleep(700);
+        assertThat(mapper.extendLeases("node-a", 60)).isEqualTo(1);
+        Thread.sleep(700);
+        assertThat(mapper.lease(kind, 1L, "node-b", 1, 3, 10)).isEmpty();
+    }
+
+    @Test
+    void onlyOneNodeClaimsARun() throws Exception {
+        String kind = "it-claim";
+        long runId = System.currentTimeMillis();
+        long windowMs = 60_000;
+        AtomicInteger offset = new AtomicInteger();
+        List<Boolean> claims = runConcurrently(8, () -> syncState.claimRun(kind, runId + offset.getAndIncrement(), windowMs));
+        assertThat(claims).containsOnlyOnce(true);
+
+        // 窗口内不再开始新批次；上一批结束后同样要等满一个窗口
+        assertThat(syncState.claimRun(kind, runId + windowMs - 1_000, windowMs)).isFalse();
+        Long claimed = syncState.load(kind).getPendingWatermark();
+        syncState.finishRun(kind, claimed, true);
+        assertThat(syncState.claimRun(kind, claimed + windowMs - 1, windowMs)).isFalse();
+        assertThat(syncState.claimRun(kind, claimed + windowMs + 1, windowMs)).isTrue();
+    }
+
+    @Test
+    void twoNodesDrainARunExactlyOnce() throws Exception {
+        String kind = "it-drain";
+        CrawlWorkQueue a = queue("node-a", 60);
+        CrawlWorkQueue b = queue("node-b", 60);
+        List<Long> runIds = runConcurrently(2, () -> a.startRun(kind, 60_000, id -> enqueue(kind, id, 50)));
+        assertThat(runIds.get(0)).isNotNull().isEqualTo(runIds.get(1));
+        long runId = runIds.get(0);
+
+        Map<String, AtomicInteger> processed = new ConcurrentHashMap<>();
+        AtomicInteger node = new AtomicInteger();
+        List<Boolean> done = runConcurrently(2, () -> (node.getAndIncrement() == 0 ? a : b)
+                .drain(kind, runId, System.currentTimeMillis() + 30_000, 4, item -> {
+                    processed.computeIfAbsent(item.getItemKey(), k -> new AtomicInteger()).incrementAndGet();
+                    return "OK";
+                }));
+        assertThat(done).containsOnly(true);
+        assertThat(processed).hasSize(50).allSatisfy((k, n) -> assertThat(n).hasValue(1));
+    }
+}
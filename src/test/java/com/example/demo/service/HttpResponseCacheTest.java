@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpResponseCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile String cacheControl = "max-age=60";
+    private volatile String body = "v1";
+
+    private HttpResponseCache cache;
+    private URI base;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/doc", ex -> {
+            hits.incrementAndGet();
+            String etag = "\"" + body + "\"";
+            ex.getResponseHeaders().set("Cache-Control", cacheControl);
+            ex.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+                ex.sendResponseHeaders(304, -1);
+                ex.close();
+                return;
+            }
+            byte[] b = body.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            ex.sendResponseHeaders(200, b.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(b);
+            }
+        });
+        server.createContext("/other/doc", ex -> {
+            byte[] b = body.getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(200, b.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(b);
+            }
+        });
+        server.createContext("/missing", ex -> {
+            ex.sendResponseHeaders(404, -1);
+            ex.close();
+        });
+        server.start();
+        base = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        cache = new HttpResponseCache(new OutboundHttpClient(new MockEnvironment()), dir.toString(), 1 << 20, 300, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.map(p -> p.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void freshWithinMaxAgeAcrossRestart() throws IOException {
+        URI uri = base.resolve("/doc");
+        try (HttpResponseCache.CachedResponse r = cache.fetch("test", uri)) {
+            assertThat(r.getOutcome()).isEqualTo(HttpResponseCache.Outcome.FETCHED);
+            assertThat(r.bodyAsString()).isEqualTo("v1");
+        }
+        try (HttpResponseCache.CachedResponse r = cache.fetch("test", uri)) {
+            assertThat(r.getOutcome()).isEqualTo(HttpResponseCache.Outcome.FRESH);
+            assertThat(r.bodyAsString()).isEqualTo("v1");
+        }
+        assertThat(hits).hasValue(1);
+        assertThat(files()).hasSize(2).allMatch(f -> f.endsWith(".body") || f.endsWith(".meta"));
+
+        cache = new HttpResponseCache(new OutboundHttpClient(new MockEnvironment()), dir.toString(), 1 << 20, 300, 100);
+        try (HttpResponseCache.CachedResponse r = cache.fetch("test", uri)) {
+            // 重启后从磁盘载入索引，仍在 max-age=60 内
+            assertThat(r.getOutcome()).isEqualTo(HttpResponseCache.Outcome.FRESH);
+        }
+    }
+
+    @Test
+    void notModifiedReusesParseResult() throws IOException {
+        cacheControl = "no-cache";
+        URI uri = base.resolve("/doc");
+        AtomicInteger parses = new AtomicInteger();
+        HttpResponseCache.BodyParser<String> parser = r -> {
+            parses.incrementAndGet();
+            return r.bodyAsString().toUpperCase();
+        };
+        assertThat(cache.fetchParsed("test", uri, "upper", parser)).isEqualTo("V1");
+        assertThat(cache.fetchParsed("test", uri, "upper", parser)).isEqualTo("V1");
+        assertThat(hits).hasValue(2);
+        assertThat(parses).hasValue(1);
+        assertThat(cache.stats()).containsEntry("notModifiedCount", 1L);
+    }
+
+    @Test
+    void noStoreBodyIsDeletedOnClose() throws IOException {
+        cacheControl = "no-store";
+        URI uri = base.resolve("/doc");
+        HttpResponseCache.CachedResponse r = cache.fetch("test", uri);
+        assertThat(r.isTemporary()).isTrue();
+        assertThat(r.bodyAsString()).isEqualTo("v1");
+        assertThat(files()).singleElement().satisfies(f -> assertThat(f).endsWith(".tmp"));
+        r.close();
+        assertThat(files()).isEmpty();
+        assertThat(cache.stats()).containsEntry("entries", 0L);
+    }
+
+    @Test
+    void noStoreDropsPreviouslyCachedCopyAndParseResult() throws IOException {
+        URI uri = base.resolve("/doc");
+        AtomicInteger parses = new AtomicInteger();
+        HttpResponseCache.BodyParser<String> parser = r -> {
+            parses.incrementAndGet();
+            return r.bodyAsString();
+        };
+        cacheControl = "no-cache";
+        assertThat(cache.fetchParsed("test", uri, "raw", parser)).isEqualTo("v1");
+        assertThat(files()).hasSize(2);
+
+        cacheControl = "no-store";
+        body = "v2";
+        assertThat(cache.fetchParsed("test", uri, "raw", parser)).isEqualTo("v2");
+        assertThat(cache.fetchParsed("test", uri, "raw", parser)).isEqualTo("v2");
+        assertThat(files()).isEmpty();
+        // no-store 的内容每次重新下载与解析
+        assertThat(hits).hasValue(3);
+        assertThat(parses).hasValue(3);
+    }
+
+    @Test
+    void errorStatusThrowsAndLeavesNothing() throws IOException {
+        assertThatThrownBy(() -> cache.fetch("test", base.resolve("/missing")))
+                .isInstanceOfSatisfying(HttpResponseCache.StatusException.class, e -> assertThat(e.getStatus()).isEqualTo(404));
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void parseResultIsNotSharedBetweenAddressesWithTheSameBody() throws IOException {
+        HttpResponseCache.BodyParser<String> resolve = r -> r.getUri().resolve(r.bodyAsString()).toString();
+        // 两个地址内容相同，相对链接的解析结果不同
+        assertThat(cache.fetchParsed("test", base.resolve("/doc"), "link", resolve)).isEqualTo(base + "/v1");
+        assertThat(cache.fetchParsed("test", base.resolve("/other/doc"), "link", resolve)).isEqualTo(base + "/other/v1");
+    }
+
+    @Test
+    void bodyEvictedRightAfterFetchIsStillReadable() throws IOException, InterruptedException {
+        body = "x".repeat(4096);
+        cache = new HttpResponseCache(new OutboundHttpClient(new MockEnvironment()), dir.toString(), 1024, 300, 100);
+        try (HttpResponseCache.CachedResponse r = cache.fetch("test", base.resolve("/doc"))) {
+            // 超出容量的响应体写入后即被（异步）淘汰并删除文件
+            for (int i = 0; i < 100 && !files().isEmpty(); i++) {
+                Thread.sleep(20);
+            }
+            assertThat(files()).isEmpty();
+            assertThat(r.bodyAsString()).isEqualTo(body);
+            assertThat(r.bodyAsString()).isEqualTo(body);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.service;
+
+import com.example.demo.model.JobLinkBatch;
+import com.example.demo.model.JobSearchResult;
+import com.example.demo.util.KeywordMatcher;
+import com.example.demo.util.UrlUtils;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 无结果负缓存只记录所有数据源都真正抓取并解析过的公司。
+ */
+class JobLinkServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private String base;
+    private String site;
+    private volatile int robotsStatus = 404;
+    private volatile int sitemapStatus = 404;
+    private volatile String sitemapPath = "/about";
+    private volatile String searchPage = "<html><body><a href=\"/about\">关于我们</a></body></html>";
+
+    private CrawlFrontier frontier;
+    private JobLinkService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/robots.txt", ex -> respond(ex, robotsStatus, "User-agent: *\nAllow: /\n"));
+        server.createContext("/sitemap.xml", ex -> respond(ex, sitemapStatus,
+                "<?xml version=\"1.0\"?><urlset><url><loc>" + base + sitemapPath + "</loc></url></urlset>"));
+        server.createContext("/careers", ex -> respond(ex, 200, "<html><body>加入我们</body></html>"));
+        server.createContext("/search", ex -> respond(ex, 200, searchPage));
+        server.start();
+        site = "127.0.0.1:" + server.getAddress().getPort();
+        base = "http://" + site;
+
+        OutboundHttpClient http = new OutboundHttpClient(new MockEnvironment());
+        HttpResponseCache cache = new HttpResponseCache(http, dir.toString(), 1 << 20, 0, 100);
+        frontier = TestFrontiers.create(cache);
+        KeywordMatcher keywords = KeywordMatcher.compile(List.of("招聘", "apply", "career"));
+        SitemapService sitemaps = new SitemapService(cache, frontier, keywords);
+        ReflectionTestUtils.setField(sitemaps, "maxDepth", 2);
+        ReflectionTestUtils.setField(sitemaps, "maxDocuments", 4);
+        ReflectionTestUtils.setField(sitemaps, "maxUrls", 100);
+        JsonLdParser jsonLd = new JsonLdParser();
+        ReflectionTestUtils.setField(jsonLd, "maxBlockChars", 65536);
+        CompanyAliasIndex aliases = mock(CompanyAliasIndex.class);
+        when(aliases.canonicalKey(anyString())).thenAnswer(inv -> inv.<String>getArgument(0).toLowerCase(Locale.ROOT));
+        when(aliases.domain(anyString())).thenReturn(base);
+
+        service = new JobLinkService(mock(MokaService.class), mock(ObjectProvider.class), sitemaps, jsonLd, http, cache,
+                frontier, new SourceGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), 100, 60),
+                new JobLinkCache(1000, 60, 60, 0), mock(ObjectProvider.class), keywords, mock(ObjectProvider.class),
+                new CompanyHotness(1024, 4, 10, 24, 600_000), new JobLinkNegativeCache(600, 120, 1000), aliases);
+        ReflectionTestUtils.setField(service, "templates", base + "/search?q=${name}");
+        ReflectionTestUtils.setField(service, "maxPerCompany", 8);
+        ReflectionTestUtils.setField(service, "deadlineMs", 10_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange ex, int status, String body) throws IOException {
+        if (status != 200) {
+            ex.sendResponseHeaders(status, -1);
+            ex.close();
+            return;
+        }
+        byte[] b = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        ex.sendResponseHeaders(200, b.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(b);
+        }
+    }
+
+    @Test
+    void emptyResultFromHealthySourcesIsNegativeCached() {
+        JobSearchResult first = service.search("Acme");
+        assertThat(first.getLinks()).isEmpty();
+        assertThat(first.getUnavailableSources()).isEmpty();
+        assertThat(service.search("Acme").getCacheStatus()).isEqualTo("NEGATIVE");
+    }
+
+    @Test
+    void unreachableRobotsMarksSourcesUnavailableInsteadOfEmpty() {
+        robotsStatus = 503;
+        JobSearchResult first = service.search("Acme");
+        assertThat(first.getLinks()).isEmpty();
+        assertThat(first.getUnavailableSources()).containsExactlyInAnyOrder(site, "sitemap");
+        assertThat(service.search("Acme").getCacheStatus()).isNotEqualTo("NEGATIVE");
+    }
+
+    @Test
+    void sitemapServerErrorMarksSitemapUnavailable() {
+        sitemapStatus = 500;
+        JobSearchResult first = service.search("Acme");
+        assertThat(first.getUnavailableSources()).containsExactly("sitemap");
+        assertThat(service.search("Acme").getCacheStatus()).isNotEqualTo("NEGATIVE");
+    }
+
+    @Test
+    void localBackPressureIsUnavailableButNotRememberedAsSourceFailure() {
+        // 抓取队列满：请求没有发出
+        ReflectionTestUtils.setField(frontier, "hostMaxQueue", 0);
+        JobSearchResult first = service.search("Acme");
+        assertThat(first.getUnavailableSources()).contains(site);
+        assertThat(service.search("Acme").getCacheStatus()).isNotEqualTo("NEGATIVE");
+
+        // 压力解除后下一次查询立即重试该数据源，而不是在 (公司, 数据源) 负缓存期内跳过
+        ReflectionTestUtils.setField(frontier, "hostMaxQueue", 100);
+        searchPage = "<html><body><a href=\"/jobs/1\">招聘：后端工程师</a></body></html>";
+        JobSearchResult retried = service.search("Acme");
+        assertThat(retried.getUnavailableSources()).doesNotContain(site);
+        assertThat(retried.getLinks()).extracting(l -> l.getUrl()).containsExactly(base + "/jobs/1");
+    }
+
+    @Test
+    void failedSourceKeepsItsPreviousLinksAndIsNotWipedFromTheStore() {
+        JobLinkStore store = mock(JobLinkStore.class);
+        ReflectionTestUtils.setField(service, "store", store);
+        sitemapPath = "/careers";
+        sitemapStatus = 200;
+        String careers = UrlUtils.normalize(base + "/careers");
+        assertThat(service.search("Acme").getLinks()).extracting(l -> l.getUrl()).containsExactly(careers);
+        verify(store, timeout(1000)).save(eq("acme"), eq("Acme"), anyList(), eq(true));
+
+        // sitemap 暂时故障：刷新结果不含该数据源，但缓存保留其旧链接、很快变为陈旧，落库不删除旧行
+        sitemapStatus = 500;
+        searchPage = "<html><body><a href=\"/jobs/1\">招聘：后端工程师</a></body></html>";
+        JobSearchResult refreshed = service.refresh("Acme", 10_000);
+        assertThat(refreshed.getUnavailableSources()).containsExactly("sitemap");
+        assertThat(refreshed.getLinks()).extracting(l -> l.getUrl()).containsExactly(base + "/jobs/1");
+        JobSearchResult cached = service.search("Acme");
+        assertThat(cached.getCacheStatus()).isEqualTo("STALE");
+        assertThat(cached.getLinks()).extracting(l -> l.getUrl()).containsExactly(base + "/jobs/1", careers);
+        verify(store, timeout(1000).atLeastOnce()).save(eq("acme"), eq("Acme"), anyList(), eq(false));
+    }
+
+    @Test
+    void streamSendsEachUrlOnceAndCompletesAfterTheLastBatch() {
+        sitemapPath = "/careers";
+        sitemapStatus = 200;
+        String careers = UrlUtils.normalize(base + "/careers");
+        // 站点搜索页与 sitemap 都给出同一个入口
+        searchPage = "<html><body><a href=\"" + careers + "\">招聘入口</a><a href=\"/jobs/1\">招聘：后端工程师</a></body></html>";
+        List<JobLinkBatch> batches = new CopyOnWriteArrayList<>();
+        Map<String, Long> timings = service.streamSearch("Acme", batches::add).join();
+
+        assertThat(timings).containsOnlyKeys("moka", site, "sitemap");
+        assertThat(batches).extracting(JobLinkBatch::getSource).doesNotHaveDuplicates().isSubsetOf(site, "sitemap");
+        List<String> urls = batches.stream().flatMap(b -> b.getLinks().stream()).map(l -> l.getUrl()).toList();
+        assertThat(urls).doesNotHaveDuplicates().containsExactlyInAnyOrder(careers, base + "/jobs/1");
+        // 完成时所有批次已回调完毕，之后不再有批次
+        int delivered = batches.size();
+        assertThat(service.search("Acme").getCacheStatus()).isEqualTo("HIT");
+        assertThat(batches).hasSize(delivered);
+
+        List<JobLinkBatch> cached = new ArrayList<>();
+        assertThat(service.streamSearch("Acme", cached::add).join()).containsExactly(Map.entry("cache", 0L));
+        assertThat(cached).singleElement().satisfies(b -> {
+            assertThat(b.getSource()).isEqualTo("cache");
+            assertThat(b.getLinks()).extracting(l -> l.getUrl()).containsExactlyInAnyOrderElementsOf(urls);
+        });
+    }
+
+    @Test
+    void streamClientDisconnectStillCompletesAndFillsTheCache() {
+        searchPage = "<html><body><a href=\"/jobs/1\">招聘：后端工程师</a></body></html>";
+        Map<String, Long> timings = service.streamSearch("Acme", b -> {
+            throw new UncheckedIOException(new IOException("broken pipe"));
+        }).join();
+        assertThat(timings).containsKeys(site, "sitemap");
+        JobSearchResult cached = service.search("Acme");
+        assertThat(cached.getCacheStatus()).isEqualTo("HIT");
+        assertThat(cached.getLinks()).extracting(l -> l.getUrl()).containsExactly(base + "/jobs/1");
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.example.demo.model.JobPosting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLdParserTest {
+
+    private static final URI BASE = URI.create("https://careers.example.com/jobs/");
+
+    private JsonLdParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new JsonLdParser();
+        ReflectionTestUtils.setField(parser, "maxBlockChars", 4096);
+    }
+
+    private static String ld(String json) {
+        return "<script type=\"application/ld+json\">" + json + "</script>";
+    }
+
+    private List<JobPosting> postings(String html) throws IOException {
+        return parser.extractPostings(new StringReader(html), BASE);
+    }
+
+    @Test
+    void graphWithPostingsAndOrganization() throws IOException {
+        String html = "<html><head>" + ld("""
+                {"@context":"https://schema.org","@graph":[
+                  {"@type":"Organization","name":"Example","url":"https://www.example.com"},
+                  {"@type":"JobPosting","title":" 后端工程师 ","url":"/jobs/1","datePosted":"2025-01-02",
+                   "validThrough":"2025-03-01","hiringOrganization":{"@type":"Organization","name":"Example","url":"https://www.example.com/home"}},
+                  {"@type":"BreadcrumbList","itemListElement":[{"@type":"ListItem","url":"/x"}]}
+                ]}""") + "</head></html>";
+        List<JobPosting> p = postings(html);
+        assertThat(p).hasSize(1);
+        assertThat(p.get(0).getTitle()).isEqualTo("后端工程师");
+        assertThat(p.get(0).getUrl()).isEqualTo("https://careers.example.com/jobs/1");
+        assertThat(p.get(0).getDatePosted()).isEqualTo("2025-01-02");
+        assertThat(p.get(0).getValidThrough()).isEqualTo("2025-03-01");
+        assertThat(p.get(0).getHiringOrganization()).isEqualTo("Example");
+        // 顶层 Organization 的主页计入，JobPosting 内 hiringOrganization 的主页不计入
+        assertThat(parser.extractApplyUrls(html)).containsExactly("https://www.example.com", "/jobs/1");
+    }
+
+    @Test
+    void typeArraysAndPrefixedTypes() throws IOException {
+        String html = ld("""
+                [{"@type":["Thing","JobPosting"],"title":"A","url":"https://x.com/a"},
+                 {"@type":"schema:JobPosting","title":"B","applicationUrl":"https://x.com/b/apply"},
+                 {"@type":"https://schema.org/JobPosting","name":"C","url":"https://x.com/c"},
+                 {"@type":"http://schema.org/jobposting","title":"D","url":"https://x.com/d"},
+                 {"@type":"JobPostingDraft","title":"E","url":"https://x.com/e"},
+                 {"@type":{"@id":"JobPosting"},"title":"F","url":"https://x.com/f"}]""");
+        assertThat(postings(html)).extracting(JobPosting::getTitle).containsExactly("A", "B", "C", "D");
+        assertThat(postings(html).get(1).getApplicationUrl()).isEqualTo("https://x.com/b/apply");
+    }
+
+    @Test
+    void scriptTypeVariantsAndOtherScriptsIgnored() throws IOException {
+        String html = """
+                <script>var x = '<script type="application/ld+json">{"@type":"JobPosting","title":"fake"}</script>';</script>
+                <!-- <script type="application/ld+json">{"@type":"JobPosting","title":"commented"}</script> -->
+                <style>.a{}</style>
+                <SCRIPT TYPE='application/LD+JSON; charset=utf-8'>{"@type":"JobPosting","title":"real","url":"/r"}</SCRIPT >
+                <script type=application/ld+json>{"@type":"JobPosting","title":"unquoted","url":"/u"}</script>
+                """;
+        assertThat(postings(html)).extracting(JobPosting::getTitle).containsExactly("real", "unquoted");
+    }
+
+    @Test
+    void oversizedBlockSkippedOthersKept() throws IOException {
+        String big = "{\"@type\":\"JobPosting\",\"title\":\"big\",\"description\":\"" + "x".repeat(10_000) + "\"}";
+        String html = ld(big) + ld("{\"@type\":\"JobPosting\",\"title\":\"small\",\"url\":\"/s\"}");
+        assertThat(postings(html)).extracting(JobPosting::getTitle).containsExactly("small");
+    }
+
+    @Test
+    void malformedBlockKeepsWhatWasReadAndLaterBlocks() throws IOException {
+        String html = ld("[{\"@type\":\"JobPosting\",\"title\":\"first\",\"url\":\"/1\"}, {\"@type\": oops")
+                + ld("{\"@type\":\"JobPosting\",\"title\":\"next\",\"url\":\"/2\"}");
+        assertThat(postings(html)).extracting(JobPosting::getTitle).containsExactly("first", "next");
+    }
+
+    @Test
+    void deeplyNestedInputDoesNotOverflowStack() throws IOException {
+        ReflectionTestUtils.setField(parser, "maxBlockChars", 1 << 20);
+        int depth = 200_000;
+        String nested = "[".repeat(depth) + "]".repeat(depth);
+        String nestedObjects = "{\"a\":".repeat(depth) + "1" + "}".repeat(depth);
+        String html = ld(nested) + ld(nestedObjects)
+                + ld("{\"@type\":\"JobPosting\",\"title\":\"ok\",\"url\":\"/ok\"}");
+        assertThat(postings(html)).extracting(JobPosting::getTitle).containsExactly("ok");
+    }
+
+    @Test
+    void postingsBelowDepthLimitFoundAndDeeperSkipped() throws IOException {
+        String posting = "{\"@type\":\"JobPosting\",\"title\":\"t\",\"url\":\"/t\"}";
+        int reachable = JsonLdParser.MAX_DEPTH - 1;
+        String shallow = "[".repeat(reachable) + posting + "]".repeat(reachable);
+        String deep = "[".repeat(JsonLdParser.MAX_DEPTH + 5) + posting + "]".repeat(JsonLdParser.MAX_DEPTH + 5);
+        assertThat(postings(ld(shallow))).hasSize(1);
+        assertThat(postings(ld(deep))).isEmpty();
+    }
+
+    @Test
+    void truncatedPageAndMissingEndTag() throws IOException {
+        assertThat(postings(ld("{\"@type\":\"JobPosting\",\"title\":\"ok\"}") + "<script type=\"application/ld+json\">{\"@type\":\"JobPosting\"")).hasSize(1);
+        assertThat(parser.extractApplyUrls("<script type=\"application/ld+json\"")).isEmpty();
+    }
+}
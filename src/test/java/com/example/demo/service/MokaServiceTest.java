@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MokaServiceTest {
+
+    private static final String PAGE = """
+            {"data":{"total":1,"jobs":[{"id":"1","title":"后端工程师","applyUrl":"https://app.mokahr.com/apply/acme/1"}]}}""";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    /** 令牌接口放行前阻塞（模拟慢响应） */
+    private volatile CountDownLatch tokenGate = new CountDownLatch(0);
+    /** 职位接口收到的 Authorization 头 */
+    private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+    /** 职位接口拒绝的令牌 */
+    private final Queue<String> rejected = new ConcurrentLinkedQueue<>();
+    private MokaService moka;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RestTemplate rest = mock(RestTemplate.class);
+        // 令牌依次为 t1、t2、……
+        when(rest.exchange(any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), eq(JsonNode.class)))
+                .thenAnswer(inv -> {
+                    int n = tokenRequests.incrementAndGet();
+                    tokenGate.await(5, TimeUnit.SECONDS);
+                    return ResponseEntity.ok(mapper.readTree("{\"data\":{\"accessToken\":\"t" + n + "\",\"expiresIn\":3600}}"));
+                });
+        when(rest.execute(any(URI.class), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(inv -> {
+                    MockClientHttpRequest req = new MockClientHttpRequest();
+                    inv.<RequestCallback>getArgument(2).doWithRequest(req);
+                    String auth = req.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+                    authorizations.add(auth);
+                    if (rejected.contains(auth)) {
+                        throw HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", new HttpHeaders(), new byte[0], null);
+                    }
+                    return inv.<ResponseExtractor<Object>>getArgument(3)
+                            .extractData(new MockClientHttpResponse(PAGE.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+                });
+        OutboundHttpClient http = mock(OutboundHttpClient.class);
+        when(http.forSource("moka")).thenReturn(rest);
+
+        moka = new MokaService(http, mock(SourceGuard.class), mock(CrawlExecutor.class), mock(MokaCatalog.class));
+        ReflectionTestUtils.setField(moka, "enabled", true);
+        ReflectionTestUtils.setField(moka, "apiDomain", "api.example.test");
+        ReflectionTestUtils.setField(moka, "authType", "oauth2");
+        ReflectionTestUtils.setField(moka, "clientId", "id");
+        ReflectionTestUtils.setField(moka, "clientSecret", "secret");
+        ReflectionTestUtils.setField(moka, "jobsEndpoint", "/api-platform/v1/jobs");
+        ReflectionTestUtils.setField(moka, "pageParam", "page");
+        ReflectionTestUtils.setField(moka, "pageSizeParam", "pageSize");
+        ReflectionTestUtils.setField(moka, "pageSize", 50);
+        ReflectionTestUtils.setField(moka, "tokenDefaultTtlSeconds", 3600L);
+        ReflectionTestUtils.setField(moka, "tokenRefreshAheadSeconds", 300L);
+    }
+
+    @Test
+    void concurrentCallersShareOneTokenRequest() throws Exception {
+        tokenGate = new CountDownLatch(1);
+        List<CompletableFuture<MokaService.JobPage>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> moka.fetchCatalogPage(1, -1)));
+        }
+        // 令牌请求挂起期间其余调用方都在等待同一次刷新
+        Thread.sleep(200);
+        tokenGate.countDown();
+        for (CompletableFuture<MokaService.JobPage> call : calls) {
+            assertThat(call.get(5, TimeUnit.SECONDS).jobs()).hasSize(1);
+        }
+        assertThat(tokenRequests).hasValue(1);
+        assertThat(authorizations).hasSize(8).containsOnly("Bearer t1");
+
+        // 有效期内复用，不再请求令牌
+        moka.fetchCatalogPage(2, -1);
+        assertThat(tokenRequests).hasValue(1);
+    }
+
+    @Test
+    void rejectedTokenIsRefreshedAndTheRequestRetriedOnce() {
+        moka.fetchCatalogPage(1, -1);
+        rejected.add("Bearer t1");
+
+        assertThat(moka.fetchCatalogPage(1, -1).jobs()).hasSize(1);
+        assertThat(tokenRequests).hasValue(2);
+        assertThat(authorizations).containsExactly("Bearer t1", "Bearer t1", "Bearer t2");
+    }
+
+    @Test
+    void secondRejectionIsNotRetriedAgain() {
+        moka.fetchCatalogPage(1, -1);
+        rejected.add("Bearer t1");
+        rejected.add("Bearer t2");
+
+        assertThatThrownBy(() -> moka.fetchCatalogPage(1, -1)).isInstanceOf(HttpClientErrorException.Unauthorized.class);
+        assertThat(tokenRequests).hasValue(2);
+        assertThat(authorizations).containsExactly("Bearer t1", "Bearer t1", "Bearer t2");
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Place;
+import com.example.demo.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearbyTileCacheTest {
+
+    private static final double LAT = 31.2304;
+    private static final double LNG = 121.4737;
+
+    /**
+     * 内存数据源：约 3 km 范围内的网格 POI；带关键词的直接查询只匹配名称（模拟数据源自身的关键词语义）。
+     * 区域抓取单次最多返回离圆心最近的 cap 条（超出时报告被截断），直接查询最多 searchCap 条。
+     */
+    static final class FakeProvider implements PlaceProvider {
+        final List<Place> places = new ArrayList<>();
+        volatile int cap = Integer.MAX_VALUE;
+        volatile int searchCap = Integer.MAX_VALUE;
+        final AtomicInteger areaCalls = new AtomicInteger();
+        final AtomicInteger searchCalls = new AtomicInteger();
+
+        FakeProvider() {
+            int n = 0;
+            for (int i = -30; i <= 30; i++) {
+                for (int j = -30; j <= 30; j++) {
+                    n++;
+                    String name = (n % 10 == 0 ? "科技" : "贸易") + "公司 " + n;
+                    String address = n % 7 == 0 ? "科技园路 " + n + " 号" : "人民路 " + n + " 号";
+                    List<String> categories = n % 13 == 0 ? List.of("科技服务") : List.of("企业");
+                    places.add(new Place("p" + n, name, address, LAT + i * 0.0009, LNG + j * 0.001, 0, categories, "fake", null));
+                }
+            }
+        }
+
+        @Override
+        public String getProviderName() {
+            return "fake";
+        }
+
+        @Override
+        public List<Place> searchNearby(double lat, double lng, int radiusMeters, String keyword) {
+            searchCalls.incrementAndGet();
+            return within(lat, lng, radiusMeters).stream()
+                    .filter(p -> keyword == null || p.getName().toLowerCase(Locale.ROOT).contains(keyword.toLowerCase(Locale.ROOT)))
+                    .limit(searchCap)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public Area fetchArea(double lat, double lng, int radiusMeters) {
+            areaCalls.incrementAndGet();
+            List<Place> all = within(lat, lng, radiusMeters);
+            return all.size() > cap ? new Area(new ArrayList<>(all.subList(0, cap)), true) : new Area(all, false);
+        }
+
+        private List<Place> within(double lat, double lng, int radiusMeters) {
+            List<Place> out = new ArrayList<>();
+            for (Place p : places) {
+                double d = GeoUtils.haversineMeters(lat, lng, p.getLat(), p.getLng());
+                if (d <= radiusMeters) {
+                    out.add(new Place(p.getId(), p.getName(), p.getAddress(), p.getLat(), p.getLng(), d, p.getCategories(), p.getSource(), p.getUrl()));
+                }
+            }
+            out.sort(Comparator.comparingDouble(Place::getDistance));
+            return out;
+        }
+    }
+
+    private static NearbyTileCache cache(String maxRadiusMeters) {
+        MockEnvironment env = new MockEnvironment().withProperty("nearby.tile.maxRadiusMeters", maxRadiusMeters);
+        return new NearbyTileCache(env, new PoiSpatialIndex(64L << 20));
+    }
+
+    private static Set<String> ids(NearbyTileCache.Result r) {
+        return r.getItems().stream().map(Place::getId).collect(Collectors.toSet());
+    }
+
+    @Test
+    void keywordResultsAreTheSameForHitAndBypass() {
+        FakeProvider provider = new FakeProvider();
+        NearbyTileCache tiles = cache("5000");
+        NearbyTileCache direct = cache("0");
+        tiles.search(provider, LAT, LNG, 1500, null);
+
+        NearbyTileCache.Result hit = tiles.search(provider, LAT + 0.001, LNG, 1200, " 科技 ");
+        NearbyTileCache.Result bypass = direct.search(provider, LAT + 0.001, LNG, 1200, " 科技 ");
+        assertThat(hit.getCacheStatus()).isEqualTo(NearbyTileCache.HIT);
+        assertThat(bypass.getCacheStatus()).isEqualTo(NearbyTileCache.BYPASS);
+        // 名称、地址、分类中的匹配项都在结果里，不只是数据源按名称匹配的部分
+        assertThat(ids(hit)).isNotEmpty().isEqualTo(ids(bypass));
+        assertThat(hit.getItems()).anyMatch(p -> !p.getName().contains("科技"));
+    }
+
+    @Test
+    void coldRequestCostsOneAreaFetch() {
+        FakeProvider provider = new FakeProvider();
+        NearbyTileCache tiles = cache("5000");
+
+        NearbyTileCache.Result cold = tiles.search(provider, LAT, LNG, 1500, null);
+        assertThat(cold.getCacheStatus()).isEqualTo(NearbyTileCache.MISS);
+        assertThat(provider.areaCalls).hasValue(1);
+        assertThat(ids(cold)).isEqualTo(ids(cache("0").search(provider, LAT, LNG, 1500, null)));
+
+        assertThat(tiles.search(provider, LAT, LNG, 1500, "科技").getCacheStatus()).isEqualTo(NearbyTileCache.HIT);
+        assertThat(provider.areaCalls).hasValue(1);
+
+        // 平移后只缺少边缘瓦片：同样合并为一次抓取
+        NearbyTileCache.Result panned = tiles.search(provider, LAT + 0.01, LNG + 0.01, 1500, null);
+        assertThat(panned.getCacheStatus()).isEqualTo(NearbyTileCache.PARTIAL);
+        assertThat(provider.areaCalls).hasValue(2);
+    }
+
+    @Test
+    void truncatedEnclosingFetchIsRefetchedPerTile() {
+        FakeProvider provider = new FakeProvider();
+        Set<String> expected = ids(cache("0").search(new FakeProvider(), LAT, LNG, 1500, null));
+        provider.cap = 150;
+        NearbyTileCache tiles = cache("5000");
+
+        // 外接圆约 700 个 POI，被截断；逐瓦片重新抓取后每个瓦片都在上限内
+        NearbyTileCache.Result cold = tiles.search(provider, LAT, LNG, 1500, null);
+        assertThat(ids(cold)).isEqualTo(expected);
+        int calls = provider.areaCalls.get();
+        assertThat(calls).isGreaterThan(1);
+        assertThat(tiles.stats()).containsEntry("truncatedLoadCount", 1L)
+                .containsEntry("tileRefetchCount", (long) calls - 1);
+
+        assertThat(tiles.search(provider, LAT, LNG, 1500, null).getCacheStatus()).isEqualTo(NearbyTileCache.HIT);
+        assertThat(provider.areaCalls).hasValue(calls);
+    }
+
+    private static Set<String> nameMatches(FakeProvider provider, double lat, double lng, int radius, String kw) {
+        return provider.places.stream()
+                .filter(p -> p.getName().contains(kw) && GeoUtils.haversineMeters(lat, lng, p.getLat(), p.getLng()) <= radius)
+                .map(Place::getId).collect(Collectors.toSet());
+    }
+
+    @Test
+    void keywordOverTruncatedTilesAsksTheProviderWithTheKeyword() {
+        FakeProvider provider = new FakeProvider();
+        provider.cap = 3;
+        NearbyTileCache tiles = cache("5000");
+        tiles.search(provider, LAT, LNG, 1500, null);
+        int searches = provider.searchCalls.get();
+
+        NearbyTileCache.Result r = tiles.search(provider, LAT, LNG, 1500, "科技");
+        assertThat(r.getCacheStatus()).isEqualTo(NearbyTileCache.PARTIAL);
+        assertThat(provider.searchCalls).hasValue(searches + 1);
+        assertThat(ids(r)).containsAll(nameMatches(provider, LAT, LNG, 1500, "科技"));
+        assertThat(r.getItems()).allMatch(p -> PoiSpatialIndex.matches(p, "科技"));
+        assertThat(r.getItems()).extracting(Place::getId).doesNotHaveDuplicates();
+        assertThat(tiles.stats()).containsEntry("truncatedKeywordSearchCount", 1L);
+    }
+
+    @Test
+    void keywordBypassIsNotLimitedByTheUnkeywordedCap() {
+        FakeProvider provider = new FakeProvider();
+        provider.searchCap = 100;
+        NearbyTileCache.Result r = cache("0").search(provider, LAT, LNG, 1500, "科技");
+        assertThat(r.getCacheStatus()).isEqualTo(NearbyTileCache.BYPASS);
+        // 不带关键词的 100 条只覆盖圆心附近；名称匹配项由带关键词的查询补齐
+        assertThat(ids(r)).containsAll(nameMatches(provider, LAT, LNG, 1500, "科技"));
+        assertThat(r.getItems()).allMatch(p -> PoiSpatialIndex.matches(p, "科技") && p.getDistance() <= 1500);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OsmLocalServiceTest {
+
+    private static final String EXTRACT = """
+            {"elements":[
+              {"type":"node","id":1,"lat":31.2304,"lon":121.4737,"tags":{"office":"company","name":"示例科技"}},
+              {"type":"node","id":2,"lat":31.2310,"lon":121.4740,"tags":{"amenity":"cafe","name":"咖啡"}}
+            ]}""";
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private String url;
+    private volatile boolean validators = true;
+    private final AtomicInteger bodies = new AtomicInteger();
+    private final Queue<String> ifNoneMatch = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/extract.json", ex -> {
+            String etag = ex.getRequestHeaders().getFirst("If-None-Match");
+            if (etag != null) ifNoneMatch.add(etag);
+            if (validators && "\"v1\"".equals(etag)) {
+                ex.sendResponseHeaders(304, -1);
+                ex.close();
+                return;
+            }
+            if (validators) {
+                ex.getResponseHeaders().set("ETag", "\"v1\"");
+                ex.getResponseHeaders().set("Last-Modified", "Wed, 01 Jan 2025 00:00:00 GMT");
+            }
+            bodies.incrementAndGet();
+            byte[] b = EXTRACT.getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(200, b.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(b);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/extract.json";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private OsmLocalService service() {
+        return new OsmLocalService(new OsmExtractImporter(new ObjectMapper()), new OutboundHttpClient(new MockEnvironment()),
+                dir.resolve("poi").toString(), dir.resolve("extract.json").toString(), url, 6);
+    }
+
+    @Test
+    void unchangedExtractIsNotDownloadedOrImportedAgain() {
+        OsmLocalService service = service();
+        Map<String, Object> first = service.refresh(false);
+        assertThat(first).containsEntry("downloaded", true).containsEntry("imported", 1);
+        assertThat(service.searchNearby(31.2304, 121.4737, 500, "科技")).hasSize(1);
+
+        Map<String, Object> second = service.refresh(false);
+        assertThat(second).containsEntry("downloaded", false).containsEntry("skipped", "extract unchanged");
+        assertThat(ifNoneMatch).containsExactly("\"v1\"");
+        assertThat(bodies).hasValue(1);
+    }
+
+    @Test
+    void identicalContentWithoutValidatorsIsNotImportedAgain() {
+        validators = false;
+        OsmLocalService service = service();
+        assertThat(service.refresh(false)).containsEntry("imported", 1);
+
+        Map<String, Object> second = service.refresh(false);
+        assertThat(second).containsEntry("downloaded", false).containsEntry("skipped", "extract unchanged");
+        assertThat(bodies).hasValue(2);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Place;
+import com.example.demo.util.GeoHash;
+import com.example.demo.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OsmPoiFileTest {
+
+    private static final double LAT = 31.2304;
+    private static final double LNG = 121.4737;
+    private static final String[] TYPES = {"node", "way", "relation"};
+
+    @TempDir
+    Path dir;
+
+    /** 与文件内坐标精度（1e-7 度）一致，避免边界点因取整而结果不同 */
+    private static double e7(double v) {
+        return Math.round(v * 1e7) / 1e7;
+    }
+
+    private record Row(int type, long id, double lat, double lng, String name, String address, String categories) {
+        OsmPoiFile.Poi toPoi() {
+            return new OsmPoiFile.Poi(type, id, lat, lng, name, address, categories);
+        }
+    }
+
+    private static List<Row> randomRows(int n, long seed) {
+        Random random = new Random(seed);
+        String[] words = {"科技", "Software", "贸易", "物流", "咨询"};
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            // 大部分集中在 10 km 内，少量散布到约 300 km 外
+            double spread = i % 10 == 0 ? 3.0 : 0.1;
+            double lat = e7(LAT + (random.nextDouble() * 2 - 1) * spread);
+            double lng = e7(LNG + (random.nextDouble() * 2 - 1) * spread);
+            String name = i % 17 == 0 ? null : words[random.nextInt(words.length)] + " 公司 " + i;
+            String address = i % 5 == 0 ? words[random.nextInt(words.length)] + "路 " + i + " 号" : null;
+            String categories = i % 3 == 0 ? "office=company\n" + words[random.nextInt(words.length)] : "";
+            rows.add(new Row(i % 3, i, lat, lng, name, address, categories));
+        }
+        return rows;
+    }
+
+    private static List<OsmPoiFile.Poi> pois(List<Row> rows) {
+        return rows.stream().map(Row::toPoi).toList();
+    }
+
+    private static Set<String> bruteForce(List<Row> rows, double lat, double lng, int radius, String kw) {
+        Set<String> out = new HashSet<>();
+        for (Row r : rows) {
+            if (GeoUtils.haversineMeters(lat, lng, r.lat(), r.lng()) > radius) continue;
+            String text = Stream.of(r.name(), r.address(), r.categories()).filter(Objects::nonNull)
+                    .collect(Collectors.joining("\n")).toLowerCase(Locale.ROOT);
+            if (!kw.isEmpty() && !text.contains(kw)) continue;
+            out.add(r.type() == 0 ? String.valueOf(r.id()) : TYPES[r.type()] + "/" + r.id());
+        }
+        return out;
+    }
+
+    @Test
+    void searchMatchesBruteForceScan() throws IOException {
+        List<Row> rows = randomRows(20_000, 42);
+        Path path = dir.resolve("pois.bin");
+        OsmPoiFile.write(path, pois(rows), 6, 1234L);
+        OsmPoiFile file = OsmPoiFile.open(path);
+        assertThat(file.getPoiCount()).isEqualTo(rows.size());
+        assertThat(file.getSourceModifiedAt()).isEqualTo(1234L);
+
+        int[] radii = {50, 800, 1500, 5000, 30_000, 400_000};
+        String[] keywords = {"", "科技", "software", "路 1"};
+        Random random = new Random(7);
+        for (int q = 0; q < 12; q++) {
+            double lat = LAT + (random.nextDouble() * 2 - 1) * 0.1;
+            double lng = LNG + (random.nextDouble() * 2 - 1) * 0.1;
+            for (int radius : radii) {
+                for (String kw : keywords) {
+                    Set<String> found = file.search(lat, lng, radius, kw, "osm-local").stream()
+                            .map(Place::getId).collect(Collectors.toSet());
+                    assertThat(found).as("r=%d kw=%s", radius, kw).isEqualTo(bruteForce(rows, lat, lng, radius, kw));
+                }
+            }
+        }
+    }
+
+    @Test
+    void largeRadiusUsesCoarseRanges() {
+        for (int radius : new int[]{100, 1500, 20_000, 200_000, 2_000_000}) {
+            int p = OsmPoiFile.rangePrecision(LAT, radius, 6);
+            assertThat(GeoHash.cover(LAT, LNG, radius, p)).hasSizeLessThanOrEqualTo(256);
+        }
+        assertThat(OsmPoiFile.rangePrecision(LAT, 1500, 6)).isEqualTo(6);
+        assertThat(OsmPoiFile.rangePrecision(LAT, 200_000, 6)).isLessThan(6);
+    }
+
+    @Test
+    void truncatedOrForeignFileIsRejected() throws IOException {
+        Path path = dir.resolve("pois.bin");
+        OsmPoiFile.write(path, pois(randomRows(500, 1)), 6, 0L);
+        long size = Files.size(path);
+
+        Path truncated = Files.copy(path, dir.resolve("truncated.bin"));
+        try (FileChannel ch = FileChannel.open(truncated, StandardOpenOption.WRITE)) {
+            ch.truncate(size - 1);
+        }
+        assertThatThrownBy(() -> OsmPoiFile.open(truncated)).isInstanceOf(IOException.class).hasMessageContaining("truncated");
+
+        Path headerOnly = Files.copy(path, dir.resolve("header.bin"));
+        try (FileChannel ch = FileChannel.open(headerOnly, StandardOpenOption.WRITE)) {
+            ch.truncate(10);
+        }
+        assertThatThrownBy(() -> OsmPoiFile.open(headerOnly)).isInstanceOf(IOException.class);
+
+        Path foreign = Files.writeString(dir.resolve("foreign.bin"), "{\"elements\":[]}".repeat(10));
+        assertThatThrownBy(() -> OsmPoiFile.open(foreign)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Place;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoiSpatialIndexTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+    private static Place place(String id) {
+        return new Place(id, "公司 " + id, "人民路 " + id + " 号", 31.23, 121.47, 0, List.of("企业"), "fake", null);
+    }
+
+    /** n 个 POI，ID 等长，使各区域的估算大小一致 */
+    private static List<Place> places(String prefix, int n) {
+        List<Place> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(place(prefix + String.format("%03d", i)));
+        }
+        return out;
+    }
+
+    private static long bytesOf(List<Place> places) {
+        PoiSpatialIndex index = new PoiSpatialIndex(Long.MAX_VALUE);
+        index.put("k", places, false, HOUR, HOUR);
+        return (long) index.stats().get("bytes");
+    }
+
+    @Test
+    void putReplacesTheRegionAndItsAccounting() {
+        PoiSpatialIndex index = new PoiSpatialIndex(Long.MAX_VALUE);
+        List<Place> first = places("a", 3);
+        first.add(place("a000"));
+        index.put("fake:wtw3s", first, false, HOUR, HOUR);
+        assertThat(index.stats()).containsEntry("regions", 1).containsEntry("pois", 3L);
+
+        List<Place> second = places("b", 5);
+        PoiSpatialIndex.Region r = index.put("fake:wtw3s", second, true, HOUR, HOUR);
+        assertThat(r.size()).isEqualTo(5);
+        assertThat(r.isTruncated()).isTrue();
+        assertThat(index.get("fake:wtw3s")).isSameAs(r);
+        // 替换后只计新区域，与只写入新区域时相同
+        assertThat(index.stats()).containsEntry("regions", 1).containsEntry("pois", 5L)
+                .containsEntry("bytes", bytesOf(second)).containsEntry("evictionCount", 0L);
+    }
+
+    @Test
+    void overBudgetEvictsTheLeastRecentlyQueriedRegion() {
+        long one = bytesOf(places("a", 4));
+        PoiSpatialIndex index = new PoiSpatialIndex(3 * one);
+        index.put("fake:a", places("a", 4), false, HOUR, HOUR);
+        index.put("fake:b", places("b", 4), false, HOUR, HOUR);
+        index.put("fake:c", places("c", 4), false, HOUR, HOUR);
+        // a 最先写入但最近被查询过，b 成为最久未查询的区域
+        assertThat(index.get("fake:a")).isNotNull();
+
+        index.put("fake:d", places("d", 4), false, HOUR, HOUR);
+        assertThat(index.stats()).containsEntry("regions", 3).containsEntry("pois", 12L)
+                .containsEntry("bytes", 3 * one).containsEntry("evictionCount", 1L);
+        assertThat(index.get("fake:b")).isNull();
+        assertThat(index.get("fake:a")).isNotNull();
+        assertThat(index.get("fake:c")).isNotNull();
+        assertThat(index.get("fake:d")).isNotNull();
+    }
+
+    @Test
+    void regionLargerThanTheBudgetEvictsOthersButIsKept() {
+        long one = bytesOf(places("a", 4));
+        PoiSpatialIndex index = new PoiSpatialIndex(one);
+        index.put("fake:a", places("a", 4), false, HOUR, HOUR);
+        index.put("fake:big", places("b", 40), false, HOUR, HOUR);
+        assertThat(index.get("fake:a")).isNull();
+        assertThat(index.get("fake:big")).isNotNull();
+        assertThat(index.stats()).containsEntry("regions", 1).containsEntry("pois", 40L);
+    }
+
+    @Test
+    void getServesStaleRegionsAndDropsThemAfterTheStaleWindow() throws InterruptedException {
+        PoiSpatialIndex index = new PoiSpatialIndex(Long.MAX_VALUE);
+        index.put("fake:fresh", places("a", 2), false, HOUR, HOUR);
+        index.put("fake:old", places("b", 2), false, 0, TimeUnit.MILLISECONDS.toNanos(100));
+
+        PoiSpatialIndex.Region stale = index.get("fake:old");
+        assertThat(stale).isNotNull();
+        assertThat(stale.isStale()).isTrue();
+        assertThat(index.get("fake:fresh").isStale()).isFalse();
+
+        Thread.sleep(150);
+        assertThat(index.get("fake:old")).isNull();
+        assertThat(index.get("fake:fresh")).isNotNull();
+        assertThat(index.stats()).containsEntry("regions", 1).containsEntry("pois", 2L)
+                .containsEntry("bytes", bytesOf(places("a", 2))).containsEntry("expirationCount", 1L);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.service;
+
+import com.example.demo.util.KeywordMatcher;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SitemapServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private String base;
+    private final Map<String, String> docs = new ConcurrentHashMap<>();
+    private final Queue<String> requested = new ConcurrentLinkedQueue<>();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private SitemapService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", ex -> {
+            String path = ex.getRequestURI().getPath();
+            requested.add(path);
+            if (failing.contains(path)) {
+                ex.sendResponseHeaders(503, -1);
+                ex.close();
+                return;
+            }
+            String doc = docs.get(path);
+            if (doc == null) {
+                ex.sendResponseHeaders(404, -1);
+                ex.close();
+                return;
+            }
+            byte[] b = doc.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Cache-Control", "max-age=60");
+            ex.sendResponseHeaders(200, b.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(b);
+            }
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        HttpResponseCache cache = new HttpResponseCache(new OutboundHttpClient(new MockEnvironment()), dir.toString(), 1 << 24, 300, 100);
+        CrawlFrontier frontier = TestFrontiers.create(cache);
+        service = new SitemapService(cache, frontier, KeywordMatcher.compile(List.of("careers")));
+        ReflectionTestUtils.setField(service, "maxDepth", 2);
+        ReflectionTestUtils.setField(service, "maxDocuments", 4);
+        ReflectionTestUtils.setField(service, "maxUrls", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private static String index(List<String> children) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\"?><sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+        for (String c : children) sb.append("<sitemap><loc>").append(c).append("</loc></sitemap>");
+        return sb.append("</sitemapindex>").toString();
+    }
+
+    private static String urlset(List<String> urls) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\"?><urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+        for (String u : urls) sb.append("<url><loc>").append(u).append("</loc></url>");
+        return sb.append("</urlset>").toString();
+    }
+
+    @Test
+    void childrenBeyondDocumentBudgetAreNotFetched() {
+        docs.put("/robots.txt", "User-agent: *\nAllow: /\nSitemap: " + base + "/index.xml\n");
+        // 大型 sitemapindex：只会按剩余文档预算排队，其余子文件直接丢弃
+        docs.put("/index.xml", index(IntStream.range(0, 5000).mapToObj(i -> base + "/s" + i + ".xml").toList()));
+        for (int i = 0; i < 5; i++) {
+            docs.put("/s" + i + ".xml", urlset(List.of(base + "/careers/" + i, base + "/about/" + i)));
+        }
+        try (Stream<String> urls = service.extractUrlsFromSitemap(base)) {
+            assertThat(urls.toList()).containsExactly(base + "/careers/0", base + "/careers/1", base + "/careers/2");
+        }
+        assertThat(requested).containsExactly("/robots.txt", "/index.xml", "/s0.xml", "/s1.xml", "/s2.xml");
+    }
+
+    @Test
+    void nestedIndexesStopAtMaxDepth() {
+        docs.put("/robots.txt", "Sitemap: " + base + "/d0.xml\n");
+        docs.put("/d0.xml", index(List.of(base + "/d1.xml")));
+        docs.put("/d1.xml", index(List.of(base + "/d2.xml")));
+        docs.put("/d2.xml", index(List.of(base + "/d3.xml")));
+        docs.put("/d3.xml", urlset(List.of(base + "/careers/deep")));
+        try (Stream<String> urls = service.extractUrlsFromSitemap(base)) {
+            assertThat(urls.toList()).isEmpty();
+        }
+        assertThat(requested).doesNotContain("/d3.xml");
+    }
+
+    @Test
+    void streamIsLazy() {
+        docs.put("/robots.txt", "Sitemap: " + base + "/a.xml\nSitemap: " + base + "/b.xml\n");
+        docs.put("/a.xml", urlset(List.of(base + "/careers/a1", base + "/careers/a2")));
+        docs.put("/b.xml", urlset(List.of(base + "/careers/b1")));
+        try (Stream<String> urls = service.extractUrlsFromSitemap(base)) {
+            assertThat(urls.findFirst()).contains(base + "/careers/a1");
+        }
+        assertThat(requested).containsExactly("/robots.txt", "/a.xml");
+    }
+
+    @Test
+    void fallsBackToSitemapXmlAndToleratesTruncatedDocument() {
+        docs.put("/sitemap.xml", urlset(List.of(base + "/careers/1", base + "/careers/2")).substring(0, 150));
+        try (Stream<String> urls = service.extractUrlsFromSitemap(base)) {
+            assertThat(urls.toList()).containsExactly(base + "/careers/1");
+        }
+    }
+
+    @Test
+    void missingSitemapIsEmptyNotAFailure() {
+        try (Stream<String> urls = service.extractUrlsFromSitemap(base)) {
+            assertThat(urls.toList()).isEmpty();
+        }
+    }
+
+    @Test
+    void serverErrorWithoutAnyUrlFailsTheStream() {
+        docs.put("/robots.txt", "Sitemap: " + base + "/a.xml\nSitemap: " + base + "/b.xml\n");
+        docs.put("/b.xml", urlset(List.of(base + "/about")));
+        failing.add("/a.xml");
+        try (Stream<String> urls = service.extractUrlsFromSitemap(base)) {
+            assertThatThrownBy(urls::toList).isInstanceOf(UncheckedIOException.class)
+                    .hasMessageContaining("1 of 2 sitemap documents failed");
+        }
+    }
+
+    @Test
+    void failedDocumentIsToleratedWhenOthersYieldUrls() {
+        docs.put("/robots.txt", "Sitemap: " + base + "/a.xml\nSitemap: " + base + "/b.xml\n");
+        docs.put("/b.xml", urlset(List.of(base + "/careers/b1")));
+        failing.add("/a.xml");
+        try (Stream<String> urls = service.extractUrlsFromSitemap(base)) {
+            assertThat(urls.toList()).containsExactly(base + "/careers/b1");
+        }
+    }
+
+    @Test
+    void unreachableRobotsFailsInsteadOfGuessingSitemapXml() {
+        failing.add("/robots.txt");
+        assertThatThrownBy(() -> service.extractUrlsFromSitemap(base))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasCauseInstanceOf(CrawlFrontier.RobotsUnavailableException.class);
+        assertThat(requested).containsExactly("/robots.txt");
+    }
+}
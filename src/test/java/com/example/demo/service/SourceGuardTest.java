@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.model.JobLink;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SourceGuardTest {
+
+    private CircuitBreakerRegistry circuitBreakers;
+    private SourceGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+        guard = new SourceGuard(circuitBreakers, BulkheadRegistry.ofDefaults(), 100, 60);
+    }
+
+    private static JobCrawler crawler(Supplier<List<JobLink>> body) {
+        return new JobCrawler() {
+            @Override
+            public List<JobLink> crawlByCompanyName(String companyName, int limit) {
+                return body.get();
+            }
+
+            @Override
+            public String getSourceName() {
+                return "site";
+            }
+        };
+    }
+
+    @Test
+    void localRejectionIsDetectedThroughCauses() {
+        assertThat(SourceGuard.isLocalRejection(new CompletionException(new RejectedExecutionException("queue full")))).isTrue();
+        assertThat(SourceGuard.isLocalRejection(new IllegalStateException(
+                new OutboundHttpClient.ConnectionLimitException("busy", null)))).isTrue();
+        assertThat(SourceGuard.isLocalRejection(new CompletionException(new IOException("503")))).isFalse();
+        assertThat(SourceGuard.isLocalRejection(null)).isFalse();
+    }
+
+    @Test
+    void localRejectionFallsBackWithoutCountingAgainstTheSource() {
+        String result = guard.call("site", "k", () -> {
+            throw new CompletionException(new RejectedExecutionException("queue full"));
+        }, "fallback");
+        assertThat(result).isEqualTo("fallback");
+        assertThat(circuitBreakers.circuitBreaker("site").getMetrics().getNumberOfFailedCalls()).isZero();
+
+        guard.call("site", "k", () -> {
+            throw new UncheckedIOException(new IOException("connection reset"));
+        }, "fallback");
+        assertThat(circuitBreakers.circuitBreaker("site").getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void guardedCrawlerReportsTheFailureAsCause() {
+        GuardedJobCrawler local = new GuardedJobCrawler(crawler(() -> {
+            throw new CompletionException(new RejectedExecutionException("queue full"));
+        }), guard);
+        assertThatThrownBy(() -> local.crawlByCompanyName("Acme", 8))
+                .isInstanceOf(GuardedJobCrawler.UnavailableException.class)
+                .satisfies(e -> assertThat(SourceGuard.isLocalRejection(e)).isTrue());
+
+        GuardedJobCrawler remote = new GuardedJobCrawler(crawler(() -> {
+            throw new CompletionException(new CrawlFrontier.RobotsUnavailableException(java.net.URI.create("https://x.com/")));
+        }), guard);
+        assertThatThrownBy(() -> remote.crawlByCompanyName("Acme", 8))
+                .isInstanceOf(GuardedJobCrawler.UnavailableException.class)
+                .hasRootCauseInstanceOf(CrawlFrontier.RobotsUnavailableException.class)
+                .satisfies(e -> assertThat(SourceGuard.isLocalRejection(e)).isFalse());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.service;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 测试用抓取前沿：按 application 默认值填充 @Value 字段，主机速率放宽以免测试等待。
+ */
+final class TestFrontiers {
+
+    private TestFrontiers() {
+    }
+
+    static CrawlFrontier create(HttpResponseCache cache) {
+        CrawlFrontier frontier = new CrawlFrontier(cache, new CrawlExecutor(8, 100, 1000));
+        ReflectionTestUtils.setField(frontier, "robotsEnabled", true);
+        ReflectionTestUtils.setField(frontier, "robotsTtlMinutes", 60L);
+        ReflectionTestUtils.setField(frontier, "robotsUnreachableTtlMinutes", 5L);
+        ReflectionTestUtils.setField(frontier, "hostRatePerSecond", 1000.0);
+        ReflectionTestUtils.setField(frontier, "hostBurst", 1000.0);
+        ReflectionTestUtils.setField(frontier, "hostMaxQueue", 100);
+        ReflectionTestUtils.setField(frontier, "hostMaxWaitMs", 5000L);
+        ReflectionTestUtils.setField(frontier, "backgroundReserveAheadMs", 1000L);
+        ReflectionTestUtils.setField(frontier, "maxCrawlDelaySeconds", 30.0);
+        return frontier;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompanyNamesTest {
+
+    @Test
+    void stripsOnlyTheTrailingLegalForm() {
+        assertThat(CompanyNames.normalize("北京控股集团有限公司")).isEqualTo("北京控股集团");
+        assertThat(CompanyNames.normalize("字节跳动有限公司")).isEqualTo("字节跳动");
+        assertThat(CompanyNames.normalize("字节跳动")).isEqualTo("字节跳动");
+        assertThat(CompanyNames.normalize("中国平安保险（集团）股份有限公司")).isEqualTo("中国平安保险");
+        assertThat(CompanyNames.normalize("美团有限责任公司")).isEqualTo("美团");
+        assertThat(CompanyNames.normalize("ＡＢＣ　科技 公司")).isEqualTo("abc科技");
+    }
+
+    @Test
+    void groupHoldingAndShareWordsAreKeptSoSiblingsDoNotCollide() {
+        assertThat(CompanyNames.normalize("华润控股")).isNotEqualTo(CompanyNames.normalize("华润集团"));
+        assertThat(CompanyNames.normalize("华润控股有限公司")).isEqualTo("华润控股");
+        assertThat(CompanyNames.normalize("华润（集团）有限公司")).isEqualTo("华润");
+        assertThat(CompanyNames.normalize("中信股份")).isNotEqualTo(CompanyNames.normalize("中信集团"));
+        assertThat(CompanyNames.normalize("中信集团")).isNotEqualTo(CompanyNames.normalize("中信"));
+        assertThat(CompanyNames.normalize("北京控股集团有限公司")).isNotEqualTo(CompanyNames.normalize("北京"));
+        assertThat(CompanyNames.normalize("HSBC Holdings plc")).isEqualTo("hsbcholdings");
+        assertThat(CompanyNames.normalize("Alibaba Group Holding Limited")).isEqualTo("alibabagroupholding");
+    }
+
+    @Test
+    void englishLegalFormsIncludingMultiWord() {
+        assertThat(CompanyNames.normalize("Acme Co., Ltd.")).isEqualTo("acme");
+        assertThat(CompanyNames.normalize("Acme Company Limited")).isEqualTo("acme");
+        assertThat(CompanyNames.normalize("Acme, Inc.")).isEqualTo("acme");
+        assertThat(CompanyNames.normalize("Acme Pte. Ltd.")).isEqualTo("acme");
+        assertThat(CompanyNames.normalize("Costco Ltd")).isEqualTo("costco");
+    }
+
+    @Test
+    void suffixesOnlyMatchAtWordBoundaries() {
+        assertThat(CompanyNames.normalize("Zinc")).isEqualTo("zinc");
+        assertThat(CompanyNames.normalize("Zinc Inc.")).isEqualTo("zinc");
+        assertThat(CompanyNames.normalize("Zinc Co., Ltd.")).isEqualTo("zinc");
+        assertThat(CompanyNames.normalize("Disco")).isEqualTo("disco");
+        assertThat(CompanyNames.normalize("Costco")).isEqualTo("costco");
+    }
+
+    @Test
+    void neverStripsToEmpty() {
+        assertThat(CompanyNames.normalize("公司")).isEqualTo("公司");
+        assertThat(CompanyNames.normalize("Inc.")).isEqualTo("inc");
+        assertThat(CompanyNames.normalize(null)).isEmpty();
+        assertThat(CompanyNames.normalize("  ")).isEmpty();
+    }
+}
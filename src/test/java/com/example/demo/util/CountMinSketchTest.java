@@ -0,0 +1,67 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CountMinSketchTest {
+
+    @Test
+    void hashCodeCollisionsDoNotShareCounters() {
+        // 四个 key 的 String.hashCode 相同
+        List<String> colliding = List.of("AaAa", "AaBB", "BBAa", "BBBB");
+        assertThat(colliding).extracting(String::hashCode).containsOnly("AaAa".hashCode());
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        sketch.add("AaAa", 100);
+        assertThat(sketch.estimate("AaAa")).isEqualTo(100);
+        assertThat(colliding.subList(1, 4)).allSatisfy(k -> assertThat(sketch.estimate(k)).isZero());
+    }
+
+    @Test
+    void rowsHashIndependently() {
+        int same = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "company-" + i;
+            if ((CountMinSketch.murmur64(key, 1) & 1023) == (CountMinSketch.murmur64(key, 2) & 1023)) same++;
+        }
+        // 两行下标独立时约 1/1024 的 key 落在同一列
+        assertThat(same).isLessThan(40);
+    }
+
+    @Test
+    void neverUnderestimatesAndOverestimateStaysSmall() {
+        CountMinSketch sketch = new CountMinSketch(2048, 4);
+        for (int i = 0; i < 20_000; i++) {
+            sketch.add("cold-" + i, 1);
+        }
+        for (int i = 0; i < 20; i++) {
+            sketch.add("hot-" + i, 500);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThat(sketch.estimate("hot-" + i)).isBetween(500d, 520d);
+        }
+        double over = 0;
+        for (int i = 0; i < 20_000; i++) {
+            double e = sketch.estimate("cold-" + i);
+            assertThat(e).isGreaterThanOrEqualTo(1);
+            over += e - 1;
+        }
+        // 单行期望高估量为 total / width，多行取最小加保守更新后应明显更低
+        assertThat(over / 20_000).isLessThan(sketch.total() / sketch.getWidth() / 2);
+        assertThat(sketch.estimate("never-seen")).isLessThan(5);
+    }
+
+    @Test
+    void decayScalesEstimatesAndDropsTinyCounters() {
+        CountMinSketch sketch = new CountMinSketch(64, 2);
+        sketch.add("a", 8);
+        sketch.add("b", 0.002);
+        sketch.decay(0.25);
+        assertThat(sketch.estimate("a")).isCloseTo(2, within(1e-9));
+        assertThat(sketch.estimate("b")).isZero();
+        assertThat(sketch.total()).isCloseTo(2.0005, within(1e-9));
+    }
+}
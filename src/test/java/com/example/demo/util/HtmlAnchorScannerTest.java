@@ -0,0 +1,178 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HtmlAnchorScannerTest {
+
+    private static final URI BASE = URI.create("https://www.example.com/search/list?q=x");
+
+    private static List<String[]> scan(String html) {
+        List<String[]> out = new ArrayList<>();
+        HtmlAnchorScanner.scan(html, BASE, (href, text) -> out.add(new String[]{href, text}));
+        return out;
+    }
+
+    private static List<String> hrefs(String html) {
+        return scan(html).stream().map(a -> a[0]).toList();
+    }
+
+    @Test
+    void quotedAndUnquotedAttributes() {
+        assertThat(hrefs("""
+                <a href="/a">1</a>
+                <a href='/b'>2</a>
+                <a href=/c>3</a>
+                <a class=x href=/d target=_blank>4</a>
+                <A HREF = "/e" >5</A>
+                <a data-x="href=/no" href="/f">6</a>
+                """)).containsExactly(
+                "https://www.example.com/a",
+                "https://www.example.com/b",
+                "https://www.example.com/c",
+                "https://www.example.com/d",
+                "https://www.example.com/e",
+                "https://www.example.com/f");
+    }
+
+    @Test
+    void quotedValueMayContainGreaterThan() {
+        List<String[]> a = scan("<a title=\"a > b\" data-q='<b>' href=\"/x\">t</a>");
+        assertThat(a).hasSize(1);
+        assertThat(a.get(0)[0]).isEqualTo("https://www.example.com/x");
+        assertThat(a.get(0)[1]).isEqualTo("t");
+    }
+
+    @Test
+    void relativeHrefsResolveAgainstPage() {
+        assertThat(hrefs("<a href=\"detail?id=1\">x</a><a href=\"//cdn.example.org/p\">y</a><a href=\"https://other.com/j\">z</a>"))
+                .containsExactly("https://www.example.com/search/detail?id=1", "https://cdn.example.org/p", "https://other.com/j");
+    }
+
+    @Test
+    void entitiesDecodedInHrefAndText() {
+        List<String[]> a = scan("<a href=\"/j?a=1&amp;b=2&#38;c=3&#x26;d=4\">R&amp;D &lt;校招&gt; &quot;x&quot;&nbsp;&#25307;&#x8058;</a>");
+        assertThat(a).hasSize(1);
+        assertThat(a.get(0)[0]).isEqualTo("https://www.example.com/j?a=1&b=2&c=3&d=4");
+        assertThat(a.get(0)[1]).isEqualTo("R&D <校招> \"x\" 招聘");
+    }
+
+    @Test
+    void unknownOrMalformedEntitiesKeptVerbatim() {
+        assertThat(HtmlAnchorScanner.decodeEntities("a &copy; b & c &#xZZ; &;")).isEqualTo("a &copy; b & c &#xZZ; &;");
+    }
+
+    @Test
+    void commentsAndDeclarationsSkipped() {
+        assertThat(hrefs("""
+                <!DOCTYPE html>
+                <!-- <a href="/commented">x</a> -- still comment -->
+                <!----><a href="/real">y</a>
+                <!-- a > b <a href="/also-commented"> --->
+                <a href="/after">z</a>
+                """)).containsExactly("https://www.example.com/real", "https://www.example.com/after");
+    }
+
+    @Test
+    void scriptAndStyleBodiesSkipped() {
+        assertThat(hrefs("""
+                <script>var s = "<a href='/in-script'>x</a>"; if (a < b) {}</script>
+                <style>a > b { color: red } /* <a href="/in-style"> */</style>
+                <SCRIPT type="text/javascript">document.write("</scr" + "ipt-not>"); "<a href=/x>"</SCRIPT >
+                <a href="/out">ok</a>
+                """)).containsExactly("https://www.example.com/out");
+    }
+
+    @Test
+    void nestedTagsDroppedAndWhitespaceCollapsed() {
+        List<String[]> a = scan("<a href=\"/j\">\n  <span class=\"hl\">后端</span>\n\t<em>开发</em>  <br/>工程师 </a>");
+        assertThat(a).hasSize(1);
+        assertThat(a.get(0)[1]).isEqualTo("后端 开发 工程师");
+    }
+
+    @Test
+    void unclosedAnchorEndsAtNextAnchor() {
+        assertThat(scan("<a href=\"/1\">one<a href=\"/2\">two</a>"))
+                .extracting(x -> x[0] + "|" + x[1])
+                .containsExactly("https://www.example.com/1|one", "https://www.example.com/2|two");
+    }
+
+    @Test
+    void truncatedInputDoesNotThrow() {
+        // 截断的标签、属性值、注释与 script 都应在流结束时安静地停止
+        assertThat(hrefs("<a href=\"/ok\">ok</a><a hr")).containsExactly("https://www.example.com/ok");
+        assertThat(hrefs("<a href=\"/ok\">ok</a><a href=\"/cut")).containsExactly("https://www.example.com/ok", "https://www.example.com/cut");
+        assertThat(hrefs("<a href=/open>text without end")).containsExactly("https://www.example.com/open");
+        assertThat(hrefs("<a href=\"/ok\">ok</a><!-- <a href=\"/x\">")).containsExactly("https://www.example.com/ok");
+        assertThat(hrefs("<a href=\"/ok\">ok</a><script>var a = '<a href=/x>'")).containsExactly("https://www.example.com/ok");
+        assertThat(hrefs("<")).isEmpty();
+        assertThat(hrefs("</")).isEmpty();
+        assertThat(hrefs("<a")).isEmpty();
+    }
+
+    @Test
+    void strayLessThanIsText() {
+        List<String[]> a = scan("<a href=\"/x\">1 < 2 <3</a>");
+        assertThat(a.get(0)[1]).isEqualTo("1 < 2 <3");
+    }
+
+    @Test
+    void nonNavigableHrefsIgnored() {
+        assertThat(hrefs("<a href=\"#top\">t</a><a href=\"javascript:void(0)\">j</a><a href=\"MAILTO:hr@x.com\">m</a><a href=\"tel:1\">p</a><a>none</a><a href=\"\">e</a>"))
+                .isEmpty();
+    }
+
+    @Test
+    void handlerCanStopAndRestIsNotRead() throws IOException {
+        CountingReader in = new CountingReader("<a href=\"/1\">1</a><a href=\"/2\">2</a>" + "x".repeat(100_000));
+        List<String> seen = new ArrayList<>();
+        HtmlAnchorScanner.scan(in, BASE, (href, text) -> {
+            seen.add(href);
+            return false;
+        });
+        assertThat(seen).containsExactly("https://www.example.com/1");
+        assertThat(in.read).isLessThan(20_000);
+    }
+
+    @Test
+    void anchorsSpanningBufferBoundaries() throws IOException {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            html.append("<div class=\"row\"><a href=\"/jobs/").append(i).append("\">职位 ").append(i).append("</a></div>\n");
+        }
+        List<String> seen = new ArrayList<>();
+        // 每次只返回少量字符，迫使标签、属性跨越缓冲区边界
+        Reader slow = new StringReader(html.toString()) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, 7));
+            }
+        };
+        HtmlAnchorScanner.scan(slow, BASE, (href, text) -> seen.add(href + "|" + text));
+        assertThat(seen).hasSize(2000);
+        assertThat(seen.get(1234)).isEqualTo("https://www.example.com/jobs/1234|职位 1234");
+    }
+
+    private static final class CountingReader extends StringReader {
+        int read;
+
+        CountingReader(String s) {
+            super(s);
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = super.read(cbuf, off, len);
+            if (n > 0) read += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+    @Test
+    void outputsInheritedAlongFailureLinks() {
+        // "招聘" 是 "校园招聘" 的后缀，"聘" 是两者的后缀；命中长词时短词也应命中
+        KeywordMatcher m = KeywordMatcher.compile(List.of("校园招聘", "招聘", "聘", "园区"));
+        assertThat(m.matchesAny("2025校园招聘会")).isTrue();
+        assertThat(m.matchesAny("校园区")).isTrue();
+        assertThat(m.matchesAny("应聘")).isTrue();
+        assertThat(m.matchesAny("社会招")).isFalse();
+    }
+
+    @Test
+    void failureAfterPartialMatchResumesCorrectly() {
+        // "aab" 在 "aaab" 中需经失败链回退才能命中
+        KeywordMatcher m = KeywordMatcher.compile(List.of("aab", "abc"));
+        assertThat(m.matchesAny("aaab")).isTrue();
+        assertThat(m.matchesAny("xabc")).isTrue();
+        assertThat(m.matchesAny("abab")).isFalse();
+    }
+
+    @Test
+    void prefixPatternMatchedBeforeLongerOne() {
+        KeywordMatcher m = KeywordMatcher.compile(List.of("join", "joinus"));
+        assertThat(m.matchesAny("/joi")).isFalse();
+        assertThat(m.matchesAny("/join")).isTrue();
+        assertThat(m.matchesAny("/joinus")).isTrue();
+    }
+
+    @Test
+    void caseFoldedOnBothSides() {
+        KeywordMatcher m = KeywordMatcher.compile(List.of("Career", "APPLY", "ｊｏｂ"));
+        assertThat(m.matchesAny("https://X.COM/CAREERS/list")).isTrue();
+        assertThat(m.matchesAny("https://x.com/apply-now")).isTrue();
+        assertThat(m.matchesAny("ＪＯＢ 列表")).isTrue();
+        assertThat(m.matchesAny("carrer")).isFalse();
+    }
+
+    @Test
+    void duplicatesAndBlanksIgnoredKeepingFirstSpelling() {
+        KeywordMatcher m = KeywordMatcher.compile(Arrays.asList("Apply", " apply ", "", "  ", null, "APPLY", "投递"));
+        assertThat(m.keywords()).containsExactly("Apply", "投递");
+        assertThat(m.matchesAny("APPLY")).isTrue();
+        assertThat(m.matchesAny("  ")).isFalse();
+    }
+
+    @Test
+    void cjkAndMixedText() {
+        KeywordMatcher m = KeywordMatcher.compile(List.of("招聘", "投递", "职位", "校招", "社招", "apply", "career", "join"));
+        assertThat(m.matchesAny("腾讯2025届校招：后端开发职位投递入口")).isTrue();
+        assertThat(m.matchesAny("公司简介 | 关于我们")).isFalse();
+        assertThat(m.matchesAny("https://zhaopin.example.com/社招/list")).isTrue();
+    }
+
+    @Test
+    void supplementaryCharactersDoNotBreakMatching() {
+        KeywordMatcher m = KeywordMatcher.compile(List.of("𠮷野家", "招聘"));
+        assertThat(m.matchesAny("𠮷野家门店")).isTrue();
+        assertThat(m.matchesAny("吉野家")).isFalse();
+    }
+
+    @Test
+    void emptyMatcherAndNullText() {
+        KeywordMatcher empty = KeywordMatcher.compile(List.of());
+        assertThat(empty.matchesAny("anything")).isFalse();
+        KeywordMatcher m = KeywordMatcher.compile(List.of("a"));
+        assertThat(m.matchesAny(null)).isFalse();
+        assertThat(m.matchesAny("")).isFalse();
+    }
+
+    @Test
+    void agreesWithNaiveContainsOnRandomInput() {
+        // 小字母表使模式大量重叠，覆盖各种失败链
+        Random rnd = new Random(7);
+        char[] alphabet = {'a', 'B', 'b', '招', '聘'};
+        for (int round = 0; round < 300; round++) {
+            List<String> patterns = new ArrayList<>();
+            int n = 1 + rnd.nextInt(8);
+            for (int i = 0; i < n; i++) patterns.add(random(rnd, alphabet, 1 + rnd.nextInt(4)));
+            KeywordMatcher m = KeywordMatcher.compile(patterns);
+            for (int t = 0; t < 20; t++) {
+                String text = random(rnd, alphabet, rnd.nextInt(30));
+                String lower = text.toLowerCase();
+                boolean expected = m.keywords().stream().anyMatch(k -> lower.contains(k.toLowerCase()));
+                assertThat(m.matchesAny(text)).as("patterns=%s text=%s", patterns, text).isEqualTo(expected);
+            }
+        }
+    }
+
+    private static String random(Random rnd, char[] alphabet, int len) {
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) sb.append(alphabet[rnd.nextInt(alphabet.length)]);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstIsFreeThenReservationsQueueAtTheRate() {
+        TokenBucket bucket = new TokenBucket(1, 2);
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        long third = bucket.reserve(10 * SECOND);
+        long fourth = bucket.reserve(10 * SECOND);
+        assertThat(third).isBetween(SECOND / 2, SECOND);
+        // 预约排队：每个令牌比前一个晚一个间隔
+        assertThat(fourth - third).isBetween(SECOND * 9 / 10, SECOND * 11 / 10);
+    }
+
+    @Test
+    void reservationOverMaxWaitIsRejectedWithoutConsuming() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        assertThat(bucket.reserve(0)).isZero();
+        long before = bucket.peekWaitNanos();
+        assertThat(bucket.reserve(SECOND / 100)).isEqualTo(-1);
+        assertThat(bucket.reserve(SECOND / 100)).isEqualTo(-1);
+        assertThat(bucket.peekWaitNanos()).isLessThanOrEqualTo(before).isGreaterThan(SECOND / 2);
+    }
+
+    @Test
+    void peekDoesNotReserve() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        assertThat(bucket.peekWaitNanos()).isZero();
+        assertThat(bucket.peekWaitNanos()).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.peekWaitNanos()).isBetween(SECOND / 2, SECOND);
+    }
+
+    @Test
+    void setRateValidatesAndClampsBurst() {
+        TokenBucket bucket = new TokenBucket(5, 0);
+        assertThat(bucket.getBurst()).isEqualTo(1);
+        bucket.setRate(1000, 1000);
+        assertThat(bucket.getRatePerSecond()).isEqualTo(1000);
+        assertThatThrownBy(() -> bucket.setRate(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(Double.NaN, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}